@@ -65,10 +65,17 @@ public class ConfigurationKeys {
   // Job configuration file extensions
   public static final String JOB_CONFIG_FILE_EXTENSIONS_KEY = "jobconf.extensions";
   public static final String DEFAULT_JOB_CONFIG_FILE_EXTENSIONS = "pull,job";
+  // Number of threads used to parse job configuration files when loading them
+  public static final String JOB_CONFIG_LOAD_THREADS_KEY = "jobconf.load.threads";
+  public static final int DEFAULT_JOB_CONFIG_LOAD_THREADS = 1;
   // Whether the scheduler should wait for running jobs to complete during shutdown.
   // Note this only applies to jobs scheduled by the built-in Quartz-based job scheduler.
   public static final String SCHEDULER_WAIT_FOR_JOB_COMPLETION_KEY = "scheduler.wait.for.job.completion";
   public static final String DEFAULT_SCHEDULER_WAIT_FOR_JOB_COMPLETION = Boolean.TRUE.toString();
+  // Whether the scheduler runs the tasks of the jobs it launches locally on a single task executor shared by all
+  // the jobs, rather than on a task executor created for each run of a job
+  public static final String SCHEDULER_SHARED_TASK_EXECUTOR_ENABLED_KEY = "scheduler.shared.task.executor.enabled";
+  public static final boolean DEFAULT_SCHEDULER_SHARED_TASK_EXECUTOR_ENABLED = false;
 
 
   /**
@@ -80,6 +87,11 @@ public class ConfigurationKeys {
   public static final int DEFAULT_TASK_EXECUTOR_THREADPOOL_SIZE = 2;
   public static final int DEFAULT_TASK_STATE_TRACKER_THREAD_POOL_CORE_SIZE = 1;
   public static final int DEFAULT_TASK_RETRY_THREAD_POOL_CORE_SIZE = 1;
+  // Maximum number of tasks of a job the task executor runs at the same time. If set, a free thread runs a waiting
+  // task of the job with the fewest running tasks. 0 means no limit, with tasks run in submission order.
+  public static final String TASK_EXECUTOR_MAX_CONCURRENT_TASKS_PER_JOB_KEY =
+      "taskexecutor.max.concurrent.tasks.per.job";
+  public static final int DEFAULT_TASK_EXECUTOR_MAX_CONCURRENT_TASKS_PER_JOB = 0;
 
   /**
    * Common job configuration properties.
@@ -247,6 +259,10 @@ public class ConfigurationKeys {
   public static final String WRITER_PRESERVE_FILE_NAME = WRITER_PREFIX + ".preserve.file.name";
   public static final String WRITER_DEFLATE_LEVEL = WRITER_PREFIX + ".deflate.level";
   public static final String WRITER_CODEC_TYPE = WRITER_PREFIX + ".codec.type";
+  public static final String WRITER_AVRO_COMPRESSION_THREADS = WRITER_PREFIX + ".avro.compression.threads";
+  public static final int DEFAULT_WRITER_AVRO_COMPRESSION_THREADS = 0;
+  public static final String WRITER_AVRO_BLOCK_SIZE = WRITER_PREFIX + ".avro.block.size";
+  public static final int DEFAULT_WRITER_AVRO_BLOCK_SIZE = 64000;
   public static final String WRITER_EAGER_INITIALIZATION_KEY = WRITER_PREFIX + ".eager.initialization";
   public static final String WRITER_PARTITIONER_CLASS = WRITER_PREFIX + ".partitioner.class";
   public static final boolean DEFAULT_WRITER_EAGER_INITIALIZATION = false;
@@ -342,6 +358,17 @@ public class ConfigurationKeys {
   public static final String SOURCE_QUERYBASED_IS_HOURLY_EXTRACT = "source.querybased.hourly.extract";
   public static final String SOURCE_QUERYBASED_EXTRACT_TYPE = "source.querybased.extract.type";
   public static final String SOURCE_QUERYBASED_PARTITION_INTERVAL = "source.querybased.partition.interval";
+  public static final String SOURCE_QUERYBASED_PARTITION_ESTIMATE_SIZE = "source.querybased.partition.estimate.size";
+  public static final boolean DEFAULT_SOURCE_QUERYBASED_PARTITION_ESTIMATE_SIZE = false;
+  public static final String SOURCE_QUERYBASED_PARTITION_SAMPLES_PER_PARTITION =
+      "source.querybased.partition.samples.per.partition";
+  public static final int DEFAULT_SOURCE_QUERYBASED_PARTITION_SAMPLES_PER_PARTITION = 4;
+  // Statistics of a partition balanced by its estimated size, recorded in its work unit
+  public static final String SOURCE_QUERYBASED_PARTITION_ESTIMATED_RECORD_COUNT =
+      "source.querybased.partition.estimated.record.count";
+  public static final String SOURCE_QUERYBASED_PARTITION_SAMPLED_RANGES = "source.querybased.partition.sampled.ranges";
+  public static final String SOURCE_QUERYBASED_TABLE_ESTIMATED_RECORD_COUNT =
+      "source.querybased.table.estimated.record.count";
   public static final String SOURCE_QUERYBASED_START_VALUE = "source.querybased.start.value";
   public static final String SOURCE_QUERYBASED_END_VALUE = "source.querybased.end.value";
   public static final String SOURCE_QUERYBASED_APPEND_MAX_WATERMARK_LIMIT =
@@ -400,6 +427,13 @@ public class ConfigurationKeys {
   public static final String SOURCE_CONN_REST_URL = "source.conn.rest.url";
   public static final String SOURCE_CONN_USE_PROXY_URL = "source.conn.use.proxy.url";
   public static final String SOURCE_CONN_USE_PROXY_PORT = "source.conn.use.proxy.port";
+  // Number of selector threads, buffer size and maximum number of pooled direct buffers of the tunnel through the proxy
+  public static final String SOURCE_CONN_TUNNEL_SELECTOR_THREADS = "source.conn.tunnel.selector.threads";
+  public static final int DEFAULT_SOURCE_CONN_TUNNEL_SELECTOR_THREADS = 1;
+  public static final String SOURCE_CONN_TUNNEL_BUFFER_SIZE = "source.conn.tunnel.buffer.size";
+  public static final int DEFAULT_SOURCE_CONN_TUNNEL_BUFFER_SIZE = 1000000;
+  public static final String SOURCE_CONN_TUNNEL_MAX_POOLED_BUFFERS = "source.conn.tunnel.max.pooled.buffers";
+  public static final int DEFAULT_SOURCE_CONN_TUNNEL_MAX_POOLED_BUFFERS = 0;
   public static final String SOURCE_CONN_DRIVER = "source.conn.driver";
   public static final String SOURCE_CONN_PORT = "source.conn.port";
   public static final int SOURCE_CONN_DEFAULT_PORT = 22;
@@ -577,6 +611,21 @@ public class ConfigurationKeys {
   public static final String DEFAULT_JOB_HISTORY_STORE_USER = "gobblin";
   public static final String JOB_HISTORY_STORE_PASSWORD_KEY = "job.history.store.password";
   public static final String DEFAULT_JOB_HISTORY_STORE_PASSWORD = "gobblin";
+  // If job execution information is written to the job history store asynchronously
+  public static final String JOB_HISTORY_STORE_WRITE_BEHIND_ENABLED_KEY = "job.history.store.write.behind.enabled";
+  public static final boolean DEFAULT_JOB_HISTORY_STORE_WRITE_BEHIND_ENABLED = false;
+  // Maximum number of jobs with job execution information waiting to be written asynchronously
+  public static final String JOB_HISTORY_STORE_WRITE_BEHIND_MAX_PENDING_JOBS_KEY =
+      "job.history.store.write.behind.max.pending.jobs";
+  public static final int DEFAULT_JOB_HISTORY_STORE_WRITE_BEHIND_MAX_PENDING_JOBS = 100;
+  // How long a write waits for room in the queue before the job execution information is dropped
+  public static final String JOB_HISTORY_STORE_WRITE_BEHIND_PUT_TIMEOUT_MILLIS_KEY =
+      "job.history.store.write.behind.put.timeout.millis";
+  public static final long DEFAULT_JOB_HISTORY_STORE_WRITE_BEHIND_PUT_TIMEOUT_MILLIS = 1000;
+  // How long closing the job history store waits for pending job execution information to be written
+  public static final String JOB_HISTORY_STORE_WRITE_BEHIND_CLOSE_TIMEOUT_SECONDS_KEY =
+      "job.history.store.write.behind.close.timeout.seconds";
+  public static final long DEFAULT_JOB_HISTORY_STORE_WRITE_BEHIND_CLOSE_TIMEOUT_SECONDS = 60;
 
   /**
    * Password encryption and decryption properties.
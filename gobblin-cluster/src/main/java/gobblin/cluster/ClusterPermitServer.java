@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+package gobblin.cluster;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
+import com.google.common.util.concurrent.AbstractIdleService;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import gobblin.annotation.Alpha;
+import gobblin.util.ExecutorsUtils;
+import gobblin.util.limiter.HttpPermitServerClient;
+import gobblin.util.limiter.PermitAllocation;
+import gobblin.util.limiter.PermitRequest;
+import gobblin.util.limiter.PermitServer;
+
+
+/**
+ * Serves a {@link PermitServer} over HTTP, so that the {@link gobblin.util.limiter.DistributedLimiter}s of all the
+ * tasks of a Gobblin cluster share the same rate limits.
+ *
+ * <p>
+ *   This service runs in the {@link GobblinClusterManager} if
+ *   {@link GobblinClusterConfigurationKeys#PERMIT_SERVER_ENABLED_KEY} is set. Tasks reach it through a
+ *   {@link HttpPermitServerClient}. It uses the HTTP server of the JDK, as requests are small and the cluster manager
+ *   does not otherwise depend on a web server.
+ * </p>
+ *
+ * <p>
+ *   Requests are not authenticated, so any client that can reach the server can take or return permits. The cluster
+ *   manager therefore binds it to the address of its host name only, which should be reachable from the cluster
+ *   but not from outside of it.
+ * </p>
+ */
+@Alpha
+public class ClusterPermitServer extends AbstractIdleService {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ClusterPermitServer.class);
+
+  private static final Gson GSON = new Gson();
+  private static final int HANDLER_THREADS = 4;
+
+  private final PermitServer permitServer;
+  private final HttpServer server;
+  private final ExecutorService executor;
+
+  /**
+   * @param permitServer the {@link PermitServer} to serve
+   * @param port the port to listen on on all addresses, or 0 for an ephemeral port
+   */
+  public ClusterPermitServer(PermitServer permitServer, int port) throws IOException {
+    this(permitServer, new InetSocketAddress(port));
+  }
+
+  /**
+   * Create a server bound to the given address, so that the port it listens on is known before it is started.
+   *
+   * @param permitServer the {@link PermitServer} to serve
+   * @param address the address to listen on, with port 0 for an ephemeral port
+   */
+  public ClusterPermitServer(PermitServer permitServer, InetSocketAddress address) throws IOException {
+    this.permitServer = permitServer;
+    this.server = HttpServer.create(address, 0);
+    this.executor = Executors.newFixedThreadPool(HANDLER_THREADS,
+        ExecutorsUtils.newDaemonThreadFactory(Optional.of(LOGGER), Optional.of("ClusterPermitServer-%d")));
+    this.server.createContext(HttpPermitServerClient.REQUEST_PERMITS_PATH, new HttpHandler() {
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+        try {
+          PermitAllocation allocation = ClusterPermitServer.this.permitServer.requestPermits(readRequest(exchange));
+          exchange.getResponseHeaders().set("Content-Type", "application/json");
+          sendResponse(exchange, HttpURLConnection.HTTP_OK, GSON.toJson(allocation));
+        } catch (JsonParseException | IllegalArgumentException e) {
+          sendResponse(exchange, HttpURLConnection.HTTP_BAD_REQUEST, String.valueOf(e.getMessage()));
+        }
+      }
+    });
+    this.server.createContext(HttpPermitServerClient.RETURN_PERMITS_PATH, new HttpHandler() {
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+        try {
+          PermitRequest permitRequest = readRequest(exchange);
+          ClusterPermitServer.this.permitServer
+              .returnPermits(permitRequest.getResource(), permitRequest.getPermits());
+          sendResponse(exchange, HttpURLConnection.HTTP_OK, "");
+        } catch (JsonParseException | IllegalArgumentException e) {
+          sendResponse(exchange, HttpURLConnection.HTTP_BAD_REQUEST, String.valueOf(e.getMessage()));
+        }
+      }
+    });
+    this.server.setExecutor(this.executor);
+  }
+
+  @Override
+  protected void startUp() throws Exception {
+    LOGGER.info("Starting the permit server on " + this.server.getAddress());
+    this.server.start();
+  }
+
+  @Override
+  protected void shutDown() throws Exception {
+    this.server.stop(0);
+    ExecutorsUtils.shutdownExecutorService(this.executor, Optional.of(LOGGER));
+  }
+
+  /**
+   * Get the port the server listens on, which is an ephemeral port if it was created with port 0.
+   */
+  public int getLocalPort() {
+    return this.server.getAddress().getPort();
+  }
+  private static PermitRequest readRequest(HttpExchange exchange) throws IOException {
+    if (!"POST".equals(exchange.getRequestMethod())) {
+      throw new IllegalArgumentException("Unsupported method " + exchange.getRequestMethod());
+    }
+    try (InputStreamReader reader = new InputStreamReader(exchange.getRequestBody(), Charsets.UTF_8)) {
+      PermitRequest permitRequest = GSON.fromJson(reader, PermitRequest.class);
+      if (permitRequest == null) {
+        throw new IllegalArgumentException("Missing permit request");
+      }
+      return permitRequest;
+    }
+  }
+
+  private static void sendResponse(HttpExchange exchange, int status, String body) throws IOException {
+    byte[] bytes = body.getBytes(Charsets.UTF_8);
+    exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+    try (OutputStream outputStream = exchange.getResponseBody()) {
+      outputStream.write(bytes);
+    }
+  }
+}
@@ -45,6 +45,71 @@ public class GobblinClusterConfigurationKeys {
   public static final String OUTPUT_TASK_STATE_DIR_NAME = "_taskstates";
   public static final String TAR_GZ_FILE_SUFFIX = ".tar.gz";
 
+  // Gobblin task runner configuration properties.
+  /**
+   * How long a deserialized {@link gobblin.runtime.JobState} is kept in the {@link JobStateCache} of a container
+   * after the last task of the job in that container finished.
+   */
+  public static final String JOB_STATE_CACHE_IDLE_RETENTION_SECONDS_KEY =
+      GOBBLIN_CLUSTER_PREFIX + "job.state.cache.idle.retention.seconds";
+  public static final long DEFAULT_JOB_STATE_CACHE_IDLE_RETENTION_SECONDS = 300;
+  /**
+   * Number of threads used to read work unit files of tasks assigned to a container before the tasks start.
+   * 0 disables prefetching.
+   */
+  public static final String WORK_UNIT_PREFETCH_THREADS_KEY = GOBBLIN_CLUSTER_PREFIX + "work.unit.prefetch.threads";
+  public static final int DEFAULT_WORK_UNIT_PREFETCH_THREADS = 4;
+
+  // Task state reporting configuration properties.
+  /**
+   * Whether containers push {@link gobblin.runtime.TaskState}s of completed tasks to the job launcher through Helix
+   * messages, in addition to writing them to files.
+   */
+  public static final String TASK_STATE_REPORTING_ENABLED_KEY = GOBBLIN_CLUSTER_PREFIX + "task.state.reporting.enabled";
+  public static final boolean DEFAULT_TASK_STATE_REPORTING_ENABLED = false;
+  /**
+   * How long a container batches {@link gobblin.runtime.TaskState}s before sending them.
+   */
+  public static final String TASK_STATE_REPORTING_INTERVAL_MILLIS_KEY =
+      GOBBLIN_CLUSTER_PREFIX + "task.state.reporting.interval.millis";
+  public static final long DEFAULT_TASK_STATE_REPORTING_INTERVAL_MILLIS = 500;
+  /**
+   * Maximum size of the serialized {@link gobblin.runtime.TaskState}s in a single Helix message. Larger
+   * {@link gobblin.runtime.TaskState}s are only collected from files.
+   */
+  public static final String TASK_STATE_REPORTING_MAX_MESSAGE_BYTES_KEY =
+      GOBBLIN_CLUSTER_PREFIX + "task.state.reporting.max.message.bytes";
+  public static final int DEFAULT_TASK_STATE_REPORTING_MAX_MESSAGE_BYTES = 512 * 1024;
+  /**
+   * Interval in seconds between two runs of the task state file collector of the job launcher when task state
+   * reporting is enabled. The files are always collected when the job completes.
+   */
+  public static final String TASK_STATE_REPORTING_FALLBACK_COLLECTOR_INTERVAL_SECONDS_KEY =
+      GOBBLIN_CLUSTER_PREFIX + "task.state.reporting.fallback.collector.interval.seconds";
+  public static final int DEFAULT_TASK_STATE_REPORTING_FALLBACK_COLLECTOR_INTERVAL_SECONDS = 300;
+
+  // Permit server configuration properties.
+  /**
+   * Whether the cluster manager runs a {@link ClusterPermitServer}, so that the tasks of the jobs it runs can use
+   * {@link gobblin.util.limiter.DistributedLimiter}s sharing the same rate limits across containers.
+   */
+  public static final String PERMIT_SERVER_ENABLED_KEY = GOBBLIN_CLUSTER_PREFIX + "permit.server.enabled";
+  public static final boolean DEFAULT_PERMIT_SERVER_ENABLED = false;
+  /**
+   * The port the {@link ClusterPermitServer} listens on, or 0 for an ephemeral port.
+   */
+  public static final String PERMIT_SERVER_PORT_KEY = GOBBLIN_CLUSTER_PREFIX + "permit.server.port";
+  public static final int DEFAULT_PERMIT_SERVER_PORT = 8090;
+  /**
+   * How long permits granted by the {@link ClusterPermitServer} can be used for.
+   */
+  public static final String PERMIT_SERVER_LEASE_MILLIS_KEY = GOBBLIN_CLUSTER_PREFIX + "permit.server.lease.millis";
+  /**
+   * The maximum burst of permits of a resource, as a duration at the rate of the resource.
+   */
+  public static final String PERMIT_SERVER_MAX_BURST_MILLIS_KEY =
+      GOBBLIN_CLUSTER_PREFIX + "permit.server.max.burst.millis";
+
   // Other misc configuration properties.
   public static final String TASK_SUCCESS_OPTIONAL_KEY = "TASK_SUCCESS_OPTIONAL";
   public static final String GOBBLIN_CLUSTER_LOG4J_CONFIGURATION_FILE = "log4j-cluster.properties";
@@ -13,6 +13,7 @@
 package gobblin.cluster;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.URI;
 import java.util.List;
 import java.util.Properties;
@@ -59,15 +60,19 @@ import com.google.common.util.concurrent.MoreExecutors;
 
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigValueFactory;
 
 import gobblin.annotation.Alpha;
 import gobblin.cluster.event.ClusterManagerShutdownRequest;
+import gobblin.cluster.event.TaskStateReportEvent;
 import gobblin.configuration.ConfigurationKeys;
 import gobblin.metrics.Tag;
 import gobblin.runtime.app.ApplicationException;
 import gobblin.runtime.app.ApplicationLauncher;
 import gobblin.runtime.app.ServiceBasedAppLauncher;
 import gobblin.util.ConfigUtils;
+import gobblin.util.limiter.DefaultLimiterFactory;
+import gobblin.util.limiter.TokenBucketPermitServer;
 import gobblin.util.logs.Log4jConfigurationHelper;
 
 
@@ -133,8 +138,21 @@ public class GobblinClusterManager implements ApplicationLauncher {
     this.fs = buildFileSystem(config);
     this.appWorkDir = GobblinClusterUtils.getAppWorkDirPath(this.fs, clusterName, applicationId);
 
-    this.applicationLauncher
-        .addService(buildGobblinHelixJobScheduler(config, this.appWorkDir, getMetadataTags(clusterName, applicationId)));
+    Config jobConfig = config;
+    if (ConfigUtils.getBoolean(config, GobblinClusterConfigurationKeys.PERMIT_SERVER_ENABLED_KEY,
+        GobblinClusterConfigurationKeys.DEFAULT_PERMIT_SERVER_ENABLED)) {
+      String hostname = GobblinClusterUtils.getHostname();
+      ClusterPermitServer permitServer = buildClusterPermitServer(config, hostname);
+      this.applicationLauncher.addService(permitServer);
+      // Point the distributed limiters of the jobs to this permit server unless configured otherwise
+      if (!config.hasPath(DefaultLimiterFactory.EXTRACT_LIMIT_DISTRIBUTED_SERVER_URI_KEY)) {
+        jobConfig = config.withValue(DefaultLimiterFactory.EXTRACT_LIMIT_DISTRIBUTED_SERVER_URI_KEY, ConfigValueFactory
+            .fromAnyRef(String.format("http://%s:%d", hostname, permitServer.getLocalPort())));
+      }
+    }
+
+    this.applicationLauncher.addService(
+        buildGobblinHelixJobScheduler(jobConfig, this.appWorkDir, getMetadataTags(clusterName, applicationId)));
     this.applicationLauncher.addService(buildJobConfigurationManager(config));
   }
 
@@ -213,6 +231,22 @@ public class GobblinClusterManager implements ApplicationLauncher {
     return new GobblinHelixJobScheduler(properties, this.helixManager, this.eventBus, appWorkDir, metadataTags);
   }
 
+  /**
+   * Build the {@link ClusterPermitServer} for the Application Master.
+   */
+  private ClusterPermitServer buildClusterPermitServer(Config config, String hostname) throws IOException {
+    int port = ConfigUtils.getInt(config, GobblinClusterConfigurationKeys.PERMIT_SERVER_PORT_KEY,
+        GobblinClusterConfigurationKeys.DEFAULT_PERMIT_SERVER_PORT);
+    long leaseMillis = ConfigUtils.getLong(config, GobblinClusterConfigurationKeys.PERMIT_SERVER_LEASE_MILLIS_KEY,
+        TokenBucketPermitServer.DEFAULT_LEASE_MILLIS);
+    long maxBurstMillis = ConfigUtils.getLong(config, GobblinClusterConfigurationKeys.PERMIT_SERVER_MAX_BURST_MILLIS_KEY,
+        TokenBucketPermitServer.DEFAULT_MAX_BURST_MILLIS);
+    // The server does not authenticate requests, so it only listens on the address the tasks reach it at
+    return new ClusterPermitServer(new TokenBucketPermitServer(leaseMillis, maxBurstMillis),
+        new InetSocketAddress(hostname, port));
+  }
+
+
   /**
    * Build the {@link JobConfigurationManager} for the Application Master.
    */
@@ -259,6 +293,31 @@ public class GobblinClusterManager implements ApplicationLauncher {
     return new ControllerUserDefinedMessageHandlerFactory();
   }
 
+  /**
+   * Handle a Helix message of sub type {@link HelixMessageSubTypes#TASK_STATE_REPORT} by posting a
+   * {@link TaskStateReportEvent} with the reported {@link gobblin.runtime.TaskState}s to the {@link EventBus}.
+   * {@link MessageHandler}s returned by {@link #getUserDefinedMessageHandlerFactory()} should delegate such
+   * messages to this method.
+   */
+  protected HelixTaskResult handleTaskStateReport(Message message) {
+    HelixTaskResult result = new HelixTaskResult();
+    try {
+      this.eventBus.post(TaskStateReporter.readTaskStateReport(message));
+      result.setSuccess(true);
+    } catch (IOException ioe) {
+      LOGGER.error("Failed to read the task state report " + message.getMsgId(), ioe);
+      result.setSuccess(false);
+    }
+    return result;
+  }
+
+  /**
+   * Get the {@link HelixManager} of the controller.
+   */
+  protected HelixManager getHelixManager() {
+    return this.helixManager;
+  }
+
   @VisibleForTesting
   void disconnectHelixManager() {
     if (isHelixManagerConnected()) {
@@ -396,7 +455,7 @@ public class GobblinClusterManager implements ApplicationLauncher {
    * A custom {@link MessageHandlerFactory} for {@link ControllerUserDefinedMessageHandler}s that
    * handle messages of type {@link org.apache.helix.model.Message.MessageType#USER_DEFINE_MSG}.
    */
-  private static class ControllerUserDefinedMessageHandlerFactory implements MessageHandlerFactory {
+  private class ControllerUserDefinedMessageHandlerFactory implements MessageHandlerFactory {
 
     @Override
     public MessageHandler createHandler(Message message, NotificationContext context) {
@@ -417,12 +476,12 @@ public class GobblinClusterManager implements ApplicationLauncher {
      * A custom {@link MessageHandler} for handling user-defined messages to the controller.
      *
      * <p>
-     *   Currently does not handle any user-defined messages. If this class is passed a custom message, it will simply
-     *   print out a warning and return successfully. Sub-classes of {@link GobblinClusterManager} should override
-     *   {@link #getUserDefinedMessageHandlerFactory}.
+     *   Currently only handles messages of sub type {@link HelixMessageSubTypes#TASK_STATE_REPORT}. If this class is
+     *   passed any other custom message, it will simply print out a warning and return successfully. Sub-classes of
+     *   {@link GobblinClusterManager} should override {@link #getUserDefinedMessageHandlerFactory}.
      * </p>
      */
-    private static class ControllerUserDefinedMessageHandler extends MessageHandler {
+    private class ControllerUserDefinedMessageHandler extends MessageHandler {
 
       public ControllerUserDefinedMessageHandler(Message message, NotificationContext context) {
         super(message, context);
@@ -430,6 +489,10 @@ public class GobblinClusterManager implements ApplicationLauncher {
 
       @Override
       public HelixTaskResult handleMessage() throws InterruptedException {
+        if (this._message.getMsgSubType().equalsIgnoreCase(HelixMessageSubTypes.TASK_STATE_REPORT.toString())) {
+          return handleTaskStateReport(this._message);
+        }
+
         LOGGER.warn(String
             .format("No handling setup for %s message of subtype: %s", Message.MessageType.USER_DEFINE_MSG.toString(),
                 this._message.getMsgSubType()));
@@ -23,6 +23,9 @@ import org.quartz.JobDataMap;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 
+import com.google.common.base.Optional;
+import com.google.common.eventbus.EventBus;
+
 import gobblin.annotation.Alpha;
 import gobblin.metrics.Tag;
 import gobblin.runtime.JobLauncher;
@@ -50,9 +53,11 @@ public class GobblinHelixJob implements Job {
     Path appWorkDir = (Path) dataMap.get(GobblinHelixJobScheduler.APPLICATION_WORK_DIR_KEY);
     @SuppressWarnings("unchecked")
     List<? extends Tag<?>> eventMetadata = (List<? extends Tag<?>>) dataMap.get(GobblinHelixJobScheduler.METADATA_TAGS);
+    EventBus eventBus = (EventBus) dataMap.get(GobblinHelixJobScheduler.EVENT_BUS_KEY);
 
     try {
-      JobLauncher jobLauncher = new GobblinHelixJobLauncher(jobProps, helixManager, appWorkDir, eventMetadata);
+      JobLauncher jobLauncher = new GobblinHelixJobLauncher(jobProps, helixManager, appWorkDir, eventMetadata,
+          Optional.fromNullable(eventBus));
       jobScheduler.runJob(jobProps, jobListener, jobLauncher);
     } catch (Throwable t) {
       throw new JobExecutionException(t);
@@ -17,6 +17,7 @@ import java.net.URI;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
@@ -31,10 +32,17 @@ import org.apache.helix.task.WorkflowContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Timer;
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
 
 import gobblin.annotation.Alpha;
+import gobblin.cluster.event.TaskStateReportEvent;
 import gobblin.configuration.ConfigurationKeys;
+import gobblin.instrumented.Instrumented;
 import gobblin.metrics.Tag;
 import gobblin.metrics.event.TimingEvent;
 import gobblin.rest.LauncherTypeEnum;
@@ -67,6 +75,14 @@ import gobblin.util.SerializationUtils;
  * </p>
  *
  * <p>
+ *   If an {@link EventBus} of the {@link GobblinClusterManager} is given, this class also collects the
+ *   {@link TaskState}s of completed tasks reported by the containers through {@link TaskStateReportEvent}s, so that
+ *   they need not be polled from the file system. In that case, the file system is only polled every
+ *   {@link GobblinClusterConfigurationKeys#TASK_STATE_REPORTING_FALLBACK_COLLECTOR_INTERVAL_SECONDS_KEY} for
+ *   {@link TaskState}s whose reports were lost, and once more when the job completes.
+ * </p>
+ *
+ * <p>
  *   This class runs in the {@link GobblinClusterManager}. The actual task execution happens in the in the
  *   {@link GobblinTaskRunner}.
  * </p>
@@ -80,6 +96,8 @@ public class GobblinHelixJobLauncher extends AbstractJobLauncher {
 
   private static final String WORK_UNIT_FILE_EXTENSION = ".wu";
 
+  static final String TASK_STATE_REPORT_DELIVERY_TIMER = "gobblin.cluster.task.state.report.delivery";
+
   private final HelixManager helixManager;
   private final TaskDriver helixTaskDriver;
   private final String helixQueueName;
@@ -95,12 +113,25 @@ public class GobblinHelixJobLauncher extends AbstractJobLauncher {
 
   private final TaskStateCollectorService taskStateCollectorService;
 
+  private final Optional<EventBus> clusterEventBus;
+  private final Optional<Timer> taskStateReportDeliveryTimer;
+
   private volatile boolean jobSubmitted = false;
   private volatile boolean jobComplete = false;
 
   public GobblinHelixJobLauncher(Properties jobProps, HelixManager helixManager, Path appWorkDir,
       List<? extends Tag<?>> metadataTags)
       throws Exception {
+    this(jobProps, helixManager, appWorkDir, metadataTags, Optional.<EventBus> absent());
+  }
+
+  /**
+   * @param clusterEventBus an optional {@link EventBus} of the {@link GobblinClusterManager} on which
+   *                        {@link TaskStateReportEvent}s are posted
+   */
+  public GobblinHelixJobLauncher(Properties jobProps, HelixManager helixManager, Path appWorkDir,
+      List<? extends Tag<?>> metadataTags, Optional<EventBus> clusterEventBus)
+      throws Exception {
     super(jobProps, metadataTags);
 
     this.helixManager = helixManager;
@@ -122,8 +153,24 @@ public class GobblinHelixJobLauncher extends AbstractJobLauncher {
     URI fsUri = URI.create(jobProps.getProperty(ConfigurationKeys.FS_URI_KEY, ConfigurationKeys.LOCAL_FS_URI));
     this.fs = FileSystem.get(fsUri, new Configuration());
 
-    this.taskStateCollectorService = new TaskStateCollectorService(jobProps, this.jobContext.getJobState(),
+    this.clusterEventBus = clusterEventBus;
+    Properties collectorProps = jobProps;
+    if (this.clusterEventBus.isPresent() && Boolean.parseBoolean(
+        jobProps.getProperty(GobblinClusterConfigurationKeys.TASK_STATE_REPORTING_ENABLED_KEY,
+            Boolean.toString(GobblinClusterConfigurationKeys.DEFAULT_TASK_STATE_REPORTING_ENABLED)))) {
+      collectorProps = new Properties();
+      collectorProps.putAll(jobProps);
+      collectorProps.setProperty(ConfigurationKeys.TASK_STATE_COLLECTOR_INTERVAL_SECONDS, jobProps.getProperty(
+          GobblinClusterConfigurationKeys.TASK_STATE_REPORTING_FALLBACK_COLLECTOR_INTERVAL_SECONDS_KEY,
+          Integer.toString(
+              GobblinClusterConfigurationKeys.DEFAULT_TASK_STATE_REPORTING_FALLBACK_COLLECTOR_INTERVAL_SECONDS)));
+    }
+    this.taskStateCollectorService = new TaskStateCollectorService(collectorProps, this.jobContext.getJobState(),
         this.eventBus, this.fs, outputTaskStateDir);
+
+    this.taskStateReportDeliveryTimer = this.runtimeMetricContext.isPresent()
+        ? Optional.of(this.runtimeMetricContext.get().timer(TASK_STATE_REPORT_DELIVERY_TIMER))
+        : Optional.<Timer> absent();
   }
 
   @Override
@@ -140,6 +187,9 @@ public class GobblinHelixJobLauncher extends AbstractJobLauncher {
     try {
       // Start the output TaskState collector service
       this.taskStateCollectorService.startAsync().awaitRunning();
+      if (this.clusterEventBus.isPresent()) {
+        this.clusterEventBus.get().register(this);
+      }
 
       TimingEvent jobSubmissionTimer =
           this.eventSubmitter.getTimingEvent(TimingEvent.RunJobTimings.HELIX_JOB_SUBMISSION);
@@ -154,12 +204,34 @@ public class GobblinHelixJobLauncher extends AbstractJobLauncher {
       LOGGER.info(String.format("Job %s completed", this.jobContext.getJobId()));
       this.jobComplete = true;
     } finally {
+      if (this.clusterEventBus.isPresent()) {
+        this.clusterEventBus.get().unregister(this);
+      }
       // The last iteration of output TaskState collecting will run when the collector service gets stopped
       this.taskStateCollectorService.stopAsync().awaitTerminated();
       deletePersistedWorkUnitsForJob();
     }
   }
 
+  /**
+   * Collect the reported {@link TaskState}s of completed tasks of this job.
+   */
+  @Subscribe
+  public void handleTaskStateReport(TaskStateReportEvent taskStateReport) {
+    List<TaskState> taskStates = Lists.newArrayList();
+    for (TaskState taskState : taskStateReport.getTaskStates()) {
+      if (this.jobContext.getJobId().equals(taskState.getJobId())) {
+        taskStates.add(taskState);
+      }
+    }
+
+    if (!taskStates.isEmpty()) {
+      Instrumented.updateTimer(this.taskStateReportDeliveryTimer,
+          System.currentTimeMillis() - taskStateReport.getReportTime(), TimeUnit.MILLISECONDS);
+      this.taskStateCollectorService.collectReportedTaskStates(taskStates);
+    }
+  }
+
   @Override
   protected void executeCancellation() {
     if (this.jobSubmitted) {
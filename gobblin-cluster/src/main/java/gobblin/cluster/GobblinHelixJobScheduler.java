@@ -22,6 +22,7 @@ import org.apache.helix.HelixManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Optional;
 import com.google.common.collect.Maps;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
@@ -50,6 +51,7 @@ public class GobblinHelixJobScheduler extends JobScheduler {
   static final String HELIX_MANAGER_KEY = "helixManager";
   static final String APPLICATION_WORK_DIR_KEY = "applicationWorkDir";
   static final String METADATA_TAGS = "metadataTags";
+  static final String EVENT_BUS_KEY = "eventBus";
 
   private final Properties properties;
   private final HelixManager helixManager;
@@ -80,6 +82,7 @@ public class GobblinHelixJobScheduler extends JobScheduler {
     additionalJobDataMap.put(HELIX_MANAGER_KEY, this.helixManager);
     additionalJobDataMap.put(APPLICATION_WORK_DIR_KEY, this.appWorkDir);
     additionalJobDataMap.put(METADATA_TAGS, this.metadataTags);
+    additionalJobDataMap.put(EVENT_BUS_KEY, this.eventBus);
 
     try {
       scheduleJob(jobProps, jobListener, additionalJobDataMap, GobblinHelixJob.class);
@@ -100,7 +103,8 @@ public class GobblinHelixJobScheduler extends JobScheduler {
 
   private GobblinHelixJobLauncher buildGobblinHelixJobLauncher(Properties jobProps)
       throws Exception {
-    return new GobblinHelixJobLauncher(jobProps, this.helixManager, this.appWorkDir, this.metadataTags);
+    return new GobblinHelixJobLauncher(jobProps, this.helixManager, this.appWorkDir, this.metadataTags,
+        Optional.of(this.eventBus));
   }
 
   @Subscribe
@@ -14,10 +14,19 @@ package gobblin.cluster;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 
+import org.apache.helix.HelixException;
+import org.apache.helix.HelixManager;
+import org.apache.helix.model.InstanceConfig;
 import org.apache.helix.task.Task;
 import org.apache.helix.task.TaskCallbackContext;
 import org.apache.helix.task.TaskConfig;
@@ -26,12 +35,14 @@ import org.apache.helix.task.TaskResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Timer;
 import com.google.common.base.Optional;
 import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
 
 import gobblin.annotation.Alpha;
 import gobblin.configuration.ConfigurationKeys;
+import gobblin.instrumented.Instrumented;
 import gobblin.metastore.FsStateStore;
 import gobblin.metastore.StateStore;
 import gobblin.runtime.AbstractJobLauncher;
@@ -61,6 +72,20 @@ import gobblin.util.SerializationUtils;
  *   a file that will be collected by the {@link GobblinHelixJobLauncher} later upon completion of the job.
  * </p>
  *
+ * <p>
+ *   The {@link JobState} is obtained from the {@link JobStateCache} of the container, so that it is read only once
+ *   for all tasks of the job running in the container, and released once when the task completes or is cancelled,
+ *   whichever comes first. If a work unit prefetcher is given, the {@link WorkUnit} is read
+ *   by the prefetcher as soon as the task is created, so that it is usually available when the task starts running.
+ *   If a {@link TaskStateReporter} is given, the {@link TaskState}s are also pushed to the job launcher.
+ * </p>
+ *
+ * <p>
+ *   A {@link GobblinHelixTask} assigned to a disabled Helix instance, e.g., one being drained before its container is
+ *   released, fails without running, as Helix still assigns tasks to disabled instances. Helix then retries it on
+ *   another instance, which counts as one of its attempts.
+ * </p>
+ *
  * @author Yinan Li
  */
 @Alpha
@@ -68,54 +93,98 @@ public class GobblinHelixTask implements Task {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(GobblinHelixTask.class);
 
+  static final String TASK_START_LATENCY_TIMER = "gobblin.cluster.task.start.latency";
+
   @SuppressWarnings({ "unused", "FieldCanBeLocal" })
   private final Optional<JobMetrics> jobMetrics;
   private final TaskExecutor taskExecutor;
   private final TaskStateTracker taskStateTracker;
 
   private final TaskConfig taskConfig;
-  // An empty JobState instance that will be filled with values read from the serialized JobState
-  private final JobState jobState = new JobState();
+  private final JobState jobState;
   private final String jobId;
   private final String participantId;
+  private final HelixManager helixManager;
 
   private final FileSystem fs;
   private final StateStore<TaskState> taskStateStore;
 
+  private final JobStateCache jobStateCache;
+  private final AtomicBoolean jobStateReleased = new AtomicBoolean(false);
+  private final Path workUnitFilePath;
+  private final Optional<Future<WorkUnit>> prefetchedWorkUnit;
+  private final Optional<Timer> taskStartLatencyTimer;
+  private final long creationTime;
+
   public GobblinHelixTask(TaskCallbackContext taskCallbackContext, Optional<ContainerMetrics> containerMetrics,
       TaskExecutor taskExecutor, TaskStateTracker taskStateTracker, FileSystem fs, Path appWorkDir) throws IOException {
+    this(taskCallbackContext, containerMetrics, taskExecutor, taskStateTracker, fs, appWorkDir,
+        new JobStateCache(fs, appWorkDir, 0, containerMetrics), Optional.<ExecutorService> absent(),
+        Optional.<TaskStateReporter> absent());
+  }
+
+  public GobblinHelixTask(TaskCallbackContext taskCallbackContext, Optional<ContainerMetrics> containerMetrics,
+      TaskExecutor taskExecutor, TaskStateTracker taskStateTracker, FileSystem fs, Path appWorkDir,
+      JobStateCache jobStateCache, Optional<ExecutorService> workUnitPrefetcher,
+      Optional<TaskStateReporter> taskStateReporter) throws IOException {
+    this.creationTime = System.nanoTime();
     this.taskExecutor = taskExecutor;
     this.taskStateTracker = taskStateTracker;
 
     this.taskConfig = taskCallbackContext.getTaskConfig();
     this.jobId = this.taskConfig.getConfigMap().get(ConfigurationKeys.JOB_ID_KEY);
-    this.participantId = taskCallbackContext.getManager().getInstanceName();
+    this.helixManager = taskCallbackContext.getManager();
+    this.participantId = this.helixManager.getInstanceName();
 
     this.fs = fs;
     Path taskStateOutputDir = new Path(appWorkDir, GobblinClusterConfigurationKeys.OUTPUT_TASK_STATE_DIR_NAME);
-    this.taskStateStore = new FsStateStore<>(this.fs, taskStateOutputDir.toString(), TaskState.class);
+    this.taskStateStore = taskStateReporter.isPresent()
+        ? new ReportingTaskStateStore(this.fs, taskStateOutputDir.toString(), taskStateReporter.get())
+        : new FsStateStore<>(this.fs, taskStateOutputDir.toString(), TaskState.class);
 
-    Path jobStateFilePath = new Path(appWorkDir, this.jobId + "." + AbstractJobLauncher.JOB_STATE_FILE_NAME);
-    SerializationUtils.deserializeState(this.fs, jobStateFilePath, this.jobState);
+    this.jobStateCache = jobStateCache;
+    this.jobState = this.jobStateCache.acquire(this.jobId);
+    try {
+      this.workUnitFilePath =
+          new Path(this.taskConfig.getConfigMap().get(GobblinClusterConfigurationKeys.WORK_UNIT_FILE_PATH));
+      if (workUnitPrefetcher.isPresent()) {
+        this.prefetchedWorkUnit = Optional.of(workUnitPrefetcher.get().submit(new Callable<WorkUnit>() {
+          @Override
+          public WorkUnit call() throws Exception {
+            return readWorkUnit();
+          }
+        }));
+      } else {
+        this.prefetchedWorkUnit = Optional.absent();
+      }
 
-    if (containerMetrics.isPresent()) {
-      // This must be done after the jobState is deserialized from the jobStateFilePath
-      // A reference to jobMetrics is required to ensure it is not evicted from the GobblinMetricsRegistry Cache
-      this.jobMetrics = Optional.of(JobMetrics.get(this.jobState, containerMetrics.get().getMetricContext()));
-    } else {
-      this.jobMetrics = Optional.absent();
+      if (containerMetrics.isPresent()) {
+        // This must be done after the jobState is deserialized from the jobStateFilePath
+        // A reference to jobMetrics is required to ensure it is not evicted from the GobblinMetricsRegistry Cache
+        this.jobMetrics = Optional.of(JobMetrics.get(this.jobState, containerMetrics.get().getMetricContext()));
+        this.taskStartLatencyTimer = Optional.of(containerMetrics.get().getTimer(TASK_START_LATENCY_TIMER));
+      } else {
+        this.jobMetrics = Optional.absent();
+        this.taskStartLatencyTimer = Optional.absent();
+      }
+    } catch (RuntimeException re) {
+      // Tasks that fail to be created are never run or cancelled
+      releaseJobState();
+      throw re;
     }
   }
 
   @Override
   public TaskResult run() {
     try {
-      Path workUnitFilePath =
-          new Path(this.taskConfig.getConfigMap().get(GobblinClusterConfigurationKeys.WORK_UNIT_FILE_PATH));
+      if (isInstanceDisabled()) {
+        LOGGER.info(String.format("Not running task of job %s on disabled Helix instance %s", this.jobId,
+            this.participantId));
+        return new TaskResult(TaskResult.Status.ERROR,
+            String.format("Helix instance %s is disabled", this.participantId));
+      }
 
-      WorkUnit workUnit = workUnitFilePath.getName().endsWith(AbstractJobLauncher.MULTI_WORK_UNIT_FILE_EXTENSION)
-          ? MultiWorkUnit.createEmpty() : WorkUnit.createEmpty();
-      SerializationUtils.deserializeState(this.fs, workUnitFilePath, workUnit);
+      WorkUnit workUnit = getWorkUnit();
 
       // The list of individual WorkUnits (flattened) to run
       List<WorkUnit> workUnits = Lists.newArrayList();
@@ -129,6 +198,7 @@ public class GobblinHelixTask implements Task {
         workUnits.add(workUnit);
       }
 
+      Instrumented.updateTimer(this.taskStartLatencyTimer, System.nanoTime() - this.creationTime, TimeUnit.NANOSECONDS);
       AbstractJobLauncher.runWorkUnits(this.jobId, this.participantId, this.jobState, workUnits, this.taskStateTracker,
           this.taskExecutor, this.taskStateStore, LOGGER);
       return new TaskResult(TaskResult.Status.COMPLETED, String.format("completed tasks: %d", workUnits.size()));
@@ -138,11 +208,78 @@ public class GobblinHelixTask implements Task {
     } catch (Throwable t) {
       LOGGER.error("GobblinHelixTask failed due to " + t.getMessage(), t);
       return new TaskResult(TaskResult.Status.ERROR, Throwables.getStackTraceAsString(t));
+    } finally {
+      releaseJobState();
     }
   }
 
   @Override
   public void cancel() {
-    // TODO: implement cancellation.
+    // Only the prefetch of the work unit is cancelled, the Gobblin tasks already submitted to the TaskExecutor are not
+    if (this.prefetchedWorkUnit.isPresent()) {
+      this.prefetchedWorkUnit.get().cancel(true);
+    }
+    // A cancelled task may never run, so it does not keep the job state either way
+    releaseJobState();
+  }
+
+  /**
+   * Whether the Helix instance of this task is disabled. If this cannot be determined, the instance is assumed to be
+   * enabled, so that the task still runs.
+   */
+  private boolean isInstanceDisabled() {
+    try {
+      InstanceConfig instanceConfig = this.helixManager.getClusterManagmentTool()
+          .getInstanceConfig(this.helixManager.getClusterName(), this.participantId);
+      return instanceConfig != null && !instanceConfig.getInstanceEnabled();
+    } catch (HelixException he) {
+      LOGGER.warn("Failed to check if Helix instance " + this.participantId + " is enabled", he);
+      return false;
+    }
+  }
+
+  private WorkUnit getWorkUnit() throws IOException, InterruptedException {
+    if (!this.prefetchedWorkUnit.isPresent()) {
+      return readWorkUnit();
+    }
+    try {
+      return this.prefetchedWorkUnit.get().get();
+    } catch (ExecutionException ee) {
+      Throwables.propagateIfInstanceOf(ee.getCause(), IOException.class);
+      throw Throwables.propagate(ee.getCause());
+    }
+  }
+
+  private WorkUnit readWorkUnit() throws IOException {
+    WorkUnit workUnit = this.workUnitFilePath.getName().endsWith(AbstractJobLauncher.MULTI_WORK_UNIT_FILE_EXTENSION)
+        ? MultiWorkUnit.createEmpty() : WorkUnit.createEmpty();
+    SerializationUtils.deserializeState(this.fs, this.workUnitFilePath, workUnit);
+    return workUnit;
+  }
+
+  private void releaseJobState() {
+    if (this.jobStateReleased.compareAndSet(false, true)) {
+      this.jobStateCache.release(this.jobId);
+    }
+  }
+
+  /**
+   * A {@link FsStateStore} that also reports each {@link TaskState} written to it through a {@link TaskStateReporter}.
+   */
+  private static class ReportingTaskStateStore extends FsStateStore<TaskState> {
+
+    private final TaskStateReporter taskStateReporter;
+
+    public ReportingTaskStateStore(FileSystem fs, String storeRootDir, TaskStateReporter taskStateReporter) {
+      super(fs, storeRootDir, TaskState.class);
+      this.taskStateReporter = taskStateReporter;
+    }
+
+    @Override
+    public void put(String storeName, String tableName, TaskState state) throws IOException {
+      // The file is written first so the TaskState can still be collected from it if the report is lost
+      super.put(storeName, tableName, state);
+      this.taskStateReporter.report(state);
+    }
   }
 }
@@ -13,6 +13,7 @@
 package gobblin.cluster;
 
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -56,9 +57,27 @@ public class GobblinHelixTaskFactory implements TaskFactory {
   private final TaskStateTracker taskStateTracker;
   private final FileSystem fs;
   private final Path appWorkDir;
+  private final JobStateCache jobStateCache;
+  private final Optional<ExecutorService> workUnitPrefetcher;
+  private final Optional<TaskStateReporter> taskStateReporter;
 
   public GobblinHelixTaskFactory(Optional<ContainerMetrics> containerMetrics, TaskExecutor taskExecutor,
       TaskStateTracker taskStateTracker, FileSystem fs, Path appWorkDir) {
+    this(containerMetrics, taskExecutor, taskStateTracker, fs, appWorkDir, new JobStateCache(fs, appWorkDir,
+        GobblinClusterConfigurationKeys.DEFAULT_JOB_STATE_CACHE_IDLE_RETENTION_SECONDS, containerMetrics),
+        Optional.<ExecutorService> absent(), Optional.<TaskStateReporter> absent());
+  }
+
+  /**
+   * @param jobStateCache the {@link JobStateCache} of the container, shared by all tasks
+   * @param workUnitPrefetcher an optional {@link ExecutorService} used to read the work units of new tasks in the
+   *                           background before the tasks start running
+   * @param taskStateReporter an optional {@link TaskStateReporter} used to push the {@link gobblin.runtime.TaskState}s
+   *                          of completed tasks to the job launcher
+   */
+  public GobblinHelixTaskFactory(Optional<ContainerMetrics> containerMetrics, TaskExecutor taskExecutor,
+      TaskStateTracker taskStateTracker, FileSystem fs, Path appWorkDir, JobStateCache jobStateCache,
+      Optional<ExecutorService> workUnitPrefetcher, Optional<TaskStateReporter> taskStateReporter) {
     this.containerMetrics = containerMetrics;
     if (this.containerMetrics.isPresent()) {
       this.newTasksCounter = Optional.of(this.containerMetrics.get().getCounter(GOBBLIN_CLUSTER_NEW_HELIX_TASK_COUNTER));
@@ -69,6 +88,9 @@ public class GobblinHelixTaskFactory implements TaskFactory {
     this.taskStateTracker = taskStateTracker;
     this.fs = fs;
     this.appWorkDir = appWorkDir;
+    this.jobStateCache = jobStateCache;
+    this.workUnitPrefetcher = workUnitPrefetcher;
+    this.taskStateReporter = taskStateReporter;
   }
 
   @Override
@@ -78,7 +100,7 @@ public class GobblinHelixTaskFactory implements TaskFactory {
         this.newTasksCounter.get().inc();
       }
       return new GobblinHelixTask(context, this.containerMetrics, this.taskExecutor, this.taskStateTracker, this.fs,
-          this.appWorkDir);
+          this.appWorkDir, this.jobStateCache, this.workUnitPrefetcher, this.taskStateReporter);
     } catch (IOException ioe) {
       LOGGER.error("Failed to create a new GobblinHelixTask", ioe);
       throw Throwables.propagate(ioe);
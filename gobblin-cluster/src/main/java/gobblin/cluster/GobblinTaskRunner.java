@@ -19,6 +19,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -71,7 +72,9 @@ import gobblin.runtime.TaskExecutor;
 import gobblin.runtime.TaskStateTracker;
 import gobblin.runtime.services.JMXReportingService;
 import gobblin.util.ConfigUtils;
+import gobblin.util.ExecutorsUtils;
 import gobblin.util.HadoopUtils;
+import gobblin.util.executors.ScalingThreadPoolExecutor;
 import gobblin.util.logs.Log4jConfigurationHelper;
 
 
@@ -116,6 +119,8 @@ public class GobblinTaskRunner {
 
   private final Optional<ContainerMetrics> containerMetrics;
 
+  private final Optional<ExecutorService> workUnitPrefetcher;
+
   private final String taskRunnerId;
 
   private volatile boolean stopInProgress = false;
@@ -152,17 +157,44 @@ public class GobblinTaskRunner {
     Path appWorkDir = appWorkDirOptional.isPresent() ? appWorkDirOptional.get() :
         GobblinClusterUtils.getAppWorkDirPath(this.fs, applicationName, applicationId);
 
+    this.containerMetrics = buildContainerMetrics(this.config, properties, applicationName, this.taskRunnerId);
+
+    Optional<TaskStateReporter> taskStateReporter = ConfigUtils.getBoolean(config,
+        GobblinClusterConfigurationKeys.TASK_STATE_REPORTING_ENABLED_KEY,
+        GobblinClusterConfigurationKeys.DEFAULT_TASK_STATE_REPORTING_ENABLED)
+        ? Optional.of(new TaskStateReporter(this.helixManager,
+            ConfigUtils.getLong(config, GobblinClusterConfigurationKeys.TASK_STATE_REPORTING_INTERVAL_MILLIS_KEY,
+                GobblinClusterConfigurationKeys.DEFAULT_TASK_STATE_REPORTING_INTERVAL_MILLIS),
+            ConfigUtils.getInt(config, GobblinClusterConfigurationKeys.TASK_STATE_REPORTING_MAX_MESSAGE_BYTES_KEY,
+                GobblinClusterConfigurationKeys.DEFAULT_TASK_STATE_REPORTING_MAX_MESSAGE_BYTES),
+            this.containerMetrics))
+        : Optional.<TaskStateReporter> absent();
+
     List<Service> services = Lists.newArrayList(taskExecutor, taskStateTracker, new JMXReportingService());
+    if (taskStateReporter.isPresent()) {
+      services.add(taskStateReporter.get());
+    }
     services.addAll(getServices());
 
     this.serviceManager = new ServiceManager(services);
 
-    this.containerMetrics = buildContainerMetrics(this.config, properties, applicationName, this.taskRunnerId);
+    JobStateCache jobStateCache = new JobStateCache(this.fs, appWorkDir,
+        ConfigUtils.getLong(config, GobblinClusterConfigurationKeys.JOB_STATE_CACHE_IDLE_RETENTION_SECONDS_KEY,
+            GobblinClusterConfigurationKeys.DEFAULT_JOB_STATE_CACHE_IDLE_RETENTION_SECONDS),
+        this.containerMetrics);
+    int workUnitPrefetchThreads = ConfigUtils.getInt(config,
+        GobblinClusterConfigurationKeys.WORK_UNIT_PREFETCH_THREADS_KEY,
+        GobblinClusterConfigurationKeys.DEFAULT_WORK_UNIT_PREFETCH_THREADS);
+    this.workUnitPrefetcher = workUnitPrefetchThreads > 0
+        ? Optional.<ExecutorService> of(ScalingThreadPoolExecutor.newScalingThreadPool(0, workUnitPrefetchThreads,
+            TimeUnit.MINUTES.toMillis(1),
+            ExecutorsUtils.newDaemonThreadFactory(Optional.of(LOGGER), Optional.of("WorkUnitPrefetcher-%d"))))
+        : Optional.<ExecutorService> absent();
 
     // Register task factory for the Helix task state model
     Map<String, TaskFactory> taskFactoryMap = Maps.newHashMap();
-    taskFactoryMap.put(GOBBLIN_TASK_FACTORY_NAME,
-        new GobblinHelixTaskFactory(this.containerMetrics, taskExecutor, taskStateTracker, this.fs, appWorkDir));
+    taskFactoryMap.put(GOBBLIN_TASK_FACTORY_NAME, new GobblinHelixTaskFactory(this.containerMetrics, taskExecutor,
+        taskStateTracker, this.fs, appWorkDir, jobStateCache, this.workUnitPrefetcher, taskStateReporter));
     this.taskStateModelFactory = new TaskStateModelFactory(this.helixManager, taskFactoryMap);
     this.helixManager.getStateMachineEngine().registerStateModelFactory("Task", this.taskStateModelFactory);
   }
@@ -209,6 +241,9 @@ public class GobblinTaskRunner {
       LOGGER.error("Timeout in stopping the service manager", te);
     } finally {
       this.taskStateModelFactory.shutdown();
+      if (this.workUnitPrefetcher.isPresent()) {
+        ExecutorsUtils.shutdownExecutorService(this.workUnitPrefetcher.get(), Optional.of(LOGGER));
+      }
 
       disconnectHelixManager();
     }
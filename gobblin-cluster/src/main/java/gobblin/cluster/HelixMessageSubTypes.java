@@ -36,5 +36,11 @@ public enum HelixMessageSubTypes {
   /**
    * This type is for messages sent when the file storing the delegation token has been updated.
    */
-  TOKEN_FILE_UPDATED
+  TOKEN_FILE_UPDATED,
+
+  /**
+   * This type is for messages sent by the {@link GobblinTaskRunner}s carrying {@link gobblin.runtime.TaskState}s of
+   * completed tasks.
+   */
+  TASK_STATE_REPORT
 }
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.cluster;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Counter;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+
+import gobblin.annotation.Alpha;
+import gobblin.runtime.AbstractJobLauncher;
+import gobblin.runtime.JobState;
+import gobblin.util.SerializationUtils;
+
+
+/**
+ * A container-level cache of de-serialized {@link JobState}s, so that the {@link GobblinHelixTask}s of a job running
+ * in the same container read and parse the job state file only once.
+ *
+ * <p>
+ *   Each {@link #acquire(String)} of a job must be paired with a {@link #release(String)}. A {@link JobState} is
+ *   kept while it is acquired by at least one task, and for
+ *   {@link GobblinClusterConfigurationKeys#JOB_STATE_CACHE_IDLE_RETENTION_SECONDS_KEY} after it was last released,
+ *   so that tasks of the same job assigned later to the container can reuse it.
+ * </p>
+ *
+ * <p>
+ *   The cached {@link JobState} is shared by all tasks of the job in the container, the same way it is shared by the
+ *   tasks of a {@link gobblin.source.workunit.MultiWorkUnit}, so it must not be modified by the tasks.
+ * </p>
+ */
+@Alpha
+public class JobStateCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(JobStateCache.class);
+
+  static final String JOB_STATE_CACHE_HITS = "gobblin.cluster.job.state.cache.hits";
+  static final String JOB_STATE_CACHE_MISSES = "gobblin.cluster.job.state.cache.misses";
+
+  private final FileSystem fs;
+  private final Path appWorkDir;
+  private final long idleRetentionMillis;
+  private final Optional<Counter> hitsCounter;
+  private final Optional<Counter> missesCounter;
+
+  // Guarded by this
+  private final Map<String, CachedJobState> cachedJobStates = Maps.newHashMap();
+
+  public JobStateCache(FileSystem fs, Path appWorkDir, long idleRetentionSeconds,
+      Optional<ContainerMetrics> containerMetrics) {
+    this.fs = fs;
+    this.appWorkDir = appWorkDir;
+    this.idleRetentionMillis = TimeUnit.SECONDS.toMillis(idleRetentionSeconds);
+    if (containerMetrics.isPresent()) {
+      this.hitsCounter = Optional.of(containerMetrics.get().getCounter(JOB_STATE_CACHE_HITS));
+      this.missesCounter = Optional.of(containerMetrics.get().getCounter(JOB_STATE_CACHE_MISSES));
+    } else {
+      this.hitsCounter = Optional.absent();
+      this.missesCounter = Optional.absent();
+    }
+  }
+
+  /**
+   * Get the {@link JobState} of the given job, reading it from the job state file if it is not cached.
+   */
+  public JobState acquire(String jobId) throws IOException {
+    CachedJobState cachedJobState;
+    synchronized (this) {
+      evictIdleJobStates();
+      cachedJobState = this.cachedJobStates.get(jobId);
+      if (cachedJobState == null) {
+        cachedJobState = new CachedJobState();
+        this.cachedJobStates.put(jobId, cachedJobState);
+      }
+      cachedJobState.references++;
+    }
+
+    // Read the job state file outside of the cache lock so that job states of different jobs can be read concurrently
+    synchronized (cachedJobState) {
+      if (cachedJobState.jobState != null) {
+        incrementIfPresent(this.hitsCounter);
+        return cachedJobState.jobState;
+      }
+      try {
+        JobState jobState = new JobState();
+        Path jobStateFilePath = new Path(this.appWorkDir, jobId + "." + AbstractJobLauncher.JOB_STATE_FILE_NAME);
+        SerializationUtils.deserializeState(this.fs, jobStateFilePath, jobState);
+        cachedJobState.jobState = jobState;
+        incrementIfPresent(this.missesCounter);
+        return jobState;
+      } catch (IOException | RuntimeException e) {
+        release(jobId);
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * Release a {@link JobState} acquired with {@link #acquire(String)}.
+   */
+  public synchronized void release(String jobId) {
+    CachedJobState cachedJobState = this.cachedJobStates.get(jobId);
+    Preconditions.checkState(cachedJobState != null && cachedJobState.references > 0,
+        "Job state of job %s released more times than it was acquired", jobId);
+    cachedJobState.references--;
+    if (cachedJobState.references == 0) {
+      if (cachedJobState.jobState == null || this.idleRetentionMillis <= 0) {
+        this.cachedJobStates.remove(jobId);
+      } else {
+        cachedJobState.idleSince = System.currentTimeMillis();
+      }
+    }
+  }
+
+  private void evictIdleJobStates() {
+    long now = System.currentTimeMillis();
+    Iterator<Map.Entry<String, CachedJobState>> iterator = this.cachedJobStates.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<String, CachedJobState> entry = iterator.next();
+      if (entry.getValue().references == 0 && now - entry.getValue().idleSince >= this.idleRetentionMillis) {
+        LOGGER.info("Evicting job state of job " + entry.getKey());
+        iterator.remove();
+      }
+    }
+  }
+
+  private static void incrementIfPresent(Optional<Counter> counter) {
+    if (counter.isPresent()) {
+      counter.get().inc();
+    }
+  }
+
+  private static class CachedJobState {
+    private JobState jobState;
+    private int references;
+    private long idleSince;
+  }
+}
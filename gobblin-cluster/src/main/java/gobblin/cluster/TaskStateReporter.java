@@ -0,0 +1,255 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.cluster;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.helix.Criteria;
+import org.apache.helix.HelixManager;
+import org.apache.helix.InstanceType;
+import org.apache.helix.model.Message;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Queues;
+import com.google.common.io.BaseEncoding;
+import com.google.common.util.concurrent.AbstractScheduledService;
+
+import gobblin.annotation.Alpha;
+import gobblin.cluster.event.TaskStateReportEvent;
+import gobblin.instrumented.Instrumented;
+import gobblin.runtime.TaskState;
+
+
+/**
+ * An {@link AbstractScheduledService} that pushes {@link TaskState}s of completed tasks running in a container to
+ * the {@link GobblinClusterManager} through Helix messages of sub type {@link HelixMessageSubTypes#TASK_STATE_REPORT},
+ * so that the {@link GobblinHelixJobLauncher} does not have to wait for the next run of its
+ * {@link gobblin.runtime.TaskStateCollectorService} to see them.
+ *
+ * <p>
+ *   {@link TaskState}s are batched for {@link GobblinClusterConfigurationKeys#TASK_STATE_REPORTING_INTERVAL_MILLIS_KEY}
+ *   and sent in messages of at most {@link GobblinClusterConfigurationKeys#TASK_STATE_REPORTING_MAX_MESSAGE_BYTES_KEY}.
+ *   Reporting is best effort: the {@link TaskState}s are still written to files, which the job launcher collects if
+ *   a report is lost.
+ * </p>
+ */
+@Alpha
+public class TaskStateReporter extends AbstractScheduledService {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TaskStateReporter.class);
+
+  static final String TASK_STATES_FIELD = "TASK_STATES";
+  static final String REPORT_TIME_FIELD = "REPORT_TIME";
+
+  static final String TASK_STATE_REPORTS_SENT = "gobblin.cluster.task.state.reports.sent";
+  static final String TASK_STATE_REPORTS_FAILED = "gobblin.cluster.task.state.reports.failed";
+  static final String TASK_STATES_REPORTED = "gobblin.cluster.task.states.reported";
+  static final String TASK_STATE_REPORT_BYTES = "gobblin.cluster.task.state.report.bytes";
+
+  private final HelixManager helixManager;
+  private final long reportIntervalMillis;
+  private final int maxMessageBytes;
+
+  // Serialized TaskStates waiting to be sent
+  private final Queue<String> pendingTaskStates = Queues.newConcurrentLinkedQueue();
+
+  private final Optional<Counter> reportsSentCounter;
+  private final Optional<Counter> reportsFailedCounter;
+  private final Optional<Counter> taskStatesReportedCounter;
+  private final Optional<Meter> reportBytesMeter;
+
+  public TaskStateReporter(HelixManager helixManager, long reportIntervalMillis, int maxMessageBytes,
+      Optional<ContainerMetrics> containerMetrics) {
+    this.helixManager = helixManager;
+    this.reportIntervalMillis = reportIntervalMillis;
+    this.maxMessageBytes = maxMessageBytes;
+
+    if (containerMetrics.isPresent()) {
+      this.reportsSentCounter = Optional.of(containerMetrics.get().getCounter(TASK_STATE_REPORTS_SENT));
+      this.reportsFailedCounter = Optional.of(containerMetrics.get().getCounter(TASK_STATE_REPORTS_FAILED));
+      this.taskStatesReportedCounter = Optional.of(containerMetrics.get().getCounter(TASK_STATES_REPORTED));
+      this.reportBytesMeter = Optional.of(containerMetrics.get().getMeter(TASK_STATE_REPORT_BYTES));
+    } else {
+      this.reportsSentCounter = Optional.absent();
+      this.reportsFailedCounter = Optional.absent();
+      this.taskStatesReportedCounter = Optional.absent();
+      this.reportBytesMeter = Optional.absent();
+    }
+  }
+
+  /**
+   * Queue the {@link TaskState} of a completed task to be sent with the next report.
+   *
+   * @param taskState the {@link TaskState} of a completed task
+   */
+  public void report(TaskState taskState) {
+    String serializedTaskState;
+    try {
+      serializedTaskState = serialize(taskState);
+    } catch (IOException ioe) {
+      LOGGER.warn("Failed to serialize task state of task " + taskState.getTaskId(), ioe);
+      return;
+    }
+
+    if (serializedTaskState.length() > this.maxMessageBytes) {
+      LOGGER.info(String.format("Task state of task %s is too large to be reported: %d bytes", taskState.getTaskId(),
+          serializedTaskState.length()));
+      return;
+    }
+    this.pendingTaskStates.add(serializedTaskState);
+  }
+
+  @Override
+  protected void runOneIteration() throws Exception {
+    sendPendingTaskStates();
+  }
+
+  @Override
+  protected Scheduler scheduler() {
+    return Scheduler.newFixedDelaySchedule(this.reportIntervalMillis, this.reportIntervalMillis,
+        TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  protected void startUp() throws Exception {
+    LOGGER.info("Starting the " + TaskStateReporter.class.getSimpleName());
+    super.startUp();
+  }
+
+  @Override
+  protected void shutDown() throws Exception {
+    LOGGER.info("Stopping the " + TaskStateReporter.class.getSimpleName());
+    try {
+      sendPendingTaskStates();
+    } finally {
+      super.shutDown();
+    }
+  }
+
+  /**
+   * Send all pending {@link TaskState}s in as few messages as the message size limit allows.
+   */
+  @VisibleForTesting
+  void sendPendingTaskStates() {
+    List<String> batch = Lists.newArrayList();
+    int batchBytes = 0;
+    String serializedTaskState;
+    while ((serializedTaskState = this.pendingTaskStates.poll()) != null) {
+      if (!batch.isEmpty() && batchBytes + serializedTaskState.length() > this.maxMessageBytes) {
+        send(batch, batchBytes);
+        batch = Lists.newArrayList();
+        batchBytes = 0;
+      }
+      batch.add(serializedTaskState);
+      batchBytes += serializedTaskState.length();
+    }
+
+    if (!batch.isEmpty()) {
+      send(batch, batchBytes);
+    }
+  }
+
+  private void send(List<String> batch, int batchBytes) {
+    Criteria criteria = new Criteria();
+    criteria.setInstanceName("%");
+    criteria.setResource("%");
+    criteria.setPartition("%");
+    criteria.setPartitionState("%");
+    criteria.setRecipientInstanceType(InstanceType.CONTROLLER);
+    criteria.setSessionSpecific(true);
+
+    Message report = new Message(Message.MessageType.USER_DEFINE_MSG,
+        HelixMessageSubTypes.TASK_STATE_REPORT.toString().toLowerCase() + UUID.randomUUID().toString());
+    report.setMsgSubType(HelixMessageSubTypes.TASK_STATE_REPORT.toString());
+    report.setMsgState(Message.MessageState.NEW);
+    report.setTgtSessionId("*");
+    report.getRecord().setListField(TASK_STATES_FIELD, batch);
+    report.getRecord().setSimpleField(REPORT_TIME_FIELD, Long.toString(System.currentTimeMillis()));
+
+    int messagesSent;
+    try {
+      messagesSent = this.helixManager.getMessagingService().send(criteria, report);
+    } catch (RuntimeException re) {
+      LOGGER.warn("Failed to send the task state report", re);
+      messagesSent = 0;
+    }
+
+    if (messagesSent == 0) {
+      LOGGER.warn(String.format("Failed to report task state of %d completed tasks, they will be collected from files",
+          batch.size()));
+      incrementCounter(this.reportsFailedCounter, 1);
+      return;
+    }
+
+    LOGGER.info(String.format("Reported task state of %d completed tasks", batch.size()));
+    incrementCounter(this.reportsSentCounter, 1);
+    incrementCounter(this.taskStatesReportedCounter, batch.size());
+    Instrumented.markMeter(this.reportBytesMeter, batchBytes);
+  }
+
+  private static void incrementCounter(Optional<Counter> counter, long n) {
+    if (counter.isPresent()) {
+      counter.get().inc(n);
+    }
+  }
+
+  /**
+   * Read the {@link TaskState}s carried by a Helix message of sub type {@link HelixMessageSubTypes#TASK_STATE_REPORT}.
+   *
+   * @param report a Helix message of sub type {@link HelixMessageSubTypes#TASK_STATE_REPORT}
+   * @return a {@link TaskStateReportEvent} with the reported {@link TaskState}s
+   * @throws IOException if the {@link TaskState}s cannot be de-serialized
+   */
+  public static TaskStateReportEvent readTaskStateReport(Message report) throws IOException {
+    List<TaskState> taskStates = Lists.newArrayList();
+    List<String> serializedTaskStates = report.getRecord().getListField(TASK_STATES_FIELD);
+    if (serializedTaskStates != null) {
+      for (String serializedTaskState : serializedTaskStates) {
+        taskStates.add(deserialize(serializedTaskState));
+      }
+    }
+    return new TaskStateReportEvent(taskStates, Long.parseLong(report.getRecord().getSimpleField(REPORT_TIME_FIELD)));
+  }
+
+  private static String serialize(TaskState taskState) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      taskState.write(out);
+    }
+    return BaseEncoding.base64().encode(bytes.toByteArray());
+  }
+
+  private static TaskState deserialize(String serializedTaskState) throws IOException {
+    TaskState taskState = new TaskState();
+    try (DataInputStream in =
+        new DataInputStream(new ByteArrayInputStream(BaseEncoding.base64().decode(serializedTaskState)))) {
+      taskState.readFields(in);
+    }
+    return taskState;
+  }
+}
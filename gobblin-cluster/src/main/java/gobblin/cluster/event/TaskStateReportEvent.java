@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.cluster.event;
+
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+
+import gobblin.annotation.Alpha;
+import gobblin.runtime.TaskState;
+
+
+/**
+ * A type of events for the arrival of {@link TaskState}s of completed tasks reported by a container to be used
+ * with a {@link com.google.common.eventbus.EventBus}.
+ */
+@Alpha
+public class TaskStateReportEvent {
+
+  private final List<TaskState> taskStates;
+  private final long reportTime;
+
+  public TaskStateReportEvent(List<TaskState> taskStates, long reportTime) {
+    this.taskStates = ImmutableList.copyOf(taskStates);
+    this.reportTime = reportTime;
+  }
+
+  /**
+   * Get the reported {@link TaskState}s, which may belong to different jobs.
+   *
+   * @return the reported {@link TaskState}s
+   */
+  public List<TaskState> getTaskStates() {
+    return this.taskStates;
+  }
+
+  /**
+   * Get the time in milliseconds at which the container sent the report.
+   *
+   * @return the time in milliseconds at which the container sent the report
+   */
+  public long getReportTime() {
+    return this.reportTime;
+  }
+}
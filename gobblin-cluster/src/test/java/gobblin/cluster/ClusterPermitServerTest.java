@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+package gobblin.cluster;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import gobblin.util.limiter.DistributedLimiter;
+import gobblin.util.limiter.HttpPermitServerClient;
+import gobblin.util.limiter.Limiter;
+import gobblin.util.limiter.PermitAllocation;
+import gobblin.util.limiter.PermitRequest;
+import gobblin.util.limiter.PermitServer;
+import gobblin.util.limiter.TokenBucketPermitServer;
+
+
+/**
+ * Unit tests for {@link ClusterPermitServer}.
+ */
+@Test(groups = { "gobblin.cluster" })
+public class ClusterPermitServerTest {
+
+  private ClusterPermitServer clusterPermitServer;
+  private PermitServer client;
+
+  @BeforeClass
+  public void setUp() throws IOException {
+    this.clusterPermitServer =
+        new ClusterPermitServer(new TokenBucketPermitServer(), new InetSocketAddress("localhost", 0));
+    this.clusterPermitServer.startAsync().awaitRunning();
+    this.client = new HttpPermitServerClient(
+        URI.create("http://localhost:" + this.clusterPermitServer.getLocalPort()));
+  }
+
+  @Test
+  public void testRequestAndReturnPermits() throws IOException {
+    PermitAllocation allocation = this.client.requestPermits(new PermitRequest("requestAndReturn", 10, 10));
+    Assert.assertEquals(allocation.getPermits(), 10);
+    Assert.assertEquals(allocation.getLeaseMillis(), TokenBucketPermitServer.DEFAULT_LEASE_MILLIS);
+
+    allocation = this.client.requestPermits(new PermitRequest("requestAndReturn", 5, 10));
+    Assert.assertEquals(allocation.getPermits(), 0);
+    Assert.assertTrue(allocation.getWaitMillis() > 0);
+
+    this.client.returnPermits("requestAndReturn", 5);
+    Assert.assertEquals(this.client.requestPermits(new PermitRequest("requestAndReturn", 5, 10)).getPermits(), 5);
+  }
+
+  @Test(expectedExceptions = IOException.class)
+  public void testInvalidRequest() throws IOException {
+    this.client.requestPermits(new PermitRequest("invalid", 0, 10));
+  }
+
+  @Test
+  public void testDistributedLimiter() throws InterruptedException {
+    Limiter limiter = new DistributedLimiter(this.client, "limiter", 100, 10);
+    limiter.start();
+    for (int i = 0; i < 20; i++) {
+      Assert.assertNotNull(limiter.acquirePermits(1));
+    }
+    limiter.stop();
+  }
+
+  @AfterClass
+  public void tearDown() {
+    this.clusterPermitServer.stopAsync().awaitTerminated();
+  }
+}
@@ -16,6 +16,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.avro.Schema;
 
@@ -23,7 +24,9 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 
+import org.apache.helix.HelixAdmin;
 import org.apache.helix.HelixManager;
+import org.apache.helix.model.InstanceConfig;
 import org.apache.helix.task.TaskCallbackContext;
 import org.apache.helix.task.TaskConfig;
 import org.apache.helix.task.TaskResult;
@@ -74,6 +77,8 @@ public class GobblinHelixTaskTest {
 
   private HelixManager helixManager;
 
+  private HelixAdmin helixAdmin;
+
   private FileSystem localFs;
 
   private Path appWorkDir;
@@ -88,6 +93,11 @@ public class GobblinHelixTaskTest {
 
     this.helixManager = Mockito.mock(HelixManager.class);
     Mockito.when(this.helixManager.getInstanceName()).thenReturn(GobblinHelixTaskTest.class.getSimpleName());
+    Mockito.when(this.helixManager.getClusterName()).thenReturn(GobblinHelixTaskTest.class.getSimpleName());
+    this.helixAdmin = Mockito.mock(HelixAdmin.class);
+    Mockito.when(this.helixManager.getClusterManagmentTool()).thenReturn(this.helixAdmin);
+    Mockito.when(this.helixAdmin.getInstanceConfig(Mockito.anyString(), Mockito.anyString()))
+        .thenReturn(new InstanceConfig(GobblinHelixTaskTest.class.getSimpleName()));
     this.taskStateTracker = new GobblinHelixTaskStateTracker(new Properties(), this.helixManager);
 
     this.localFs = FileSystem.getLocal(configuration);
@@ -149,6 +159,61 @@ public class GobblinHelixTaskTest {
     TestHelper.assertGenericRecords(outputAvroFile, schema);
   }
 
+  @Test
+  public void testCancelReleasesJobState() throws IOException {
+    Map<String, String> taskConfigMap = Maps.newHashMap();
+    taskConfigMap.put(GobblinClusterConfigurationKeys.WORK_UNIT_FILE_PATH,
+        new Path(this.appWorkDir, "cancelled.wu").toString());
+    taskConfigMap.put(ConfigurationKeys.JOB_ID_KEY, TestHelper.TEST_JOB_ID);
+    TaskCallbackContext taskCallbackContext = Mockito.mock(TaskCallbackContext.class);
+    Mockito.when(taskCallbackContext.getTaskConfig()).thenReturn(new TaskConfig("", taskConfigMap, true));
+    Mockito.when(taskCallbackContext.getManager()).thenReturn(this.helixManager);
+    JobStateCache jobStateCache = Mockito.mock(JobStateCache.class);
+    Mockito.when(jobStateCache.acquire(TestHelper.TEST_JOB_ID)).thenReturn(new JobState());
+
+    GobblinHelixTask task = new GobblinHelixTask(taskCallbackContext, Optional.<ContainerMetrics>absent(),
+        this.taskExecutor, this.taskStateTracker, this.localFs, this.appWorkDir, jobStateCache,
+        Optional.<ExecutorService>absent(), Optional.<TaskStateReporter>absent());
+
+    // The job state of a task that is cancelled without running is released only once
+    task.cancel();
+    task.cancel();
+    Mockito.verify(jobStateCache, Mockito.times(1)).release(TestHelper.TEST_JOB_ID);
+  }
+
+  @Test
+  public void testRunOnDisabledInstance() throws IOException {
+    String instanceName = "disabledInstance";
+    HelixManager disabledHelixManager = Mockito.mock(HelixManager.class);
+    Mockito.when(disabledHelixManager.getInstanceName()).thenReturn(instanceName);
+    Mockito.when(disabledHelixManager.getClusterName()).thenReturn(GobblinHelixTaskTest.class.getSimpleName());
+    Mockito.when(disabledHelixManager.getClusterManagmentTool()).thenReturn(this.helixAdmin);
+    InstanceConfig instanceConfig = new InstanceConfig(instanceName);
+    instanceConfig.setInstanceEnabled(false);
+    Mockito.when(this.helixAdmin.getInstanceConfig(GobblinHelixTaskTest.class.getSimpleName(), instanceName))
+        .thenReturn(instanceConfig);
+
+    Map<String, String> taskConfigMap = Maps.newHashMap();
+    taskConfigMap.put(GobblinClusterConfigurationKeys.WORK_UNIT_FILE_PATH,
+        new Path(this.appWorkDir, "disabled.wu").toString());
+    taskConfigMap.put(ConfigurationKeys.JOB_ID_KEY, TestHelper.TEST_JOB_ID);
+    TaskCallbackContext taskCallbackContext = Mockito.mock(TaskCallbackContext.class);
+    Mockito.when(taskCallbackContext.getTaskConfig()).thenReturn(new TaskConfig("", taskConfigMap, true));
+    Mockito.when(taskCallbackContext.getManager()).thenReturn(disabledHelixManager);
+    JobStateCache jobStateCache = Mockito.mock(JobStateCache.class);
+    Mockito.when(jobStateCache.acquire(TestHelper.TEST_JOB_ID)).thenReturn(new JobState());
+
+    GobblinHelixTask task = new GobblinHelixTask(taskCallbackContext, Optional.<ContainerMetrics>absent(),
+        this.taskExecutor, this.taskStateTracker, this.localFs, this.appWorkDir, jobStateCache,
+        Optional.<ExecutorService>absent(), Optional.<TaskStateReporter>absent());
+
+    // A task assigned to an instance that is being drained fails without reading its work unit, which does not exist
+    TaskResult taskResult = task.run();
+    Assert.assertEquals(taskResult.getStatus(), TaskResult.Status.ERROR);
+    Assert.assertEquals(taskResult.getInfo(), "Helix instance " + instanceName + " is disabled");
+    Mockito.verify(jobStateCache, Mockito.times(1)).release(TestHelper.TEST_JOB_ID);
+  }
+
   @AfterClass
   public void tearDown() throws IOException {
     try {
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.cluster;
+
+import java.io.IOException;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+
+import gobblin.runtime.AbstractJobLauncher;
+import gobblin.runtime.JobState;
+import gobblin.util.SerializationUtils;
+
+
+/**
+ * Unit tests for {@link JobStateCache}.
+ */
+@Test(groups = { "gobblin.cluster" })
+public class JobStateCacheTest {
+
+  private FileSystem localFs;
+  private Path appWorkDir;
+  private Path jobStateFilePath;
+
+  @BeforeClass
+  public void setUp() throws IOException {
+    this.localFs = FileSystem.getLocal(new Configuration());
+    this.appWorkDir = new Path(JobStateCacheTest.class.getSimpleName());
+    this.jobStateFilePath =
+        new Path(this.appWorkDir, TestHelper.TEST_JOB_ID + "." + AbstractJobLauncher.JOB_STATE_FILE_NAME);
+  }
+
+  @Test
+  public void testAcquireAndRelease() throws IOException {
+    writeJobState("before");
+
+    JobStateCache jobStateCache =
+        new JobStateCache(this.localFs, this.appWorkDir, 0, Optional.<ContainerMetrics> absent());
+    JobState jobState = jobStateCache.acquire(TestHelper.TEST_JOB_ID);
+    Assert.assertEquals(jobState.getProp("key"), "before");
+
+    // While the job state is acquired, the cached instance is returned without reading the file again
+    writeJobState("after");
+    Assert.assertSame(jobStateCache.acquire(TestHelper.TEST_JOB_ID), jobState);
+    jobStateCache.release(TestHelper.TEST_JOB_ID);
+    jobStateCache.release(TestHelper.TEST_JOB_ID);
+
+    // Without idle retention, the job state is evicted once it is released by all tasks
+    Assert.assertEquals(jobStateCache.acquire(TestHelper.TEST_JOB_ID).getProp("key"), "after");
+    jobStateCache.release(TestHelper.TEST_JOB_ID);
+  }
+
+  @Test
+  public void testIdleRetention() throws IOException {
+    writeJobState("before");
+
+    JobStateCache jobStateCache =
+        new JobStateCache(this.localFs, this.appWorkDir, 3600, Optional.<ContainerMetrics> absent());
+    JobState jobState = jobStateCache.acquire(TestHelper.TEST_JOB_ID);
+    jobStateCache.release(TestHelper.TEST_JOB_ID);
+
+    writeJobState("after");
+    Assert.assertSame(jobStateCache.acquire(TestHelper.TEST_JOB_ID), jobState);
+    jobStateCache.release(TestHelper.TEST_JOB_ID);
+  }
+
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void testReleaseWithoutAcquire() {
+    new JobStateCache(this.localFs, this.appWorkDir, 0, Optional.<ContainerMetrics> absent()).release("unknown");
+  }
+
+  @AfterClass
+  public void tearDown() throws IOException {
+    this.localFs.delete(this.appWorkDir, true);
+  }
+
+  private void writeJobState(String value) throws IOException {
+    JobState jobState = new JobState();
+    jobState.setJobName(TestHelper.TEST_JOB_NAME);
+    jobState.setJobId(TestHelper.TEST_JOB_ID);
+    jobState.setProp("key", value);
+    SerializationUtils.serializeState(this.localFs, this.jobStateFilePath, jobState);
+  }
+}
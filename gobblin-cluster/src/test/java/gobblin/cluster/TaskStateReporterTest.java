@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.cluster;
+
+import java.util.List;
+
+import org.apache.helix.ClusterMessagingService;
+import org.apache.helix.Criteria;
+import org.apache.helix.HelixManager;
+import org.apache.helix.model.Message;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Strings;
+
+import gobblin.cluster.event.TaskStateReportEvent;
+import gobblin.runtime.TaskState;
+
+
+/**
+ * Unit tests for {@link TaskStateReporter}.
+ */
+@Test(groups = { "gobblin.cluster" })
+public class TaskStateReporterTest {
+
+  @Test
+  public void testReportTaskStates() throws Exception {
+    ClusterMessagingService messagingService = Mockito.mock(ClusterMessagingService.class);
+    Mockito.when(messagingService.send(Mockito.any(Criteria.class), Mockito.any(Message.class))).thenReturn(1);
+    HelixManager helixManager = Mockito.mock(HelixManager.class);
+    Mockito.when(helixManager.getMessagingService()).thenReturn(messagingService);
+
+    TaskStateReporter taskStateReporter =
+        new TaskStateReporter(helixManager, 1000, 1024, Optional.<ContainerMetrics> absent());
+    for (int i = 0; i < 10; i++) {
+      taskStateReporter.report(newTaskState("task_" + i, 100));
+    }
+    // Too large to be reported, so it will only be collected from its file
+    taskStateReporter.report(newTaskState("task_large", 2000));
+    taskStateReporter.sendPendingTaskStates();
+
+    ArgumentCaptor<Message> reports = ArgumentCaptor.forClass(Message.class);
+    Mockito.verify(messagingService, Mockito.atLeast(2)).send(Mockito.any(Criteria.class), reports.capture());
+
+    int taskIndex = 0;
+    for (Message report : reports.getAllValues()) {
+      Assert.assertEquals(report.getMsgSubType(), HelixMessageSubTypes.TASK_STATE_REPORT.toString());
+      TaskStateReportEvent taskStateReport = TaskStateReporter.readTaskStateReport(report);
+      List<TaskState> taskStates = taskStateReport.getTaskStates();
+      Assert.assertFalse(taskStates.isEmpty());
+      for (TaskState taskState : taskStates) {
+        Assert.assertEquals(taskState.getJobId(), "job_test");
+        Assert.assertEquals(taskState.getTaskId(), "task_" + taskIndex++);
+        Assert.assertEquals(taskState.getProp("payload").length(), 100);
+      }
+    }
+    Assert.assertEquals(taskIndex, 10);
+
+    // Nothing is sent if there is nothing to report
+    Mockito.reset(messagingService);
+    taskStateReporter.sendPendingTaskStates();
+    Mockito.verifyZeroInteractions(messagingService);
+  }
+
+  private static TaskState newTaskState(String taskId, int payloadSize) {
+    TaskState taskState = new TaskState();
+    taskState.setJobId("job_test");
+    taskState.setTaskId(taskId);
+    taskState.setProp("payload", Strings.repeat("x", payloadSize));
+    return taskState;
+  }
+}
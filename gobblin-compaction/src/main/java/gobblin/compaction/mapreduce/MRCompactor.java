@@ -154,6 +154,12 @@ public class MRCompactor implements Compactor {
       COMPACTION_PREFIX + "latedata.threshold.for.recompact.per.topic";
   public static final double DEFAULT_COMPACTION_LATEDATA_THRESHOLD_FOR_RECOMPACT_PER_DATASET = 1.0;
 
+  // If a dataset has already been compacted and new (late) data is found, whether to merge the new data into
+  // the previous output instead of copying it into the '_late' folder. Only the new data is shuffled and sorted,
+  // and the result is merged with the previous output, which is already sorted by the dedup key.
+  public static final String COMPACTION_INCREMENTAL_MERGE = COMPACTION_PREFIX + "incremental.merge";
+  public static final boolean DEFAULT_COMPACTION_INCREMENTAL_MERGE = false;
+
   // Whether the input data for the compaction is deduplicated.
   public static final String COMPACTION_INPUT_DEDUPLICATED = COMPACTION_PREFIX + "input.deduplicated";
   public static final boolean DEFAULT_COMPACTION_INPUT_DEDUPLICATED = false;
@@ -202,6 +208,7 @@ public class MRCompactor implements Compactor {
       COMPACTION_PREFIX + "fileoutputcommitter.marksuccessfuljobs";
   public static final String COMPACTION_JOB_LATE_DATA_MOVEMENT_TASK = COMPACTION_PREFIX + "job.late.data.movement.task";
   public static final String COMPACTION_JOB_LATE_DATA_FILES = COMPACTION_PREFIX + "job.late.data.files";
+  public static final String COMPACTION_JOB_INCREMENTAL_MERGE_TASK = COMPACTION_PREFIX + "job.incremental.merge.task";
   public static final String COMPACTION_COMPLETE_FILE_NAME = "_COMPACTION_COMPLETE";
   public static final String COMPACTION_LATE_FILES_DIRECTORY = "late";
   public static final String COMPACTION_JARS = COMPACTION_PREFIX + "jars";
@@ -772,6 +779,7 @@ public class MRCompactor implements Compactor {
             State recompactState = new State();
             recompactState.setProp(MRCompactor.COMPACTION_RECOMPACT_FROM_DEST_PATHS, Boolean.TRUE);
             recompactState.setProp(MRCompactor.COMPACTION_JOB_LATE_DATA_MOVEMENT_TASK, Boolean.FALSE);
+            recompactState.setProp(MRCompactor.COMPACTION_JOB_INCREMENTAL_MERGE_TASK, Boolean.FALSE);
             jobRunner.getDataset().modifyDatasetForRecompact(recompactState);
             jobRunner.getDataset().setState(VERIFIED);
           } else {
@@ -92,6 +92,9 @@ public class MRCompactorJobPropCreator {
   // output '_late' folders will be used as input to compaction jobs.
   protected final boolean recompactFromOutputPaths;
 
+  // Whether new data found for an already compacted dataset should be merged into the previous output.
+  protected final boolean incrementalMerge;
+
   private MRCompactorJobPropCreator(Builder builder) {
     this.dataset = builder.dataset;
     this.fs = builder.fs;
@@ -106,6 +109,8 @@ public class MRCompactorJobPropCreator {
             MRCompactor.DEFAULT_COMPACTION_RECOMPACT_FROM_INPUT_FOR_LATE_DATA);
     this.recompactFromOutputPaths = this.state.getPropAsBoolean(MRCompactor.COMPACTION_RECOMPACT_FROM_DEST_PATHS,
         MRCompactor.DEFAULT_COMPACTION_RECOMPACT_FROM_DEST_PATHS);
+    this.incrementalMerge = this.state.getPropAsBoolean(MRCompactor.COMPACTION_INCREMENTAL_MERGE,
+        MRCompactor.DEFAULT_COMPACTION_INCREMENTAL_MERGE);
   }
 
   protected List<Dataset> createJobProps() throws IOException {
@@ -192,8 +197,16 @@ public class MRCompactorJobPropCreator {
         dataset.addAdditionalInputPath(dataset.inputLatePath());
       }
 
-      LOG.info(String.format("Will copy %d new data files for %s", newDataFiles.size(), dataset.outputPath()));
-      jobProps.setProp(MRCompactor.COMPACTION_JOB_LATE_DATA_MOVEMENT_TASK, true);
+      if (this.incrementalMerge && this.outputDeduplicated) {
+        LOG.info(String.format("Will merge %d new data files into %s", newDataFiles.size(), dataset.outputPath()));
+        jobProps.setProp(MRCompactor.COMPACTION_JOB_INCREMENTAL_MERGE_TASK, true);
+
+        // The new data has to be sorted and deduplicated before it can be merged into the previous output.
+        jobProps.setProp(MRCompactor.COMPACTION_SHOULD_DEDUPLICATE, true);
+      } else {
+        LOG.info(String.format("Will copy %d new data files for %s", newDataFiles.size(), dataset.outputPath()));
+        jobProps.setProp(MRCompactor.COMPACTION_JOB_LATE_DATA_MOVEMENT_TASK, true);
+      }
       jobProps.setProp(MRCompactor.COMPACTION_JOB_LATE_DATA_FILES, Joiner.on(",").join(newDataFiles));
     }
   }
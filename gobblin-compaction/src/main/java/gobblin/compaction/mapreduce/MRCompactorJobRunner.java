@@ -15,6 +15,7 @@ package gobblin.compaction.mapreduce;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -42,6 +43,7 @@ import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.primitives.Ints;
 
 import gobblin.compaction.dataset.Dataset;
@@ -57,6 +59,7 @@ import gobblin.util.HadoopUtils;
 import gobblin.util.RecordCountProvider;
 import gobblin.util.WriterUtils;
 import gobblin.util.executors.ScalingThreadPoolExecutor;
+import gobblin.util.recordcount.CompactionRecordCountProvider;
 import gobblin.util.recordcount.LateFileRecordCountProvider;
 
 
@@ -73,6 +76,13 @@ import gobblin.util.recordcount.LateFileRecordCountProvider;
  * {@value MRCompactor#COMPACTION_JOB_LATE_DATA_FILES} to a 'late' subdirectory within
  * the output directory.
  *
+ * If {@value MRCompactor#COMPACTION_JOB_INCREMENTAL_MERGE_TASK} is set to true, launches an MR job that
+ * only sorts and deduplicates the files present in {@value MRCompactor#COMPACTION_JOB_LATE_DATA_FILES}
+ * (and any files in the 'late' subdirectory of the output directory), using the same number of reducers
+ * as the previous compaction. The result is then merged with the previous output, partition by partition,
+ * into a new version of the output directory. If the previous output cannot be merged incrementally,
+ * falls back to copying the late files.
+ *
  * @author Ziyang Liu
  */
 @SuppressWarnings("deprecation")
@@ -103,6 +113,9 @@ public abstract class MRCompactorJobRunner implements Runnable, Comparable<MRCom
   private static final String COMPACTION_JOB_USE_PRIME_REDUCERS = COMPACTION_JOB_PREFIX + "use.prime.reducers";
   private static final boolean DEFAULT_COMPACTION_JOB_USE_PRIME_REDUCERS = true;
 
+  private static final String INCREMENTAL_MERGE_TMP_DIR_SUFFIX = "_merged";
+  private static final String INCREMENTAL_MERGE_REPLACED_DIR_SUFFIX = "_replaced";
+
   private static final String HADOOP_JOB_NAME = "Gobblin MR Compaction";
   private static final long MR_JOB_CHECK_COMPLETE_INTERVAL_MS = 5000;
 
@@ -138,6 +151,10 @@ public abstract class MRCompactorJobRunner implements Runnable, Comparable<MRCom
   private final LateFileRecordCountProvider lateOutputRecordCountProvider;
   private final int copyLateDataThreadPoolSize;
 
+  // Input files and number of reducers of an incremental merge, if this job runner is running one.
+  private Optional<List<Path>> incrementalMergeInputPaths = Optional.absent();
+  private int incrementalMergeNumReducers;
+
   private volatile Policy policy = Policy.DO_NOT_PUBLISH_DATA;
   private volatile Status status = Status.RUNNING;
 
@@ -199,31 +216,13 @@ public abstract class MRCompactorJobRunner implements Runnable, Comparable<MRCom
     try {
       DateTime compactionTimestamp = getCompactionTimestamp();
       if (this.dataset.jobProps().getPropAsBoolean(MRCompactor.COMPACTION_JOB_LATE_DATA_MOVEMENT_TASK, false)) {
-        List<Path> newLateFilePaths = Lists.newArrayList();
-        for (String filePathString : this.dataset.jobProps()
-            .getPropAsList(MRCompactor.COMPACTION_JOB_LATE_DATA_FILES)) {
-          if (FilenameUtils.isExtension(filePathString, getApplicableFileExtensions())) {
-            newLateFilePaths.add(new Path(filePathString));
-          }
-        }
-
-        Path lateDataOutputPath = this.outputDeduplicated ? this.dataset.outputLatePath() : this.dataset.outputPath();
-        LOG.info(String.format("Copying %d late data files to %s", newLateFilePaths.size(), lateDataOutputPath));
-        if (this.outputDeduplicated) {
-          if (!this.fs.exists(lateDataOutputPath)) {
-            if (!this.fs.mkdirs(lateDataOutputPath)) {
-              throw new RuntimeException(
-                  String.format("Failed to create late data output directory: %s.", lateDataOutputPath.toString()));
-            }
-          }
-        }
-        this.copyDataFiles(lateDataOutputPath, newLateFilePaths);
-        if (this.outputDeduplicated) {
-          LOG.info("Getting late record count from: " + this.dataset.outputLatePath());
-          this.dataset.checkIfNeedToRecompact(
-              this.lateOutputRecordCountProvider
-                  .getRecordCount(this.getApplicableFilePaths(this.dataset.outputLatePath())),
-              this.outputRecordCountProvider.getRecordCount(this.getApplicableFilePaths(this.dataset.outputPath())));
+        moveLateData();
+        this.status = Status.COMMITTED;
+      } else if (this.dataset.jobProps().getPropAsBoolean(MRCompactor.COMPACTION_JOB_INCREMENTAL_MERGE_TASK, false)) {
+        if (!mergeLateDataIncrementally(conf, compactionTimestamp)) {
+          moveLateData();
+        } else if (this.status == Status.ABORTED) {
+          return;
         }
         this.status = Status.COMMITTED;
       } else {
@@ -258,6 +257,197 @@ public abstract class MRCompactorJobRunner implements Runnable, Comparable<MRCom
     }
   }
 
+  /**
+   * Copy the late data files present in {@value MRCompactor#COMPACTION_JOB_LATE_DATA_FILES} into the output
+   * directory, or into its 'late' subdirectory if the output is deduplicated.
+   */
+  private void moveLateData() throws IOException {
+    List<Path> newLateFilePaths = getLateDataFilePaths();
+    Path lateDataOutputPath = this.outputDeduplicated ? this.dataset.outputLatePath() : this.dataset.outputPath();
+    LOG.info(String.format("Copying %d late data files to %s", newLateFilePaths.size(), lateDataOutputPath));
+    if (this.outputDeduplicated) {
+      if (!this.fs.exists(lateDataOutputPath)) {
+        if (!this.fs.mkdirs(lateDataOutputPath)) {
+          throw new RuntimeException(
+              String.format("Failed to create late data output directory: %s.", lateDataOutputPath.toString()));
+        }
+      }
+    }
+    this.copyDataFiles(lateDataOutputPath, newLateFilePaths);
+    if (this.outputDeduplicated) {
+      LOG.info("Getting late record count from: " + this.dataset.outputLatePath());
+      this.dataset.checkIfNeedToRecompact(
+          this.lateOutputRecordCountProvider
+              .getRecordCount(this.getApplicableFilePaths(this.dataset.outputLatePath())),
+          this.outputRecordCountProvider.getRecordCount(this.getApplicableFilePaths(this.dataset.outputPath())));
+    }
+  }
+
+  private List<Path> getLateDataFilePaths() {
+    List<Path> newLateFilePaths = Lists.newArrayList();
+    for (String filePathString : this.dataset.jobProps().getPropAsList(MRCompactor.COMPACTION_JOB_LATE_DATA_FILES)) {
+      if (FilenameUtils.isExtension(filePathString, getApplicableFileExtensions())) {
+        newLateFilePaths.add(new Path(filePathString));
+      }
+    }
+    return newLateFilePaths;
+  }
+
+  /**
+   * Sort and deduplicate the late data files with an MR job, and merge the result into the previous output.
+   *
+   * @return false if the previous output cannot be merged incrementally, in which case nothing has been changed
+   * in the output directory.
+   */
+  private boolean mergeLateDataIncrementally(Configuration conf, DateTime compactionTimestamp) throws Exception {
+    Optional<List<Path>> previousOutputFiles = getPreviousOutputPartitions();
+    if (!supportsIncrementalMerge() || !previousOutputFiles.isPresent()) {
+      LOG.info(String.format("Output %s cannot be merged incrementally. Will copy late data instead.",
+          this.dataset.outputPath()));
+      return false;
+    }
+
+    List<Path> newDataFilePaths = getLateDataFilePaths();
+    List<Path> previousLateFiles = getApplicableFilePaths(this.dataset.outputLatePath());
+    newDataFilePaths.addAll(previousLateFiles);
+    this.incrementalMergeInputPaths = Optional.of(newDataFilePaths);
+    this.incrementalMergeNumReducers = previousOutputFiles.get().size();
+    LOG.info(String.format("Merging %d new data files into %d partitions of %s", newDataFilePaths.size(),
+        this.incrementalMergeNumReducers, this.dataset.outputPath()));
+
+    addJars(conf);
+    Job job = Job.getInstance(conf);
+    this.configureJob(job);
+    this.submitAndWait(job);
+    if (!shouldPublishData(compactionTimestamp)) {
+      LOG.info("Data not merged for input folder " + this.dataset.inputPath() + " due to incompleteness");
+      this.status = Status.ABORTED;
+      return true;
+    }
+
+    Path mergedPath = getIncrementalMergeTmpPath();
+    this.fs.delete(mergedPath, true);
+    Optional<List<Path>> replacedFiles =
+        mergeSortedPartitions(job, previousOutputFiles.get(), this.dataset.outputTmpPath(), mergedPath);
+    if (!replacedFiles.isPresent()) {
+      LOG.info(String.format("Sorted new data of %s cannot be merged with the previous output. "
+          + "Will copy late data instead.", this.dataset.outputPath()));
+      this.fs.delete(mergedPath, true);
+      this.incrementalMergeInputPaths = Optional.absent();
+      return false;
+    }
+    // The late data merged into the output is no longer late
+    List<Path> filesToReplace = Lists.newArrayList(replacedFiles.get());
+    filesToReplace.addAll(previousLateFiles);
+    publishMergedPartitions(mergedPath, filesToReplace);
+    submitSlaEvent(job);
+    LOG.info("Successfully merged new data for input folder " + this.dataset.inputPath());
+    return true;
+  }
+
+  /**
+   * Get the data files of the previous output, if it can be used as the base of an incremental merge.
+   * This is only the case if all data files directly under the output directory have been written by reducers,
+   * and are therefore each sorted by the dedup key.
+   */
+  private Optional<List<Path>> getPreviousOutputPartitions() throws IOException {
+    if (!this.fs.exists(this.dataset.outputPath())) {
+      return Optional.absent();
+    }
+    List<Path> partitions = Lists.newArrayList();
+    for (FileStatus status : this.fs.listStatus(this.dataset.outputPath())) {
+      if (status.isDirectory()
+          || !FilenameUtils.isExtension(status.getPath().getName(), getApplicableFileExtensions())) {
+        continue;
+      }
+      if (!status.getPath().getName().startsWith(CompactionRecordCountProvider.MR_OUTPUT_FILE_PREFIX)) {
+        return Optional.absent();
+      }
+      partitions.add(status.getPath());
+    }
+    return partitions.isEmpty() ? Optional.<List<Path>> absent() : Optional.of(partitions);
+  }
+
+  private Path getIncrementalMergeTmpPath() {
+    return new Path(this.dataset.outputTmpPath().getParent(),
+        this.dataset.outputTmpPath().getName() + INCREMENTAL_MERGE_TMP_DIR_SUFFIX);
+  }
+
+  private Path getIncrementalMergeReplacedPath() {
+    return new Path(this.dataset.outputTmpPath().getParent(),
+        this.dataset.outputTmpPath().getName() + INCREMENTAL_MERGE_REPLACED_DIR_SUFFIX);
+  }
+
+  /**
+   * Whether this job runner can merge sorted new data into a previous output. Only such job runners override
+   * {@link #mergeSortedPartitions(Job, List, Path, Path)}, which is not called otherwise.
+   */
+  protected boolean supportsIncrementalMerge() {
+    return false;
+  }
+
+  /**
+   * Merge the new data, which has been sorted and deduplicated into {@code sortedNewDataDir} by the given
+   * {@link Job}, with the given data files of the previous output, writing the merged files of the partitions that
+   * received new data into {@code mergedDir}. The previous output must be left unchanged, the merged files are
+   * published by the caller.
+   *
+   * @return the data files of the previous output replaced by the merged files, or {@link Optional#absent()} if the
+   * new data and the previous output are not partitioned the same way, which is always the case for job runners that
+   * do not {@link #supportsIncrementalMerge()}.
+   */
+  protected Optional<List<Path>> mergeSortedPartitions(Job job, List<Path> previousOutputFiles,
+      Path sortedNewDataDir, Path mergedDir) throws IOException {
+    return Optional.absent();
+  }
+
+  /**
+   * Publish the merged files of an incremental merge into the output directory, replacing the given files.
+   *
+   * <p>
+   *   The merged files are moved into the output directory first, then the replaced files are moved out of the
+   *   way. If any move fails, the moves already done are reverted, so that the previous output is left as it was and
+   *   the merge can be run again. The replaced files are only deleted once all the moves succeeded.
+   * </p>
+   */
+  private void publishMergedPartitions(Path mergedDir, List<Path> replacedFiles) throws IOException {
+    LOG.info(String.format("Moving merged files in %s to %s", mergedDir, this.dataset.outputPath()));
+    Path replacedDir = getIncrementalMergeReplacedPath();
+    this.fs.delete(replacedDir, true);
+    if (!this.fs.mkdirs(replacedDir)) {
+      throw new IOException("Failed to create directory " + replacedDir);
+    }
+
+    // Moves done so far, from the destination to the source of each move
+    Map<Path, Path> moves = Maps.newLinkedHashMap();
+    try {
+      for (FileStatus mergedFile : this.fs.listStatus(mergedDir)) {
+        move(mergedFile.getPath(), new Path(this.dataset.outputPath(), mergedFile.getPath().getName()), moves);
+      }
+      for (Path replacedFile : replacedFiles) {
+        move(replacedFile, new Path(replacedDir, replacedFile.getParent().getName() + "-" + replacedFile.getName()),
+            moves);
+      }
+    } catch (IOException ioe) {
+      for (Map.Entry<Path, Path> move : Lists.reverse(Lists.newArrayList(moves.entrySet()))) {
+        if (!this.fs.rename(move.getKey(), move.getValue())) {
+          LOG.error(String.format("Unable to move %s back to %s", move.getKey(), move.getValue()));
+        }
+      }
+      throw ioe;
+    }
+
+    this.fs.delete(replacedDir, true);
+    this.fs.delete(mergedDir, true);
+  }
+
+  private void move(Path src, Path dst, Map<Path, Path> moves) throws IOException {
+    if (!this.fs.rename(src, dst)) {
+      throw new IOException(String.format("Unable to move %s to %s", src, dst));
+    }
+    moves.put(dst, src);
+  }
+
   /**
    * For regular compactions, compaction timestamp is the time the compaction job starts.
    *
@@ -352,6 +542,9 @@ public abstract class MRCompactorJobRunner implements Runnable, Comparable<MRCom
   }
 
   private List<Path> getInputPaths() {
+    if (this.incrementalMergeInputPaths.isPresent()) {
+      return this.incrementalMergeInputPaths.get();
+    }
     List<Path> inputPaths = Lists.newArrayList(this.dataset.inputPath());
     inputPaths.addAll(this.dataset.additionalInputPaths());
     return inputPaths;
@@ -395,6 +588,12 @@ public abstract class MRCompactorJobRunner implements Runnable, Comparable<MRCom
   protected abstract Collection<String> getApplicableFileExtensions();
 
   protected void setNumberOfReducers(Job job) throws IOException {
+    if (this.incrementalMergeInputPaths.isPresent()) {
+
+      // The sorted new data must be partitioned the same way as the previous output it is merged into.
+      job.setNumReduceTasks(this.incrementalMergeNumReducers);
+      return;
+    }
     long inputSize = getInputSize();
     long targetFileSize = getTargetFileSize();
     int numReducers = Math.min(Ints.checkedCast(inputSize / targetFileSize) + 1, getMaxNumReducers());
@@ -483,12 +682,15 @@ public abstract class MRCompactorJobRunner implements Runnable, Comparable<MRCom
   }
 
   private void moveTmpPathToOutputPath() throws IOException {
-    LOG.info(String.format("Moving %s to %s", this.dataset.outputTmpPath(), this.dataset.outputPath()));
+    moveToOutputPath(this.dataset.outputTmpPath());
+  }
+
+  private void moveToOutputPath(Path path) throws IOException {
+    LOG.info(String.format("Moving %s to %s", path, this.dataset.outputPath()));
     this.fs.delete(this.dataset.outputPath(), true);
     WriterUtils.mkdirsWithRecursivePermission(this.fs, this.dataset.outputPath().getParent(), this.perm);
-    if (!this.fs.rename(this.dataset.outputTmpPath(), this.dataset.outputPath())) {
-      throw new IOException(
-          String.format("Unable to move %s to %s", this.dataset.outputTmpPath(), this.dataset.outputPath()));
+    if (!this.fs.rename(path, this.dataset.outputPath())) {
+      throw new IOException(String.format("Unable to move %s to %s", path, this.dataset.outputPath()));
     }
   }
 
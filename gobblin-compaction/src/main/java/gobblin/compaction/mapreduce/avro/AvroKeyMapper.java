@@ -13,6 +13,7 @@
 package gobblin.compaction.mapreduce.avro;
 
 import java.io.IOException;
+import java.util.Map;
 
 import org.apache.avro.AvroRuntimeException;
 import org.apache.avro.Schema;
@@ -28,6 +29,8 @@ import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.mapreduce.Mapper;
 import org.apache.hadoop.mapreduce.lib.input.CombineFileSplit;
 
+import com.google.common.collect.Maps;
+
 
 /**
  * Mapper class for compaction MR job for Avro data.
@@ -37,17 +40,32 @@ import org.apache.hadoop.mapreduce.lib.input.CombineFileSplit;
  *
  * If the number of reducers is set to 0, then it is an identity mapper.
  *
+ * If {@value #MAP_SIDE_DEDUP_BUFFER_SIZE} is set to a positive number, records are buffered in a hash map keyed by
+ * their dedup keys, so that duplicates within the buffer are dropped before the shuffle. The buffer is flushed
+ * whenever it holds that many distinct keys, and at the end of the map task.
+ *
  * @author Ziyang Liu
  */
 public class AvroKeyMapper extends Mapper<AvroKey<GenericRecord>, NullWritable, AvroKey<GenericRecord>, Object> {
 
+  /**
+   * Maximum number of distinct keys buffered by the mapper for map-side deduplication. 0 disables the buffer.
+   */
+  public static final String MAP_SIDE_DEDUP_BUFFER_SIZE = "compaction.job.map.side.dedup.buffer.size";
+  public static final int DEFAULT_MAP_SIDE_DEDUP_BUFFER_SIZE = 0;
+
   public enum EVENT_COUNTER {
-    RECORD_COUNT
+    RECORD_COUNT,
+
+    // Records dropped by the map-side dedup buffer
+    DEDUPED
   }
 
   private AvroKey<GenericRecord> outKey;
   private AvroValue<GenericRecord> outValue;
   private Schema keySchema;
+  private int dedupBufferSize;
+  private Map<GenericRecord, GenericRecord> dedupBuffer;
 
   @Override
   protected void setup(Context context) throws IOException, InterruptedException {
@@ -55,6 +73,9 @@ public class AvroKeyMapper extends Mapper<AvroKey<GenericRecord>, NullWritable,
     this.outKey = new AvroKey<>();
     this.outKey.datum(new GenericData.Record(this.keySchema));
     this.outValue = new AvroValue<>();
+    this.dedupBufferSize =
+        context.getConfiguration().getInt(MAP_SIDE_DEDUP_BUFFER_SIZE, DEFAULT_MAP_SIDE_DEDUP_BUFFER_SIZE);
+    this.dedupBuffer = Maps.newLinkedHashMap();
   }
 
   @Override
@@ -62,26 +83,62 @@ public class AvroKeyMapper extends Mapper<AvroKey<GenericRecord>, NullWritable,
       throws IOException, InterruptedException {
     if (context.getNumReduceTasks() == 0) {
       context.write(key, NullWritable.get());
+    } else if (this.dedupBufferSize > 0) {
+      bufferRecord(key.datum(), context);
     } else {
       populateComparableKeyRecord(key.datum(), this.outKey.datum());
       this.outValue.datum(key.datum());
-      try {
-        context.write(this.outKey, this.outValue);
-      } catch (AvroRuntimeException e) {
-        final Path[] paths = ((CombineFileSplit) context.getInputSplit()).getPaths();
-        throw new IOException("Unable to process paths " + StringUtils.join(paths, ','), e);
-      }
+      write(context);
     }
     context.getCounter(EVENT_COUNTER.RECORD_COUNT).increment(1);
   }
 
+  @Override
+  protected void cleanup(Context context) throws IOException, InterruptedException {
+    flushDedupBuffer(context);
+  }
+
+  /**
+   * Add a record to the dedup buffer, replacing the buffered record with the same key if there is one.
+   */
+  private void bufferRecord(GenericRecord record, Context context) throws IOException, InterruptedException {
+    // The record reader reuses the input record, so the buffer has to hold a copy of it.
+    GenericRecord recordCopy = GenericData.get().deepCopy(record.getSchema(), record);
+    GenericRecord keyRecord = new GenericData.Record(this.keySchema);
+    populateComparableKeyRecord(recordCopy, keyRecord);
+
+    if (this.dedupBuffer.put(keyRecord, recordCopy) != null) {
+      context.getCounter(EVENT_COUNTER.DEDUPED).increment(1);
+    } else if (this.dedupBuffer.size() >= this.dedupBufferSize) {
+      flushDedupBuffer(context);
+    }
+  }
+
+  private void flushDedupBuffer(Context context) throws IOException, InterruptedException {
+    for (Map.Entry<GenericRecord, GenericRecord> entry : this.dedupBuffer.entrySet()) {
+      this.outKey.datum(entry.getKey());
+      this.outValue.datum(entry.getValue());
+      write(context);
+    }
+    this.dedupBuffer.clear();
+  }
+
+  private void write(Context context) throws IOException, InterruptedException {
+    try {
+      context.write(this.outKey, this.outValue);
+    } catch (AvroRuntimeException e) {
+      final Path[] paths = ((CombineFileSplit) context.getInputSplit()).getPaths();
+      throw new IOException("Unable to process paths " + StringUtils.join(paths, ','), e);
+    }
+  }
+
   /**
    * Populate the target record, based on the field values in the source record.
    * Target record's schema should be a subset of source record's schema.
    * Target record's schema cannot have MAP, ARRAY or ENUM fields, or UNION fields that
    * contain these fields.
    */
-  private static void populateComparableKeyRecord(GenericRecord source, GenericRecord target) {
+  static void populateComparableKeyRecord(GenericRecord source, GenericRecord target) {
     for (Field field : target.getSchema().getFields()) {
       if (field.schema().getType() == Schema.Type.UNION) {
 
@@ -0,0 +1,285 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.compaction.mapreduce.avro;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.avro.Schema;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileConstants;
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.Closer;
+
+import gobblin.util.ExecutorsUtils;
+import gobblin.util.executors.ScalingThreadPoolExecutor;
+import gobblin.util.recordcount.CompactionRecordCountProvider;
+
+
+/**
+ * Merges sorted and deduplicated new data into the output of a previous deduping compaction.
+ *
+ * <p>
+ *   Each output file of a deduping compaction is written by a single reducer, and is therefore sorted by the dedup
+ *   key and contains exactly the keys assigned to that reducer by the hash partitioner. If the new data is sorted and
+ *   deduplicated by an MR job with the same key schema and the same number of reducers, each of its output files can
+ *   be merged with the previous output file of the same partition using a single sequential merge pass, without
+ *   shuffling the previous output again.
+ * </p>
+ *
+ * <p>
+ *   The partition of a file is determined from the key of its first record. If the files of either side cannot be
+ *   assigned to distinct partitions (e.g., because the key schema changed since the previous compaction),
+ *   {@link #merge(List, List, Path)} returns {@link Optional#absent()} without writing anything. When both sides
+ *   contain a record with
+ *   the same key, the record from the new data is kept, which matches {@link AvroKeyDedupReducer} keeping the last
+ *   record of each key.
+ * </p>
+ *
+ * <p>
+ *   Only the partitions that received new data are written, and the previous output is never modified, so the cost
+ *   of a merge is proportional to the size of the partitions that actually received new data, and a failed merge can
+ *   be run again. Replacing the previous files of these partitions with the merged files is left to the caller.
+ * </p>
+ */
+public class AvroKeySortedMerger {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AvroKeySortedMerger.class);
+
+  private static final String MERGE_TMP_FILE_PREFIX = "_merging-";
+
+  private final FileSystem fs;
+  private final Schema keySchema;
+  private final Schema outputSchema;
+  private final int threadPoolSize;
+
+  public AvroKeySortedMerger(FileSystem fs, Schema keySchema, Schema outputSchema, int threadPoolSize) {
+    this.fs = fs;
+    this.keySchema = keySchema;
+    this.outputSchema = outputSchema;
+    this.threadPoolSize = threadPoolSize;
+  }
+
+  /**
+   * Merge the given sorted new data files into the given previous output files, writing the merged files of the
+   * partitions that received new data into mergedDir.
+   *
+   * @param previousFiles data files of the previous output. The number of files is the number of partitions.
+   * @param newDataFiles sorted and deduplicated new data files, partitioned into the same number of partitions.
+   * @param mergedDir directory where the merged files are written.
+   * @return the previous files replaced by the merged files, or {@link Optional#absent()} if the files cannot be
+   * matched by partition, in which case nothing has been written.
+   */
+  public Optional<List<Path>> merge(List<Path> previousFiles, List<Path> newDataFiles, Path mergedDir)
+      throws IOException {
+    int numPartitions = previousFiles.size();
+    Optional<PartitionedFiles> previous = assignPartitions(previousFiles, numPartitions);
+    Optional<PartitionedFiles> newData = assignPartitions(newDataFiles, numPartitions);
+    if (!previous.isPresent() || !newData.isPresent()) {
+      return Optional.absent();
+    }
+
+    if (!this.fs.mkdirs(mergedDir)) {
+      throw new IOException("Failed to create directory " + mergedDir);
+    }
+
+    // An empty file of the previous output is replaced by the merged file of a partition that had no previous
+    // records, so that the merged output has as many files as there are partitions.
+    Iterator<Path> emptyPreviousFiles = previous.get().emptyFiles.iterator();
+    List<Path> replacedFiles = Lists.newArrayList();
+    List<Callable<Void>> mergeTasks = Lists.newArrayList();
+    for (Map.Entry<Integer, Path> entry : newData.get().partitions.entrySet()) {
+      Optional<Path> previousFile = Optional.fromNullable(previous.get().partitions.get(entry.getKey()));
+      if (previousFile.isPresent()) {
+        replacedFiles.add(previousFile.get());
+      } else if (emptyPreviousFiles.hasNext()) {
+        replacedFiles.add(emptyPreviousFiles.next());
+      }
+      mergeTasks.add(newMergeTask(previousFile, entry.getValue(), mergedDir));
+    }
+    try {
+      runMergeTasks(mergeTasks, mergedDir);
+    } catch (IOException ioe) {
+      this.fs.delete(mergedDir, true);
+      throw ioe;
+    }
+
+    LOG.info(String.format("Merged %d partitions into %s, %d partitions unchanged", mergeTasks.size(), mergedDir,
+        numPartitions - mergeTasks.size()));
+    return Optional.of(replacedFiles);
+  }
+
+  private void runMergeTasks(List<Callable<Void>> mergeTasks, Path mergedDir) throws IOException {
+    ExecutorService executor = ScalingThreadPoolExecutor.newScalingThreadPool(0, this.threadPoolSize, 100,
+        ExecutorsUtils.newThreadFactory(Optional.of(LOG), Optional.of(mergedDir.getName() + "-merge-%d")));
+    List<Future<Void>> futures = Lists.newArrayList();
+    for (Callable<Void> mergeTask : mergeTasks) {
+      futures.add(executor.submit(mergeTask));
+    }
+    try {
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } catch (ExecutionException | InterruptedException e) {
+      throw new IOException("Failed to merge partition.", e);
+    } finally {
+      ExecutorsUtils.shutdownExecutorService(executor, Optional.of(LOG));
+    }
+  }
+
+  private Callable<Void> newMergeTask(final Optional<Path> previousFile, final Path newDataFile,
+      final Path mergedDir) {
+    return new Callable<Void>() {
+      @Override
+      public Void call() throws Exception {
+        mergePartition(previousFile, newDataFile, mergedDir);
+        return null;
+      }
+    };
+  }
+
+  private void mergePartition(Optional<Path> previousFile, Path newDataFile, Path mergedDir) throws IOException {
+    Path tmpFile = new Path(mergedDir, MERGE_TMP_FILE_PREFIX + newDataFile.getName());
+    long recordCount = 0;
+    long replacedCount = 0;
+
+    try (Closer closer = Closer.create()) {
+      DataFileStream<GenericRecord> newRecords = closer.register(openDataFile(newDataFile));
+      Optional<DataFileStream<GenericRecord>> previousRecords = previousFile.isPresent()
+          ? Optional.of(closer.register(openDataFile(previousFile.get())))
+          : Optional.<DataFileStream<GenericRecord>> absent();
+
+      DataFileWriter<GenericRecord> writer =
+          closer.register(new DataFileWriter<>(new GenericDatumWriter<GenericRecord>(this.outputSchema)));
+      writer.setCodec(getCodec(previousRecords.isPresent() ? previousRecords.get() : newRecords));
+      writer.create(this.outputSchema, this.fs.create(tmpFile, true));
+
+      GenericRecord previousKey = new GenericData.Record(this.keySchema);
+      GenericRecord newKey = new GenericData.Record(this.keySchema);
+      GenericRecord previousRecord = nextRecord(previousRecords, previousKey);
+      GenericRecord newRecord = nextRecord(Optional.of(newRecords), newKey);
+
+      while (previousRecord != null && newRecord != null) {
+        int comparison = GenericData.get().compare(previousKey, newKey, this.keySchema);
+        if (comparison < 0) {
+          writer.append(previousRecord);
+          previousRecord = nextRecord(previousRecords, previousKey);
+        } else {
+          if (comparison == 0) {
+            replacedCount++;
+            previousRecord = nextRecord(previousRecords, previousKey);
+          }
+          writer.append(newRecord);
+          newRecord = nextRecord(Optional.of(newRecords), newKey);
+        }
+        recordCount++;
+      }
+      for (; previousRecord != null; previousRecord = nextRecord(previousRecords, previousKey)) {
+        writer.append(previousRecord);
+        recordCount++;
+      }
+      for (; newRecord != null; newRecord = nextRecord(Optional.of(newRecords), newKey)) {
+        writer.append(newRecord);
+        recordCount++;
+      }
+    }
+
+    Path mergedFile = new Path(mergedDir,
+        CompactionRecordCountProvider.constructFileName(CompactionRecordCountProvider.MR_OUTPUT_FILE_PREFIX,
+            recordCount));
+    if (!this.fs.rename(tmpFile, mergedFile)) {
+      throw new IOException(String.format("Unable to move %s to %s", tmpFile, mergedFile));
+    }
+    LOG.debug(String.format("Merged %s and %s into %s, %d records replaced by new data.",
+        previousFile.isPresent() ? previousFile.get() : "no previous output", newDataFile, mergedFile,
+        replacedCount));
+  }
+
+  /**
+   * Read the next record of the given stream and populate its key, or return null if the stream is exhausted.
+   */
+  private static GenericRecord nextRecord(Optional<DataFileStream<GenericRecord>> records, GenericRecord key) {
+    if (!records.isPresent() || !records.get().hasNext()) {
+      return null;
+    }
+    GenericRecord record = records.get().next();
+    AvroKeyMapper.populateComparableKeyRecord(record, key);
+    return record;
+  }
+
+  private DataFileStream<GenericRecord> openDataFile(Path file) throws IOException {
+    InputStream in = this.fs.open(file);
+    try {
+      // Records of the previous output may have been written with an older schema.
+      return new DataFileStream<>(in, new GenericDatumReader<GenericRecord>(this.outputSchema));
+    } catch (IOException e) {
+      in.close();
+      throw e;
+    }
+  }
+
+  private static CodecFactory getCodec(DataFileStream<GenericRecord> dataFile) {
+    String codec = dataFile.getMetaString(DataFileConstants.CODEC);
+    return codec == null ? CodecFactory.nullCodec() : CodecFactory.fromString(codec);
+  }
+
+  /**
+   * Assign each file to the partition the hash partitioner assigned its first key to.
+   */
+  private Optional<PartitionedFiles> assignPartitions(List<Path> files, int numPartitions) throws IOException {
+    PartitionedFiles partitionedFiles = new PartitionedFiles();
+    for (Path file : files) {
+      try (DataFileStream<GenericRecord> records = openDataFile(file)) {
+        if (!records.hasNext()) {
+          partitionedFiles.emptyFiles.add(file);
+          continue;
+        }
+        GenericRecord key = new GenericData.Record(this.keySchema);
+        AvroKeyMapper.populateComparableKeyRecord(records.next(), key);
+        int partition = (key.hashCode() & Integer.MAX_VALUE) % numPartitions;
+        if (partitionedFiles.partitions.containsKey(partition)) {
+          LOG.warn(String.format("Files %s and %s both belong to partition %d of %d.",
+              partitionedFiles.partitions.get(partition), file, partition, numPartitions));
+          return Optional.absent();
+        }
+        partitionedFiles.partitions.put(partition, file);
+      }
+    }
+    return Optional.of(partitionedFiles);
+  }
+
+  private static class PartitionedFiles {
+    private final Map<Integer, Path> partitions = Maps.newHashMap();
+    private final List<Path> emptyFiles = Lists.newArrayList();
+  }
+}
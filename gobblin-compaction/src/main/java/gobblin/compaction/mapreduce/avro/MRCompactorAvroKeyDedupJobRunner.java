@@ -76,6 +76,19 @@ public class MRCompactorAvroKeyDedupJobRunner extends MRCompactorJobRunner {
   private static final String COMPACTION_JOB_AVRO_KEY_SCHEMA_LOC = COMPACTION_JOB_PREFIX + "avro.key.schema.loc";
   private static final String COMPACTION_JOB_DEDUP_KEY = COMPACTION_JOB_PREFIX + "dedup.key";
 
+  /**
+   * Number of threads used to merge sorted new data into the previous output in an incremental merge.
+   */
+  private static final String COMPACTION_JOB_INCREMENTAL_MERGE_THREAD_POOL_SIZE =
+      COMPACTION_JOB_PREFIX + "incremental.merge.thread.pool.size";
+  private static final int DEFAULT_COMPACTION_JOB_INCREMENTAL_MERGE_THREAD_POOL_SIZE = 5;
+
+  /**
+   * If true, {@link AvroKeyDedupCombiner} is used to drop duplicates of the map output before the shuffle.
+   */
+  private static final String COMPACTION_JOB_DEDUP_COMBINER_ENABLED = COMPACTION_JOB_PREFIX + "dedup.combiner.enabled";
+  private static final boolean DEFAULT_COMPACTION_JOB_DEDUP_COMBINER_ENABLED = false;
+
   private static final String AVRO = "avro";
   private static final String SCHEMA_DEDUP_FIELD_ANNOTATOR = "primarykey";
 
@@ -105,6 +118,10 @@ public class MRCompactorAvroKeyDedupJobRunner extends MRCompactorJobRunner {
   protected void configureJob(Job job) throws IOException {
     super.configureJob(job);
     configureSchema(job);
+    if (this.shouldDeduplicate && this.dataset.jobProps().getPropAsBoolean(COMPACTION_JOB_DEDUP_COMBINER_ENABLED,
+        DEFAULT_COMPACTION_JOB_DEDUP_COMBINER_ENABLED)) {
+      job.setCombinerClass(AvroKeyDedupCombiner.class);
+    }
   }
 
   private void configureSchema(Job job) throws IOException {
@@ -266,6 +283,27 @@ public class MRCompactorAvroKeyDedupJobRunner extends MRCompactorJobRunner {
     return new Path(this.dataset.jobProps().getProp(COMPACTION_JOB_AVRO_KEY_SCHEMA_LOC));
   }
 
+  @Override
+  protected boolean supportsIncrementalMerge() {
+    return this.shouldDeduplicate;
+  }
+
+  @Override
+  protected Optional<List<Path>> mergeSortedPartitions(Job job, List<Path> previousOutputFiles,
+      Path sortedNewDataDir, Path mergedDir) throws IOException {
+    List<Path> sortedNewDataFiles = Lists.newArrayList();
+    for (FileStatus status : this.fs.listStatus(sortedNewDataDir)) {
+      if (FilenameUtils.isExtension(status.getPath().getName(), AVRO)) {
+        sortedNewDataFiles.add(status.getPath());
+      }
+    }
+    int threadPoolSize = this.dataset.jobProps().getPropAsInt(COMPACTION_JOB_INCREMENTAL_MERGE_THREAD_POOL_SIZE,
+        DEFAULT_COMPACTION_JOB_INCREMENTAL_MERGE_THREAD_POOL_SIZE);
+    return new AvroKeySortedMerger(this.fs, AvroJob.getMapOutputKeySchema(job.getConfiguration()),
+        AvroJob.getOutputKeySchema(job.getConfiguration()), threadPoolSize)
+            .merge(previousOutputFiles, sortedNewDataFiles, mergedDir);
+  }
+
   @Override
   protected void setInputFormatClass(Job job) {
     job.setInputFormatClass(AvroKeyRecursiveCombineFileInputFormat.class);
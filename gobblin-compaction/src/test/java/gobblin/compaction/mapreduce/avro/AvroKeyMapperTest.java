@@ -0,0 +1,286 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.compaction.mapreduce.avro;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.mapred.AvroKey;
+import org.apache.avro.mapred.AvroValue;
+import org.apache.avro.mapreduce.AvroJob;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.mapreduce.Counters;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.Reducer;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+
+/**
+ * Unit tests for the map-side deduplication of {@link AvroKeyMapper}, and of its output by {@link AvroKeyDedupCombiner}
+ * and {@link AvroKeyDedupReducer}.
+ */
+@Test(groups = { "gobblin.compaction.mapreduce.avro" })
+public class AvroKeyMapperTest {
+
+  private static final Schema KEY_SCHEMA =
+      SchemaBuilder.record("Event").fields().requiredInt("id").endRecord();
+  private static final Schema SCHEMA =
+      SchemaBuilder.record("Event").fields().requiredInt("id").requiredString("value").endRecord();
+
+  @Test
+  public void testDedupBufferDisabledByDefault() throws Exception {
+    MapperRun run = new MapperRun(newConfiguration());
+    run.map(1, "a");
+    run.map(1, "b");
+    run.map(2, "a");
+    run.map(1, "c");
+    run.cleanup();
+
+    // Every record is emitted as soon as it is read
+    Assert.assertEquals(run.getOutputValues(), Lists.newArrayList("1a", "1b", "2a", "1c"));
+    Assert.assertEquals(run.getCount(AvroKeyMapper.EVENT_COUNTER.DEDUPED), 0);
+    Assert.assertEquals(run.getCount(AvroKeyMapper.EVENT_COUNTER.RECORD_COUNT), 4);
+  }
+
+  @Test
+  public void testDedupBufferFlushesAtCapacity() throws Exception {
+    Configuration conf = newConfiguration();
+    conf.setInt(AvroKeyMapper.MAP_SIDE_DEDUP_BUFFER_SIZE, 2);
+    MapperRun run = new MapperRun(conf);
+
+    run.map(1, "a");
+    Assert.assertTrue(run.getOutput().isEmpty());
+    // The buffer holds 2 distinct keys, so it is flushed
+    run.map(2, "a");
+    Assert.assertEquals(run.getOutputValues(), Lists.newArrayList("1a", "2a"));
+
+    // A duplicate within the buffer replaces the buffered record and does not fill the buffer
+    run.map(1, "b");
+    run.map(1, "c");
+    Assert.assertEquals(run.getOutput().size(), 2);
+    run.map(3, "a");
+    Assert.assertEquals(run.getOutputValues(), Lists.newArrayList("1a", "2a", "1c", "3a"));
+
+    // The rest of the buffer is flushed at the end of the map task
+    run.map(2, "b");
+    Assert.assertEquals(run.getOutput().size(), 4);
+    run.cleanup();
+    Assert.assertEquals(run.getOutputValues(), Lists.newArrayList("1a", "2a", "1c", "3a", "2b"));
+
+    Assert.assertEquals(run.getCount(AvroKeyMapper.EVENT_COUNTER.DEDUPED), 1);
+    Assert.assertEquals(run.getCount(AvroKeyMapper.EVENT_COUNTER.RECORD_COUNT), 6);
+  }
+
+  @Test
+  public void testDuplicatesAcrossFlushesRemovedByReducer() throws Exception {
+    Configuration conf = newConfiguration();
+    conf.setInt(AvroKeyMapper.MAP_SIDE_DEDUP_BUFFER_SIZE, 2);
+    MapperRun run = new MapperRun(conf);
+    run.map(1, "a");
+    run.map(2, "a");
+    run.map(1, "b");
+    run.map(1, "c");
+    run.map(3, "a");
+    run.map(2, "b");
+    run.cleanup();
+
+    // Duplicates emitted in different flushes of the buffer reach the combiner and the reducer
+    Map<GenericRecord, List<GenericRecord>> mapOutput = groupByKey(run.getOutput());
+    Assert.assertEquals(mapOutput.size(), 3);
+
+    Counters combinerCounters = new Counters();
+    Map<GenericRecord, List<GenericRecord>> combinerOutput = groupByKey(combine(mapOutput, combinerCounters));
+    Assert.assertEquals(combinerCounters.findCounter(AvroKeyDedupCombiner.EVENT_COUNTER.DEDUPED).getValue(), 2);
+
+    Counters reducerCounters = new Counters();
+    Assert.assertEquals(getValues(reduce(mapOutput, reducerCounters)), Lists.newArrayList("1c", "2b", "3a"));
+    Assert.assertEquals(reducerCounters.findCounter(AvroKeyDedupReducer.EVENT_COUNTER.DEDUPED).getValue(), 2);
+    Assert.assertEquals(getValues(reduce(combinerOutput, new Counters())), Lists.newArrayList("1c", "2b", "3a"));
+  }
+
+  private static Configuration newConfiguration() throws IOException {
+    Job job = Job.getInstance(new Configuration());
+    AvroJob.setMapOutputKeySchema(job, KEY_SCHEMA);
+    return job.getConfiguration();
+  }
+
+  private static Map<GenericRecord, List<GenericRecord>> groupByKey(
+      List<Map.Entry<GenericRecord, GenericRecord>> output) {
+    Map<GenericRecord, List<GenericRecord>> groups = Maps.newLinkedHashMap();
+    for (Map.Entry<GenericRecord, GenericRecord> entry : output) {
+      if (!groups.containsKey(entry.getKey())) {
+        groups.put(entry.getKey(), Lists.<GenericRecord> newArrayList());
+      }
+      groups.get(entry.getKey()).add(entry.getValue());
+    }
+    return groups;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Map.Entry<GenericRecord, GenericRecord>> combine(Map<GenericRecord, List<GenericRecord>> input,
+      Counters counters) throws Exception {
+    final List<Map.Entry<GenericRecord, GenericRecord>> output = Lists.newArrayList();
+    AvroKeyDedupCombiner combiner = new AvroKeyDedupCombiner();
+    Reducer.Context context = mockReducerContext(counters);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) {
+        output.add(Maps.immutableEntry(copy(((AvroKey<GenericRecord>) invocation.getArguments()[0]).datum()),
+            copy(((AvroValue<GenericRecord>) invocation.getArguments()[1]).datum())));
+        return null;
+      }
+    }).when(context).write(any(), any());
+
+    combiner.setup(context);
+    for (Map.Entry<GenericRecord, List<GenericRecord>> entry : input.entrySet()) {
+      combiner.reduce(new AvroKey<>(entry.getKey()), toAvroValues(entry.getValue()), context);
+    }
+    return output;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<GenericRecord> reduce(Map<GenericRecord, List<GenericRecord>> input, Counters counters)
+      throws Exception {
+    final List<GenericRecord> output = Lists.newArrayList();
+    AvroKeyDedupReducer reducer = new AvroKeyDedupReducer();
+    Reducer.Context context = mockReducerContext(counters);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) {
+        output.add(copy(((AvroKey<GenericRecord>) invocation.getArguments()[0]).datum()));
+        return null;
+      }
+    }).when(context).write(any(), any());
+
+    reducer.setup(context);
+    for (Map.Entry<GenericRecord, List<GenericRecord>> entry : input.entrySet()) {
+      reducer.reduce(new AvroKey<>(entry.getKey()), toAvroValues(entry.getValue()), context);
+    }
+    return output;
+  }
+
+  private static Reducer.Context mockReducerContext(Counters counters) {
+    Reducer.Context context = mock(Reducer.Context.class);
+    when(context.getCounter(any(Enum.class))).thenAnswer(new CounterAnswer(counters));
+    return context;
+  }
+
+  private static List<AvroValue<GenericRecord>> toAvroValues(List<GenericRecord> records) {
+    List<AvroValue<GenericRecord>> values = Lists.newArrayList();
+    for (GenericRecord record : records) {
+      values.add(new AvroValue<>(record));
+    }
+    return values;
+  }
+
+  private static List<String> getValues(List<GenericRecord> records) {
+    List<String> values = Lists.newArrayList();
+    for (GenericRecord record : records) {
+      values.add(record.get("id") + record.get("value").toString());
+    }
+    return values;
+  }
+
+  private static GenericRecord copy(GenericRecord record) {
+    return GenericData.get().deepCopy(record.getSchema(), record);
+  }
+
+  private static class CounterAnswer implements Answer<Object> {
+    private final Counters counters;
+
+    private CounterAnswer(Counters counters) {
+      this.counters = counters;
+    }
+
+    @Override
+    public Object answer(InvocationOnMock invocation) {
+      return this.counters.findCounter((Enum<?>) invocation.getArguments()[0]);
+    }
+  }
+
+  /**
+   * Runs an {@link AvroKeyMapper} on records read into the same record object, as a record reader does, and collects
+   * copies of its output.
+   */
+  private static class MapperRun {
+    private final AvroKeyMapper mapper = new AvroKeyMapper();
+    private final Mapper.Context context;
+    private final Counters counters = new Counters();
+    private final GenericRecord inputRecord = new GenericData.Record(SCHEMA);
+    private final List<Map.Entry<GenericRecord, GenericRecord>> output = Lists.newArrayList();
+
+    @SuppressWarnings("unchecked")
+    private MapperRun(Configuration conf) throws Exception {
+      this.context = mock(Mapper.Context.class);
+      when(this.context.getConfiguration()).thenReturn(conf);
+      when(this.context.getNumReduceTasks()).thenReturn(1);
+      when(this.context.getCounter(any(Enum.class))).thenAnswer(new CounterAnswer(this.counters));
+      doAnswer(new Answer<Void>() {
+        @Override
+        public Void answer(InvocationOnMock invocation) {
+          MapperRun.this.output.add(
+              Maps.immutableEntry(copy(((AvroKey<GenericRecord>) invocation.getArguments()[0]).datum()),
+                  copy(((AvroValue<GenericRecord>) invocation.getArguments()[1]).datum())));
+          return null;
+        }
+      }).when(this.context).write(any(), any());
+      this.mapper.setup(this.context);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void map(int id, String value) throws Exception {
+      this.inputRecord.put("id", id);
+      this.inputRecord.put("value", value);
+      this.mapper.map(new AvroKey<>(this.inputRecord), NullWritable.get(), this.context);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void cleanup() throws Exception {
+      this.mapper.cleanup(this.context);
+    }
+
+    private List<Map.Entry<GenericRecord, GenericRecord>> getOutput() {
+      return this.output;
+    }
+
+    private List<String> getOutputValues() {
+      List<GenericRecord> values = Lists.newArrayList();
+      for (Map.Entry<GenericRecord, GenericRecord> entry : this.output) {
+        values.add(entry.getValue());
+      }
+      return getValues(values);
+    }
+
+    private long getCount(Enum<?> counter) {
+      return this.counters.findCounter(counter).getValue();
+    }
+  }
+}
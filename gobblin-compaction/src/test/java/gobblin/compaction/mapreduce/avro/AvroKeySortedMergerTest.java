@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.compaction.mapreduce.avro;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.FileUtil;
+import org.apache.hadoop.fs.Path;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import gobblin.util.recordcount.CompactionRecordCountProvider;
+
+
+/**
+ * Unit tests for {@link AvroKeySortedMerger}.
+ */
+@Test(groups = { "gobblin.compaction.mapreduce.avro" })
+public class AvroKeySortedMergerTest {
+
+  private static final int NUM_PARTITIONS = 3;
+
+  private static final Schema KEY_SCHEMA =
+      SchemaBuilder.record("Event").fields().requiredInt("id").endRecord();
+  private static final Schema SCHEMA =
+      SchemaBuilder.record("Event").fields().requiredInt("id").requiredString("value").endRecord();
+
+  private final Path testDir = new Path("gobblin-compaction/src/test/resources/avroKeySortedMergerTest");
+  private FileSystem fs;
+
+  @BeforeClass
+  public void setUp() throws IOException {
+    this.fs = FileSystem.getLocal(new Configuration());
+    this.fs.delete(this.testDir, true);
+  }
+
+  @Test
+  public void testMerge() throws IOException {
+    Path previousDir = new Path(this.testDir, "previous");
+    Path newDataDir = new Path(this.testDir, "new");
+    Path mergedDir = new Path(this.testDir, "merged");
+
+    Map<Integer, String> previous = Maps.newHashMap();
+    for (int id = 0; id < 20; id++) {
+      previous.put(id, "old");
+    }
+    Map<Integer, String> newData = Maps.newHashMap();
+    for (int id = 15; id < 30; id++) {
+      if (partition(id) != 0) {
+        newData.put(id, "new");
+      }
+    }
+
+    List<Path> previousFiles = writePartitions(previous, previousDir);
+    List<Path> newDataFiles = writePartitions(newData, newDataDir);
+
+    AvroKeySortedMerger merger = new AvroKeySortedMerger(this.fs, KEY_SCHEMA, SCHEMA, 2);
+    Optional<List<Path>> replacedFiles = merger.merge(previousFiles, newDataFiles, mergedDir);
+    Assert.assertTrue(replacedFiles.isPresent());
+
+    // The previous output is left unchanged, and the merged files only replace the partitions with new data
+    for (Path previousFile : previousFiles) {
+      Assert.assertTrue(this.fs.exists(previousFile));
+    }
+    FileStatus[] mergedFiles = this.fs.listStatus(mergedDir);
+    Assert.assertEquals(mergedFiles.length, replacedFiles.get().size());
+    List<Path> outputFiles = Lists.newArrayList(previousFiles);
+    outputFiles.removeAll(replacedFiles.get());
+    for (FileStatus mergedFile : mergedFiles) {
+      outputFiles.add(mergedFile.getPath());
+    }
+
+    Map<Integer, String> expected = Maps.newHashMap(previous);
+    expected.putAll(newData);
+    Map<Integer, String> actual = Maps.newHashMap();
+    Assert.assertEquals(outputFiles.size(), NUM_PARTITIONS);
+    for (Path outputFile : outputFiles) {
+      List<GenericRecord> records = readRecords(outputFile);
+      if (!previousFiles.contains(outputFile)) {
+        Assert.assertEquals(new CompactionRecordCountProvider().getRecordCount(outputFile), records.size());
+      }
+      int lastId = Integer.MIN_VALUE;
+      for (GenericRecord record : records) {
+        int id = (Integer) record.get("id");
+        Assert.assertTrue(id > lastId, "Merged partition is not sorted and deduplicated");
+        lastId = id;
+        actual.put(id, record.get("value").toString());
+      }
+    }
+    Assert.assertEquals(actual, expected);
+  }
+
+  @Test
+  public void testMergeWithMismatchedPartitions() throws IOException {
+    Path previousDir = new Path(this.testDir, "mismatchedPrevious");
+    Path mergedDir = new Path(this.testDir, "mismatchedMerged");
+
+    Map<Integer, String> previous = Maps.newHashMap();
+    for (int id = 0; id < 20; id++) {
+      previous.put(id, "old");
+    }
+    List<Path> previousFiles = writePartitions(previous, previousDir);
+
+    // Two files starting with the same key cannot belong to different partitions.
+    Path copy = new Path(previousDir, "part-r-copy.avro");
+    FileUtil.copy(this.fs, previousFiles.get(0), this.fs, copy, false, this.fs.getConf());
+    previousFiles.add(copy);
+
+    AvroKeySortedMerger merger = new AvroKeySortedMerger(this.fs, KEY_SCHEMA, SCHEMA, 2);
+    Assert.assertFalse(merger.merge(previousFiles, Lists.newArrayList(previousFiles), mergedDir).isPresent());
+    Assert.assertFalse(this.fs.exists(mergedDir));
+    for (Path previousFile : previousFiles) {
+      Assert.assertTrue(this.fs.exists(previousFile));
+    }
+  }
+
+  @AfterClass
+  public void tearDown() throws IOException {
+    this.fs.delete(this.testDir, true);
+  }
+
+  /**
+   * Write the given records into sorted files, partitioned the same way as the hash partitioner of a compaction job.
+   */
+  private List<Path> writePartitions(Map<Integer, String> records, Path dir) throws IOException {
+    List<Path> files = Lists.newArrayList();
+    for (int partition = 0; partition < NUM_PARTITIONS; partition++) {
+      List<Integer> ids = Lists.newArrayList();
+      for (int id : records.keySet()) {
+        if (partition(id) == partition) {
+          ids.add(id);
+        }
+      }
+      Collections.sort(ids);
+      List<GenericRecord> partitionRecords = Lists.newArrayList();
+      for (int id : ids) {
+        GenericRecord record = new GenericData.Record(SCHEMA);
+        record.put("id", id);
+        record.put("value", records.get(id));
+        partitionRecords.add(record);
+      }
+      Path file = new Path(dir, CompactionRecordCountProvider
+          .constructFileName(CompactionRecordCountProvider.MR_OUTPUT_FILE_PREFIX, partitionRecords.size()));
+      writeFile(file, partitionRecords);
+      files.add(file);
+    }
+    return files;
+  }
+
+  private static int partition(int id) {
+    GenericRecord key = new GenericData.Record(KEY_SCHEMA);
+    key.put("id", id);
+    return (key.hashCode() & Integer.MAX_VALUE) % NUM_PARTITIONS;
+  }
+
+  private void writeFile(Path file, List<GenericRecord> records) throws IOException {
+    try (DataFileWriter<GenericRecord> writer =
+        new DataFileWriter<>(new GenericDatumWriter<GenericRecord>(SCHEMA))) {
+      writer.create(SCHEMA, this.fs.create(file, true));
+      for (GenericRecord record : records) {
+        writer.append(record);
+      }
+    }
+  }
+
+  private List<GenericRecord> readRecords(Path file) throws IOException {
+    List<GenericRecord> records = Lists.newArrayList();
+    try (DataFileStream<GenericRecord> reader =
+        new DataFileStream<>(this.fs.open(file), new GenericDatumReader<GenericRecord>(SCHEMA))) {
+      for (GenericRecord record : reader) {
+        records.add(record);
+      }
+    }
+    return records;
+  }
+}
@@ -19,15 +19,20 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.log4j.Logger;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
 import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
 
 import gobblin.config.client.api.ConfigStoreFactoryDoesNotExistsException;
 import gobblin.config.client.api.VersionStabilityPolicy;
@@ -55,7 +60,20 @@ import gobblin.config.store.api.VersionDoesNotExistException;
 public class ConfigClient {
   private static final Logger LOG = Logger.getLogger(ConfigClient.class);
 
+  /** Global namespace for the properties of the {@link ConfigClient}s created by {@link #createConfigClient} */
+  public static final String DEFAULT_CONFIG_NAMESPACE = ConfigClient.class.getName();
+  /**
+   * Maximum number of merged {@link Config}s of config keys kept for each cached {@link ConfigStore} version, so that
+   * the ancestors and imports shared by the config keys of a dataset tree are merged only once. 0 to not keep them.
+   */
+  public static final String MAX_MERGED_CONFIGS_PER_VERSION_KEY = "max_merged_configs_per_version";
+  public static final long DEFAULT_MAX_MERGED_CONFIGS_PER_VERSION = 10000;
+
   private final VersionStabilityPolicy policy;
+  private final long maxMergedConfigsPerVersion;
+
+  // The value inspectors keeping merged configs, for their statistics
+  private final List<ConfigStoreBackedValueInspector> mergingValueInspectors = new CopyOnWriteArrayList<>();
 
   /** Normally key is the ConfigStore.getStoreURI(), value is the ConfigStoreAccessor
    *  
@@ -78,20 +96,61 @@ public class ConfigClient {
     this(policy, new ConfigStoreFactoryRegister());
   }
 
+  private ConfigClient(VersionStabilityPolicy policy, Config clientConfig) {
+    this(policy, new ConfigStoreFactoryRegister(), clientConfig);
+  }
+
   @VisibleForTesting
   ConfigClient(VersionStabilityPolicy policy, ConfigStoreFactoryRegister register) {
+    this(policy, register, getDefaultClientConfig());
+  }
+
+  @VisibleForTesting
+  ConfigClient(VersionStabilityPolicy policy, ConfigStoreFactoryRegister register, Config clientConfig) {
     this.policy = policy;
+    this.maxMergedConfigsPerVersion = clientConfig.hasPath(MAX_MERGED_CONFIGS_PER_VERSION_KEY)
+        ? clientConfig.getLong(MAX_MERGED_CONFIGS_PER_VERSION_KEY) : DEFAULT_MAX_MERGED_CONFIGS_PER_VERSION;
 
     this.configStoreFactoryRegister = register;
   }
 
   /**
-   * Create the {@link ConfigClient} based on the {@link VersionStabilityPolicy}. 
+   * Create the {@link ConfigClient} based on the {@link VersionStabilityPolicy}, configured by the
+   * {@link #DEFAULT_CONFIG_NAMESPACE} scope of {@link ConfigFactory#load()} if present.
    * @param policy - {@link VersionStabilityPolicy} to specify the stability policy which control the caching layer creation 
    * @return       - {@link ConfigClient} for client to use to access the {@link ConfigStore}
    */
   public static ConfigClient createConfigClient(VersionStabilityPolicy policy) {
-    return new ConfigClient(policy);
+    return new ConfigClient(policy, getDefaultClientConfig());
+  }
+
+  /**
+   * Create the {@link ConfigClient} based on the {@link VersionStabilityPolicy} with the specified config. The
+   * configuration is expected to be scoped, i.e. the properties should not be prefixed.
+   */
+  public static ConfigClient createConfigClient(VersionStabilityPolicy policy, Config clientConfig) {
+    return new ConfigClient(policy, clientConfig);
+  }
+
+  private static Config getDefaultClientConfig() {
+    Config config = ConfigFactory.load();
+    return config.hasPath(DEFAULT_CONFIG_NAMESPACE)
+        ? config.getConfig(DEFAULT_CONFIG_NAMESPACE) : ConfigFactory.empty();
+  }
+
+  /**
+   * Get the hit, miss and eviction statistics of the merged {@link Config}s kept for all the {@link ConfigStore}s
+   * accessed by this {@link ConfigClient}.
+   */
+  public CacheStats getMergedConfigCacheStats() {
+    CacheStats stats = new CacheStats(0, 0, 0, 0, 0, 0);
+    for (ConfigStoreBackedValueInspector valueInspector : this.mergingValueInspectors) {
+      Optional<CacheStats> inspectorStats = valueInspector.getMergedConfigCacheStats();
+      if (inspectorStats.isPresent()) {
+        stats = stats.plus(inspectorStats.get());
+      }
+    }
+    return stats;
   }
 
   /**
@@ -278,28 +337,38 @@ public class ConfigClient {
     InMemoryTopology inMemoryTopology = new InMemoryTopology(csTopology);
 
     // value related
-    ConfigStoreBackedValueInspector rawValueInspector =
-        new ConfigStoreBackedValueInspector(cs, currentVersion, inMemoryTopology);
     InMemoryValueInspector inMemoryValueInspector;
 
     // ConfigStoreWithStableVersioning always create Soft reference cache
+    // The merged configs are bound to the current version, so a new version never reuses them
     if (isConfigStoreWithStableVersion(cs) || this.policy == VersionStabilityPolicy.WEAK_LOCAL_STABILITY) {
-      inMemoryValueInspector = new InMemoryValueInspector(rawValueInspector, false);
+      inMemoryValueInspector =
+          new InMemoryValueInspector(createMergingValueInspector(cs, currentVersion, inMemoryTopology), false);
       result = new ConfigStoreAccessor(cs, inMemoryValueInspector, inMemoryTopology);
     }
     // Non ConfigStoreWithStableVersioning but require STRONG_LOCAL_STABILITY, use Strong reference cache
     else if (this.policy == VersionStabilityPolicy.STRONG_LOCAL_STABILITY) {
-      inMemoryValueInspector = new InMemoryValueInspector(rawValueInspector, true);
+      inMemoryValueInspector =
+          new InMemoryValueInspector(createMergingValueInspector(cs, currentVersion, inMemoryTopology), true);
       result = new ConfigStoreAccessor(cs, inMemoryValueInspector, inMemoryTopology);
     }
     // Require No cache
     else {
-      result = new ConfigStoreAccessor(cs, rawValueInspector, inMemoryTopology);
+      result = new ConfigStoreAccessor(cs, new ConfigStoreBackedValueInspector(cs, currentVersion, inMemoryTopology),
+          inMemoryTopology);
     }
 
     return result;
   }
 
+  private ConfigStoreBackedValueInspector createMergingValueInspector(ConfigStore cs, String version,
+      ConfigStoreTopologyInspector topology) {
+    ConfigStoreBackedValueInspector valueInspector =
+        new ConfigStoreBackedValueInspector(cs, version, topology, this.maxMergedConfigsPerVersion);
+    this.mergingValueInspectors.add(valueInspector);
+    return valueInspector;
+  }
+
   private static boolean isConfigStoreWithStableVersion(ConfigStore cs) {
     for (Annotation annotation : cs.getClass().getDeclaredAnnotations()) {
       if (annotation instanceof ConfigStoreWithStableVersioning) {
@@ -11,11 +11,16 @@
  */
 package gobblin.config.client;
 
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableMap;
 
 import gobblin.config.client.api.VersionStabilityPolicy;
 
@@ -24,6 +29,11 @@ import gobblin.config.client.api.VersionStabilityPolicy;
  */
 public class ConfigClientCache {
 
+  /** Numbers of hits, misses and evictions of the merged configs kept by the cached {@link ConfigClient}s. */
+  public static final String MERGED_CONFIG_HITS = "mergedConfigs.hits";
+  public static final String MERGED_CONFIG_MISSES = "mergedConfigs.misses";
+  public static final String MERGED_CONFIG_EVICTIONS = "mergedConfigs.evictions";
+
   private static final Cache<VersionStabilityPolicy, ConfigClient> CONFIG_CLIENTS_CACHE = CacheBuilder.newBuilder()
       .maximumSize(VersionStabilityPolicy.values().length).build();
 
@@ -39,4 +49,38 @@ public class ConfigClientCache {
       throw new RuntimeException("Failed to get Config client", e);
     }
   }
+
+  /**
+   * Get {@link Gauge}s of the numbers of hits, misses and evictions of the merged configs kept by all the cached
+   * {@link ConfigClient}s, see {@link ConfigClient#getMergedConfigCacheStats()}.
+   */
+  public static Map<String, Metric> getMetrics() {
+    return ImmutableMap.<String, Metric>of(
+        MERGED_CONFIG_HITS, new Gauge<Long>() {
+          @Override
+          public Long getValue() {
+            return getMergedConfigCacheStats().hitCount();
+          }
+        },
+        MERGED_CONFIG_MISSES, new Gauge<Long>() {
+          @Override
+          public Long getValue() {
+            return getMergedConfigCacheStats().missCount();
+          }
+        },
+        MERGED_CONFIG_EVICTIONS, new Gauge<Long>() {
+          @Override
+          public Long getValue() {
+            return getMergedConfigCacheStats().evictionCount();
+          }
+        });
+  }
+
+  private static CacheStats getMergedConfigCacheStats() {
+    CacheStats stats = new CacheStats(0, 0, 0, 0, 0, 0);
+    for (ConfigClient client : CONFIG_CLIENTS_CACHE.asMap().values()) {
+      stats = stats.plus(client.getMergedConfigCacheStats());
+    }
+    return stats;
+  }
 }
@@ -29,6 +29,7 @@ import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableMap;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
 import com.typesafe.config.ConfigValue;
@@ -258,4 +259,35 @@ public class TestConfigClient {
           u.toString().equals(expectedImportedBy_abs[1]));
     }
   }
+
+  @Test
+  public void testMergedConfigCacheStats() throws Exception {
+    URI identityURI = new URI("etl-hdfs:///data/databases/identity");
+    URI espressoTagURI = new URI("etl-hdfs:///tag/espressoTag");
+    when(mockConfigStore.getStoreURI())
+        .thenReturn(new URI("etl-hdfs://eat1-nertznn01.grid.linkedin.com:9000/user/mitu/HdfsBasedConfigTest"));
+
+    ConfigStoreFactory mockConfigStoreFactory = mock(ConfigStoreFactory.class, Mockito.RETURNS_SMART_NULLS);
+    when(mockConfigStoreFactory.getScheme()).thenReturn("etl-hdfs");
+    when(mockConfigStoreFactory.createConfigStore(identityURI)).thenReturn(mockConfigStore);
+    ConfigStoreFactoryRegister mockConfigStoreFactoryRegister =
+        mock(ConfigStoreFactoryRegister.class, Mockito.RETURNS_SMART_NULLS);
+    when(mockConfigStoreFactoryRegister.getConfigStoreFactory("etl-hdfs")).thenReturn(mockConfigStoreFactory);
+
+    // the merged configs of espressoTag, an import of identity, are reused when espressoTag is resolved
+    ConfigClient client = new ConfigClient(VersionStabilityPolicy.STRONG_LOCAL_STABILITY,
+        mockConfigStoreFactoryRegister, ConfigFactory.empty());
+    checkValuesForIdentity(client.getConfig(identityURI));
+    long misses = client.getMergedConfigCacheStats().missCount();
+    Assert.assertTrue(misses > 0);
+    Assert.assertEquals(client.getConfig(espressoTagURI).getString("keyOf_nertzTag2"), "valueOf_nertzTag2");
+    Assert.assertEquals(client.getMergedConfigCacheStats().missCount(), misses);
+    Assert.assertTrue(client.getMergedConfigCacheStats().hitCount() > 0);
+
+    // merged configs are not kept if configured so
+    client = new ConfigClient(VersionStabilityPolicy.STRONG_LOCAL_STABILITY, mockConfigStoreFactoryRegister,
+        ConfigFactory.parseMap(ImmutableMap.of(ConfigClient.MAX_MERGED_CONFIGS_PER_VERSION_KEY, 0)));
+    checkValuesForIdentity(client.getConfig(identityURI));
+    Assert.assertEquals(client.getMergedConfigCacheStats().requestCount(), 0);
+  }
 }
@@ -17,6 +17,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
 
@@ -37,6 +41,8 @@ public class ConfigStoreBackedValueInspector implements ConfigStoreValueInspecto
   private final ConfigStore cs;
   private final String version;
   private final ConfigStoreTopologyInspector topology;
+  private final Optional<ConfigStoreValueInspector> ownConfigInspector;
+  private final Optional<Cache<ConfigKeyPath, Config>> mergedConfigCache;
 
   /**
    * @param cs       - internal {@link ConfigStore} to retrieve configuration
@@ -44,9 +50,50 @@ public class ConfigStoreBackedValueInspector implements ConfigStoreValueInspecto
    * @param topology - corresponding {@link ConfigStoreTopologyInspector} for the input {@link ConfigStore}
    */
   public ConfigStoreBackedValueInspector(ConfigStore cs, String version, ConfigStoreTopologyInspector topology) {
+    this(cs, version, topology, 0);
+  }
+
+  /**
+   * @param cs               - internal {@link ConfigStore} to retrieve configuration
+   * @param version          - version of the {@link ConfigStore}
+   * @param topology         - corresponding {@link ConfigStoreTopologyInspector} for the input {@link ConfigStore}
+   * @param maxMergedConfigs - maximum number of merged, not yet resolved, {@link Config}s of config keys to keep, so
+   *                           that ancestors and imports shared by many config keys are merged only once. The merged
+   *                           {@link Config}s are only valid for this version, and are not kept if it is 0
+   */
+  public ConfigStoreBackedValueInspector(ConfigStore cs, String version, ConfigStoreTopologyInspector topology,
+      long maxMergedConfigs) {
+    this(cs, version, topology, Optional.<ConfigStoreValueInspector> absent(), maxMergedConfigs);
+  }
+
+  /**
+   * @param cs                 - internal {@link ConfigStore} to retrieve configuration
+   * @param version            - version of the {@link ConfigStore}
+   * @param topology           - corresponding {@link ConfigStoreTopologyInspector} for the input {@link ConfigStore}
+   * @param ownConfigInspector - {@link ConfigStoreValueInspector} the own {@link Config}s are looked up through, such
+   *                             as an {@link InMemoryValueInspector} the own {@link Config}s of a batch were fetched
+   *                             into, instead of the internal {@link ConfigStore}
+   * @param maxMergedConfigs   - maximum number of merged, not yet resolved, {@link Config}s of config keys to keep, see
+   *                             {@link #ConfigStoreBackedValueInspector(ConfigStore, String,
+   *                             ConfigStoreTopologyInspector, long)}
+   */
+  public ConfigStoreBackedValueInspector(ConfigStore cs, String version, ConfigStoreTopologyInspector topology,
+      ConfigStoreValueInspector ownConfigInspector, long maxMergedConfigs) {
+    this(cs, version, topology, Optional.of(ownConfigInspector), maxMergedConfigs);
+  }
+
+  private ConfigStoreBackedValueInspector(ConfigStore cs, String version, ConfigStoreTopologyInspector topology,
+      Optional<ConfigStoreValueInspector> ownConfigInspector, long maxMergedConfigs) {
     this.cs = cs;
     this.version = version;
     this.topology = topology;
+    this.ownConfigInspector = ownConfigInspector;
+    if (maxMergedConfigs > 0) {
+      this.mergedConfigCache = Optional.of(
+          CacheBuilder.newBuilder().maximumSize(maxMergedConfigs).recordStats().<ConfigKeyPath, Config> build());
+    } else {
+      this.mergedConfigCache = Optional.absent();
+    }
   }
 
   public ConfigStore getConfigStore() {
@@ -57,15 +104,30 @@ public class ConfigStoreBackedValueInspector implements ConfigStoreValueInspecto
     return this.version;
   }
 
+  /**
+   * @return the hit, miss and eviction statistics of the merged {@link Config}s kept by this inspector, or
+   *         {@link Optional#absent()} if it does not keep them
+   */
+  public Optional<CacheStats> getMergedConfigCacheStats() {
+    if (!this.mergedConfigCache.isPresent()) {
+      return Optional.absent();
+    }
+    return Optional.of(this.mergedConfigCache.get().stats());
+  }
+
   /**
    * {@inheritDoc}.
    *
    * <p>
-   *   This implementation simply delegate the functionality to the internal {@link ConfigStore}/version
+   *   This implementation simply delegate the functionality to the own config inspector if there is one, otherwise
+   *   to the internal {@link ConfigStore}/version
    * </p>
    */
   @Override
   public Config getOwnConfig(ConfigKeyPath configKey) {
+    if (this.ownConfigInspector.isPresent()) {
+      return this.ownConfigInspector.get().getOwnConfig(configKey);
+    }
     return this.cs.getOwnConfig(configKey, this.version);
   }
 
@@ -73,13 +135,18 @@ public class ConfigStoreBackedValueInspector implements ConfigStoreValueInspecto
    * {@inheritDoc}.
    *
    * <p>
-   *   This implementation simply delegate the functionality to the internal {@link ConfigStore}/version
-   *   if the internal {@link ConfigStore} is {@link ConfigStoreWithBatchFetches}, otherwise, will call
-   *   configuration store for each config key path and put the result into {@link Map}
+   *   This implementation simply delegate the functionality to the own config inspector if there is one, otherwise
+   *   to the internal {@link ConfigStore}/version if the internal {@link ConfigStore} is
+   *   {@link ConfigStoreWithBatchFetches}, otherwise, will call configuration store for each config key path and put
+   *   the result into {@link Map}
    * </p>
    */
   @Override
   public Map<ConfigKeyPath, Config> getOwnConfigs(Collection<ConfigKeyPath> configKeys) {
+    if (this.ownConfigInspector.isPresent()) {
+      return this.ownConfigInspector.get().getOwnConfigs(configKeys);
+    }
+
     if (this.cs instanceof ConfigStoreWithBatchFetches) {
       ConfigStoreWithBatchFetches batchStore = (ConfigStoreWithBatchFetches) this.cs;
       return batchStore.getOwnConfigs(configKeys, this.version);
@@ -99,6 +166,22 @@ public class ConfigStoreBackedValueInspector implements ConfigStoreValueInspecto
       return ((ConfigStoreWithResolution) this.cs).getResolvedConfig(configKey, this.version);
     }
 
+    // the merged configs of the ancestors and imports are shared by all the config keys below them, so they are
+    // merged once and reused. Concurrent misses of the same config key merge it more than once, with the same result
+    if (this.mergedConfigCache.isPresent()) {
+      Config mergedConfig = this.mergedConfigCache.get().getIfPresent(configKey);
+      if (mergedConfig == null) {
+        mergedConfig = mergeConfigRecursive(configKey);
+        this.mergedConfigCache.get().put(configKey, mergedConfig);
+      }
+      return mergedConfig;
+    }
+
+    return mergeConfigRecursive(configKey);
+  }
+
+  private Config mergeConfigRecursive(ConfigKeyPath configKey) {
+
     /**
      * currently use this function to check the circular dependency for the entire store, the result
      * is NOT used
@@ -42,8 +42,22 @@ public class FsDeploymentConfig extends DeploymentConfig {
    */
   public FsDeploymentConfig(@NonNull final DeployableConfigSource deployableConfigSource, @NonNull final String version,
       @NonNull final FsPermission storePermissions) {
+    this(deployableConfigSource, version, storePermissions, false);
+  }
+
+  /**
+   * Build a new {@link FsDeploymentConfig}
+   *
+   * @param deployableConfigSource Source that provides the deployable configs
+   * @param version to be used for this deployment
+   * @param storePermissions for configs being deployed
+   * @param compileSnapshot whether to compile a snapshot of the deployed version that readers can load at once
+   */
+  public FsDeploymentConfig(@NonNull final DeployableConfigSource deployableConfigSource, @NonNull final String version,
+      @NonNull final FsPermission storePermissions, final boolean compileSnapshot) {
     super(deployableConfigSource, version);
     this.storePermissions = storePermissions;
+    this.compileSnapshot = compileSnapshot;
   }
 
   /**
@@ -61,4 +75,10 @@ public class FsDeploymentConfig extends DeploymentConfig {
    */
   private final FsPermission storePermissions;
 
+  /**
+   * Whether to compile a snapshot of all the configs of the deployed version, so that readers of the store can load
+   * the version with a single read
+   */
+  private final boolean compileSnapshot;
+
 }
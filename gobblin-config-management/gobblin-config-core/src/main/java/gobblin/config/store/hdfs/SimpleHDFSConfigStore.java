@@ -18,7 +18,10 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
@@ -33,25 +36,35 @@ import org.apache.hadoop.fs.Path;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Charsets;
 import com.google.common.base.Function;
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
 
+import gobblin.config.common.impl.ConfigStoreBackedTopology;
+import gobblin.config.common.impl.ConfigStoreBackedValueInspector;
+import gobblin.config.common.impl.ConfigStoreTopologyInspector;
+import gobblin.config.common.impl.ConfigStoreValueInspector;
+import gobblin.config.common.impl.InMemoryTopology;
+import gobblin.config.common.impl.InMemoryValueInspector;
 import gobblin.config.common.impl.SingleLinkedListConfigKeyPath;
 import gobblin.config.store.api.ConfigKeyPath;
 import gobblin.config.store.api.ConfigStore;
+import gobblin.config.store.api.ConfigStoreWithBatchFetches;
 import gobblin.config.store.api.ConfigStoreWithStableVersioning;
 import gobblin.config.store.api.VersionDoesNotExistException;
 import gobblin.config.store.deploy.ConfigStream;
 import gobblin.config.store.deploy.Deployable;
 import gobblin.config.store.deploy.DeployableConfigSource;
 import gobblin.config.store.deploy.FsDeploymentConfig;
+import gobblin.util.ExecutorsUtils;
 import gobblin.util.FileListUtils;
 import gobblin.util.PathUtils;
 import gobblin.util.io.SeekableFSInputStream;
@@ -107,25 +120,38 @@ import lombok.extern.slf4j.Slf4j;
  * </p>
  *
  * <p>
- *   This class is not responsible for deploying configurations from an external source to HDFS, only for reading them.
+ *   Batches of config keys are fetched in parallel. If a version was deployed with
+ *   {@link FsDeploymentConfig#isCompileSnapshot()}, its {@link SimpleHDFSStoreSnapshot} is loaded with a single read
+ *   the first time the version is accessed, and all the datasets of the version are then read from memory. The
+ *   topologies, snapshots and merged {@link Config}s are kept for at most {@link #DEFAULT_MAX_CACHED_VERSIONS} versions
+ *   by default.
  * </p>
  *
  * @see SimpleHDFSConfigStoreFactory
  */
 @Slf4j
 @ConfigStoreWithStableVersioning
-public class SimpleHDFSConfigStore implements ConfigStore, Deployable<FsDeploymentConfig> {
+public class SimpleHDFSConfigStore implements ConfigStoreWithBatchFetches, Deployable<FsDeploymentConfig> {
 
   protected static final String CONFIG_STORE_NAME = "_CONFIG_STORE";
 
-  private static final String MAIN_CONF_FILE_NAME = "main.conf";
-  private static final String INCLUDES_CONF_FILE_NAME = "includes.conf";
+  static final String MAIN_CONF_FILE_NAME = "main.conf";
+  static final String INCLUDES_CONF_FILE_NAME = "includes.conf";
   private static final String INCLUDES_KEY_NAME = "includes";
 
+  public static final int DEFAULT_BATCH_FETCH_THREADS = 10;
+  public static final int DEFAULT_MAX_CACHED_VERSIONS = 3;
+  public static final long DEFAULT_MAX_MERGED_CONFIGS_PER_VERSION = 10000;
+  private static final int BATCH_FETCH_TIMEOUT_SECONDS = 600;
+
   private final FileSystem fs;
   private final URI physicalStoreRoot;
   private final URI logicalStoreRoot;
+  private final int batchFetchThreads;
+  private final long maxMergedConfigsPerVersion;
   private final Cache<String, Path> versions;
+  private final Cache<String, Optional<SimpleHDFSStoreSnapshot>> snapshots;
+  private final Cache<String, VersionResolver> resolvers;
   private final SimpleHDFSStoreMetadata storeMetadata;
 
   /**
@@ -138,6 +164,40 @@ public class SimpleHDFSConfigStore implements ConfigStore, Deployable<FsDeployme
    * @param logicalStoreRoot the fully qualfied {@link URI} of the logical store root
    */
   protected SimpleHDFSConfigStore(FileSystem fs, URI physicalStoreRoot, URI logicalStoreRoot) {
+    this(fs, physicalStoreRoot, logicalStoreRoot, DEFAULT_BATCH_FETCH_THREADS);
+  }
+
+  /**
+   * Constructs a {@link SimpleHDFSConfigStore} using a given {@link FileSystem} and a {@link URI} that points to the
+   * physical location of the store root.
+   *
+   * @param fs the {@link FileSystem} the {@link ConfigStore} is stored on.
+   * @param physicalStoreRoot the fully qualified {@link URI} of the physical store root, the {@link URI#getScheme()} of the
+   *                          {@link URI} should match the {@link FileSystem#getScheme()} of the given {@link FileSystem}.
+   * @param logicalStoreRoot the fully qualfied {@link URI} of the logical store root
+   * @param batchFetchThreads the maximum number of threads fetching a batch of config keys in parallel
+   */
+  protected SimpleHDFSConfigStore(FileSystem fs, URI physicalStoreRoot, URI logicalStoreRoot, int batchFetchThreads) {
+    this(fs, physicalStoreRoot, logicalStoreRoot, batchFetchThreads, DEFAULT_MAX_CACHED_VERSIONS,
+        DEFAULT_MAX_MERGED_CONFIGS_PER_VERSION);
+  }
+
+  /**
+   * Constructs a {@link SimpleHDFSConfigStore} using a given {@link FileSystem} and a {@link URI} that points to the
+   * physical location of the store root.
+   *
+   * @param fs the {@link FileSystem} the {@link ConfigStore} is stored on.
+   * @param physicalStoreRoot the fully qualified {@link URI} of the physical store root, the
+   *                          {@link URI#getScheme()} of the {@link URI} should match the
+   *                          {@link FileSystem#getScheme()} of the given {@link FileSystem}.
+   * @param logicalStoreRoot the fully qualfied {@link URI} of the logical store root
+   * @param batchFetchThreads the maximum number of threads fetching a batch of config keys in parallel
+   * @param maxCachedVersions the maximum number of versions whose snapshots, topologies and values are kept in memory
+   * @param maxMergedConfigsPerVersion the maximum number of merged {@link Config}s of ancestors and imports kept per
+   *                                   version to resolve {@link Config}s, or 0 to not keep them
+   */
+  protected SimpleHDFSConfigStore(FileSystem fs, URI physicalStoreRoot, URI logicalStoreRoot, int batchFetchThreads,
+      int maxCachedVersions, long maxMergedConfigsPerVersion) {
     Preconditions.checkNotNull(fs, "fs cannot be null!");
     Preconditions.checkNotNull(physicalStoreRoot, "physicalStoreRoot cannot be null!");
     Preconditions.checkNotNull(logicalStoreRoot, "logicalStoreRoot cannot be null!");
@@ -153,7 +213,14 @@ public class SimpleHDFSConfigStore implements ConfigStore, Deployable<FsDeployme
 
     this.physicalStoreRoot = physicalStoreRoot;
     this.logicalStoreRoot = logicalStoreRoot;
+    Preconditions.checkArgument(batchFetchThreads > 0, "batchFetchThreads must be positive!");
+    this.batchFetchThreads = batchFetchThreads;
+    Preconditions.checkArgument(maxCachedVersions > 0, "maxCachedVersions must be positive!");
+    Preconditions.checkArgument(maxMergedConfigsPerVersion >= 0, "maxMergedConfigsPerVersion cannot be negative!");
+    this.maxMergedConfigsPerVersion = maxMergedConfigsPerVersion;
     this.versions = CacheBuilder.newBuilder().build();
+    this.snapshots = CacheBuilder.newBuilder().maximumSize(maxCachedVersions).build();
+    this.resolvers = CacheBuilder.newBuilder().maximumSize(maxCachedVersions).build();
     this.storeMetadata = new SimpleHDFSStoreMetadata(fs, new Path(new Path(this.physicalStoreRoot), CONFIG_STORE_NAME));
   }
 
@@ -205,6 +272,14 @@ public class SimpleHDFSConfigStore implements ConfigStore, Deployable<FsDeployme
     Preconditions.checkArgument(!Strings.isNullOrEmpty(version), "version cannot be null or empty!");
 
     List<ConfigKeyPath> children = new ArrayList<>();
+    Optional<SimpleHDFSStoreSnapshot> snapshot = getSnapshot(version);
+    if (snapshot.isPresent()) {
+      for (String child : snapshot.get().getChildren(getDatasetFromConfigKey(configKey))) {
+        children.add(configKey.createChild(child));
+      }
+      return children;
+    }
+
     Path datasetDir = getDatasetDirForKey(configKey, version);
 
     try {
@@ -244,6 +319,12 @@ public class SimpleHDFSConfigStore implements ConfigStore, Deployable<FsDeployme
     Preconditions.checkArgument(!Strings.isNullOrEmpty(version), "version cannot be null or empty!");
 
     List<ConfigKeyPath> configKeyPaths = new ArrayList<>();
+    Optional<SimpleHDFSStoreSnapshot> snapshot = getSnapshot(version);
+    if (snapshot.isPresent()) {
+      configKeyPaths.addAll(includesToConfigKeys(snapshot.get().getIncludes(getDatasetFromConfigKey(configKey))));
+      return configKeyPaths;
+    }
+
     Path datasetDir = getDatasetDirForKey(configKey, version);
     Path includesFile = new Path(datasetDir, INCLUDES_CONF_FILE_NAME);
 
@@ -255,14 +336,7 @@ public class SimpleHDFSConfigStore implements ConfigStore, Deployable<FsDeployme
       FileStatus includesFileStatus = this.fs.getFileStatus(includesFile);
       if (!includesFileStatus.isDirectory()) {
         try (InputStream includesConfInStream = this.fs.open(includesFileStatus.getPath())) {
-          /*
-           * The includes returned are used to build a fallback chain.
-           * With the natural order, if a key found in the first include it is not be overriden by the next include.
-           * By reversing the list, the Typesafe fallbacks are constructed bottom up.
-           */
-          configKeyPaths.addAll(Lists.newArrayList(
-              Iterables.transform(Lists.reverse(resolveIncludesList(IOUtils.readLines(includesConfInStream, Charsets.UTF_8))),
-                  new IncludesToConfigKey())));
+          configKeyPaths.addAll(includesToConfigKeys(IOUtils.readLines(includesConfInStream, Charsets.UTF_8)));
         }
       }
     } catch (IOException e) {
@@ -272,6 +346,19 @@ public class SimpleHDFSConfigStore implements ConfigStore, Deployable<FsDeployme
     return configKeyPaths;
   }
 
+  /**
+   * Translates the lines of an {@link #INCLUDES_CONF_FILE_NAME} file to the {@link ConfigKeyPath}s it imports.
+   */
+  private static List<ConfigKeyPath> includesToConfigKeys(List<String> includes) {
+    /*
+     * The includes returned are used to build a fallback chain.
+     * With the natural order, if a key found in the first include it is not be overriden by the next include.
+     * By reversing the list, the Typesafe fallbacks are constructed bottom up.
+     */
+    return Lists.newArrayList(
+        Iterables.transform(Lists.reverse(resolveIncludesList(includes)), new IncludesToConfigKey()));
+  }
+
   /**
    * A helper to resolve System properties and Environment variables in includes paths
    * The method loads the list of unresolved <code>includes</code> into an in-memory {@link Config} object and reolves
@@ -318,6 +405,12 @@ public class SimpleHDFSConfigStore implements ConfigStore, Deployable<FsDeployme
     Preconditions.checkNotNull(configKey, "configKey cannot be null!");
     Preconditions.checkArgument(!Strings.isNullOrEmpty(version), "version cannot be null or empty!");
 
+    Optional<SimpleHDFSStoreSnapshot> snapshot = getSnapshot(version);
+    if (snapshot.isPresent()) {
+      Optional<String> mainConf = snapshot.get().getMainConf(getDatasetFromConfigKey(configKey));
+      return mainConf.isPresent() ? ConfigFactory.parseString(mainConf.get()) : ConfigFactory.empty();
+    }
+
     Path datasetDir = getDatasetDirForKey(configKey, version);
     Path mainConfFile = new Path(datasetDir, MAIN_CONF_FILE_NAME);
 
@@ -338,6 +431,143 @@ public class SimpleHDFSConfigStore implements ConfigStore, Deployable<FsDeployme
     }
   }
 
+  /**
+   * Retrieves the {@link Config}s of the given {@link ConfigKeyPath}s as {@link #getOwnConfig(ConfigKeyPath, String)}
+   * does. Unless the version has a {@link SimpleHDFSStoreSnapshot}, the {@link Config}s are read in parallel.
+   *
+   * @param  configKeys     the config key paths whose properties are needed.
+   * @param  version        the configuration version in the configuration store.
+   *
+   * @return a {@link Map} from each of the configKeys to its {@link Config}.
+   *
+   * @throws VersionDoesNotExistException if the version specified cannot be found in the {@link ConfigStore}.
+   */
+  @Override
+  public Map<ConfigKeyPath, Config> getOwnConfigs(Collection<ConfigKeyPath> configKeys, final String version)
+      throws VersionDoesNotExistException {
+    Preconditions.checkNotNull(configKeys, "configKeys cannot be null!");
+    Preconditions.checkArgument(!Strings.isNullOrEmpty(version), "version cannot be null or empty!");
+
+    Map<ConfigKeyPath, Config> configs = new HashMap<>();
+    if (configKeys.size() <= 1 || getSnapshot(version).isPresent()) {
+      for (ConfigKeyPath configKey : configKeys) {
+        configs.put(configKey, getOwnConfig(configKey, version));
+      }
+      return configs;
+    }
+
+    List<ConfigKeyPath> configKeyList = new ArrayList<>(configKeys);
+    try {
+      List<Config> configList = ExecutorsUtils.parallelize(configKeyList, new Function<ConfigKeyPath, Config>() {
+        @Override
+        public Config apply(ConfigKeyPath configKey) {
+          return getOwnConfig(configKey, version);
+        }
+      }, Math.min(this.batchFetchThreads, configKeyList.size()), BATCH_FETCH_TIMEOUT_SECONDS,
+          Optional.of(log));
+      for (int i = 0; i < configKeyList.size(); i++) {
+        configs.put(configKeyList.get(i), configList.get(i));
+      }
+      return configs;
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof VersionDoesNotExistException) {
+        throw (VersionDoesNotExistException) e.getCause();
+      }
+      throw new RuntimeException(String.format("Error while getting configs for %d configKeys", configKeys.size()), e);
+    }
+  }
+
+  /**
+   * Retrieves the resolved {@link Config}s of the given {@link ConfigKeyPath}s. The resolution is the one of
+   * {@link ConfigStoreBackedValueInspector#getResolvedConfig(ConfigKeyPath)}, done against a topology, values and
+   * merged {@link Config}s of ancestors and imports that are kept in memory per version. The own {@link Config}s of
+   * the config keys, of their recursive imports and of the ancestors of all of them are first fetched as one batch by
+   * {@link #getOwnConfigs(Collection, String)}, so that the resolution does not read any of them one by one.
+   *
+   * @param  configKeys     the config key paths whose resolved properties are needed.
+   * @param  version        the configuration version in the configuration store.
+   *
+   * @return a {@link Map} from each of the configKeys to its resolved {@link Config}.
+   *
+   * @throws VersionDoesNotExistException if the version specified cannot be found in the {@link ConfigStore}.
+   */
+  @Override
+  public Map<ConfigKeyPath, Config> getResolvedConfigs(Collection<ConfigKeyPath> configKeys, String version)
+      throws VersionDoesNotExistException {
+    Preconditions.checkNotNull(configKeys, "configKeys cannot be null!");
+    Preconditions.checkArgument(!Strings.isNullOrEmpty(version), "version cannot be null or empty!");
+
+    // Only the in-memory topology is locked, so concurrent callers fetch and resolve configs in parallel
+    VersionResolver resolver = getResolver(version);
+
+    Set<ConfigKeyPath> configKeysAndAncestors = new HashSet<>();
+    for (ConfigKeyPath configKey : configKeys) {
+      addWithAncestors(configKey, configKeysAndAncestors);
+      for (ConfigKeyPath importedConfigKey : resolver.topology.getImportsRecursively(configKey)) {
+        addWithAncestors(importedConfigKey, configKeysAndAncestors);
+      }
+    }
+
+    resolver.valueInspector.getOwnConfigs(configKeysAndAncestors);
+    Map<ConfigKeyPath, Config> resolvedConfigs = new HashMap<>();
+    for (ConfigKeyPath configKey : configKeys) {
+      resolvedConfigs.put(configKey, resolver.valueInspector.getResolvedConfig(configKey));
+    }
+    return resolvedConfigs;
+  }
+
+  private static void addWithAncestors(ConfigKeyPath configKey, Set<ConfigKeyPath> configKeys) {
+    ConfigKeyPath current = configKey;
+    // Ancestors of a config key already in the set are in the set too
+    while (configKeys.add(current) && !current.isRootPath()) {
+      current = current.getParent();
+    }
+  }
+
+  /**
+   * Gets the {@link SimpleHDFSStoreSnapshot} of the given version, which is read once per version.
+   */
+  private Optional<SimpleHDFSStoreSnapshot> getSnapshot(final String version) throws VersionDoesNotExistException {
+    final Path versionRoot = getVersionRoot(version);
+    try {
+      return this.snapshots.get(version, new Callable<Optional<SimpleHDFSStoreSnapshot>>() {
+        @Override
+        public Optional<SimpleHDFSStoreSnapshot> call() throws IOException {
+          return SimpleHDFSStoreSnapshot.read(SimpleHDFSConfigStore.this.fs, versionRoot);
+        }
+      });
+    } catch (ExecutionException e) {
+      throw new RuntimeException(
+          String.format("Error while reading the snapshot of version \"%s\" for store \"%s\"", version,
+              getStoreURI()), e);
+    }
+  }
+
+  /**
+   * Gets the {@link VersionResolver} resolving the {@link Config}s of the given version. As versions of this store are
+   * stable, the topology and the values it reads are cached as long as the version is. The merged {@link Config}s
+   * are built from the own {@link Config}s cached by the {@link VersionResolver}, so a batch of own {@link Config}s
+   * fetched in advance is not read again.
+   */
+  private VersionResolver getResolver(final String version) {
+    try {
+      return this.resolvers.get(version, new Callable<VersionResolver>() {
+        @Override
+        public VersionResolver call() {
+          ConfigStoreTopologyInspector topology = new SynchronizedTopology(
+              new InMemoryTopology(new ConfigStoreBackedTopology(SimpleHDFSConfigStore.this, version)));
+          ConfigStoreValueInspector ownConfigs = new InMemoryValueInspector(
+              new ConfigStoreBackedValueInspector(SimpleHDFSConfigStore.this, version, topology), true);
+          return new VersionResolver(topology, new InMemoryValueInspector(
+              new ConfigStoreBackedValueInspector(SimpleHDFSConfigStore.this, version, topology, ownConfigs,
+                  SimpleHDFSConfigStore.this.maxMergedConfigsPerVersion), true));
+        }
+      });
+    } catch (ExecutionException e) {
+      throw new RuntimeException(String.format("Error while creating the resolver of version \"%s\"", version), e);
+    }
+  }
+
   /**
    * Retrieves the dataset dir on HDFS associated with the given {@link ConfigKeyPath} and the given version. This
    * directory contains the {@link #MAIN_CONF_FILE_NAME} and {@link #INCLUDES_CONF_FILE_NAME} file, as well as any child
@@ -506,6 +736,11 @@ public class SimpleHDFSConfigStore implements ConfigStore, Deployable<FsDeployme
         this.fs.setPermission(fileStatus.getPath(), deploymentConfig.getStorePermissions());
       }
 
+      if (deploymentConfig.isCompileSnapshot()) {
+        log.info("Compiling the snapshot of version " + deploymentConfig.getNewVersion());
+        SimpleHDFSStoreSnapshot.write(this.fs, hdfsNewVersionPath, deploymentConfig.getStorePermissions());
+      }
+
     } else {
       log.warn(String.format(
           "STORE WITH VERSION %s ALREADY EXISTS. NEW RESOURCES WILL NOT BE COPIED. ONLY STORE MEATADATA FILE WILL BE UPDATED TO %s",
@@ -522,4 +757,57 @@ public class SimpleHDFSConfigStore implements ConfigStore, Deployable<FsDeployme
   URI getPhysicalStoreRoot() {
     return this.physicalStoreRoot;
   }
+
+  /**
+   * The in-memory topology of a version and the {@link ConfigStoreValueInspector} resolving its {@link Config}s.
+   */
+  @AllArgsConstructor
+  private static class VersionResolver {
+
+    private final ConfigStoreTopologyInspector topology;
+    private final ConfigStoreValueInspector valueInspector;
+  }
+
+  /**
+   * A {@link ConfigStoreTopologyInspector} serializing the lookups of a topology that is not thread-safe, such as an
+   * {@link InMemoryTopology} that is loaded lazily. The returned collections are copies, so they can be used outside
+   * of the lock.
+   */
+  private static class SynchronizedTopology implements ConfigStoreTopologyInspector {
+
+    private final ConfigStoreTopologyInspector topology;
+
+    public SynchronizedTopology(ConfigStoreTopologyInspector topology) {
+      this.topology = topology;
+    }
+
+    @Override
+    public synchronized Collection<ConfigKeyPath> getChildren(ConfigKeyPath configKey) {
+      return copyOf(this.topology.getChildren(configKey));
+    }
+
+    @Override
+    public synchronized List<ConfigKeyPath> getOwnImports(ConfigKeyPath configKey) {
+      return copyOf(this.topology.getOwnImports(configKey));
+    }
+
+    @Override
+    public synchronized Collection<ConfigKeyPath> getImportedBy(ConfigKeyPath configKey) {
+      return copyOf(this.topology.getImportedBy(configKey));
+    }
+
+    @Override
+    public synchronized List<ConfigKeyPath> getImportsRecursively(ConfigKeyPath configKey) {
+      return copyOf(this.topology.getImportsRecursively(configKey));
+    }
+
+    @Override
+    public synchronized Collection<ConfigKeyPath> getImportedByRecursively(ConfigKeyPath configKey) {
+      return copyOf(this.topology.getImportedByRecursively(configKey));
+    }
+
+    private static List<ConfigKeyPath> copyOf(Collection<ConfigKeyPath> configKeys) {
+      return configKeys == null ? null : ImmutableList.copyOf(configKeys);
+    }
+  }
 }
@@ -45,9 +45,18 @@ public class SimpleHDFSConfigStoreFactory implements ConfigStoreFactory<SimpleHD
   public static final String DEFAULT_CONFIG_NAMESPACE = SimpleHDFSConfigStoreFactory.class.getName();
   /** Scoped configuration properties */
   public static final String DEFAULT_STORE_URI_KEY = "default_store_uri";
+  /** Maximum number of threads fetching a batch of config keys in parallel */
+  public static final String BATCH_FETCH_THREADS_KEY = "batch_fetch_threads";
+  /** Maximum number of versions whose snapshots, topologies and values are kept in memory */
+  public static final String MAX_CACHED_VERSIONS_KEY = "max_cached_versions";
+  /** Maximum number of merged configs of ancestors and imports kept per version, 0 to not keep them */
+  public static final String MAX_MERGED_CONFIGS_PER_VERSION_KEY = "max_merged_configs_per_version";
 
   private final Optional<URI> defaultStoreURI;
   private final FileSystem defaultStoreFS;
+  private final int batchFetchThreads;
+  private final int maxCachedVersions;
+  private final long maxMergedConfigsPerVersion;
 
   /** Instantiates a new instance using standard typesafe config defaults:
    * {@link ConfigFactory#load()} */
@@ -60,6 +69,13 @@ public class SimpleHDFSConfigStoreFactory implements ConfigStoreFactory<SimpleHD
    * expected to be scoped, i.e. the properties should not be prefixed.
    */
   public SimpleHDFSConfigStoreFactory(Config factoryConfig) {
+    this.batchFetchThreads = factoryConfig.hasPath(BATCH_FETCH_THREADS_KEY)
+        ? factoryConfig.getInt(BATCH_FETCH_THREADS_KEY) : SimpleHDFSConfigStore.DEFAULT_BATCH_FETCH_THREADS;
+    this.maxCachedVersions = factoryConfig.hasPath(MAX_CACHED_VERSIONS_KEY)
+        ? factoryConfig.getInt(MAX_CACHED_VERSIONS_KEY) : SimpleHDFSConfigStore.DEFAULT_MAX_CACHED_VERSIONS;
+    this.maxMergedConfigsPerVersion = factoryConfig.hasPath(MAX_MERGED_CONFIGS_PER_VERSION_KEY)
+        ? factoryConfig.getLong(MAX_MERGED_CONFIGS_PER_VERSION_KEY)
+        : SimpleHDFSConfigStore.DEFAULT_MAX_MERGED_CONFIGS_PER_VERSION;
     try {
       if (factoryConfig.hasPath(DEFAULT_STORE_URI_KEY)) {
         String uri = factoryConfig.getString(DEFAULT_STORE_URI_KEY);
@@ -120,7 +136,8 @@ public class SimpleHDFSConfigStoreFactory implements ConfigStoreFactory<SimpleHD
     FileSystem fs = createFileSystem(configKey);
     URI physicalStoreRoot = getStoreRoot(fs, configKey);
     URI logicalStoreRoot = URI.create(SIMPLE_HDFS_SCHEME_PREFIX + physicalStoreRoot);
-    return new SimpleHDFSConfigStore(fs, physicalStoreRoot, logicalStoreRoot);
+    return new SimpleHDFSConfigStore(fs, physicalStoreRoot, logicalStoreRoot, this.batchFetchThreads,
+        this.maxCachedVersions, this.maxMergedConfigsPerVersion);
   }
 
   /**
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.config.store.hdfs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.permission.FsPermission;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigRenderOptions;
+import com.typesafe.config.ConfigValueFactory;
+
+import gobblin.config.store.api.ConfigStore;
+
+
+/**
+ * A compiled snapshot of one version of a {@link SimpleHDFSConfigStore}, stored in the file
+ * {@link #SNAPSHOT_FILE_NAME} under the version directory.
+ *
+ * <p>
+ *   The snapshot has an entry for each dataset directory of the version, with the names of its child datasets and the
+ *   contents of its {@link SimpleHDFSConfigStore#MAIN_CONF_FILE_NAME} and
+ *   {@link SimpleHDFSConfigStore#INCLUDES_CONF_FILE_NAME} files. It is written once when the version is deployed, so
+ *   that a reader can load the whole version with a single read instead of listing and opening the files of each
+ *   dataset. The files are kept unparsed so that the {@link ConfigStore} returns the same {@link Config}s and imports
+ *   whether it reads them from the snapshot or from the dataset directories.
+ * </p>
+ */
+class SimpleHDFSStoreSnapshot {
+
+  static final String SNAPSHOT_FILE_NAME = "_snapshot.conf";
+
+  private static final String DATASETS_KEY = "datasets";
+  private static final String DATASET_KEY = "dataset";
+  private static final String CHILDREN_KEY = "children";
+  private static final String MAIN_CONF_KEY = "mainConf";
+  private static final String INCLUDES_KEY = "includes";
+
+  private final Map<String, Config> datasets;
+
+  private SimpleHDFSStoreSnapshot(Map<String, Config> datasets) {
+    this.datasets = datasets;
+  }
+
+  /**
+   * Compile the snapshot of the version at <code>versionRoot</code> and write it to {@link #SNAPSHOT_FILE_NAME}.
+   *
+   * @param fs the {@link FileSystem} the store is on
+   * @param versionRoot the directory of the version
+   * @param permission the permission of the snapshot file
+   * @throws IOException if the version could not be read or the snapshot could not be written
+   */
+  static void write(FileSystem fs, Path versionRoot, FsPermission permission) throws IOException {
+    List<Map<String, Object>> datasets = new ArrayList<>();
+    addDatasets(fs, versionRoot, "", datasets);
+
+    Config snapshot = ConfigFactory.empty().withValue(DATASETS_KEY, ConfigValueFactory.fromIterable(datasets));
+    try (FSDataOutputStream outputStream =
+        FileSystem.create(fs, new Path(versionRoot, SNAPSHOT_FILE_NAME), permission)) {
+      outputStream.write(snapshot.root().render(ConfigRenderOptions.concise()).getBytes(Charsets.UTF_8));
+    }
+  }
+
+  /**
+   * Read the snapshot of the version at <code>versionRoot</code>.
+   *
+   * @return the snapshot, or {@link Optional#absent()} if the version has no snapshot
+   * @throws IOException if the snapshot could not be read
+   */
+  static Optional<SimpleHDFSStoreSnapshot> read(FileSystem fs, Path versionRoot) throws IOException {
+    Path snapshotFile = new Path(versionRoot, SNAPSHOT_FILE_NAME);
+    if (!fs.exists(snapshotFile)) {
+      return Optional.absent();
+    }
+
+    Config snapshot;
+    try (InputStream snapshotInputStream = fs.open(snapshotFile)) {
+      snapshot = ConfigFactory.parseReader(new InputStreamReader(snapshotInputStream, Charsets.UTF_8));
+    }
+    Map<String, Config> datasets = new HashMap<>();
+    for (Config dataset : snapshot.getConfigList(DATASETS_KEY)) {
+      datasets.put(dataset.getString(DATASET_KEY), dataset);
+    }
+    return Optional.of(new SimpleHDFSStoreSnapshot(datasets));
+  }
+
+  /**
+   * @param dataset the path of a dataset relative to the version directory, or the empty string for the root
+   * @return the names of the child datasets, which is empty if the dataset does not exist
+   */
+  List<String> getChildren(String dataset) {
+    if (!this.datasets.containsKey(dataset)) {
+      return Collections.emptyList();
+    }
+    return this.datasets.get(dataset).getStringList(CHILDREN_KEY);
+  }
+
+  /**
+   * @return the contents of the {@link SimpleHDFSConfigStore#MAIN_CONF_FILE_NAME} file of the dataset, if it has one
+   */
+  Optional<String> getMainConf(String dataset) {
+    if (!this.datasets.containsKey(dataset) || !this.datasets.get(dataset).hasPath(MAIN_CONF_KEY)) {
+      return Optional.absent();
+    }
+    return Optional.of(this.datasets.get(dataset).getString(MAIN_CONF_KEY));
+  }
+
+  /**
+   * @return the lines of the {@link SimpleHDFSConfigStore#INCLUDES_CONF_FILE_NAME} file of the dataset, which are empty
+   *         if it has none
+   */
+  List<String> getIncludes(String dataset) {
+    if (!this.datasets.containsKey(dataset) || !this.datasets.get(dataset).hasPath(INCLUDES_KEY)) {
+      return Collections.emptyList();
+    }
+    return this.datasets.get(dataset).getStringList(INCLUDES_KEY);
+  }
+
+  private static void addDatasets(FileSystem fs, Path datasetDir, String dataset, List<Map<String, Object>> datasets)
+      throws IOException {
+    Map<String, Object> entry = new LinkedHashMap<>();
+    entry.put(DATASET_KEY, dataset);
+
+    List<String> children = new ArrayList<>();
+    List<Path> childDirs = new ArrayList<>();
+    for (FileStatus fileStatus : fs.listStatus(datasetDir)) {
+      String name = fileStatus.getPath().getName();
+      if (fileStatus.isDirectory()) {
+        children.add(name);
+        childDirs.add(fileStatus.getPath());
+      } else if (name.equals(SimpleHDFSConfigStore.MAIN_CONF_FILE_NAME)) {
+        try (InputStream inputStream = fs.open(fileStatus.getPath())) {
+          entry.put(MAIN_CONF_KEY, IOUtils.toString(inputStream, Charsets.UTF_8));
+        }
+      } else if (name.equals(SimpleHDFSConfigStore.INCLUDES_CONF_FILE_NAME)) {
+        try (InputStream inputStream = fs.open(fileStatus.getPath())) {
+          entry.put(INCLUDES_KEY, IOUtils.readLines(inputStream, Charsets.UTF_8));
+        }
+      }
+    }
+    entry.put(CHILDREN_KEY, children);
+    datasets.add(entry);
+
+    for (int i = 0; i < children.size(); i++) {
+      String child = dataset.isEmpty() ? children.get(i) : dataset + Path.SEPARATOR + children.get(i);
+      addDatasets(fs, childDirs.get(i), child, datasets);
+    }
+  }
+}
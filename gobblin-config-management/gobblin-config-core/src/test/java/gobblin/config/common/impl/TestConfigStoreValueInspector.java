@@ -1,6 +1,8 @@
 package gobblin.config.common.impl;
 
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import gobblin.config.TestEnvironment;
@@ -11,6 +13,7 @@ import org.mockito.Mockito;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import com.google.common.cache.CacheStats;
 import com.typesafe.config.ConfigFactory;
 
 
@@ -66,4 +69,45 @@ public class TestConfigStoreValueInspector {
     Assert.assertEquals(valueInspector.getResolvedConfig(keyPathA_Slash_B).getString("key2"), "value1InB");
 
   }
+
+  @Test
+  public void testMergedConfigCache() {
+
+    ConfigStore mockConfigStore = mock(ConfigStore.class, Mockito.RETURNS_SMART_NULLS);
+    when(mockConfigStore.getCurrentVersion()).thenReturn(version);
+
+    ConfigStoreTopologyInspector mockTopology = mock(ConfigStoreTopologyInspector.class, Mockito.RETURNS_SMART_NULLS);
+
+    ConfigStoreBackedValueInspector valueInspector =
+        new ConfigStoreBackedValueInspector(mockConfigStore, version, mockTopology, 100);
+
+    ConfigKeyPath keyPathA = SingleLinkedListConfigKeyPath.ROOT.createChild("a");
+    ConfigKeyPath keyPathA_Slash_B = keyPathA.createChild("b");
+    ConfigKeyPath keyPathA_Slash_C = keyPathA.createChild("c");
+
+    when(mockConfigStore.getOwnConfig(SingleLinkedListConfigKeyPath.ROOT, version)).thenReturn(
+        ConfigFactory.parseString("key0 = value0InRoot"));
+    when(mockConfigStore.getOwnConfig(keyPathA, version)).thenReturn(
+        ConfigFactory.parseString("key1 = value1InA \n key2 = ${key1}"));
+    when(mockConfigStore.getOwnConfig(keyPathA_Slash_B, version)).thenReturn(
+        ConfigFactory.parseString("key1 = value1InB"));
+    when(mockConfigStore.getOwnConfig(keyPathA_Slash_C, version)).thenReturn(ConfigFactory.empty());
+
+    Assert.assertEquals(valueInspector.getResolvedConfig(keyPathA_Slash_B).getString("key2"), "value1InB");
+    Assert.assertEquals(valueInspector.getResolvedConfig(keyPathA_Slash_C).getString("key2"), "value1InA");
+    Assert.assertEquals(valueInspector.getResolvedConfig(keyPathA_Slash_C).getString("key0"), "value0InRoot");
+
+    // the shared ancestors are merged only once
+    verify(mockConfigStore, times(1)).getOwnConfig(SingleLinkedListConfigKeyPath.ROOT, version);
+    verify(mockConfigStore, times(1)).getOwnConfig(keyPathA, version);
+    verify(mockConfigStore, times(1)).getOwnConfig(keyPathA_Slash_C, version);
+
+    CacheStats stats = valueInspector.getMergedConfigCacheStats().get();
+    // a/b, a, root and a/c are missed, then a and a/c are hit
+    Assert.assertEquals(stats.missCount(), 4);
+    Assert.assertEquals(stats.hitCount(), 2);
+
+    Assert.assertFalse(new ConfigStoreBackedValueInspector(mockConfigStore, version, mockTopology)
+        .getMergedConfigCacheStats().isPresent());
+  }
 }
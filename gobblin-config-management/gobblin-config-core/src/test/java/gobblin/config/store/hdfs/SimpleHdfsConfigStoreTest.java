@@ -8,14 +8,25 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.google.common.base.Charsets;
+import com.google.common.collect.ConcurrentHashMultiset;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Multiset;
 import com.typesafe.config.Config;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.FilterFileSystem;
 import org.apache.hadoop.fs.Path;
 import org.testng.Assert;
 import org.testng.annotations.AfterClass;
@@ -200,6 +211,135 @@ public class SimpleHdfsConfigStoreTest {
 
   }
 
+  @Test
+  public void testBatchFetchesAndSnapshot() throws Exception {
+    String version = "v3.0";
+    Path versionPath = PathUtils.combinePaths(CONFIG_DIR_NAME, SimpleHDFSConfigStore.CONFIG_STORE_NAME, version);
+    try {
+      writeFile(new Path(versionPath, "tag/t1/main.conf"), "a=1\nb=1");
+      writeFile(new Path(versionPath, "data/main.conf"), "c=3");
+      writeFile(new Path(versionPath, "data/set1/main.conf"), "b=2");
+      writeFile(new Path(versionPath, "data/set1/includes.conf"), "/tag/t1");
+      this.fs.mkdirs(new Path(versionPath, "data/set2"));
+
+      ConfigKeyPath data = SingleLinkedListConfigKeyPath.ROOT.createChild("data");
+      ConfigKeyPath set1 = data.createChild("set1");
+      ConfigKeyPath set2 = data.createChild("set2");
+      List<ConfigKeyPath> configKeys = ImmutableList.of(set1, set2);
+
+      SimpleHDFSConfigStore store = createStore();
+      Map<ConfigKeyPath, Config> ownConfigs = store.getOwnConfigs(configKeys, version);
+      Assert.assertEquals(ownConfigs.get(set1).getInt("b"), 2);
+      Assert.assertTrue(ownConfigs.get(set2).isEmpty());
+      assertResolvedConfigs(store.getResolvedConfigs(configKeys, version), set1, set2);
+
+      SimpleHDFSStoreSnapshot.write(this.fs, versionPath, FsDeploymentConfig.DEFAULT_STORE_PERMISSIONS);
+      // Once the snapshot is written, the dataset directories are not read anymore
+      this.fs.delete(new Path(versionPath, "data"), true);
+      this.fs.delete(new Path(versionPath, "tag"), true);
+
+      store = createStore();
+      Assert.assertEquals(store.getChildren(data, version).size(), 2);
+      Assert.assertEquals(store.getOwnImports(set1, version).get(0).getAbsolutePathString(), "/tag/t1");
+      Assert.assertEquals(store.getOwnConfig(data, version).getInt("c"), 3);
+      assertResolvedConfigs(store.getResolvedConfigs(configKeys, version), set1, set2);
+    } finally {
+      this.fs.delete(versionPath, true);
+    }
+  }
+
+  @Test
+  public void testConcurrentResolvedConfigs() throws Exception {
+    final String version = "v4.0";
+    Path versionPath = PathUtils.combinePaths(CONFIG_DIR_NAME, SimpleHDFSConfigStore.CONFIG_STORE_NAME, version);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      writeFile(new Path(versionPath, "tag/t1/main.conf"), "a=1\nb=1");
+      writeFile(new Path(versionPath, "data/main.conf"), "c=3");
+      writeFile(new Path(versionPath, "data/set1/main.conf"), "b=2");
+      writeFile(new Path(versionPath, "data/set1/includes.conf"), "/tag/t1");
+      this.fs.mkdirs(new Path(versionPath, "data/set2"));
+
+      ConfigKeyPath data = SingleLinkedListConfigKeyPath.ROOT.createChild("data");
+      final ConfigKeyPath set1 = data.createChild("set1");
+      final ConfigKeyPath set2 = data.createChild("set2");
+      final SimpleHDFSConfigStore store = createStore();
+
+      // Callers resolving configs of the same version concurrently share its topology and values
+      List<Future<Map<ConfigKeyPath, Config>>> futures = Lists.newArrayList();
+      for (int i = 0; i < 20; i++) {
+        futures.add(executor.submit(new Callable<Map<ConfigKeyPath, Config>>() {
+          @Override
+          public Map<ConfigKeyPath, Config> call() throws Exception {
+            return store.getResolvedConfigs(ImmutableList.of(set1, set2), version);
+          }
+        }));
+      }
+      for (Future<Map<ConfigKeyPath, Config>> future : futures) {
+        assertResolvedConfigs(future.get(), set1, set2);
+      }
+    } finally {
+      executor.shutdownNow();
+      this.fs.delete(versionPath, true);
+    }
+  }
+
+  @Test
+  public void testResolvedConfigsReadOwnConfigsOnce() throws Exception {
+    String version = "v5.0";
+    Path versionPath = PathUtils.combinePaths(CONFIG_DIR_NAME, SimpleHDFSConfigStore.CONFIG_STORE_NAME, version);
+    try {
+      writeFile(new Path(versionPath, "tag/main.conf"), "d=4");
+      writeFile(new Path(versionPath, "tag/t1/main.conf"), "a=1\nb=1");
+      writeFile(new Path(versionPath, "data/main.conf"), "c=3");
+      writeFile(new Path(versionPath, "data/set1/main.conf"), "b=2");
+      writeFile(new Path(versionPath, "data/set1/includes.conf"), "/tag/t1");
+      this.fs.mkdirs(new Path(versionPath, "data/set2"));
+
+      ConfigKeyPath data = SingleLinkedListConfigKeyPath.ROOT.createChild("data");
+      ConfigKeyPath set1 = data.createChild("set1");
+      ConfigKeyPath set2 = data.createChild("set2");
+      List<ConfigKeyPath> configKeys = ImmutableList.of(set1, set2);
+
+      SimpleHDFSConfigStore localStore = createStore();
+      CountingFileSystem countingFs = new CountingFileSystem(this.fs);
+      SimpleHDFSConfigStore store = new SimpleHDFSConfigStore(countingFs, localStore.getPhysicalStoreRoot(),
+          localStore.getStoreURI(), SimpleHDFSConfigStore.DEFAULT_BATCH_FETCH_THREADS,
+          SimpleHDFSConfigStore.DEFAULT_MAX_CACHED_VERSIONS,
+          SimpleHDFSConfigStore.DEFAULT_MAX_MERGED_CONFIGS_PER_VERSION);
+
+      Map<ConfigKeyPath, Config> resolvedConfigs = store.getResolvedConfigs(configKeys, version);
+      assertResolvedConfigs(resolvedConfigs, set1, set2);
+      // The ancestor of the import is resolved as well
+      Assert.assertEquals(resolvedConfigs.get(set1).getInt("d"), 4);
+
+      // The batch fetch reads the own config of every config key, import and ancestor, and the resolution reuses it
+      int mainConfsOpened = 0;
+      for (Path path : countingFs.opens.elementSet()) {
+        if (path.getName().equals(SimpleHDFSConfigStore.MAIN_CONF_FILE_NAME)) {
+          Assert.assertEquals(countingFs.opens.count(path), 1, path.toString());
+          mainConfsOpened++;
+        }
+      }
+      Assert.assertEquals(mainConfsOpened, 4);
+      for (Path path : countingFs.fileStatuses.elementSet()) {
+        if (path.getName().equals(SimpleHDFSConfigStore.MAIN_CONF_FILE_NAME)) {
+          // Once by FileSystem#exists and once by FileSystem#getFileStatus
+          Assert.assertTrue(countingFs.fileStatuses.count(path) <= 2, path.toString());
+        }
+      }
+
+      // Resolving the same config keys again does not read the store anymore
+      int opens = countingFs.opens.size();
+      int fileStatuses = countingFs.fileStatuses.size();
+      assertResolvedConfigs(store.getResolvedConfigs(configKeys, version), set1, set2);
+      Assert.assertEquals(countingFs.opens.size(), opens);
+      Assert.assertEquals(countingFs.fileStatuses.size(), fileStatuses);
+    } finally {
+      this.fs.delete(versionPath, true);
+    }
+  }
+
   @Test
   public void testResolveImports() throws Exception {
     List<String> unresolved =
@@ -219,6 +359,55 @@ public class SimpleHdfsConfigStoreTest {
     }
   }
 
+  private static void assertResolvedConfigs(Map<ConfigKeyPath, Config> resolvedConfigs, ConfigKeyPath set1,
+      ConfigKeyPath set2) {
+    Config resolvedSet1 = resolvedConfigs.get(set1);
+    Assert.assertEquals(resolvedSet1.getInt("a"), 1);
+    Assert.assertEquals(resolvedSet1.getInt("b"), 2);
+    Assert.assertEquals(resolvedSet1.getInt("c"), 3);
+    Config resolvedSet2 = resolvedConfigs.get(set2);
+    Assert.assertFalse(resolvedSet2.hasPath("a"));
+    Assert.assertEquals(resolvedSet2.getInt("c"), 3);
+  }
+
+  private SimpleHDFSConfigStore createStore() throws URISyntaxException, ConfigStoreCreationException {
+    return new SimpleLocalHDFSConfigStoreFactory()
+        .createConfigStore(getStoreURI(System.getProperty("user.dir") + File.separator + CONFIG_DIR_NAME));
+  }
+
+  private void writeFile(Path path, String content) throws IOException {
+    try (BufferedWriter writer =
+        new BufferedWriter(new OutputStreamWriter(this.fs.create(path), Charsets.UTF_8))) {
+      writer.write(content);
+    }
+  }
+
+  /**
+   * A {@link FilterFileSystem} counting the {@link Path}s opened and the {@link Path}s whose {@link FileStatus} is
+   * read.
+   */
+  private static class CountingFileSystem extends FilterFileSystem {
+
+    private final Multiset<Path> opens = ConcurrentHashMultiset.create();
+    private final Multiset<Path> fileStatuses = ConcurrentHashMultiset.create();
+
+    public CountingFileSystem(FileSystem fs) {
+      super(fs);
+    }
+
+    @Override
+    public FSDataInputStream open(Path path, int bufferSize) throws IOException {
+      this.opens.add(path);
+      return super.open(path, bufferSize);
+    }
+
+    @Override
+    public FileStatus getFileStatus(Path path) throws IOException {
+      this.fileStatuses.add(path);
+      return super.getFileStatus(path);
+    }
+  }
+
   private URI getStoreURI(String configDir) throws URISyntaxException {
     return new URI(SimpleHDFSConfigStoreFactory.SIMPLE_HDFS_SCHEME_PREFIX + "file", "localhost:8080", configDir, "", "");
   }
@@ -12,6 +12,7 @@
 
 package gobblin.converter.avro;
 
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
@@ -33,6 +34,9 @@ import sun.util.calendar.ZoneInfo;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 import gobblin.configuration.ConfigurationKeys;
 import gobblin.configuration.WorkUnitState;
@@ -161,6 +165,8 @@ public class JsonElementConversionFactory {
    *
    */
   public static abstract class JsonElementConverter {
+    private static final JsonParser JSON_PARSER = new JsonParser();
+
     private String name;
     private boolean nullable;
     private String sourceType;
@@ -227,6 +233,23 @@ public class JsonElementConversionFactory {
       return convertField(value);
     }
 
+    /**
+     * Read the next value of a {@link JsonReader} and convert it
+     * @param reader positioned before the value
+     * @return Avro safe type, null if the value is null and allowed, exception if not allowed
+     * @throws IOException
+     */
+    public Object read(JsonReader reader) throws IOException {
+      if (reader.peek() == JsonToken.NULL) {
+        reader.nextNull();
+        if (this.nullable) {
+          return null;
+        }
+        throw new RuntimeException("Field: " + getName() + " is not nullable and contains a null value");
+      }
+      return readField(reader);
+    }
+
     /**
      * Convert JsonElement to Avro type
      * @param value
@@ -234,6 +257,17 @@ public class JsonElementConversionFactory {
      */
     abstract Object convertField(JsonElement value);
 
+    /**
+     * Read the next value of a {@link JsonReader} and convert it to Avro type. Converters of primitive types read the
+     * value straight from the reader, others parse it into a {@link JsonElement} first.
+     * @param reader
+     * @return
+     * @throws IOException
+     */
+    Object readField(JsonReader reader) throws IOException {
+      return convertField(JSON_PARSER.parse(reader));
+    }
+
     /**
      * Avro data type after conversion
      * @return
@@ -252,6 +286,11 @@ public class JsonElementConversionFactory {
       return new Utf8(value.getAsString());
     }
 
+    @Override
+    Object readField(JsonReader reader) throws IOException {
+      return new Utf8(nextString(reader));
+    }
+
     @Override
     public org.apache.avro.Schema.Type getTargetType() {
       return Schema.Type.STRING;
@@ -270,6 +309,11 @@ public class JsonElementConversionFactory {
       return value.getAsInt();
     }
 
+    @Override
+    Object readField(JsonReader reader) throws IOException {
+      return reader.nextInt();
+    }
+
     @Override
     public org.apache.avro.Schema.Type getTargetType() {
       return Schema.Type.INT;
@@ -288,6 +332,11 @@ public class JsonElementConversionFactory {
       return value.getAsLong();
     }
 
+    @Override
+    Object readField(JsonReader reader) throws IOException {
+      return reader.nextLong();
+    }
+
     @Override
     public org.apache.avro.Schema.Type getTargetType() {
       return Schema.Type.LONG;
@@ -305,6 +354,11 @@ public class JsonElementConversionFactory {
       return value.getAsDouble();
     }
 
+    @Override
+    Object readField(JsonReader reader) throws IOException {
+      return reader.nextDouble();
+    }
+
     @Override
     public org.apache.avro.Schema.Type getTargetType() {
       return Schema.Type.DOUBLE;
@@ -322,6 +376,11 @@ public class JsonElementConversionFactory {
       return value.getAsFloat();
     }
 
+    @Override
+    Object readField(JsonReader reader) throws IOException {
+      return (float) reader.nextDouble();
+    }
+
     @Override
     public org.apache.avro.Schema.Type getTargetType() {
       return Schema.Type.FLOAT;
@@ -340,6 +399,14 @@ public class JsonElementConversionFactory {
       return value.getAsBoolean();
     }
 
+    @Override
+    Object readField(JsonReader reader) throws IOException {
+      if (reader.peek() == JsonToken.STRING) {
+        return Boolean.parseBoolean(reader.nextString());
+      }
+      return reader.nextBoolean();
+    }
+
     @Override
     public org.apache.avro.Schema.Type getTargetType() {
       return Schema.Type.BOOLEAN;
@@ -347,41 +414,39 @@ public class JsonElementConversionFactory {
   }
 
   public static class DateConverter extends JsonElementConverter {
-    private String inputPatterns;
-    private DateTimeZone timeZone;
-    private WorkUnitState state;
+    private List<DateTimeFormatter> formatters = new ArrayList<>();
+    private boolean epochTimeInSeconds;
 
     public DateConverter(String fieldName, boolean nullable, String sourceType, String pattern, DateTimeZone zone,
         WorkUnitState state) {
       super(fieldName, nullable, sourceType);
-      this.inputPatterns = pattern;
-      this.timeZone = zone;
-      this.state = state;
+      for (String inputPattern : Arrays.asList(pattern.split(","))) {
+        this.formatters.add(DateTimeFormat.forPattern(inputPattern).withZone(zone));
+      }
+      this.epochTimeInSeconds = Boolean.valueOf(state.getProp(ConfigurationKeys.CONVERTER_IS_EPOCH_TIME_IN_SECONDS));
     }
 
     @Override
     Object convertField(JsonElement value) {
-      List<String> patterns = Arrays.asList(this.inputPatterns.split(","));
-      int patternFailCount = 0;
-      Object formattedDate = null;
-      for (String pattern : patterns) {
-        DateTimeFormatter dtf = DateTimeFormat.forPattern(pattern).withZone(this.timeZone);
+      return parseDate(value.getAsString());
+    }
+
+    @Override
+    Object readField(JsonReader reader) throws IOException {
+      return parseDate(nextString(reader));
+    }
+
+    private Object parseDate(String value) {
+      for (DateTimeFormatter dtf : this.formatters) {
         try {
-          formattedDate = dtf.parseDateTime(value.getAsString()).withZone(DateTimeZone.forID("UTC")).getMillis();
-          if (Boolean.valueOf(this.state.getProp(ConfigurationKeys.CONVERTER_IS_EPOCH_TIME_IN_SECONDS))) {
-            formattedDate = (Long) formattedDate / 1000;
-          }
-          break;
+          long formattedDate = dtf.parseMillis(value);
+          return this.epochTimeInSeconds ? formattedDate / 1000 : formattedDate;
         } catch (Exception e) {
-          patternFailCount++;
+          // try the next pattern
         }
       }
 
-      if (patternFailCount == patterns.size()) {
-        throw new RuntimeException("Failed to parse the date");
-      }
-
-      return formattedDate;
+      throw new RuntimeException("Failed to parse the date");
     }
 
     @Override
@@ -407,6 +472,11 @@ public class JsonElementConversionFactory {
       }
     }
 
+    @Override
+    Object readField(JsonReader reader) throws IOException {
+      return ByteBuffer.wrap(nextString(reader).getBytes(this.charSet));
+    }
+
     @Override
     public org.apache.avro.Schema.Type getTargetType() {
       return Schema.Type.BYTES;
@@ -450,6 +520,19 @@ public class JsonElementConversionFactory {
       return new GenericData.Array<>(schema(), list);
     }
 
+    @Override
+    Object readField(JsonReader reader) throws IOException {
+      List<Object> list = new ArrayList<>();
+
+      reader.beginArray();
+      while (reader.hasNext()) {
+        list.add(getElementConverter().readField(reader));
+      }
+      reader.endArray();
+
+      return new GenericData.Array<>(schema(), list);
+    }
+
     @Override
     public org.apache.avro.Schema.Type getTargetType() {
       return Schema.Type.ARRAY;
@@ -484,6 +567,19 @@ public class JsonElementConversionFactory {
       return map;
     }
 
+    @Override
+    Object readField(JsonReader reader) throws IOException {
+      Map<String, Object> map = new HashMap<>();
+
+      reader.beginObject();
+      while (reader.hasNext()) {
+        map.put(reader.nextName(), getElementConverter().readField(reader));
+      }
+      reader.endObject();
+
+      return map;
+    }
+
     @Override
     public org.apache.avro.Schema.Type getTargetType() {
       return Schema.Type.MAP;
@@ -516,6 +612,11 @@ public class JsonElementConversionFactory {
       return new GenericData.EnumSymbol(this.schema, value.getAsString());
     }
 
+    @Override
+    Object readField(JsonReader reader) throws IOException {
+      return new GenericData.EnumSymbol(this.schema, nextString(reader));
+    }
+
     @Override
     public org.apache.avro.Schema.Type getTargetType() {
       return Schema.Type.ENUM;
@@ -528,4 +629,14 @@ public class JsonElementConversionFactory {
       return this.schema;
     }
   }
+
+  /**
+   * Read the next value of a {@link JsonReader} as a string, the same way {@link JsonElement#getAsString()} does.
+   */
+  private static String nextString(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonToken.BOOLEAN) {
+      return Boolean.toString(reader.nextBoolean());
+    }
+    return reader.nextString();
+  }
 }
@@ -58,10 +58,12 @@ public class JsonIntermediateToAvroConverter extends ToAvroConverterBase<JsonArr
       "converter.avro.nullify.fields.original.schema.path";
 
   private long numFailedConversion = 0;
+  private JsonToAvroRecordPlan recordPlan;
 
   @Override
   public Schema convertSchema(JsonArray schema, WorkUnitState workUnit) throws SchemaConversionException {
     List<Schema.Field> fields = new ArrayList<>();
+    this.recordPlan = null;
 
     for (JsonElement elem : schema) {
       JsonObject map = (JsonObject) elem;
@@ -105,9 +107,14 @@ public class JsonIntermediateToAvroConverter extends ToAvroConverterBase<JsonArr
     long maxFailedConversions = workUnit.getPropAsLong(ConfigurationKeys.CONVERTER_AVRO_MAX_CONVERSION_FAILURES,
         ConfigurationKeys.DEFAULT_CONVERTER_AVRO_MAX_CONVERSION_FAILURES);
 
+    JsonToAvroRecordPlan plan = getRecordPlan(outputSchema);
     for (Map.Entry<String, JsonElement> entry : inputRecord.entrySet()) {
       try {
-        avroRecord.put(entry.getKey(), this.converters.get(entry.getKey()).convert(entry.getValue()));
+        int position = plan.getPosition(entry.getKey());
+        if (position < 0) {
+          throw new IllegalArgumentException("Field " + entry.getKey() + " is not in the schema");
+        }
+        plan.put(avroRecord, position, entry.getValue());
       } catch (Exception e) {
         this.numFailedConversion++;
         if (this.numFailedConversion < maxFailedConversions) {
@@ -122,6 +129,17 @@ public class JsonIntermediateToAvroConverter extends ToAvroConverterBase<JsonArr
     return new SingleRecordIterable<>(avroRecord);
   }
 
+  /**
+   * Get the {@link JsonToAvroRecordPlan} of an output {@link Schema} returned by {@link #convertSchema}, which is
+   * compiled once for each output {@link Schema}.
+   */
+  JsonToAvroRecordPlan getRecordPlan(Schema outputSchema) {
+    if (this.recordPlan == null || this.recordPlan.getSchema() != outputSchema) {
+      this.recordPlan = new JsonToAvroRecordPlan(outputSchema, this.converters);
+    }
+    return this.recordPlan;
+  }
+
   /**
    * Generate new avro schema by nullifying fields that previously existed but not in the current schema.
    *
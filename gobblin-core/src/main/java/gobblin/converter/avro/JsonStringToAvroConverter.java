@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.converter.avro;
+
+import java.io.StringReader;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonArray;
+import com.google.gson.stream.JsonReader;
+
+import gobblin.configuration.ConfigurationKeys;
+import gobblin.configuration.WorkUnitState;
+import gobblin.converter.DataConversionException;
+import gobblin.converter.EmptyIterable;
+import gobblin.converter.SchemaConversionException;
+import gobblin.converter.SingleRecordIterable;
+import gobblin.converter.ToAvroConverterBase;
+
+
+/**
+ * Converts records in the JSON text of Integra's intermediate data format to avro.
+ *
+ * <p>
+ *   The schema is converted the same way as by {@link JsonIntermediateToAvroConverter}, and compiled once into a
+ *   {@link JsonToAvroRecordPlan}. Records are then parsed with a streaming {@link JsonReader} straight into
+ *   {@link GenericRecord}s, without building a {@link com.google.gson.JsonObject} first. If
+ *   {@link #CONVERTER_AVRO_REUSE_RECORD} is set, the same {@link GenericRecord} is returned for every record, which
+ *   is only safe if the next converters and the writer are done with a record before the next one is converted.
+ * </p>
+ */
+public class JsonStringToAvroConverter extends ToAvroConverterBase<JsonArray, String> {
+  private static final Logger LOG = LoggerFactory.getLogger(JsonStringToAvroConverter.class);
+  public static final String CONVERTER_AVRO_REUSE_RECORD = "converter.avro.reuse.record";
+  public static final boolean DEFAULT_CONVERTER_AVRO_REUSE_RECORD = false;
+
+  private final JsonIntermediateToAvroConverter schemaConverter = new JsonIntermediateToAvroConverter();
+  private long numFailedConversion = 0;
+  private GenericRecord reusedRecord;
+
+  @Override
+  public Schema convertSchema(JsonArray schema, WorkUnitState workUnit) throws SchemaConversionException {
+    return this.schemaConverter.convertSchema(schema, workUnit);
+  }
+
+  @Override
+  public Iterable<GenericRecord> convertRecord(Schema outputSchema, String inputRecord, WorkUnitState workUnit)
+      throws DataConversionException {
+
+    GenericRecord avroRecord;
+    if (workUnit.getPropAsBoolean(CONVERTER_AVRO_REUSE_RECORD, DEFAULT_CONVERTER_AVRO_REUSE_RECORD)) {
+      if (this.reusedRecord == null || this.reusedRecord.getSchema() != outputSchema) {
+        this.reusedRecord = new GenericData.Record(outputSchema);
+      }
+      avroRecord = this.reusedRecord;
+    } else {
+      avroRecord = new GenericData.Record(outputSchema);
+    }
+
+    try (JsonReader reader = new JsonReader(new StringReader(inputRecord))) {
+      this.schemaConverter.getRecordPlan(outputSchema).read(reader, avroRecord);
+    } catch (Exception e) {
+      long maxFailedConversions = workUnit.getPropAsLong(ConfigurationKeys.CONVERTER_AVRO_MAX_CONVERSION_FAILURES,
+          ConfigurationKeys.DEFAULT_CONVERTER_AVRO_MAX_CONVERSION_FAILURES);
+      this.numFailedConversion++;
+      if (this.numFailedConversion < maxFailedConversions) {
+        LOG.error("Dropping record " + inputRecord + " because it cannot be converted to Avro", e);
+        return new EmptyIterable<>();
+      }
+      throw new DataConversionException("Unable to convert record: " + inputRecord, e);
+    }
+
+    return new SingleRecordIterable<>(avroRecord);
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.converter.avro;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+
+
+/**
+ * A target Avro {@link Schema} compiled into the position and {@link JsonElementConversionFactory.JsonElementConverter}
+ * of each field, so that records are converted by position rather than looking up fields by name in the
+ * {@link Schema}.
+ *
+ * <p>
+ *   Besides converting the values of parsed {@link JsonElement}s, a plan can read a record straight from a
+ *   {@link JsonReader} without building its {@link com.google.gson.JsonObject}.
+ * </p>
+ */
+class JsonToAvroRecordPlan {
+
+  private final Schema schema;
+  private final String[] names;
+  private final JsonElementConversionFactory.JsonElementConverter[] converters;
+  private final Map<String, Integer> positions = new HashMap<>();
+
+  /**
+   * @param schema the target {@link Schema}
+   * @param converters the {@link JsonElementConversionFactory.JsonElementConverter}s of the fields by name. Fields of
+   *                   the {@link Schema} without a converter are left null, converters of fields not in the
+   *                   {@link Schema} are ignored
+   */
+  JsonToAvroRecordPlan(Schema schema, Map<String, JsonElementConversionFactory.JsonElementConverter> converters) {
+    this.schema = schema;
+    this.names = new String[schema.getFields().size()];
+    this.converters = new JsonElementConversionFactory.JsonElementConverter[schema.getFields().size()];
+    for (Schema.Field field : schema.getFields()) {
+      if (converters.containsKey(field.name())) {
+        this.names[field.pos()] = field.name();
+        this.converters[field.pos()] = converters.get(field.name());
+        this.positions.put(field.name(), field.pos());
+      }
+    }
+  }
+
+  Schema getSchema() {
+    return this.schema;
+  }
+
+  /**
+   * @return the position of the field in the {@link Schema}, or -1 if the field has no converter
+   */
+  int getPosition(String name) {
+    Integer position = this.positions.get(name);
+    return position == null ? -1 : position;
+  }
+
+  /**
+   * Convert the value of the field at the given position and put it into the record.
+   */
+  void put(GenericRecord record, int position, JsonElement value) {
+    record.put(position, this.converters[position].convert(value));
+  }
+
+  /**
+   * Read the next JSON object of a {@link JsonReader} into a record. Fields missing from the JSON object are set to
+   * null, so the record may be reused across JSON objects.
+   *
+   * @throws IOException if the JSON object could not be read
+   * @throws IllegalArgumentException if the JSON object has a field without a converter
+   */
+  void read(JsonReader reader, GenericRecord record) throws IOException {
+    for (int i = 0; i < this.names.length; i++) {
+      record.put(i, null);
+    }
+
+    reader.beginObject();
+    int nextPosition = 0;
+    while (reader.hasNext()) {
+      String name = reader.nextName();
+      // JSON objects usually list the fields in the order of the schema, so the field after the previous one is
+      // tried before looking the field up by name
+      int position = nextPosition < this.names.length && name.equals(this.names[nextPosition]) ? nextPosition
+          : getPosition(name);
+      if (position < 0) {
+        throw new IllegalArgumentException("Unable to convert field:" + name + " which is not in the schema");
+      }
+      record.put(position, this.converters[position].read(reader));
+      nextPosition = position + 1;
+    }
+    reader.endObject();
+  }
+}
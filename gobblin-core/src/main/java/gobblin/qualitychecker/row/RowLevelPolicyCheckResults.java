@@ -22,27 +22,49 @@ import com.google.common.base.Joiner;
 
 /**
  * Stores the results of a RowLevelPolicy
+ *
+ * <p>
+ *   A {@link RowLevelPolicyChecker} counts the results of its policies itself, and its counts are only added to the
+ *   map of results when the results are read with {@link #getResults()}.
+ * </p>
+ *
  * @author stakiar
  */
 public class RowLevelPolicyCheckResults {
   Map<RowLevelPolicyResultPair, Long> results;
 
+  // Checkers whose counts are not added to the results yet
+  private final List<RowLevelPolicyChecker> pendingCheckers;
+
   public RowLevelPolicyCheckResults() {
     this.results = new HashMap<>();
+    this.pendingCheckers = new ArrayList<>();
   }
 
   public void put(RowLevelPolicy policy, RowLevelPolicy.Result result) {
+    put(policy, result, 1);
+  }
+
+  /**
+   * Add a number of records processed by a policy with the given result.
+   */
+  public void put(RowLevelPolicy policy, RowLevelPolicy.Result result, long count) {
     RowLevelPolicyResultPair resultPolicyPair = new RowLevelPolicyResultPair(policy, result);
-    long value;
-    if (this.results.containsKey(resultPolicyPair)) {
-      value = this.results.get(resultPolicyPair);
-    } else {
-      value = 0;
-    }
-    this.results.put(new RowLevelPolicyResultPair(policy, result), Long.valueOf(1 + value));
+    Long value = this.results.get(resultPolicyPair);
+    this.results.put(resultPolicyPair, (value == null ? 0 : value) + count);
+  }
+
+  /**
+   * Get the number of records processed by a policy with the given result.
+   */
+  public long getCount(RowLevelPolicy policy, RowLevelPolicy.Result result) {
+    materialize();
+    Long value = this.results.get(new RowLevelPolicyResultPair(policy, result));
+    return value == null ? 0 : value;
   }
 
   public String getResults() {
+    materialize();
     List<String> list = new ArrayList<>();
     Joiner joiner = Joiner.on("\n").skipNulls();
     for (Map.Entry<RowLevelPolicyResultPair, Long> entry : this.results.entrySet()) {
@@ -52,6 +74,17 @@ public class RowLevelPolicyCheckResults {
     return joiner.join(list);
   }
 
+  void addPendingChecker(RowLevelPolicyChecker checker) {
+    this.pendingCheckers.add(checker);
+  }
+
+  private void materialize() {
+    for (RowLevelPolicyChecker checker : this.pendingCheckers) {
+      checker.flushResults(this);
+    }
+    this.pendingCheckers.clear();
+  }
+
   public static class RowLevelPolicyResultPair {
     private RowLevelPolicy policy;
     private RowLevelPolicy.Result result;
@@ -14,6 +14,7 @@ package gobblin.qualitychecker.row;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.hadoop.fs.FileSystem;
@@ -27,17 +28,40 @@ import gobblin.util.FinalState;
 import gobblin.util.HadoopUtils;
 
 
+/**
+ * Executes a chain of {@link RowLevelPolicy}s on records.
+ *
+ * <p>
+ *   The policies are compiled into arrays when the checker is created, and the results of each policy are counted in
+ *   primitive counters. The counters are only added to a {@link RowLevelPolicyCheckResults} when its results are
+ *   read, rather than updating its map for each policy on each record.
+ * </p>
+ */
 public class RowLevelPolicyChecker implements Closeable, FinalState {
 
   private final List<RowLevelPolicy> list;
+  private final RowLevelPolicy[] policies;
+  private final RowLevelPolicy.Type[] types;
+  private final long[] passedCounts;
+  private final long[] failedCounts;
   private final String stateId;
   private final FileSystem fs;
   private boolean errFileOpen;
   private final Closer closer;
   private RowLevelErrFileWriter writer;
 
+  // The results the counters are added to when they are read
+  private RowLevelPolicyCheckResults pendingResults;
+
   public RowLevelPolicyChecker(List<RowLevelPolicy> list, String stateId, FileSystem fs) {
     this.list = list;
+    this.policies = list.toArray(new RowLevelPolicy[list.size()]);
+    this.types = new RowLevelPolicy.Type[this.policies.length];
+    for (int i = 0; i < this.policies.length; i++) {
+      this.types[i] = this.policies[i].getType();
+    }
+    this.passedCounts = new long[this.policies.length];
+    this.failedCounts = new long[this.policies.length];
     this.stateId = stateId;
     this.fs = fs;
     this.errFileOpen = false;
@@ -45,29 +69,98 @@ public class RowLevelPolicyChecker implements Closeable, FinalState {
     this.writer = this.closer.register(new RowLevelErrFileWriter(this.fs));
   }
 
+  /**
+   * Execute the policies on a record, in order until one of them fails.
+   *
+   * @param record the record to check
+   * @param results the results the outcomes of the policies are counted in
+   * @return <code>true</code> if the record passed all the policies
+   * @throws IOException if a failed record could not be written to the error file
+   */
   public boolean executePolicies(Object record, RowLevelPolicyCheckResults results) throws IOException {
-    for (RowLevelPolicy p : this.list) {
-      RowLevelPolicy.Result result = p.executePolicy(record);
-      results.put(p, result);
-
-      if (result.equals(RowLevelPolicy.Result.FAILED)) {
-        if (p.getType().equals(RowLevelPolicy.Type.FAIL)) {
-          throw new RuntimeException("RowLevelPolicy " + p + " failed on record " + record);
-        } else if (p.getType().equals(RowLevelPolicy.Type.ERR_FILE)) {
-          if (!this.errFileOpen) {
-            this.writer.open(getErrFilePath(p));
-            this.writer.write(record);
-          } else {
-            this.writer.write(record);
-          }
-          this.errFileOpen = true;
+    bindResults(results);
+    return executePolicies(record);
+  }
+
+  /**
+   * Execute the policies on a batch of records, in the same way as {@link #executePolicies(Object,
+   * RowLevelPolicyCheckResults)} for each of the records.
+   *
+   * @param records the records to check
+   * @param results the results the outcomes of the policies are counted in
+   * @return the records that passed all the policies, in their original order
+   * @throws IOException if a failed record could not be written to the error file
+   */
+  public <T> List<T> executePolicies(List<T> records, RowLevelPolicyCheckResults results) throws IOException {
+    bindResults(results);
+    List<T> passedRecords = new ArrayList<>(records.size());
+    for (T record : records) {
+      if (executePolicies(record)) {
+        passedRecords.add(record);
+      }
+    }
+    return passedRecords;
+  }
+
+  private boolean executePolicies(Object record) throws IOException {
+    for (int i = 0; i < this.policies.length; i++) {
+      RowLevelPolicy p = this.policies[i];
+      if (p.executePolicy(record) == RowLevelPolicy.Result.PASSED) {
+        this.passedCounts[i]++;
+        continue;
+      }
+
+      this.failedCounts[i]++;
+      if (this.types[i] == RowLevelPolicy.Type.FAIL) {
+        throw new RuntimeException("RowLevelPolicy " + p + " failed on record " + record);
+      } else if (this.types[i] == RowLevelPolicy.Type.ERR_FILE) {
+        if (!this.errFileOpen) {
+          this.writer.open(getErrFilePath(p));
+          this.writer.write(record);
+        } else {
+          this.writer.write(record);
         }
-        return false;
+        this.errFileOpen = true;
       }
+      return false;
     }
     return true;
   }
 
+  /**
+   * Make the counters be added to the given results when they are read. The counters are first added to the results
+   * they were bound to before, if any.
+   */
+  private void bindResults(RowLevelPolicyCheckResults results) {
+    if (results != this.pendingResults) {
+      if (this.pendingResults != null) {
+        flushResults(this.pendingResults);
+      }
+      this.pendingResults = results;
+      results.addPendingChecker(this);
+    }
+  }
+
+  /**
+   * Add the counts of the policies to the given results and reset the counters, if the counters are bound to them.
+   */
+  void flushResults(RowLevelPolicyCheckResults results) {
+    if (results != this.pendingResults) {
+      return;
+    }
+    for (int i = 0; i < this.policies.length; i++) {
+      if (this.passedCounts[i] > 0) {
+        results.put(this.policies[i], RowLevelPolicy.Result.PASSED, this.passedCounts[i]);
+        this.passedCounts[i] = 0;
+      }
+      if (this.failedCounts[i] > 0) {
+        results.put(this.policies[i], RowLevelPolicy.Result.FAILED, this.failedCounts[i]);
+        this.failedCounts[i] = 0;
+      }
+    }
+    this.pendingResults = null;
+  }
+
   private Path getErrFilePath(RowLevelPolicy policy) {
     String errFileName = HadoopUtils.sanitizePath(policy.toString(), "-");
     if (!Strings.isNullOrEmpty(this.stateId)) {
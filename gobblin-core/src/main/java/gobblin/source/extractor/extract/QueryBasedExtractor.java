@@ -344,29 +344,54 @@ public abstract class QueryBasedExtractor<S, D> implements Extractor<S, D>, Prot
    */
   private void setRangePredicates(String watermarkColumn, WatermarkType watermarkType, long lwmValue, long hwmValue) {
     log.debug("Getting range predicates");
+    addRangePredicates(this.predicateList, watermarkColumn, watermarkType, lwmValue, hwmValue);
+  }
+
+  private void addRangePredicates(List<Predicate> predicates, String watermarkColumn, WatermarkType watermarkType,
+      long lwmValue, long hwmValue) {
     WatermarkPredicate watermark = new WatermarkPredicate(watermarkColumn, watermarkType);
-    this.addPredicates(watermark.getPredicate(this, lwmValue, ">=", Predicate.PredicateType.LWM));
-    this.addPredicates(watermark.getPredicate(this, hwmValue, "<=", Predicate.PredicateType.HWM));
+    addPredicate(predicates, watermark.getPredicate(this, lwmValue, ">=", Predicate.PredicateType.LWM));
+    addPredicate(predicates, watermark.getPredicate(this, hwmValue, "<=", Predicate.PredicateType.HWM));
 
     if (Boolean.valueOf(this.workUnit.getProp(ConfigurationKeys.SOURCE_QUERYBASED_IS_HOURLY_EXTRACT))) {
       String hourColumn = this.workUnit.getProp(ConfigurationKeys.SOURCE_QUERYBASED_HOUR_COLUMN);
       if (StringUtils.isNotBlank(hourColumn)) {
         WatermarkPredicate hourlyWatermark = new WatermarkPredicate(hourColumn, WatermarkType.HOUR);
-        this.addPredicates(hourlyWatermark.getPredicate(this, lwmValue, ">=", Predicate.PredicateType.LWM));
-        this.addPredicates(hourlyWatermark.getPredicate(this, hwmValue, "<=", Predicate.PredicateType.HWM));
+        addPredicate(predicates, hourlyWatermark.getPredicate(this, lwmValue, ">=", Predicate.PredicateType.LWM));
+        addPredicate(predicates, hourlyWatermark.getPredicate(this, hwmValue, "<=", Predicate.PredicateType.HWM));
       }
     }
   }
 
   /**
    * add predicate to the predicate list
+   * @param predicate list
    * @param Predicate(watermark column,type,format and condition)
-   * @return watermark list
    */
-  private void addPredicates(Predicate predicate) {
+  private static void addPredicate(List<Predicate> predicates, Predicate predicate) {
     if (predicate != null) {
-      this.predicateList.add(predicate);
+      predicates.add(predicate);
+    }
+  }
+
+  /**
+   * Get the number of records with watermarks in the given range, with the same count query as the one
+   * {@link #build()} runs for the range of the work unit. The extractor must have been built first.
+   *
+   * @param low watermark value
+   * @param high watermark value
+   * @return record count of the range
+   * @throws RecordCountException if the records could not be counted
+   */
+  public long getRecordCount(long lwmValue, long hwmValue) throws RecordCountException {
+    List<Predicate> predicates = new ArrayList<>();
+    String watermarkColumn = this.workUnit.getProp(ConfigurationKeys.EXTRACT_DELTA_FIELDS_KEY);
+    if (StringUtils.isNotBlank(watermarkColumn)) {
+      WatermarkType watermarkType = WatermarkType
+          .valueOf(this.workUnit.getProp(ConfigurationKeys.SOURCE_QUERYBASED_WATERMARK_TYPE).toUpperCase());
+      addRangePredicates(predicates, watermarkColumn, watermarkType, lwmValue, hwmValue);
     }
+    return this.getSourceCount(this.schema, this.entity, this.workUnit, predicates);
   }
 
   /**
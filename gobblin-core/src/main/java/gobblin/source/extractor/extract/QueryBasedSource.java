@@ -12,6 +12,8 @@
 
 package gobblin.source.extractor.extract;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -21,6 +23,7 @@ import java.util.regex.Pattern;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.MDC;
 
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
@@ -38,8 +41,12 @@ import gobblin.configuration.SourceState;
 import gobblin.configuration.State;
 import gobblin.configuration.WorkUnitState;
 import gobblin.configuration.WorkUnitState.WorkingState;
+import gobblin.source.extractor.Extractor;
 import gobblin.source.extractor.JobCommitPolicy;
 import gobblin.source.extractor.WatermarkInterval;
+import gobblin.source.extractor.exception.RecordCountException;
+import gobblin.source.extractor.partition.EstimatedPartition;
+import gobblin.source.extractor.partition.PartitionRecordCounter;
 import gobblin.source.extractor.partition.Partitioner;
 import gobblin.source.extractor.utils.Utils;
 import gobblin.source.workunit.Extract;
@@ -108,9 +115,6 @@ public abstract class QueryBasedSource<S, D> extends AbstractSource<S, D> {
         combinedState.setProp(ConfigurationKeys.SOURCE_QUERYBASED_END_VALUE, previousWatermark);
       }
 
-      Map<Long, Long> sortedPartitions = Maps.newTreeMap();
-      sortedPartitions.putAll(new Partitioner(combinedState).getPartitions(previousWatermark));
-
       Extract extract = createExtract(tableType, nameSpaceName, tableName);
 
       // Setting current time for the full extract
@@ -118,6 +122,20 @@ public abstract class QueryBasedSource<S, D> extends AbstractSource<S, D> {
         extract.setFullTrue(System.currentTimeMillis());
       }
 
+      if (combinedState.getPropAsBoolean(ConfigurationKeys.SOURCE_QUERYBASED_PARTITION_ESTIMATE_SIZE,
+          ConfigurationKeys.DEFAULT_SOURCE_QUERYBASED_PARTITION_ESTIMATE_SIZE)
+          && tableNameToEntityMap.containsKey(tableName)) {
+        Optional<List<WorkUnit>> estimatedWorkUnits =
+            getEstimatedWorkUnits(combinedState, extract, tableName, previousWatermark);
+        if (estimatedWorkUnits.isPresent()) {
+          workUnits.addAll(estimatedWorkUnits.get());
+          continue;
+        }
+      }
+
+      Map<Long, Long> sortedPartitions = Maps.newTreeMap();
+      sortedPartitions.putAll(new Partitioner(combinedState).getPartitions(previousWatermark));
+
       for (Entry<Long, Long> entry : sortedPartitions.entrySet()) {
         WorkUnit workunit = WorkUnit.create(extract);
         workunit.setProp(ConfigurationKeys.SOURCE_ENTITY, tableName);
@@ -138,6 +156,102 @@ public abstract class QueryBasedSource<S, D> extends AbstractSource<S, D> {
     return pack(workUnits, numOfMultiWorkunits);
   }
 
+  /**
+   * Create the work units of a table from partitions balanced by their estimated sizes, with the estimated record
+   * counts recorded in the work units.
+   *
+   * @return the work units, or {@link Optional#absent()} if the partition sizes could not be estimated
+   */
+  private Optional<List<WorkUnit>> getEstimatedWorkUnits(SourceState state, Extract extract, String tableName,
+      long previousWatermark) {
+    List<EstimatedPartition> partitions;
+    try (ExtractorRecordCounter recordCounter = new ExtractorRecordCounter(state, extract, tableName)) {
+      partitions = new Partitioner(state).getEstimatedPartitions(previousWatermark, recordCounter);
+    } catch (IOException ioe) {
+      log.warn("Failed to estimate the partition sizes of table " + tableName
+          + "; falling back to partitions of equal watermark ranges", ioe);
+      return Optional.absent();
+    }
+
+    long tableRecordCount = 0;
+    for (EstimatedPartition partition : partitions) {
+      tableRecordCount += partition.getEstimatedRecordCount();
+    }
+
+    List<WorkUnit> workUnits = Lists.newArrayList();
+    for (EstimatedPartition partition : partitions) {
+      WorkUnit workunit = WorkUnit.create(extract);
+      workunit.setProp(ConfigurationKeys.SOURCE_ENTITY, tableName);
+      workunit.setWatermarkInterval(new WatermarkInterval(new LongWatermark(partition.getLowWatermark()),
+          new LongWatermark(partition.getHighWatermark())));
+      if (partition.getEstimatedRecordCount() >= 0) {
+        workunit.setProp(ConfigurationKeys.SOURCE_QUERYBASED_PARTITION_ESTIMATED_RECORD_COUNT,
+            partition.getEstimatedRecordCount());
+        workunit.setProp(ConfigurationKeys.SOURCE_QUERYBASED_PARTITION_SAMPLED_RANGES, partition.getSampledRanges());
+        workunit.setProp(ConfigurationKeys.SOURCE_QUERYBASED_TABLE_ESTIMATED_RECORD_COUNT, tableRecordCount);
+      }
+      workUnits.add(workunit);
+    }
+    return Optional.of(workUnits);
+  }
+
+  /**
+   * A {@link PartitionRecordCounter} that counts the records of a table with a {@link QueryBasedExtractor} of this
+   * source, which is created on the first count and reused for the following ones.
+   */
+  private class ExtractorRecordCounter implements PartitionRecordCounter, Closeable {
+
+    private final SourceState state;
+    private final Extract extract;
+    private final String tableName;
+    private QueryBasedExtractor<S, D> extractor;
+
+    private ExtractorRecordCounter(SourceState state, Extract extract, String tableName) {
+      this.state = state;
+      this.extract = extract;
+      this.tableName = tableName;
+    }
+
+    @Override
+    public long getRecordCount(long lowWatermark, long highWatermark) throws IOException {
+      if (this.extractor == null) {
+        this.extractor = createExtractor(lowWatermark, highWatermark);
+      }
+      try {
+        return this.extractor.getRecordCount(lowWatermark, highWatermark);
+      } catch (RecordCountException rce) {
+        throw new IOException(rce);
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private QueryBasedExtractor<S, D> createExtractor(long lowWatermark, long highWatermark) throws IOException {
+      WorkUnit workunit = WorkUnit.create(this.extract);
+      workunit.setProp(ConfigurationKeys.SOURCE_ENTITY, this.tableName);
+      workunit.setWatermarkInterval(
+          new WatermarkInterval(new LongWatermark(lowWatermark), new LongWatermark(highWatermark)));
+      // Only the metadata of the table is needed to count the records of each range
+      workunit.setProp(ConfigurationKeys.SOURCE_QUERYBASED_SKIP_HIGH_WATERMARK_CALC, true);
+      workunit.setProp(ConfigurationKeys.SOURCE_QUERYBASED_SKIP_COUNT_CALC, true);
+      WorkUnitState workUnitState = new WorkUnitState(workunit, this.state);
+      workUnitState.setId(this.tableName + "_partition_estimation");
+
+      Extractor<S, D> extractor = getExtractor(workUnitState);
+      if (!(extractor instanceof QueryBasedExtractor)) {
+        extractor.close();
+        throw new IOException("Extractor " + extractor.getClass().getName() + " cannot count the records of a range");
+      }
+      return (QueryBasedExtractor<S, D>) extractor;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (this.extractor != null) {
+        this.extractor.close();
+      }
+    }
+  }
+
   protected Set<String> getSourceEntities(State state) {
     if (state.contains(ConfigurationKeys.SOURCE_ENTITIES)) {
       log.info("Using entity names in " + ConfigurationKeys.SOURCE_ENTITIES);
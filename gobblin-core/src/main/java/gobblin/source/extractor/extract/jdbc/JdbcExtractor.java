@@ -721,7 +721,13 @@ public abstract class JdbcExtractor extends QueryBasedExtractor<JsonArray, JsonE
 
     if (this.jdbcSource == null || this.jdbcSource.isClosed()) {
       this.jdbcSource = new JdbcProvider(driver, connectionUrl, userName, password, 1, this.getTimeOut(), "DEFAULT",
-          proxyHost, proxyPort);
+          proxyHost, proxyPort,
+          this.workUnit.getPropAsInt(ConfigurationKeys.SOURCE_CONN_TUNNEL_SELECTOR_THREADS,
+              ConfigurationKeys.DEFAULT_SOURCE_CONN_TUNNEL_SELECTOR_THREADS),
+          this.workUnit.getPropAsInt(ConfigurationKeys.SOURCE_CONN_TUNNEL_BUFFER_SIZE,
+              ConfigurationKeys.DEFAULT_SOURCE_CONN_TUNNEL_BUFFER_SIZE),
+          this.workUnit.getPropAsInt(ConfigurationKeys.SOURCE_CONN_TUNNEL_MAX_POOLED_BUFFERS,
+              ConfigurationKeys.DEFAULT_SOURCE_CONN_TUNNEL_MAX_POOLED_BUFFERS));
       return this.jdbcSource;
     } else {
       return this.jdbcSource;
@@ -12,6 +12,7 @@
 
 package gobblin.source.extractor.extract.jdbc;
 
+import gobblin.configuration.ConfigurationKeys;
 import gobblin.tunnel.Tunnel;
 import org.apache.commons.dbcp.BasicDataSource;
 
@@ -42,8 +43,24 @@ public class JdbcProvider extends BasicDataSource {
     this.connect(driver, connectionUrl, user, password, numconn, timeout, type, proxyHost, proxyPort);
   }
 
+  public JdbcProvider(String driver, String connectionUrl, String user, String password, int numconn, int timeout,
+      String type, String proxyHost, int proxyPort, int tunnelSelectorThreads, int tunnelBufferSize,
+      int tunnelMaxPooledBuffers) {
+    this.connect(driver, connectionUrl, user, password, numconn, timeout, type, proxyHost, proxyPort,
+        tunnelSelectorThreads, tunnelBufferSize, tunnelMaxPooledBuffers);
+  }
+
   public void connect(String driver, String connectionUrl, String user, String password, int numconn, int timeout,
       String type, String proxyHost, int proxyPort) {
+    this.connect(driver, connectionUrl, user, password, numconn, timeout, type, proxyHost, proxyPort,
+        ConfigurationKeys.DEFAULT_SOURCE_CONN_TUNNEL_SELECTOR_THREADS,
+        ConfigurationKeys.DEFAULT_SOURCE_CONN_TUNNEL_BUFFER_SIZE,
+        ConfigurationKeys.DEFAULT_SOURCE_CONN_TUNNEL_MAX_POOLED_BUFFERS);
+  }
+
+  public void connect(String driver, String connectionUrl, String user, String password, int numconn, int timeout,
+      String type, String proxyHost, int proxyPort, int tunnelSelectorThreads, int tunnelBufferSize,
+      int tunnelMaxPooledBuffers) {
 
     if (proxyHost != null && proxyPort > 0) {
       String remoteHost = "";
@@ -56,7 +73,8 @@ public class JdbcProvider extends BasicDataSource {
       remotePort = Integer.decode(connectionUrl.substring(portStart + 1, connectionUrl.indexOf("/", portStart)));
 
       try {
-        this.tunnel = Tunnel.build(remoteHost, remotePort, proxyHost, proxyPort);
+        this.tunnel = Tunnel.build(remoteHost, remotePort, proxyHost, proxyPort, tunnelSelectorThreads,
+            tunnelBufferSize, tunnelMaxPooledBuffers);
         int tunnelPort = this.tunnel.getPort();
         //mangle connectionUrl, replace hostname with localhost -- hopefully the hostname is not needed!!!
         String newConnectionUrl =
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.source.extractor.partition;
+
+import lombok.Data;
+
+
+/**
+ * A partition of the watermark range of a source entity with the estimated number of records in it.
+ */
+@Data
+public class EstimatedPartition {
+
+  private final long lowWatermark;
+  private final long highWatermark;
+
+  /**
+   * The estimated number of records in the partition, or -1 if the records were not counted.
+   */
+  private final long estimatedRecordCount;
+
+  /**
+   * The number of sampled sub-ranges merged into the partition.
+   */
+  private final int sampledRanges;
+}
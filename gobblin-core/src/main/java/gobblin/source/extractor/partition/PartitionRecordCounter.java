@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.source.extractor.partition;
+
+import java.io.IOException;
+
+
+/**
+ * Counts the records of a source entity in a watermark range, which {@link Partitioner} uses to balance the
+ * partitions of the entity by their estimated sizes.
+ */
+public interface PartitionRecordCounter {
+
+  /**
+   * Get the number of records with watermarks in the given range.
+   *
+   * @param lowWatermark the low watermark of the range, inclusive
+   * @param highWatermark the high watermark of the range, inclusive
+   * @return the number of records in the range
+   * @throws IOException if the records could not be counted
+   */
+  long getRecordCount(long lowWatermark, long highWatermark) throws IOException;
+}
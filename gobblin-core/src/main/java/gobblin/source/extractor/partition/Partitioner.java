@@ -12,13 +12,18 @@
 
 package gobblin.source.extractor.partition;
 
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
 
 import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 import gobblin.configuration.ConfigurationKeys;
@@ -49,6 +54,112 @@ public class Partitioner {
    * @return map of partition intervals
    */
   public HashMap<Long, Long> getPartitions(long previousWatermark) {
+    return getPartitions(previousWatermark, getMaxPartitions());
+  }
+
+  /**
+   * Get partitions with low and high water marks, balanced by the estimated number of records in them
+   *
+   * <p>
+   *   The watermark range is first split into
+   *   {@link ConfigurationKeys#SOURCE_QUERYBASED_PARTITION_SAMPLES_PER_PARTITION} times as many sub-ranges as the
+   *   maximum number of partitions, and the records of each sub-range are counted with the given
+   *   {@link PartitionRecordCounter}. Adjacent sub-ranges are then merged into partitions with about the
+   *   same number of records, so that the dense parts of a skewed range get more and narrower partitions than the
+   *   sparse parts.
+   * </p>
+   *
+   * @param previous water mark from metadata
+   * @param record counter of the source entity
+   * @return list of partitions ordered by their low water marks
+   * @throws IOException if the records of a sub-range could not be counted
+   */
+  public List<EstimatedPartition> getEstimatedPartitions(long previousWatermark, PartitionRecordCounter recordCounter)
+      throws IOException {
+    int maxPartitions = getMaxPartitions();
+    int samplesPerPartition = Math.max(1,
+        this.state.getPropAsInt(ConfigurationKeys.SOURCE_QUERYBASED_PARTITION_SAMPLES_PER_PARTITION,
+            ConfigurationKeys.DEFAULT_SOURCE_QUERYBASED_PARTITION_SAMPLES_PER_PARTITION));
+
+    SortedMap<Long, Long> sampledRanges = Maps.newTreeMap();
+    sampledRanges.putAll(getPartitions(previousWatermark, maxPartitions * samplesPerPartition));
+    List<EstimatedPartition> partitions = Lists.newArrayList();
+    if (sampledRanges.size() <= 1) {
+      // Either a default partition or a range that cannot be split, so there is nothing to balance
+      for (Map.Entry<Long, Long> range : sampledRanges.entrySet()) {
+        partitions.add(new EstimatedPartition(range.getKey(), range.getValue(), -1, 0));
+      }
+      return partitions;
+    }
+
+    Map<Long, Long> recordCounts = Maps.newHashMap();
+    for (Map.Entry<Long, Long> range : sampledRanges.entrySet()) {
+      recordCounts.put(range.getKey(), recordCounter.getRecordCount(range.getKey(), range.getValue()));
+    }
+    partitions = balancePartitions(sampledRanges, recordCounts, maxPartitions);
+
+    long totalRecordCount = 0;
+    long maxRecordCount = 0;
+    for (EstimatedPartition partition : partitions) {
+      totalRecordCount += partition.getEstimatedRecordCount();
+      maxRecordCount = Math.max(maxRecordCount, partition.getEstimatedRecordCount());
+    }
+    LOG.info("Generated " + partitions.size() + " partitions from " + sampledRanges.size()
+        + " sampled ranges; estimated record count: " + totalRecordCount + "; largest partition: " + maxRecordCount);
+    return partitions;
+  }
+
+  /**
+   * Merge adjacent sampled ranges into at most the given number of partitions with about the same number of records.
+   * A range is added to the current partition unless more than half of its records would exceed the target size of
+   * the partition, and the last partition takes all the remaining ranges.
+   *
+   * @param sampled ranges ordered by their low water marks
+   * @param record count of each sampled range by its low water mark
+   * @param maximum number of partitions
+   * @return list of partitions ordered by their low water marks
+   */
+  static List<EstimatedPartition> balancePartitions(SortedMap<Long, Long> sampledRanges, Map<Long, Long> recordCounts,
+      int maxPartitions) {
+    long totalRecordCount = 0;
+    for (long recordCount : recordCounts.values()) {
+      totalRecordCount += recordCount;
+    }
+    double targetRecordCount = Math.max(1.0, (double) totalRecordCount / maxPartitions);
+
+    List<EstimatedPartition> partitions = Lists.newArrayList();
+    long lowWatermark = ConfigurationKeys.DEFAULT_WATERMARK_VALUE;
+    long highWatermark = ConfigurationKeys.DEFAULT_WATERMARK_VALUE;
+    long partitionRecordCount = 0;
+    int partitionRanges = 0;
+    for (Map.Entry<Long, Long> range : sampledRanges.entrySet()) {
+      long recordCount = recordCounts.get(range.getKey());
+      if (partitionRanges > 0 && partitions.size() < maxPartitions - 1
+          && partitionRecordCount + recordCount / 2.0 >= targetRecordCount) {
+        partitions.add(new EstimatedPartition(lowWatermark, highWatermark, partitionRecordCount, partitionRanges));
+        partitionRecordCount = 0;
+        partitionRanges = 0;
+      }
+      if (partitionRanges == 0) {
+        lowWatermark = range.getKey();
+      }
+      highWatermark = range.getValue();
+      partitionRecordCount += recordCount;
+      partitionRanges++;
+    }
+    if (partitionRanges > 0) {
+      partitions.add(new EstimatedPartition(lowWatermark, highWatermark, partitionRecordCount, partitionRanges));
+    }
+    return partitions;
+  }
+
+  private int getMaxPartitions() {
+    int sourceMaxAllowedPartitions = this.state.getPropAsInt(ConfigurationKeys.SOURCE_MAX_NUMBER_OF_PARTITIONS, 0);
+    return (sourceMaxAllowedPartitions != 0 ? sourceMaxAllowedPartitions
+        : ConfigurationKeys.DEFAULT_MAX_NUMBER_OF_PARTITIONS);
+  }
+
+  private HashMap<Long, Long> getPartitions(long previousWatermark, int maxPartitions) {
     HashMap<Long, Long> defaultPartition = Maps.newHashMap();
     if (!isWatermarkExists()) {
       defaultPartition.put(ConfigurationKeys.DEFAULT_WATERMARK_VALUE, ConfigurationKeys.DEFAULT_WATERMARK_VALUE);
@@ -64,9 +175,6 @@ public class Partitioner {
             .toUpperCase());
     int interval = getUpdatedInterval(
         this.state.getPropAsInt(ConfigurationKeys.SOURCE_QUERYBASED_PARTITION_INTERVAL, 0), extractType, watermarkType);
-    int sourceMaxAllowedPartitions = this.state.getPropAsInt(ConfigurationKeys.SOURCE_MAX_NUMBER_OF_PARTITIONS, 0);
-    int maxPartitions = (sourceMaxAllowedPartitions != 0 ? sourceMaxAllowedPartitions
-        : ConfigurationKeys.DEFAULT_MAX_NUMBER_OF_PARTITIONS);
 
     WatermarkPredicate watermark = new WatermarkPredicate(null, watermarkType);
     int deltaForNextWatermark = watermark.getDeltaNumForNextWatermark();
@@ -18,11 +18,14 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.avro.Schema;
 import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileConstants;
 import org.apache.avro.file.DataFileWriter;
 import org.apache.avro.generic.GenericDatumWriter;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.io.DatumWriter;
 import org.apache.hadoop.fs.FileSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
@@ -41,14 +44,24 @@ import gobblin.util.WriterUtils;
  *   property {@link ConfigurationKeys#WRITER_CODEC_TYPE}. By default, the deflate codec is used.
  * </p>
  *
+ * <p>
+ *   If {@link ConfigurationKeys#WRITER_AVRO_COMPRESSION_THREADS} is set to a positive number and the deflate codec is
+ *   used, blocks of about {@link ConfigurationKeys#WRITER_AVRO_BLOCK_SIZE} bytes are compressed on that many threads
+ *   while the next records are being serialized, using a {@link ParallelDeflateAvroFileWriter}. The time spent in
+ *   each stage is then added to the final state of the writer.
+ * </p>
+ *
  * @author Yinan Li
  */
 public class AvroHdfsDataWriter extends FsDataWriter<GenericRecord> {
 
+  private static final Logger LOG = LoggerFactory.getLogger(AvroHdfsDataWriter.class);
+
   private final Schema schema;
   private final OutputStream stagingFileOutputStream;
   private final DatumWriter<GenericRecord> datumWriter;
-  private final DataFileWriter<GenericRecord> writer;
+  private final Optional<DataFileWriter<GenericRecord>> writer;
+  private final Optional<ParallelDeflateAvroFileWriter> parallelWriter;
 
   // Number of records successfully written
   protected final AtomicLong count = new AtomicLong(0);
@@ -56,16 +69,36 @@ public class AvroHdfsDataWriter extends FsDataWriter<GenericRecord> {
   public AvroHdfsDataWriter(FsDataWriterBuilder<Schema, GenericRecord> builder, State state) throws IOException {
     super(builder, state);
 
-    CodecFactory codecFactory = WriterUtils.getCodecFactory(
-        Optional.fromNullable(this.properties.getProp(ForkOperatorUtils
-            .getPropertyNameForBranch(ConfigurationKeys.WRITER_CODEC_TYPE, this.numBranches, this.branchId))),
-        Optional.fromNullable(this.properties.getProp(ForkOperatorUtils
-            .getPropertyNameForBranch(ConfigurationKeys.WRITER_DEFLATE_LEVEL, this.numBranches, this.branchId))));
+    Optional<String> codecName = Optional.fromNullable(this.properties.getProp(ForkOperatorUtils
+        .getPropertyNameForBranch(ConfigurationKeys.WRITER_CODEC_TYPE, this.numBranches, this.branchId)));
+    Optional<String> deflateLevel = Optional.fromNullable(this.properties.getProp(ForkOperatorUtils
+        .getPropertyNameForBranch(ConfigurationKeys.WRITER_DEFLATE_LEVEL, this.numBranches, this.branchId)));
+    int compressionThreads = this.properties.getPropAsInt(ForkOperatorUtils.getPropertyNameForBranch(
+        ConfigurationKeys.WRITER_AVRO_COMPRESSION_THREADS, this.numBranches, this.branchId),
+        ConfigurationKeys.DEFAULT_WRITER_AVRO_COMPRESSION_THREADS);
 
     this.schema = builder.getSchema();
     this.stagingFileOutputStream = createStagingFileOutputStream();
     this.datumWriter = new GenericDatumWriter<>();
-    this.writer = this.closer.register(createDataFileWriter(codecFactory));
+
+    boolean deflate = !codecName.isPresent() || codecName.get().equalsIgnoreCase(DataFileConstants.DEFLATE_CODEC);
+    if (compressionThreads > 0 && deflate) {
+      int blockSize = this.properties.getPropAsInt(ForkOperatorUtils.getPropertyNameForBranch(
+          ConfigurationKeys.WRITER_AVRO_BLOCK_SIZE, this.numBranches, this.branchId),
+          ConfigurationKeys.DEFAULT_WRITER_AVRO_BLOCK_SIZE);
+      this.parallelWriter = Optional.of(this.closer.register(new ParallelDeflateAvroFileWriter(this.schema,
+          this.stagingFileOutputStream, deflateLevel.isPresent() ? Integer.parseInt(deflateLevel.get())
+              : ConfigurationKeys.DEFAULT_DEFLATE_LEVEL, blockSize, compressionThreads)));
+      this.writer = Optional.absent();
+    } else {
+      if (compressionThreads > 0) {
+        LOG.warn(String.format("Blocks are only compressed in parallel with the %s codec, not with %s",
+            DataFileConstants.DEFLATE_CODEC, codecName.get()));
+      }
+      this.writer = Optional.of(this.closer.register(createDataFileWriter(
+          WriterUtils.getCodecFactory(codecName, deflateLevel))));
+      this.parallelWriter = Optional.absent();
+    }
 
     setStagingFileGroup();
   }
@@ -78,7 +111,11 @@ public class AvroHdfsDataWriter extends FsDataWriter<GenericRecord> {
   public void write(GenericRecord record) throws IOException {
     Preconditions.checkNotNull(record);
 
-    this.writer.append(record);
+    if (this.parallelWriter.isPresent()) {
+      this.parallelWriter.get().append(record);
+    } else {
+      this.writer.get().append(record);
+    }
     // Only increment when write is successful
     this.count.incrementAndGet();
   }
@@ -97,6 +134,19 @@ public class AvroHdfsDataWriter extends FsDataWriter<GenericRecord> {
     return this.fs.getFileStatus(this.outputFile).getLen();
   }
 
+  @Override
+  public State getFinalState() {
+    State state = super.getFinalState();
+
+    if (this.parallelWriter.isPresent()) {
+      state.setProp("SerializationNanos", this.parallelWriter.get().getSerializationNanos());
+      state.setProp("CompressionNanos", this.parallelWriter.get().getCompressionNanos());
+      state.setProp("WriteNanos", this.parallelWriter.get().getWriteNanos());
+    }
+
+    return state;
+  }
+
   /**
    * Create a new {@link DataFileWriter} for writing Avro records.
    *
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.writer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.rmi.server.UID;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.ql.io.orc.CompressionKind;
+import org.apache.hadoop.hive.ql.io.orc.OrcFile;
+import org.apache.hadoop.hive.ql.io.orc.Writer;
+import org.apache.hadoop.hive.serde2.SerDeException;
+import org.apache.hadoop.hive.serde2.avro.AvroGenericRecordWritable;
+import org.apache.hadoop.hive.serde2.avro.AvroSerDe;
+import org.apache.hadoop.hive.serde2.avro.AvroSerdeUtils;
+
+import com.google.common.base.Preconditions;
+
+import gobblin.configuration.ConfigurationKeys;
+import gobblin.configuration.State;
+import gobblin.util.ForkOperatorUtils;
+
+
+/**
+ * An extension to {@link FsDataWriter} that writes Avro {@link GenericRecord}s in ORC format.
+ *
+ * <p>
+ *   Records are converted to ORC rows by Hive's {@link AvroSerDe}, so the
+ *   file has the same columns as a Hive Avro table with the record {@link Schema}. The size of the stripes, the
+ *   compression and the share of the heap used by all the ORC writers of the JVM are configurable with the
+ *   <code>writer.orc.*</code> properties below.
+ * </p>
+ */
+public class OrcHdfsDataWriter extends FsDataWriter<GenericRecord> {
+
+  public static final String WRITER_ORC_STRIPE_SIZE = ConfigurationKeys.WRITER_PREFIX + ".orc.stripe.size";
+  public static final long DEFAULT_WRITER_ORC_STRIPE_SIZE = 64L * 1024 * 1024;
+  public static final String WRITER_ORC_BUFFER_SIZE = ConfigurationKeys.WRITER_PREFIX + ".orc.buffer.size";
+  public static final int DEFAULT_WRITER_ORC_BUFFER_SIZE = 256 * 1024;
+  public static final String WRITER_ORC_ROW_INDEX_STRIDE = ConfigurationKeys.WRITER_PREFIX + ".orc.row.index.stride";
+  public static final int DEFAULT_WRITER_ORC_ROW_INDEX_STRIDE = 10000;
+  public static final String WRITER_ORC_COMPRESSION = ConfigurationKeys.WRITER_PREFIX + ".orc.compression";
+  public static final String DEFAULT_WRITER_ORC_COMPRESSION = CompressionKind.ZLIB.name();
+  /**
+   * Fraction of the heap that the stripes being written by all the ORC writers of the JVM may use, after which
+   * stripes are flushed early. It is read when the first ORC writer of the JVM is created.
+   */
+  public static final String WRITER_ORC_MEMORY_POOL = ConfigurationKeys.WRITER_PREFIX + ".orc.memory.pool";
+  public static final double DEFAULT_WRITER_ORC_MEMORY_POOL = 0.5;
+
+  private static final String ORC_MEMORY_POOL_KEY = "hive.exec.orc.memory.pool";
+
+  private final Schema schema;
+  private final AvroSerDe serDe = new AvroSerDe();
+  private final AvroGenericRecordWritable recordWritable = new AvroGenericRecordWritable();
+  private final Writer writer;
+
+  // Number of records successfully written
+  protected final AtomicLong count = new AtomicLong(0);
+
+  public OrcHdfsDataWriter(FsDataWriterBuilder<Schema, GenericRecord> builder, State state) throws IOException {
+    super(builder, state);
+
+    this.schema = builder.getSchema();
+    // All the records have the same schema, so a single record reader ID lets the SerDe skip re-encoding them
+    this.recordWritable.setRecordReaderID(new UID());
+    this.recordWritable.setFileSchema(this.schema);
+
+    Configuration conf = new Configuration(this.fs.getConf());
+    conf.setFloat(ORC_MEMORY_POOL_KEY, (float) this.properties.getPropAsDouble(
+        getPropertyName(WRITER_ORC_MEMORY_POOL), DEFAULT_WRITER_ORC_MEMORY_POOL));
+
+    Properties serDeProperties = new Properties();
+    serDeProperties.setProperty(AvroSerdeUtils.SCHEMA_LITERAL, this.schema.toString());
+    OrcFile.WriterOptions options;
+    try {
+      this.serDe.initialize(conf, serDeProperties);
+      options = OrcFile.writerOptions(conf).inspector(this.serDe.getObjectInspector());
+    } catch (SerDeException se) {
+      throw new IOException("Schema is not supported in ORC: " + this.schema, se);
+    }
+    options.fileSystem(this.fs)
+        .stripeSize(this.properties.getPropAsLong(getPropertyName(WRITER_ORC_STRIPE_SIZE),
+            DEFAULT_WRITER_ORC_STRIPE_SIZE))
+        .bufferSize(this.properties.getPropAsInt(getPropertyName(WRITER_ORC_BUFFER_SIZE),
+            DEFAULT_WRITER_ORC_BUFFER_SIZE))
+        .rowIndexStride(this.properties.getPropAsInt(getPropertyName(WRITER_ORC_ROW_INDEX_STRIDE),
+            DEFAULT_WRITER_ORC_ROW_INDEX_STRIDE))
+        .compress(CompressionKind.valueOf(this.properties.getProp(getPropertyName(WRITER_ORC_COMPRESSION),
+            DEFAULT_WRITER_ORC_COMPRESSION).toUpperCase()))
+        .blockSize(this.blockSize);
+
+    this.writer = OrcFile.createWriter(this.stagingFile, options);
+    this.closer.register(new Closeable() {
+      @Override
+      public void close() throws IOException {
+        OrcHdfsDataWriter.this.writer.close();
+      }
+    });
+  }
+
+  @Override
+  public void write(GenericRecord record) throws IOException {
+    Preconditions.checkNotNull(record);
+
+    this.recordWritable.setRecord(record);
+    try {
+      this.writer.addRow(this.serDe.deserialize(this.recordWritable));
+    } catch (SerDeException se) {
+      throw new IOException("Failed to convert record to ORC: " + record, se);
+    }
+    // Only increment when write is successful
+    this.count.incrementAndGet();
+  }
+
+  @Override
+  public long recordsWritten() {
+    return this.count.get();
+  }
+
+  @Override
+  public long bytesWritten() throws IOException {
+    if (!this.fs.exists(this.outputFile)) {
+      return 0;
+    }
+
+    return this.fs.getFileStatus(this.outputFile).getLen();
+  }
+
+  /**
+   * {@inheritDoc}.
+   *
+   * <p>
+   *   The staging file is only created when the ORC writer is closed, so its group is set afterwards.
+   * </p>
+   */
+  @Override
+  public void close() throws IOException {
+    this.closer.close();
+    if (this.fs.exists(this.stagingFile)) {
+      setStagingFileGroup();
+    }
+    super.close();
+  }
+
+  private String getPropertyName(String key) {
+    return ForkOperatorUtils.getPropertyNameForBranch(key, this.numBranches, this.branchId);
+  }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.writer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import org.apache.avro.Schema;
+import org.apache.avro.file.DataFileConstants;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.EncoderFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+
+import gobblin.util.ExecutorsUtils;
+
+
+/**
+ * A writer of Avro data files that compresses the blocks of the file with the deflate codec on a pool of threads.
+ *
+ * <p>
+ *   Records are serialized into blocks of about the configured size on the calling thread, like
+ *   {@link DataFileWriter} does. Full blocks are deflated on the pool while the next blocks are being serialized, and
+ *   written to the output in the order they were filled, each followed by the sync marker of the file. The output is
+ *   a standard Avro data file with the deflate codec. At most a few blocks per compression thread are pending at a
+ *   time, after which the calling thread waits for the oldest one to be written.
+ * </p>
+ *
+ * <p>
+ *   The time spent serializing records, compressing blocks, and writing blocks including waiting for their
+ *   compression, is kept for each stage.
+ * </p>
+ */
+class ParallelDeflateAvroFileWriter implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ParallelDeflateAvroFileWriter.class);
+
+  private static final int PENDING_BLOCKS_PER_THREAD = 2;
+
+  private final OutputStream outputStream;
+  private final BinaryEncoder outputEncoder;
+  private final DatumWriter<GenericRecord> datumWriter;
+  private final byte[] sync;
+  private final int deflateLevel;
+  private final int blockSize;
+  private final int maxPendingBlocks;
+  private final ExecutorService compressionExecutor;
+  private final Deque<Future<Block>> pendingBlocks = new ArrayDeque<>();
+  private final Queue<BlockBuffer> freeBuffers = new ConcurrentLinkedQueue<>();
+
+  private BlockBuffer blockBuffer;
+  private BinaryEncoder blockEncoder;
+  private long blockRecordCount = 0;
+  private boolean closed = false;
+
+  private final AtomicLong serializationNanos = new AtomicLong(0);
+  private final AtomicLong compressionNanos = new AtomicLong(0);
+  private final AtomicLong writeNanos = new AtomicLong(0);
+
+  /**
+   * Create the writer and write the header of the Avro data file.
+   *
+   * @param schema the {@link Schema} of the records
+   * @param outputStream the stream to write the file to, which is closed when this writer is closed
+   * @param deflateLevel the deflate compression level
+   * @param blockSize the size in bytes of uncompressed data after which a block is compressed
+   * @param compressionThreads the number of threads to compress blocks with
+   * @throws IOException if the header could not be written
+   */
+  ParallelDeflateAvroFileWriter(Schema schema, OutputStream outputStream, int deflateLevel, int blockSize,
+      int compressionThreads) throws IOException {
+    this.outputStream = outputStream;
+    this.outputEncoder = EncoderFactory.get().directBinaryEncoder(outputStream, null);
+    this.datumWriter = new GenericDatumWriter<>(schema);
+    this.deflateLevel = deflateLevel;
+    this.blockSize = blockSize;
+    this.maxPendingBlocks = compressionThreads * PENDING_BLOCKS_PER_THREAD;
+    this.compressionExecutor = Executors.newFixedThreadPool(compressionThreads,
+        ExecutorsUtils.newDaemonThreadFactory(Optional.of(LOG), Optional.of("AvroBlockCompressor-%d")));
+
+    UUID uuid = UUID.randomUUID();
+    this.sync = ByteBuffer.allocate(DataFileConstants.SYNC_SIZE).putLong(uuid.getMostSignificantBits())
+        .putLong(uuid.getLeastSignificantBits()).array();
+
+    this.blockBuffer = new BlockBuffer(blockSize);
+    this.blockEncoder = EncoderFactory.get().directBinaryEncoder(this.blockBuffer, null);
+
+    writeHeader(schema);
+  }
+
+  /**
+   * Append a record to the file.
+   *
+   * @throws IOException if the record could not be serialized, in which case it is not written, or if a previous
+   *                     block could not be compressed or written
+   */
+  void append(GenericRecord record) throws IOException {
+    long startNanos = System.nanoTime();
+    int blockLength = this.blockBuffer.size();
+    try {
+      this.datumWriter.write(record, this.blockEncoder);
+    } catch (IOException | RuntimeException e) {
+      // drop the partially serialized record so the block stays valid
+      this.blockBuffer.truncate(blockLength);
+      throw e;
+    } finally {
+      this.serializationNanos.addAndGet(System.nanoTime() - startNanos);
+    }
+    this.blockRecordCount++;
+
+    if (this.blockBuffer.size() >= this.blockSize) {
+      submitBlock();
+    }
+  }
+
+  long getSerializationNanos() {
+    return this.serializationNanos.get();
+  }
+
+  long getCompressionNanos() {
+    return this.compressionNanos.get();
+  }
+
+  long getWriteNanos() {
+    return this.writeNanos.get();
+  }
+
+  /**
+   * Compress and write the remaining records and close the output stream.
+   */
+  @Override
+  public void close() throws IOException {
+    if (this.closed) {
+      return;
+    }
+    this.closed = true;
+
+    try {
+      if (this.blockRecordCount > 0) {
+        submitBlock();
+      }
+      while (!this.pendingBlocks.isEmpty()) {
+        writeBlock(this.pendingBlocks.poll());
+      }
+      this.outputStream.flush();
+    } finally {
+      this.compressionExecutor.shutdownNow();
+      this.outputStream.close();
+    }
+
+    LOG.info(String.format("Spent %d ms serializing records, %d ms compressing blocks and %d ms writing blocks",
+        TimeUnit.NANOSECONDS.toMillis(this.serializationNanos.get()),
+        TimeUnit.NANOSECONDS.toMillis(this.compressionNanos.get()),
+        TimeUnit.NANOSECONDS.toMillis(this.writeNanos.get())));
+  }
+
+  private void writeHeader(Schema schema) throws IOException {
+    this.outputEncoder.writeFixed(DataFileConstants.MAGIC);
+    this.outputEncoder.writeMapStart();
+    this.outputEncoder.setItemCount(2);
+    this.outputEncoder.startItem();
+    this.outputEncoder.writeString(DataFileConstants.SCHEMA);
+    this.outputEncoder.writeBytes(schema.toString().getBytes(Charsets.UTF_8));
+    this.outputEncoder.startItem();
+    this.outputEncoder.writeString(DataFileConstants.CODEC);
+    this.outputEncoder.writeBytes(DataFileConstants.DEFLATE_CODEC.getBytes(Charsets.UTF_8));
+    this.outputEncoder.writeMapEnd();
+    this.outputEncoder.writeFixed(this.sync);
+  }
+
+  /**
+   * Hand the current block over to the compression threads, and write the blocks that are compressed.
+   */
+  private void submitBlock() throws IOException {
+    final BlockBuffer uncompressed = this.blockBuffer;
+    final long recordCount = this.blockRecordCount;
+    this.pendingBlocks.add(this.compressionExecutor.submit(new Callable<Block>() {
+      @Override
+      public Block call() throws IOException {
+        long startNanos = System.nanoTime();
+        try {
+          return new Block(recordCount, compress(uncompressed));
+        } finally {
+          uncompressed.reset();
+          ParallelDeflateAvroFileWriter.this.freeBuffers.add(uncompressed);
+          ParallelDeflateAvroFileWriter.this.compressionNanos.addAndGet(System.nanoTime() - startNanos);
+        }
+      }
+    }));
+
+    BlockBuffer freeBuffer = this.freeBuffers.poll();
+    this.blockBuffer = freeBuffer != null ? freeBuffer : new BlockBuffer(this.blockSize);
+    this.blockEncoder = EncoderFactory.get().directBinaryEncoder(this.blockBuffer, this.blockEncoder);
+    this.blockRecordCount = 0;
+
+    // write the blocks in order, waiting for the oldest one only if too many are pending
+    while (!this.pendingBlocks.isEmpty()
+        && (this.pendingBlocks.size() > this.maxPendingBlocks || this.pendingBlocks.peek().isDone())) {
+      writeBlock(this.pendingBlocks.poll());
+    }
+  }
+
+  private BlockBuffer compress(BlockBuffer uncompressed) throws IOException {
+    BlockBuffer compressed = new BlockBuffer(uncompressed.size() / 2);
+    Deflater deflater = new Deflater(this.deflateLevel, true);
+    try (DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(compressed, deflater)) {
+      uncompressed.writeTo(deflaterOutputStream);
+    } finally {
+      deflater.end();
+    }
+    return compressed;
+  }
+
+  private void writeBlock(Future<Block> pendingBlock) throws IOException {
+    long startNanos = System.nanoTime();
+    try {
+      Block block = pendingBlock.get();
+      this.outputEncoder.writeLong(block.recordCount);
+      this.outputEncoder.writeLong(block.data.size());
+      this.outputEncoder.writeFixed(block.data.getBuffer(), 0, block.data.size());
+      this.outputEncoder.writeFixed(this.sync);
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for a block to be compressed", ie);
+    } catch (ExecutionException ee) {
+      Throwables.propagateIfInstanceOf(ee.getCause(), IOException.class);
+      throw new IOException("Failed to compress a block", ee.getCause());
+    } finally {
+      this.writeNanos.addAndGet(System.nanoTime() - startNanos);
+    }
+  }
+
+  /**
+   * A compressed block and the number of records in it.
+   */
+  private static class Block {
+    private final long recordCount;
+    private final BlockBuffer data;
+
+    private Block(long recordCount, BlockBuffer data) {
+      this.recordCount = recordCount;
+      this.data = data;
+    }
+  }
+
+  /**
+   * A {@link ByteArrayOutputStream} whose buffer is read without copying it.
+   */
+  private static class BlockBuffer extends ByteArrayOutputStream {
+
+    private BlockBuffer(int size) {
+      super(size);
+    }
+
+    private byte[] getBuffer() {
+      return this.buf;
+    }
+
+    private void truncate(int size) {
+      this.count = size;
+    }
+  }
+}
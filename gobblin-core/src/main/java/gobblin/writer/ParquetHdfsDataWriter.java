@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.writer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.parquet.avro.AvroParquetWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+
+import com.google.common.base.Preconditions;
+
+import gobblin.configuration.ConfigurationKeys;
+import gobblin.configuration.State;
+import gobblin.util.ForkOperatorUtils;
+
+
+/**
+ * An extension to {@link FsDataWriter} that writes Avro {@link GenericRecord}s in Parquet format.
+ *
+ * <p>
+ *   The records of a row group are buffered in memory until the row group reaches its configured size, so the memory
+ *   used by the writer is bounded by {@link #WRITER_PARQUET_ROW_GROUP_SIZE}. The page sizes, dictionary encoding and
+ *   compression are configurable with the other <code>writer.parquet.*</code> properties below.
+ * </p>
+ */
+public class ParquetHdfsDataWriter extends FsDataWriter<GenericRecord> {
+
+  public static final String WRITER_PARQUET_ROW_GROUP_SIZE =
+      ConfigurationKeys.WRITER_PREFIX + ".parquet.row.group.size";
+  public static final int DEFAULT_WRITER_PARQUET_ROW_GROUP_SIZE = ParquetWriter.DEFAULT_BLOCK_SIZE;
+  public static final String WRITER_PARQUET_PAGE_SIZE = ConfigurationKeys.WRITER_PREFIX + ".parquet.page.size";
+  public static final int DEFAULT_WRITER_PARQUET_PAGE_SIZE = ParquetWriter.DEFAULT_PAGE_SIZE;
+  public static final String WRITER_PARQUET_DICTIONARY_PAGE_SIZE =
+      ConfigurationKeys.WRITER_PREFIX + ".parquet.dictionary.page.size";
+  public static final String WRITER_PARQUET_DICTIONARY = ConfigurationKeys.WRITER_PREFIX + ".parquet.dictionary";
+  public static final boolean DEFAULT_WRITER_PARQUET_DICTIONARY = ParquetWriter.DEFAULT_IS_DICTIONARY_ENABLED;
+  public static final String WRITER_PARQUET_COMPRESSION = ConfigurationKeys.WRITER_PREFIX + ".parquet.compression";
+  public static final String DEFAULT_WRITER_PARQUET_COMPRESSION = CompressionCodecName.SNAPPY.name();
+
+  private final ParquetWriter<GenericRecord> writer;
+
+  // Number of records successfully written
+  protected final AtomicLong count = new AtomicLong(0);
+
+  public ParquetHdfsDataWriter(FsDataWriterBuilder<Schema, GenericRecord> builder, State state) throws IOException {
+    super(builder, state);
+
+    int pageSize = this.properties.getPropAsInt(getPropertyName(WRITER_PARQUET_PAGE_SIZE),
+        DEFAULT_WRITER_PARQUET_PAGE_SIZE);
+    this.writer = AvroParquetWriter.<GenericRecord> builder(this.fs.makeQualified(this.stagingFile))
+        .withSchema(builder.getSchema())
+        .withConf(this.fs.getConf())
+        .withRowGroupSize(this.properties.getPropAsInt(getPropertyName(WRITER_PARQUET_ROW_GROUP_SIZE),
+            DEFAULT_WRITER_PARQUET_ROW_GROUP_SIZE))
+        .withPageSize(pageSize)
+        .withDictionaryPageSize(this.properties.getPropAsInt(getPropertyName(WRITER_PARQUET_DICTIONARY_PAGE_SIZE),
+            pageSize))
+        .withDictionaryEncoding(this.properties.getPropAsBoolean(getPropertyName(WRITER_PARQUET_DICTIONARY),
+            DEFAULT_WRITER_PARQUET_DICTIONARY))
+        .withCompressionCodec(CompressionCodecName.valueOf(this.properties.getProp(
+            getPropertyName(WRITER_PARQUET_COMPRESSION), DEFAULT_WRITER_PARQUET_COMPRESSION).toUpperCase()))
+        .build();
+    this.closer.register(new Closeable() {
+      @Override
+      public void close() throws IOException {
+        ParquetHdfsDataWriter.this.writer.close();
+      }
+    });
+
+    setStagingFileGroup();
+  }
+
+  @Override
+  public void write(GenericRecord record) throws IOException {
+    Preconditions.checkNotNull(record);
+
+    this.writer.write(record);
+    // Only increment when write is successful
+    this.count.incrementAndGet();
+  }
+
+  @Override
+  public long recordsWritten() {
+    return this.count.get();
+  }
+
+  @Override
+  public long bytesWritten() throws IOException {
+    if (!this.fs.exists(this.outputFile)) {
+      return 0;
+    }
+
+    return this.fs.getFileStatus(this.outputFile).getLen();
+  }
+
+  private String getPropertyName(String key) {
+    return ForkOperatorUtils.getPropertyNameForBranch(key, this.numBranches, this.branchId);
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.converter.avro;
+
+import java.io.InputStreamReader;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.commons.io.IOUtils;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import gobblin.configuration.ConfigurationKeys;
+import gobblin.configuration.SourceState;
+import gobblin.configuration.WorkUnitState;
+import gobblin.converter.DataConversionException;
+import gobblin.source.workunit.Extract.TableType;
+
+
+/**
+ * Unit tests for {@link JsonStringToAvroConverter}.
+ */
+@Test(groups = {"gobblin.converter"})
+public class JsonStringToAvroConverterTest {
+  private JsonArray jsonSchema;
+  private String jsonRecord;
+  private WorkUnitState state;
+
+  @BeforeClass
+  public void setUp() throws Exception {
+    Gson gson = new Gson();
+    this.jsonSchema = gson.fromJson(
+        new InputStreamReader(this.getClass().getResourceAsStream("/converter/schema.json")), JsonArray.class);
+    this.jsonRecord = IOUtils.toString(this.getClass().getResourceAsStream("/converter/record.json"), Charsets.UTF_8);
+    this.state = createState();
+  }
+
+  @Test
+  public void testSameRecordsAsJsonIntermediateConverter() throws Exception {
+    JsonIntermediateToAvroConverter jsonObjectConverter = new JsonIntermediateToAvroConverter();
+    Schema expectedSchema = jsonObjectConverter.convertSchema(this.jsonSchema, this.state);
+    GenericRecord expectedRecord = jsonObjectConverter
+        .convertRecord(expectedSchema, new Gson().fromJson(this.jsonRecord, JsonObject.class), this.state)
+        .iterator().next();
+
+    JsonStringToAvroConverter converter = new JsonStringToAvroConverter();
+    Schema avroSchema = converter.convertSchema(this.jsonSchema, this.state);
+    GenericRecord record = converter.convertRecord(avroSchema, this.jsonRecord, this.state).iterator().next();
+
+    Assert.assertEquals(avroSchema, expectedSchema);
+    Assert.assertEquals(record, expectedRecord);
+  }
+
+  @Test
+  public void testReuseRecord() throws Exception {
+    WorkUnitState workUnitState = createState();
+    workUnitState.setProp(JsonStringToAvroConverter.CONVERTER_AVRO_REUSE_RECORD, true);
+
+    JsonStringToAvroConverter converter = new JsonStringToAvroConverter();
+    Schema avroSchema = converter.convertSchema(this.jsonSchema, workUnitState);
+    GenericRecord record = converter.convertRecord(avroSchema, this.jsonRecord, workUnitState).iterator().next();
+    Assert.assertEquals(record.get("int_type"), 3);
+
+    // Fields are read in any order, and fields missing from the next record are not kept from the previous one
+    GenericRecord nextRecord = converter.convertRecord(avroSchema,
+        "{\"int_type\": 4, \"Id\": \"232499\", \"IsDeleted\": \"true\", \"Salutation\": null}", workUnitState)
+        .iterator().next();
+    Assert.assertSame(nextRecord, record);
+    Assert.assertEquals(nextRecord.get("Id").toString(), "232499");
+    Assert.assertEquals(nextRecord.get("IsDeleted"), true);
+    Assert.assertEquals(nextRecord.get("int_type"), 4);
+    Assert.assertNull(nextRecord.get("Salutation"));
+    Assert.assertNull(nextRecord.get("long_type"));
+  }
+
+  @Test(expectedExceptions = DataConversionException.class)
+  public void testUnknownField() throws Exception {
+    JsonStringToAvroConverter converter = new JsonStringToAvroConverter();
+    Schema avroSchema = converter.convertSchema(this.jsonSchema, this.state);
+    converter.convertRecord(avroSchema, "{\"Id\": \"232499\", \"unknown\": 1}", this.state);
+  }
+
+  private static WorkUnitState createState() {
+    SourceState source = new SourceState();
+    WorkUnitState workUnitState = new WorkUnitState(
+        source.createWorkUnit(source.createExtract(TableType.SNAPSHOT_ONLY, "test_table", "test_namespace")));
+    workUnitState.setProp(ConfigurationKeys.CONVERTER_AVRO_TIME_FORMAT, "HH:mm:ss");
+    workUnitState.setProp(ConfigurationKeys.CONVERTER_AVRO_DATE_TIMEZONE, "PST");
+    return workUnitState;
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.converter.avro;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.avro.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+import gobblin.configuration.SourceState;
+import gobblin.configuration.WorkUnitState;
+import gobblin.converter.DataConversionException;
+import gobblin.converter.SchemaConversionException;
+import gobblin.source.workunit.Extract.TableType;
+
+
+/**
+ * JMH benchmark of {@link JsonIntermediateToAvroConverter} and {@link JsonStringToAvroConverter} on records with
+ * {@link #NUM_FIELDS} fields of mixed types.
+ *
+ * <p>
+ *   Run it with the test classpath of gobblin-core:
+ *   <code>java -cp ... gobblin.converter.avro.JsonToAvroConverterBenchmark</code>
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class JsonToAvroConverterBenchmark {
+
+  private static final int NUM_FIELDS = 50;
+  private static final String[] FIELD_TYPES = { "string", "int", "long", "double", "boolean", "timestamp" };
+
+  private WorkUnitState state;
+  private WorkUnitState reuseRecordState;
+  private String jsonRecord;
+  private JsonObject jsonObjectRecord;
+  private JsonIntermediateToAvroConverter jsonObjectConverter;
+  private Schema jsonObjectSchema;
+  private JsonStringToAvroConverter jsonStringConverter;
+  private Schema jsonStringSchema;
+
+  @Setup
+  public void setUp() throws SchemaConversionException {
+    JsonArray jsonSchema = new JsonArray();
+    this.jsonObjectRecord = new JsonObject();
+    for (int i = 0; i < NUM_FIELDS; i++) {
+      String type = FIELD_TYPES[i % FIELD_TYPES.length];
+      String name = type + "_field_" + i;
+
+      JsonObject dataType = new JsonObject();
+      dataType.addProperty("type", type);
+      JsonObject column = new JsonObject();
+      column.addProperty("columnName", name);
+      column.addProperty("comment", name);
+      column.addProperty("isNullable", i % 2 == 0);
+      column.add("dataType", dataType);
+      jsonSchema.add(column);
+
+      this.jsonObjectRecord.add(name, createValue(type, i));
+    }
+    this.jsonRecord = this.jsonObjectRecord.toString();
+
+    SourceState source = new SourceState();
+    this.state = new WorkUnitState(
+        source.createWorkUnit(source.createExtract(TableType.SNAPSHOT_ONLY, "test_table", "test_namespace")));
+    this.reuseRecordState = new WorkUnitState(
+        source.createWorkUnit(source.createExtract(TableType.SNAPSHOT_ONLY, "test_table", "test_namespace")));
+    this.reuseRecordState.setProp(JsonStringToAvroConverter.CONVERTER_AVRO_REUSE_RECORD, true);
+
+    this.jsonObjectConverter = new JsonIntermediateToAvroConverter();
+    this.jsonObjectSchema = this.jsonObjectConverter.convertSchema(jsonSchema, this.state);
+    this.jsonStringConverter = new JsonStringToAvroConverter();
+    this.jsonStringSchema = this.jsonStringConverter.convertSchema(jsonSchema, this.state);
+  }
+
+  /**
+   * Converts an already parsed {@link JsonObject}.
+   */
+  @Benchmark
+  public Object convertJsonObject() throws DataConversionException {
+    return this.jsonObjectConverter.convertRecord(this.jsonObjectSchema, this.jsonObjectRecord, this.state);
+  }
+
+  /**
+   * Parses the JSON text into a {@link JsonObject} and converts it, as a source emitting JSON text would need to.
+   */
+  @Benchmark
+  public Object parseAndConvertJsonObject() throws DataConversionException {
+    JsonObject record = new JsonParser().parse(this.jsonRecord).getAsJsonObject();
+    return this.jsonObjectConverter.convertRecord(this.jsonObjectSchema, record, this.state);
+  }
+
+  @Benchmark
+  public Object convertJsonString() throws DataConversionException {
+    return this.jsonStringConverter.convertRecord(this.jsonStringSchema, this.jsonRecord, this.state);
+  }
+
+  @Benchmark
+  public Object convertJsonStringReusingRecord() throws DataConversionException {
+    return this.jsonStringConverter.convertRecord(this.jsonStringSchema, this.jsonRecord, this.reuseRecordState);
+  }
+
+  private static JsonPrimitive createValue(String type, int i) {
+    switch (type) {
+      case "string":
+        return new JsonPrimitive("value of field " + i);
+      case "int":
+        return new JsonPrimitive(i * 1000);
+      case "long":
+        return new JsonPrimitive(i * 1000000000000L);
+      case "double":
+        return new JsonPrimitive(i * 1.5);
+      case "boolean":
+        return new JsonPrimitive(i % 3 == 0);
+      default:
+        return new JsonPrimitive("2016-01-02 12:23:" + (10 + i));
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(JsonToAvroConverterBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.qualitychecker;
+
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import gobblin.configuration.State;
+import gobblin.qualitychecker.row.RowLevelPolicy;
+import gobblin.qualitychecker.row.RowLevelPolicyCheckResults;
+import gobblin.qualitychecker.row.RowLevelPolicyChecker;
+
+
+/**
+ * Unit tests for {@link RowLevelPolicyChecker}.
+ */
+@Test(groups = {"gobblin.qualitychecker"})
+public class RowLevelPolicyCheckerTest {
+
+  @Test
+  public void testCountResults() throws Exception {
+    RowLevelPolicy positive = new PositivePolicy(RowLevelPolicy.Type.OPTIONAL);
+    RowLevelPolicy even = new EvenPolicy(RowLevelPolicy.Type.OPTIONAL);
+    RowLevelPolicyChecker checker = new RowLevelPolicyChecker(ImmutableList.of(positive, even), "test",
+        FileSystem.getLocal(new Configuration()));
+    RowLevelPolicyCheckResults results = new RowLevelPolicyCheckResults();
+
+    Assert.assertTrue(checker.executePolicies(2, results));
+    Assert.assertFalse(checker.executePolicies(3, results));
+    // The second policy is not executed once the first one failed
+    Assert.assertFalse(checker.executePolicies(-2, results));
+
+    Assert.assertEquals(results.getCount(positive, RowLevelPolicy.Result.PASSED), 2);
+    Assert.assertEquals(results.getCount(positive, RowLevelPolicy.Result.FAILED), 1);
+    Assert.assertEquals(results.getCount(even, RowLevelPolicy.Result.PASSED), 1);
+    Assert.assertEquals(results.getCount(even, RowLevelPolicy.Result.FAILED), 1);
+
+    // Results are counted again after they were read
+    Assert.assertTrue(checker.executePolicies(4, results));
+    Assert.assertEquals(results.getCount(positive, RowLevelPolicy.Result.PASSED), 3);
+    Assert.assertEquals(results.getCount(even, RowLevelPolicy.Result.PASSED), 2);
+
+    // Counts for other results are not added to the first ones
+    RowLevelPolicyCheckResults otherResults = new RowLevelPolicyCheckResults();
+    Assert.assertTrue(checker.executePolicies(6, otherResults));
+    Assert.assertTrue(checker.executePolicies(8, results));
+    Assert.assertEquals(otherResults.getCount(even, RowLevelPolicy.Result.PASSED), 1);
+    Assert.assertEquals(results.getCount(even, RowLevelPolicy.Result.PASSED), 3);
+    checker.close();
+  }
+
+  @Test
+  public void testExecutePoliciesOnBatch() throws Exception {
+    RowLevelPolicy positive = new PositivePolicy(RowLevelPolicy.Type.OPTIONAL);
+    RowLevelPolicy even = new EvenPolicy(RowLevelPolicy.Type.OPTIONAL);
+    RowLevelPolicyChecker checker = new RowLevelPolicyChecker(ImmutableList.of(positive, even), "test",
+        FileSystem.getLocal(new Configuration()));
+    RowLevelPolicyCheckResults results = new RowLevelPolicyCheckResults();
+
+    List<Integer> passed = checker.executePolicies(ImmutableList.of(1, 2, -3, 4, 6, 7), results);
+    Assert.assertEquals(passed, ImmutableList.of(2, 4, 6));
+    Assert.assertEquals(results.getCount(positive, RowLevelPolicy.Result.PASSED), 5);
+    Assert.assertEquals(results.getCount(positive, RowLevelPolicy.Result.FAILED), 1);
+    Assert.assertEquals(results.getCount(even, RowLevelPolicy.Result.PASSED), 3);
+    Assert.assertEquals(results.getCount(even, RowLevelPolicy.Result.FAILED), 2);
+    checker.close();
+  }
+
+  @Test(expectedExceptions = RuntimeException.class)
+  public void testFailPolicy() throws Exception {
+    RowLevelPolicyChecker checker = new RowLevelPolicyChecker(
+        ImmutableList.<RowLevelPolicy>of(new PositivePolicy(RowLevelPolicy.Type.FAIL)), "test",
+        FileSystem.getLocal(new Configuration()));
+    checker.executePolicies(ImmutableList.of(1, -1), new RowLevelPolicyCheckResults());
+  }
+
+  private static class PositivePolicy extends RowLevelPolicy {
+
+    PositivePolicy(RowLevelPolicy.Type type) {
+      super(new State(), type);
+    }
+
+    @Override
+    public Result executePolicy(Object record) {
+      return (Integer) record > 0 ? Result.PASSED : Result.FAILED;
+    }
+  }
+
+  private static class EvenPolicy extends RowLevelPolicy {
+
+    EvenPolicy(RowLevelPolicy.Type type) {
+      super(new State(), type);
+    }
+
+    @Override
+    public Result executePolicy(Object record) {
+      return (Integer) record % 2 == 0 ? Result.PASSED : Result.FAILED;
+    }
+  }
+}
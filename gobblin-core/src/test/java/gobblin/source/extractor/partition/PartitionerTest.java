@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.source.extractor.partition;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+
+import gobblin.configuration.ConfigurationKeys;
+import gobblin.configuration.SourceState;
+
+
+/**
+ * Unit tests for {@link Partitioner}.
+ */
+@Test(groups = { "gobblin.source.extractor.partition" })
+public class PartitionerTest {
+
+  @Test
+  public void testBalancePartitions() {
+    SortedMap<Long, Long> sampledRanges =
+        ImmutableSortedMap.of(1L, 10L, 11L, 20L, 21L, 30L, 31L, 40L, 41L, 50L);
+    Map<Long, Long> recordCounts = ImmutableMap.of(1L, 10L, 11L, 10L, 21L, 60L, 31L, 10L, 41L, 10L);
+
+    List<EstimatedPartition> partitions = Partitioner.balancePartitions(sampledRanges, recordCounts, 3);
+    Assert.assertEquals(partitions.size(), 3);
+    Assert.assertEquals(partitions.get(0), new EstimatedPartition(1L, 20L, 20L, 2));
+    Assert.assertEquals(partitions.get(1), new EstimatedPartition(21L, 30L, 60L, 1));
+    Assert.assertEquals(partitions.get(2), new EstimatedPartition(31L, 50L, 20L, 2));
+
+    // The last partition takes all the remaining ranges
+    partitions = Partitioner.balancePartitions(sampledRanges, recordCounts, 1);
+    Assert.assertEquals(partitions.size(), 1);
+    Assert.assertEquals(partitions.get(0), new EstimatedPartition(1L, 50L, 100L, 5));
+  }
+
+  @Test
+  public void testBalancePartitionsWithoutRecords() {
+    SortedMap<Long, Long> sampledRanges = ImmutableSortedMap.of(1L, 10L, 11L, 20L, 21L, 30L);
+    Map<Long, Long> recordCounts = ImmutableMap.of(1L, 0L, 11L, 0L, 21L, 0L);
+
+    List<EstimatedPartition> partitions = Partitioner.balancePartitions(sampledRanges, recordCounts, 3);
+    Assert.assertEquals(partitions.size(), 1);
+    Assert.assertEquals(partitions.get(0), new EstimatedPartition(1L, 30L, 0L, 3));
+  }
+
+  @Test
+  public void testGetEstimatedPartitions() throws IOException {
+    SourceState state = new SourceState();
+    state.setProp(ConfigurationKeys.EXTRACT_DELTA_FIELDS_KEY, "id");
+    state.setProp(ConfigurationKeys.SOURCE_QUERYBASED_WATERMARK_TYPE, "simple");
+    state.setProp(ConfigurationKeys.SOURCE_QUERYBASED_EXTRACT_TYPE, "snapshot");
+    state.setProp(ConfigurationKeys.SOURCE_QUERYBASED_IS_WATERMARK_OVERRIDE, true);
+    state.setProp(ConfigurationKeys.SOURCE_QUERYBASED_START_VALUE, 1);
+    state.setProp(ConfigurationKeys.SOURCE_QUERYBASED_END_VALUE, 1000);
+    state.setProp(ConfigurationKeys.SOURCE_QUERYBASED_PARTITION_INTERVAL, 1);
+    state.setProp(ConfigurationKeys.SOURCE_MAX_NUMBER_OF_PARTITIONS, 4);
+    state.setProp(ConfigurationKeys.SOURCE_QUERYBASED_PARTITION_SAMPLES_PER_PARTITION, 5);
+
+    // One record per id up to 100, and 18 records per id from 901 to 950
+    PartitionRecordCounter recordCounter = new PartitionRecordCounter() {
+      @Override
+      public long getRecordCount(long lowWatermark, long highWatermark) {
+        return overlap(lowWatermark, highWatermark, 1, 100) + 18 * overlap(lowWatermark, highWatermark, 901, 950);
+      }
+    };
+
+    List<EstimatedPartition> partitions =
+        new Partitioner(state).getEstimatedPartitions(ConfigurationKeys.DEFAULT_WATERMARK_VALUE, recordCounter);
+    // 20 sampled ranges of 51 ids each, where the dense ranges are 868 to 918 and 919 to 969
+    Assert.assertEquals(partitions.size(), 4);
+    Assert.assertEquals(partitions.get(0), new EstimatedPartition(1L, 867L, 100L, 17));
+    Assert.assertEquals(partitions.get(1), new EstimatedPartition(868L, 918L, 324L, 1));
+    Assert.assertEquals(partitions.get(2), new EstimatedPartition(919L, 969L, 576L, 1));
+    Assert.assertEquals(partitions.get(3), new EstimatedPartition(970L, 1000L, 0L, 1));
+  }
+
+  @Test
+  public void testGetEstimatedPartitionsWithoutWatermark() throws IOException {
+    PartitionRecordCounter recordCounter = new PartitionRecordCounter() {
+      @Override
+      public long getRecordCount(long lowWatermark, long highWatermark) {
+        throw new AssertionError("The default partition should not be counted");
+      }
+    };
+
+    List<EstimatedPartition> partitions = new Partitioner(new SourceState())
+        .getEstimatedPartitions(ConfigurationKeys.DEFAULT_WATERMARK_VALUE, recordCounter);
+    Assert.assertEquals(partitions.size(), 1);
+    Assert.assertEquals(partitions.get(0), new EstimatedPartition(ConfigurationKeys.DEFAULT_WATERMARK_VALUE,
+        ConfigurationKeys.DEFAULT_WATERMARK_VALUE, -1L, 0));
+  }
+
+  private static long overlap(long low1, long high1, long low2, long high2) {
+    return Math.max(0, Math.min(high1, high2) - Math.max(low1, low2) + 1);
+  }
+}
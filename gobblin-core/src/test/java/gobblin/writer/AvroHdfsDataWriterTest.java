@@ -18,6 +18,7 @@ import java.lang.reflect.Type;
 import java.util.Map;
 
 import org.apache.avro.Schema;
+import org.apache.avro.file.DataFileConstants;
 import org.apache.avro.file.DataFileReader;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericDatumReader;
@@ -119,6 +120,60 @@ public class AvroHdfsDataWriterTest {
     reader.close();
   }
 
+  @Test
+  public void testWriteWithParallelCompression() throws IOException {
+    State properties = new State();
+    properties.setProp(ConfigurationKeys.WRITER_BUFFER_SIZE, ConfigurationKeys.DEFAULT_BUFFER_SIZE);
+    properties.setProp(ConfigurationKeys.WRITER_FILE_SYSTEM_URI, TestConstants.TEST_FS_URI);
+    properties.setProp(ConfigurationKeys.WRITER_STAGING_DIR, TestConstants.TEST_STAGING_DIR);
+    properties.setProp(ConfigurationKeys.WRITER_OUTPUT_DIR, TestConstants.TEST_OUTPUT_DIR);
+    properties.setProp(ConfigurationKeys.WRITER_FILE_PATH, this.filePath);
+    properties.setProp(ConfigurationKeys.WRITER_FILE_NAME, "parallel-" + TestConstants.TEST_FILE_NAME);
+    properties.setProp(ConfigurationKeys.WRITER_AVRO_COMPRESSION_THREADS, 3);
+    // A small block size so that the records are spread over many blocks
+    properties.setProp(ConfigurationKeys.WRITER_AVRO_BLOCK_SIZE, 100);
+
+    DataWriter<GenericRecord> parallelWriter =
+        new AvroDataWriterBuilder().writeTo(Destination.of(Destination.DestinationType.HDFS, properties))
+            .writeInFormat(WriterOutputFormat.AVRO).withWriterId(TestConstants.TEST_WRITER_ID + "-parallel")
+            .withSchema(this.schema).withBranches(1).forBranch(0).build();
+
+    int numRecords = 1000;
+    for (int i = 0; i < numRecords; i++) {
+      GenericRecord record = new GenericData.Record(this.schema);
+      record.put("name", "user" + i);
+      record.put("favorite_number", i);
+      record.put("favorite_color", "color" + i);
+      parallelWriter.write(record);
+    }
+    Assert.assertEquals(parallelWriter.recordsWritten(), numRecords);
+
+    parallelWriter.close();
+    Assert.assertTrue(((AvroHdfsDataWriter) parallelWriter).getFinalState().contains("CompressionNanos"));
+    parallelWriter.commit();
+
+    File outputFile = new File(TestConstants.TEST_OUTPUT_DIR + Path.SEPARATOR + this.filePath,
+        "parallel-" + TestConstants.TEST_FILE_NAME);
+    try (DataFileReader<GenericRecord> reader =
+        new DataFileReader<>(outputFile, new GenericDatumReader<GenericRecord>(this.schema))) {
+      Assert.assertEquals(reader.getMetaString(DataFileConstants.CODEC), DataFileConstants.DEFLATE_CODEC);
+
+      // Read the records back and assert they are in the order they were written
+      for (int i = 0; i < numRecords; i++) {
+        Assert.assertTrue(reader.hasNext());
+        GenericRecord record = reader.next();
+        Assert.assertEquals(record.get("name").toString(), "user" + i);
+        Assert.assertEquals(record.get("favorite_number"), i);
+        Assert.assertEquals(record.get("favorite_color").toString(), "color" + i);
+      }
+      Assert.assertFalse(reader.hasNext());
+
+      // Sync markers between blocks are found
+      reader.sync(outputFile.length() / 2);
+      Assert.assertTrue(reader.hasNext());
+    }
+  }
+
   @AfterClass
   public void tearDown() throws IOException {
     // Clean up the staging and/or output directories if necessary
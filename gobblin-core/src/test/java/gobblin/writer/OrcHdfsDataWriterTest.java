@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.writer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.FileUtil;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.io.orc.OrcFile;
+import org.apache.hadoop.hive.ql.io.orc.Reader;
+import org.apache.hadoop.hive.ql.io.orc.RecordReader;
+import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import gobblin.configuration.ConfigurationKeys;
+import gobblin.configuration.State;
+
+
+/**
+ * Unit tests for {@link OrcHdfsDataWriter}.
+ */
+@Test(groups = { "gobblin.writer" })
+public class OrcHdfsDataWriterTest {
+
+  private static final String FILE_NAME = "test.orc";
+
+  private Schema schema;
+  private String filePath;
+  private State properties;
+
+  @BeforeClass
+  public void setUp() {
+    this.schema = new Schema.Parser().parse(TestConstants.AVRO_SCHEMA);
+    this.filePath = TestConstants.TEST_EXTRACT_NAMESPACE.replaceAll("\\.", "/") + "/" + TestConstants.TEST_EXTRACT_TABLE
+        + "/" + TestConstants.TEST_EXTRACT_ID + "_" + TestConstants.TEST_EXTRACT_PULL_TYPE;
+
+    this.properties = new State();
+    this.properties.setProp(ConfigurationKeys.WRITER_BUFFER_SIZE, ConfigurationKeys.DEFAULT_BUFFER_SIZE);
+    this.properties.setProp(ConfigurationKeys.WRITER_FILE_SYSTEM_URI, TestConstants.TEST_FS_URI);
+    this.properties.setProp(ConfigurationKeys.WRITER_STAGING_DIR, TestConstants.TEST_STAGING_DIR);
+    this.properties.setProp(ConfigurationKeys.WRITER_OUTPUT_DIR, TestConstants.TEST_OUTPUT_DIR);
+    this.properties.setProp(ConfigurationKeys.WRITER_FILE_PATH, this.filePath);
+    this.properties.setProp(ConfigurationKeys.WRITER_FILE_NAME, FILE_NAME);
+    // A small row index stride so that the records are spread over several row groups
+    this.properties.setProp(OrcHdfsDataWriter.WRITER_ORC_ROW_INDEX_STRIDE, 1000);
+    this.properties.setProp(OrcHdfsDataWriter.WRITER_ORC_COMPRESSION, "snappy");
+  }
+
+  @Test
+  public void testWrite() throws IOException {
+    DataWriter<GenericRecord> writer =
+        new OrcDataWriterBuilder().writeTo(Destination.of(Destination.DestinationType.HDFS, this.properties))
+            .writeInFormat(WriterOutputFormat.ORC).withWriterId(TestConstants.TEST_WRITER_ID).withSchema(this.schema)
+            .withBranches(1).forBranch(0).build();
+
+    int numRecords = 5000;
+    for (int i = 0; i < numRecords; i++) {
+      GenericRecord record = new GenericData.Record(this.schema);
+      record.put("name", "user" + i);
+      record.put("favorite_number", i);
+      record.put("favorite_color", "color" + (i % 10));
+      writer.write(record);
+    }
+    Assert.assertEquals(writer.recordsWritten(), numRecords);
+
+    writer.close();
+    writer.commit();
+
+    Path outputFile = new Path(TestConstants.TEST_OUTPUT_DIR + Path.SEPARATOR + this.filePath, FILE_NAME);
+    Reader reader = OrcFile.createReader(outputFile, OrcFile.readerOptions(new Configuration())
+        .filesystem(FileSystem.getLocal(new Configuration())));
+    Assert.assertEquals(reader.getNumberOfRows(), numRecords);
+    Assert.assertEquals(reader.getCompression().name(), "SNAPPY");
+
+    // Read the records back and assert they are in the order they were written
+    StructObjectInspector inspector = (StructObjectInspector) reader.getObjectInspector();
+    RecordReader rows = reader.rows();
+    Object row = null;
+    for (int i = 0; i < numRecords; i++) {
+      Assert.assertTrue(rows.hasNext());
+      row = rows.next(row);
+      List<Object> fields = inspector.getStructFieldsDataAsList(row);
+      Assert.assertEquals(fields.get(0).toString(), "user" + i);
+      Assert.assertEquals(fields.get(1).toString(), String.valueOf(i));
+      Assert.assertEquals(fields.get(2).toString(), "color" + (i % 10));
+    }
+    Assert.assertFalse(rows.hasNext());
+    rows.close();
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testBuildWithWrongFormat() throws IOException {
+    new OrcDataWriterBuilder().writeTo(Destination.of(Destination.DestinationType.HDFS, this.properties))
+        .writeInFormat(WriterOutputFormat.AVRO).withWriterId(TestConstants.TEST_WRITER_ID).withSchema(this.schema)
+        .withBranches(1).forBranch(0).build();
+  }
+
+  @AfterClass
+  public void tearDown() throws IOException {
+    // Clean up the staging and/or output directories if necessary
+    File testRootDir = new File(TestConstants.TEST_ROOT_DIR);
+    if (testRootDir.exists()) {
+      FileUtil.fullyDelete(testRootDir);
+    }
+  }
+}
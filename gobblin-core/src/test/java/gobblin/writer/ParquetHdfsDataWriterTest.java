@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.writer;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileUtil;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.avro.AvroParquetReader;
+import org.apache.parquet.format.converter.ParquetMetadataConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import gobblin.configuration.ConfigurationKeys;
+import gobblin.configuration.State;
+
+
+/**
+ * Unit tests for {@link ParquetHdfsDataWriter}.
+ */
+@Test(groups = { "gobblin.writer" })
+public class ParquetHdfsDataWriterTest {
+
+  private static final String FILE_NAME = "test.parquet";
+
+  private Schema schema;
+  private String filePath;
+  private State properties;
+
+  @BeforeClass
+  public void setUp() {
+    this.schema = new Schema.Parser().parse(TestConstants.AVRO_SCHEMA);
+    this.filePath = TestConstants.TEST_EXTRACT_NAMESPACE.replaceAll("\\.", "/") + "/" + TestConstants.TEST_EXTRACT_TABLE
+        + "/" + TestConstants.TEST_EXTRACT_ID + "_" + TestConstants.TEST_EXTRACT_PULL_TYPE;
+
+    this.properties = new State();
+    this.properties.setProp(ConfigurationKeys.WRITER_BUFFER_SIZE, ConfigurationKeys.DEFAULT_BUFFER_SIZE);
+    this.properties.setProp(ConfigurationKeys.WRITER_FILE_SYSTEM_URI, TestConstants.TEST_FS_URI);
+    this.properties.setProp(ConfigurationKeys.WRITER_STAGING_DIR, TestConstants.TEST_STAGING_DIR);
+    this.properties.setProp(ConfigurationKeys.WRITER_OUTPUT_DIR, TestConstants.TEST_OUTPUT_DIR);
+    this.properties.setProp(ConfigurationKeys.WRITER_FILE_PATH, this.filePath);
+    this.properties.setProp(ConfigurationKeys.WRITER_FILE_NAME, FILE_NAME);
+    // A small row group and page size so that the records are spread over several row groups
+    this.properties.setProp(ParquetHdfsDataWriter.WRITER_PARQUET_ROW_GROUP_SIZE, 16 * 1024);
+    this.properties.setProp(ParquetHdfsDataWriter.WRITER_PARQUET_PAGE_SIZE, 1024);
+    this.properties.setProp(ParquetHdfsDataWriter.WRITER_PARQUET_COMPRESSION, "gzip");
+  }
+
+  @Test
+  public void testWrite() throws IOException {
+    DataWriter<GenericRecord> writer =
+        new ParquetDataWriterBuilder().writeTo(Destination.of(Destination.DestinationType.HDFS, this.properties))
+            .writeInFormat(WriterOutputFormat.PARQUET).withWriterId(TestConstants.TEST_WRITER_ID).withSchema(this.schema)
+            .withBranches(1).forBranch(0).build();
+
+    int numRecords = 5000;
+    for (int i = 0; i < numRecords; i++) {
+      GenericRecord record = new GenericData.Record(this.schema);
+      record.put("name", "user" + i);
+      record.put("favorite_number", i);
+      record.put("favorite_color", "color" + (i % 10));
+      writer.write(record);
+    }
+    Assert.assertEquals(writer.recordsWritten(), numRecords);
+
+    writer.close();
+    writer.commit();
+
+    Path outputFile = new Path(TestConstants.TEST_OUTPUT_DIR + Path.SEPARATOR + this.filePath, FILE_NAME);
+    ParquetMetadata metadata =
+        ParquetFileReader.readFooter(new Configuration(), outputFile, ParquetMetadataConverter.NO_FILTER);
+    Assert.assertTrue(metadata.getBlocks().size() > 1);
+    long numRows = 0;
+    for (BlockMetaData block : metadata.getBlocks()) {
+      Assert.assertEquals(block.getColumns().get(0).getCodec(), CompressionCodecName.GZIP);
+      numRows += block.getRowCount();
+    }
+    Assert.assertEquals(numRows, numRecords);
+
+    // Read the records back and assert they are in the order they were written
+    try (ParquetReader<GenericRecord> reader = AvroParquetReader.<GenericRecord>builder(outputFile).build()) {
+      for (int i = 0; i < numRecords; i++) {
+        GenericRecord record = reader.read();
+        Assert.assertNotNull(record);
+        Assert.assertEquals(record.get("name").toString(), "user" + i);
+        Assert.assertEquals(record.get("favorite_number"), i);
+        Assert.assertEquals(record.get("favorite_color").toString(), "color" + (i % 10));
+      }
+      Assert.assertNull(reader.read());
+    }
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testBuildWithWrongFormat() throws IOException {
+    new ParquetDataWriterBuilder().writeTo(Destination.of(Destination.DestinationType.HDFS, this.properties))
+        .writeInFormat(WriterOutputFormat.AVRO).withWriterId(TestConstants.TEST_WRITER_ID).withSchema(this.schema)
+        .withBranches(1).forBranch(0).build();
+  }
+
+  @AfterClass
+  public void tearDown() throws IOException {
+    // Clean up the staging and/or output directories if necessary
+    File testRootDir = new File(TestConstants.TEST_ROOT_DIR);
+    if (testRootDir.exists()) {
+      FileUtil.fullyDelete(testRootDir);
+    }
+  }
+}
@@ -11,6 +11,7 @@
  */
 package gobblin.data.management.conversion.hive.provider;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
 
 import lombok.AllArgsConstructor;
@@ -69,9 +70,10 @@ public class HdfsBasedUpdateProvider implements HiveUnitUpdateProvider {
 
   private long getUpdateTime(Path path) throws IOException, UpdateNotFoundException {
 
-    if (this.fs.exists(path)) {
+    try {
       return this.fs.getFileStatus(path).getModificationTime();
+    } catch (FileNotFoundException fnfe) {
+      throw new UpdateNotFoundException(String.format("Data file does not exist at path %s", path));
     }
-    throw new UpdateNotFoundException(String.format("Data file does not exist at path %s", path));
   }
 }
@@ -11,6 +11,8 @@
  */
 package gobblin.data.management.conversion.hive.source;
 
+import com.google.common.base.Optional;
+
 import gobblin.source.extractor.extract.LongWatermark;
 
 /**
@@ -23,4 +25,12 @@ public class BackfillHiveSource extends HiveSource {
   public boolean shouldCreateWorkunit(long updateTime, LongWatermark lowWatermark) {
     return true;
   }
+
+  /**
+   * All the partitions are listed, since partitions older than the watermark are backfilled too.
+   */
+  @Override
+  protected Optional<Long> getPartitionFilterStartTime(LongWatermark previousHighWatermark) {
+    return Optional.absent();
+  }
 }
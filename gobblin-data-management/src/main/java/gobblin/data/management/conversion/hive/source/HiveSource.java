@@ -14,6 +14,11 @@ package gobblin.data.management.conversion.hive.source;
 import java.io.IOException;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import lombok.extern.slf4j.Slf4j;
@@ -25,10 +30,19 @@ import org.apache.hadoop.hive.ql.metadata.Partition;
 import org.apache.hadoop.hive.ql.metadata.Table;
 import org.apache.thrift.TException;
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.Period;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+
+import com.codahale.metrics.Timer;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
 import com.google.gson.Gson;
 
 import gobblin.annotation.Alpha;
@@ -59,6 +73,7 @@ import gobblin.source.extractor.WatermarkInterval;
 import gobblin.source.extractor.extract.LongWatermark;
 import gobblin.source.workunit.WorkUnit;
 import gobblin.util.AutoReturnableObject;
+import gobblin.util.ExecutorsUtils;
 import gobblin.util.HadoopUtils;
 import gobblin.util.io.GsonInterfaceAdapter;
 
@@ -78,6 +93,13 @@ import gobblin.util.io.GsonInterfaceAdapter;
  * or a {@link Table} are lower than the latest update time.
  *
  * <p>
+ * If {@link #HIVE_SOURCE_PARTITION_FILTER_DATETIME_COLUMN_KEY} is set, only the partitions whose datetime column is
+ * not older than the previous watermark of the table minus {@link #HIVE_SOURCE_PARTITION_FILTER_WATERMARK_LOOKBACK_KEY}
+ * are listed from the metastore. The update times of the
+ * partitions are found with {@link #HIVE_SOURCE_UPDATE_TIME_THREADS_KEY} threads.
+ * </p>
+ *
+ * <p>
  * The {@link WorkUnit}s contain a serialized json of the {@link SerializableHiveTable} or {@link SerializableHivePartition}
  * This is later deserialized by the extractor.
  * </p>
@@ -90,6 +112,38 @@ public class HiveSource implements Source {
   public static final String HIVE_SOURCE_MAXIMUM_LOOKBACK_DAYS_KEY = "hive.source.maximum.lookbackDays";
   public static final int DEFAULT_HIVE_SOURCE_MAXIMUM_LOOKBACK_DAYS = 30;
 
+  /**
+   * A string partition column with datetime values. If set, partitions are listed with a filter on this column so
+   * that only the partitions not older than the previous watermark of the table are listed. The format of the values
+   * must be such that lexicographical string and date ordering are compatible.
+   */
+  public static final String HIVE_SOURCE_PARTITION_FILTER_DATETIME_COLUMN_KEY =
+      "hive.source.partition.filter.datetime.column";
+  /** The datetime format of the values of {@link #HIVE_SOURCE_PARTITION_FILTER_DATETIME_COLUMN_KEY} */
+  public static final String HIVE_SOURCE_PARTITION_FILTER_DATETIME_FORMAT_KEY =
+      "hive.source.partition.filter.datetime.format";
+  /** The time zone of the values of {@link #HIVE_SOURCE_PARTITION_FILTER_DATETIME_COLUMN_KEY}, UTC by default */
+  public static final String HIVE_SOURCE_PARTITION_FILTER_DATETIME_TIMEZONE_KEY =
+      "hive.source.partition.filter.datetime.timezone";
+  public static final String DEFAULT_HIVE_SOURCE_PARTITION_FILTER_DATETIME_TIMEZONE = "UTC";
+  /**
+   * A period (as ISO 8601 period) before the previous watermark of a table from which partitions are listed. The
+   * previous watermark is an update time, so partitions older than it may still have been updated since. The
+   * default is {@link #HIVE_SOURCE_MAXIMUM_LOOKBACK_DAYS_KEY} days, so that no partition within the maximum lookback
+   * is skipped.
+   */
+  public static final String HIVE_SOURCE_PARTITION_FILTER_WATERMARK_LOOKBACK_KEY =
+      "hive.source.partition.filter.watermark.lookback";
+
+  /** Number of threads used to find the update times of the partitions of a table */
+  public static final String HIVE_SOURCE_UPDATE_TIME_THREADS_KEY = "hive.source.updateTime.threads";
+  public static final int DEFAULT_HIVE_SOURCE_UPDATE_TIME_THREADS = 1;
+
+  // Timers of the planning phase
+  public static final String GET_WORKUNITS_TIMER = EventConstants.CONVERSION_PREFIX + "source.getWorkunits";
+  public static final String LIST_PARTITIONS_TIMER = EventConstants.CONVERSION_PREFIX + "source.listPartitions";
+  public static final String GET_UPDATE_TIMES_TIMER = EventConstants.CONVERSION_PREFIX + "source.getUpdateTimes";
+
   public static final Gson GENERICS_AWARE_GSON = GsonInterfaceAdapter.getGson(Object.class);
 
   private MetricContext metricContext;
@@ -102,11 +156,27 @@ public class HiveSource implements Source {
   private List<WorkUnit> workunits;
   private long maxLookBackTime;
 
+  private Optional<String> partitionFilterColumn;
+  private DateTimeFormatter partitionFilterFormatter;
+  private Period partitionFilterLookback;
+  private Optional<ExecutorService> updateTimeExecutor;
+
+  private Timer getWorkunitsTimer;
+  private Timer listPartitionsTimer;
+  private Timer getUpdateTimesTimer;
+  private long listPartitionsNanos;
+  private long getUpdateTimesNanos;
+  private long partitionsListed;
+  private long updateTimesFound;
+
   @Override
   public List<WorkUnit> getWorkunits(SourceState state) {
+    Timer.Context getWorkunitsContext = null;
+    long getWorkunitsNanos = 0;
     try {
 
       initialize(state);
+      getWorkunitsContext = this.getWorkunitsTimer.time();
 
       EventSubmitter.submit(Optional.of(this.eventSubmitter), EventConstants.FIND_HIVE_TABLES_EVENT);
       Iterator<HiveDataset> iterator = this.datasetFinder.getDatasetsIterator();
@@ -128,8 +198,17 @@ public class HiveSource implements Source {
       }
     } catch (IOException e) {
       throw new RuntimeException(e);
+    } finally {
+      if (getWorkunitsContext != null) {
+        getWorkunitsNanos = getWorkunitsContext.stop();
+      }
+      shutdownUpdateTimeExecutor();
     }
 
+    log.info(String.format("Created %d workunits in %d ms. Listed %d partitions in %d ms and found %d update times in "
+        + "%d ms", this.workunits.size(), TimeUnit.NANOSECONDS.toMillis(getWorkunitsNanos), this.partitionsListed,
+        TimeUnit.NANOSECONDS.toMillis(this.listPartitionsNanos), this.updateTimesFound,
+        TimeUnit.NANOSECONDS.toMillis(this.getUpdateTimesNanos)));
     return this.workunits;
   }
 
@@ -147,6 +226,35 @@ public class HiveSource implements Source {
     this.datasetFinder = new HiveDatasetFinder(getSourceFs(), state.getProperties(), this.eventSubmitter);
     int maxLookBackDays = state.getPropAsInt(HIVE_SOURCE_MAXIMUM_LOOKBACK_DAYS_KEY, DEFAULT_HIVE_SOURCE_MAXIMUM_LOOKBACK_DAYS);
     this.maxLookBackTime = new DateTime().minusDays(maxLookBackDays).getMillis();
+
+    this.partitionFilterColumn = Optional.fromNullable(state.getProp(HIVE_SOURCE_PARTITION_FILTER_DATETIME_COLUMN_KEY));
+    if (this.partitionFilterColumn.isPresent()) {
+      Preconditions.checkArgument(state.contains(HIVE_SOURCE_PARTITION_FILTER_DATETIME_FORMAT_KEY),
+          HIVE_SOURCE_PARTITION_FILTER_DATETIME_FORMAT_KEY + " is required with "
+              + HIVE_SOURCE_PARTITION_FILTER_DATETIME_COLUMN_KEY);
+      this.partitionFilterFormatter =
+          DateTimeFormat.forPattern(state.getProp(HIVE_SOURCE_PARTITION_FILTER_DATETIME_FORMAT_KEY))
+              .withZone(DateTimeZone.forID(state.getProp(HIVE_SOURCE_PARTITION_FILTER_DATETIME_TIMEZONE_KEY,
+                  DEFAULT_HIVE_SOURCE_PARTITION_FILTER_DATETIME_TIMEZONE)));
+      this.partitionFilterLookback = state.contains(HIVE_SOURCE_PARTITION_FILTER_WATERMARK_LOOKBACK_KEY)
+          ? Period.parse(state.getProp(HIVE_SOURCE_PARTITION_FILTER_WATERMARK_LOOKBACK_KEY))
+          : Period.days(maxLookBackDays);
+    }
+
+    int updateTimeThreads =
+        state.getPropAsInt(HIVE_SOURCE_UPDATE_TIME_THREADS_KEY, DEFAULT_HIVE_SOURCE_UPDATE_TIME_THREADS);
+    this.updateTimeExecutor = updateTimeThreads > 1
+        ? Optional.<ExecutorService> of(Executors.newFixedThreadPool(updateTimeThreads,
+            ExecutorsUtils.newDaemonThreadFactory(Optional.of(log), Optional.of("HiveSource-updateTime-%d"))))
+        : Optional.<ExecutorService> absent();
+
+    this.getWorkunitsTimer = this.metricContext.timer(GET_WORKUNITS_TIMER);
+    this.listPartitionsTimer = this.metricContext.timer(LIST_PARTITIONS_TIMER);
+    this.getUpdateTimesTimer = this.metricContext.timer(GET_UPDATE_TIMES_TIMER);
+    this.listPartitionsNanos = 0;
+    this.getUpdateTimesNanos = 0;
+    this.partitionsListed = 0;
+    this.updateTimesFound = 0;
   }
 
 
@@ -183,42 +291,134 @@ public class HiveSource implements Source {
   private void createWorkunitsForPartitionedTable(HiveDataset hiveDataset,
       AutoReturnableObject<IMetaStoreClient> client, LongWatermark expectedDatasetHighWatermark) throws IOException {
 
-    List<Partition> sourcePartitions = HiveUtils.getPartitions(client.get(), hiveDataset.getTable(), Optional.<String> absent());
+    Optional<String> partitionFilter = getPartitionFilter(hiveDataset.getTable());
+    List<Partition> sourcePartitions;
+    Timer.Context listPartitionsContext = this.listPartitionsTimer.time();
+    try {
+      sourcePartitions = HiveUtils.getPartitions(client.get(), hiveDataset.getTable(), partitionFilter);
+    } finally {
+      this.listPartitionsNanos += listPartitionsContext.stop();
+    }
+    this.partitionsListed += sourcePartitions.size();
+    log.debug(String.format("Listed %d partitions of table %s with filter %s", sourcePartitions.size(),
+        hiveDataset.getTable().getCompleteName(), partitionFilter.or("none")));
 
+    List<Partition> partitions = Lists.newArrayList();
     for (Partition sourcePartition : sourcePartitions) {
+      if (!isOlderThanLookback(sourcePartition)) {
+        partitions.add(sourcePartition);
+      }
+    }
 
-      if (isOlderThanLookback(sourcePartition)) {
-        continue;
+    Timer.Context getUpdateTimesContext = this.getUpdateTimesTimer.time();
+    try {
+      List<Future<Long>> updateTimes = getUpdateTimes(partitions);
+      for (int i = 0; i < partitions.size(); i++) {
+        Partition sourcePartition = partitions.get(i);
+        LongWatermark lowWatermark = watermarker.getPreviousHighWatermark(sourcePartition);
+
+        try {
+          long updateTime = getUpdateTime(updateTimes.get(i));
+          this.updateTimesFound++;
+          if (shouldCreateWorkunit(updateTime, lowWatermark)) {
+            log.debug(String.format("Processing partition: %s", sourcePartition));
+
+            WorkUnit workUnit = WorkUnit.createEmpty();
+            workUnit.setProp(ConfigurationKeys.DATASET_URN_KEY, hiveDataset.getTable().getCompleteName());
+            HiveSourceUtils.serializeTable(workUnit, hiveDataset.getTable(), this.avroSchemaManager);
+            HiveSourceUtils.serializePartition(workUnit, sourcePartition, this.avroSchemaManager);
+            workUnit.setWatermarkInterval(new WatermarkInterval(lowWatermark, expectedDatasetHighWatermark));
+
+            HiveSourceUtils.setPartitionSlaEventMetadata(workUnit, hiveDataset.getTable(), sourcePartition, updateTime,
+                lowWatermark.getValue());
+            workunits.add(workUnit);
+            log.debug(String.format("Workunit added for partition: %s", workUnit));
+          } else {
+            // If watermark tracking at a partition level is necessary, create a dummy workunit for this partition here.
+            log.info(String.format(
+                "Not creating workunit for partition %s as updateTime %s is lesser than low watermark %s",
+                sourcePartition.getCompleteName(), updateTime, lowWatermark.getValue()));
+          }
+        } catch (UpdateNotFoundException e) {
+          log.info(String.format("Not Creating workunit for %s as update time was not found. %s",
+              sourcePartition.getCompleteName(), e.getMessage()));
+        }
       }
+    } finally {
+      this.getUpdateTimesNanos += getUpdateTimesContext.stop();
+    }
+  }
+
+  /**
+   * Get the filter of the partitions of a table to list from the metastore, which only matches the partitions whose
+   * {@link #HIVE_SOURCE_PARTITION_FILTER_DATETIME_COLUMN_KEY} is not older than the start time returned by
+   * {@link #getPartitionFilterStartTime(LongWatermark)}.
+   */
+  private Optional<String> getPartitionFilter(Table table) {
+    if (!this.partitionFilterColumn.isPresent()) {
+      return Optional.absent();
+    }
+    Optional<Long> startTime = getPartitionFilterStartTime(this.watermarker.getPreviousHighWatermark(table));
+    if (!startTime.isPresent()) {
+      return Optional.absent();
+    }
+    return Optional.of(String.format("%s >= \"%s\"", this.partitionFilterColumn.get(),
+        this.partitionFilterFormatter.print(startTime.get())));
+  }
+
+  /**
+   * Get the time from which the partitions of a table with the given previous high watermark are listed.
+   *
+   * @return the time, or {@link Optional#absent()} if all the partitions should be listed
+   */
+  protected Optional<Long> getPartitionFilterStartTime(LongWatermark previousHighWatermark) {
+    if (previousHighWatermark.getValue() <= 0) {
+      return Optional.absent();
+    }
+    return Optional.of(new DateTime(previousHighWatermark.getValue()).minus(this.partitionFilterLookback).getMillis());
+  }
 
-      LongWatermark lowWatermark = watermarker.getPreviousHighWatermark(sourcePartition);
-
-      try {
-        long updateTime = this.updateProvider.getUpdateTime(sourcePartition);
-        if (shouldCreateWorkunit(updateTime, lowWatermark)) {
-          log.debug(String.format("Processing partition: %s", sourcePartition));
-
-          WorkUnit workUnit = WorkUnit.createEmpty();
-          workUnit.setProp(ConfigurationKeys.DATASET_URN_KEY, hiveDataset.getTable().getCompleteName());
-          HiveSourceUtils.serializeTable(workUnit, hiveDataset.getTable(), this.avroSchemaManager);
-          HiveSourceUtils.serializePartition(workUnit, sourcePartition, this.avroSchemaManager);
-          workUnit.setWatermarkInterval(new WatermarkInterval(lowWatermark, expectedDatasetHighWatermark));
-
-          HiveSourceUtils.setPartitionSlaEventMetadata(workUnit, hiveDataset.getTable(), sourcePartition, updateTime,
-              lowWatermark.getValue());
-          workunits.add(workUnit);
-          log.debug(String.format("Workunit added for partition: %s", workUnit));
-        } else {
-          // If watermark tracking at a partition level is necessary, create a dummy workunit for this partition here.
-          log.info(String.format(
-              "Not creating workunit for partition %s as updateTime %s is lesser than low watermark %s",
-              sourcePartition.getCompleteName(), updateTime, lowWatermark.getValue()));
+  /**
+   * Start finding the update times of the partitions, in parallel if there is an {@link ExecutorService} for it.
+   */
+  private List<Future<Long>> getUpdateTimes(List<Partition> partitions) {
+    List<Future<Long>> updateTimes = Lists.newArrayListWithCapacity(partitions.size());
+    for (final Partition partition : partitions) {
+      Callable<Long> getUpdateTime = new Callable<Long>() {
+        @Override
+        public Long call() throws UpdateNotFoundException {
+          return HiveSource.this.updateProvider.getUpdateTime(partition);
+        }
+      };
+      if (this.updateTimeExecutor.isPresent()) {
+        updateTimes.add(this.updateTimeExecutor.get().submit(getUpdateTime));
+      } else {
+        try {
+          updateTimes.add(Futures.immediateFuture(getUpdateTime.call()));
+        } catch (Exception e) {
+          updateTimes.add(Futures.<Long> immediateFailedFuture(e));
         }
-      } catch (UpdateNotFoundException e) {
-        log.info(String.format("Not Creating workunit for %s as update time was not found. %s",
-            sourcePartition.getCompleteName(), e.getMessage()));
       }
     }
+    return updateTimes;
+  }
+
+  private static long getUpdateTime(Future<Long> updateTime) throws UpdateNotFoundException, IOException {
+    try {
+      return updateTime.get();
+    } catch (ExecutionException ee) {
+      Throwables.propagateIfInstanceOf(ee.getCause(), UpdateNotFoundException.class);
+      throw Throwables.propagate(ee.getCause());
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while finding the update time of a partition", ie);
+    }
+  }
+
+  private void shutdownUpdateTimeExecutor() {
+    if (this.updateTimeExecutor != null && this.updateTimeExecutor.isPresent()) {
+      ExecutorsUtils.shutdownExecutorService(this.updateTimeExecutor.get(), Optional.of(log));
+    }
   }
 
   protected boolean shouldCreateWorkunit(long updateTime, LongWatermark lowWatermark) {
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.data.management.copy;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import gobblin.configuration.State;
+import gobblin.util.io.ThrottledFSInputStream;
+import gobblin.util.limiter.DefaultLimiterFactory;
+import gobblin.util.limiter.DistributedLimiter;
+import gobblin.util.limiter.HttpPermitServerClient;
+import gobblin.util.limiter.Limiter;
+import gobblin.util.limiter.RateBasedLimiter;
+
+
+/**
+ * Helper class to limit the bandwidth used by copy tasks on their source and target file systems.
+ *
+ * <p>
+ *   If {@link #SOURCE_BYTES_PER_SECOND_KEY} or {@link #TARGET_BYTES_PER_SECOND_KEY} is set, the bytes copied from a
+ *   source file system, respectively to a target file system, are limited to the given rate. The limit is enforced by
+ *   a {@link Limiter} shared by all copy tasks of the JVM that read from (or write to) the same file system with the
+ *   same limit, so it applies to their aggregate bandwidth rather than to each task.
+ * </p>
+ *
+ * <p>
+ *   If {@link #DISTRIBUTED_BANDWIDTH_LIMIT_KEY} is also set, the limits apply to the aggregate bandwidth of the copy
+ *   tasks of all the processes using the {@link gobblin.util.limiter.PermitServer} at
+ *   {@link DefaultLimiterFactory#EXTRACT_LIMIT_DISTRIBUTED_SERVER_URI_KEY}, e.g., all the containers of a Gobblin
+ *   cluster, through a {@link DistributedLimiter}.
+ * </p>
+ */
+public class BandwidthThrottlingHelper {
+
+  public static final String SOURCE_BYTES_PER_SECOND_KEY = CopyConfiguration.COPY_PREFIX + ".source.bytesPerSecond";
+  public static final String TARGET_BYTES_PER_SECOND_KEY = CopyConfiguration.COPY_PREFIX + ".target.bytesPerSecond";
+  public static final String DISTRIBUTED_BANDWIDTH_LIMIT_KEY = CopyConfiguration.COPY_PREFIX + ".bandwidth.distributed";
+
+  // Limiters by property, file system, rate and, if distributed, permit server. This is not bounded, as there are few
+  // such combinations, and a limiter evicted while streams still use it would be replaced by a new one with a budget
+  // of its own.
+  private static final Cache<String, Limiter> LIMITER_CACHE = CacheBuilder.newBuilder().build();
+
+  private BandwidthThrottlingHelper() {}
+
+  /**
+   * Wrap an {@link FSDataInputStream} copied from sourceFsUri to targetFsUri so that reading from it respects the
+   * configured bandwidth limits of both file systems. If no limit is configured, the input stream is returned as is.
+   */
+  public static FSDataInputStream throttle(FSDataInputStream inputStream, State state, URI sourceFsUri,
+      URI targetFsUri) throws IOException {
+    FSDataInputStream throttled = inputStream;
+    Optional<Limiter> sourceLimiter = getLimiter(state, SOURCE_BYTES_PER_SECOND_KEY, sourceFsUri);
+    if (sourceLimiter.isPresent()) {
+      throttled = new FSDataInputStream(new ThrottledFSInputStream(throttled, sourceLimiter.get()));
+    }
+    Optional<Limiter> targetLimiter = getLimiter(state, TARGET_BYTES_PER_SECOND_KEY, targetFsUri);
+    if (targetLimiter.isPresent()) {
+      throttled = new FSDataInputStream(new ThrottledFSInputStream(throttled, targetLimiter.get()));
+    }
+    return throttled;
+  }
+
+  private static Optional<Limiter> getLimiter(State state, String key, URI fsUri) throws IOException {
+    if (!state.contains(key)) {
+      return Optional.absent();
+    }
+    final long bytesPerSecond = state.getPropAsLong(key);
+    if (bytesPerSecond <= 0) {
+      return Optional.absent();
+    }
+    // The resource of a distributed limiter is shared by all the processes limiting the same file system to the same
+    // rate, whereas the limiter itself is only shared with the callers using the same permit server
+    final String resource =
+        String.format("%s:%s://%s:%d", key, fsUri.getScheme(), fsUri.getAuthority(), bytesPerSecond);
+    final Optional<URI> permitServerUri;
+    if (state.getPropAsBoolean(DISTRIBUTED_BANDWIDTH_LIMIT_KEY, false)) {
+      Preconditions.checkArgument(state.contains(DefaultLimiterFactory.EXTRACT_LIMIT_DISTRIBUTED_SERVER_URI_KEY),
+          "Missing configuration property " + DefaultLimiterFactory.EXTRACT_LIMIT_DISTRIBUTED_SERVER_URI_KEY);
+      permitServerUri =
+          Optional.of(URI.create(state.getProp(DefaultLimiterFactory.EXTRACT_LIMIT_DISTRIBUTED_SERVER_URI_KEY)));
+    } else {
+      permitServerUri = Optional.absent();
+    }
+    String cacheKey = permitServerUri.isPresent() ? resource + ":distributed:" + permitServerUri.get() : resource;
+    try {
+      return Optional.of(LIMITER_CACHE.get(cacheKey, new Callable<Limiter>() {
+        @Override
+        public Limiter call() throws Exception {
+          if (permitServerUri.isPresent()) {
+            final Limiter limiter = new DistributedLimiter(new HttpPermitServerClient(permitServerUri.get()), resource,
+                bytesPerSecond, Math.max(1, bytesPerSecond / 10));
+            // Cached limiters live as long as the JVM, so unused permits are returned when it exits
+            Runtime.getRuntime().addShutdownHook(new Thread() {
+              @Override
+              public void run() {
+                limiter.stop();
+              }
+            });
+            return limiter;
+          }
+          return new RateBasedLimiter(bytesPerSecond);
+        }
+      }));
+    } catch (ExecutionException ee) {
+      throw new IOException("Failed to create bandwidth limiter for " + fsUri, ee);
+    }
+  }
+}
@@ -14,6 +14,8 @@ package gobblin.data.management.copy;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -92,6 +94,11 @@ public class CopySource extends AbstractSource<String, FileAwareInputStream> {
   public static final String SIMULATE = CopyConfiguration.COPY_PREFIX + ".simulate";
   public static final String MAX_SIZE_MULTI_WORKUNITS = CopyConfiguration.COPY_PREFIX + ".binPacking.maxSizePerBin";
   public static final String MAX_WORK_UNITS_PER_BIN = CopyConfiguration.COPY_PREFIX + ".binPacking.maxWorkUnitsPerBin";
+  /**
+   * If set and {@link #MAX_SIZE_MULTI_WORKUNITS} is not, the work units are packed into at most this many bins of
+   * approximately equal total size, e.g. the number of parallel copy tasks.
+   */
+  public static final String NUMBER_OF_BINS = CopyConfiguration.COPY_PREFIX + ".binPacking.numberOfBins";
 
   private static final String WORK_UNIT_WEIGHT = CopyConfiguration.COPY_PREFIX + ".workUnitWeight";
 
@@ -215,18 +222,50 @@ public class CopySource extends AbstractSource<String, FileAwareInputStream> {
 
       List<WorkUnit> flatWorkUnits = workUnitList.getWorkUnits();
 
-      List<? extends WorkUnit> workUnits =
-          new WorstFitDecreasingBinPacking(maxSizePerBin).pack(flatWorkUnits, this.weighter);
+      int maxNumberOfBins = 0;
+      if (maxSizePerBin <= 0 && state.contains(NUMBER_OF_BINS)) {
+        maxNumberOfBins = state.getPropAsInt(NUMBER_OF_BINS);
+        maxSizePerBin = getMaxSizePerBin(flatWorkUnits, maxNumberOfBins);
+      }
+      List<WorkUnit> workUnits = Lists.newArrayList(
+          new WorstFitDecreasingBinPacking(maxSizePerBin, maxNumberOfBins).pack(flatWorkUnits, this.weighter));
+      // Start the largest bins first, so that they do not end up running alone at the end of the job.
+      Collections.sort(workUnits, Collections.reverseOrder(new BinWeightComparator()));
       log.info(String.format(
           "Bin packed work units. Initial work units: %d, packed work units: %d, max weight per bin: %d, "
               + "max work units per bin: %d.", flatWorkUnits.size(), workUnits.size(), maxSizePerBin,
           maxWorkUnitsPerMultiWorkUnit));
-      return Lists.newArrayList(workUnits);
+      return workUnits;
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
   }
 
+  private long getMaxSizePerBin(List<WorkUnit> workUnits, int numberOfBins) {
+    long totalWeight = 0;
+    for (WorkUnit workUnit : workUnits) {
+      totalWeight += this.weighter.weight(workUnit);
+    }
+    return numberOfBins > 0 ? Math.max(1, (totalWeight - 1) / numberOfBins + 1) : 0;
+  }
+
+  /**
+   * Compares bins, i.e. {@link gobblin.source.workunit.MultiWorkUnit}s created by
+   * {@link WorstFitDecreasingBinPacking}, or {@link WorkUnit}s if the work units were not bin packed, by weight.
+   */
+  private class BinWeightComparator implements Comparator<WorkUnit> {
+    @Override
+    public int compare(WorkUnit o1, WorkUnit o2) {
+      return Long.compare(getBinWeight(o1), getBinWeight(o2));
+    }
+
+    private long getBinWeight(WorkUnit workUnit) {
+      return workUnit.contains(WorstFitDecreasingBinPacking.TOTAL_MULTI_WORK_UNIT_WEIGHT)
+          ? workUnit.getPropAsLong(WorstFitDecreasingBinPacking.TOTAL_MULTI_WORK_UNIT_WEIGHT)
+          : CopySource.this.weighter.weight(workUnit);
+    }
+  }
+
   /**
    * {@link Runnable} to generate copy listing for one {@link CopyableDataset}.
    */
@@ -14,13 +14,22 @@ package gobblin.data.management.copy.hive;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.conf.Configuration;
@@ -35,15 +44,18 @@ import org.apache.hadoop.mapred.InvalidInputException;
 import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.thrift.TException;
 
+import com.codahale.metrics.Meter;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.io.Closer;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.gson.Gson;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
@@ -68,6 +80,7 @@ import gobblin.hive.spec.HiveSpec;
 import gobblin.hive.spec.SimpleHiveSpec;
 import gobblin.metrics.event.EventSubmitter;
 import gobblin.metrics.event.MultiTimingEvent;
+import gobblin.util.ExecutorsUtils;
 import gobblin.util.PathUtils;
 import gobblin.util.commit.DeleteFileCommitStep;
 import gobblin.util.reflection.GobblinConstructorUtils;
@@ -104,7 +117,8 @@ public class HiveCopyEntityHelper {
   public static final String COPY_PARTITION_FILTER_GENERATOR =
       HiveDatasetFinder.HIVE_DATASET_PREFIX + ".copy.partition.filter.generator";
   /** A predicate applied to each partition before any file listing.
-   * If the predicate returns true, the partition will be skipped. */
+   * If the predicate returns true, the partition will be skipped. The predicate is applied by the partition listing
+   * threads, one partition at a time, so it does not need to be thread-safe. */
   public static final String FAST_PARTITION_SKIP_PREDICATE =
       HiveDatasetFinder.HIVE_DATASET_PREFIX + ".copy.fast.partition.skip.predicate";
 
@@ -119,6 +133,20 @@ public class HiveCopyEntityHelper {
   public static final DeregisterFileDeleteMethod DEFAULT_DEREGISTER_DELETE_METHOD =
       DeregisterFileDeleteMethod.NO_DELETE;
 
+  /** Number of threads used to list and diff the files of partitions concurrently. */
+  public static final String COPY_PARTITION_LISTING_THREADS =
+      HiveDatasetFinder.HIVE_DATASET_PREFIX + ".copy.partition.listing.threads";
+  public static final int DEFAULT_COPY_PARTITION_LISTING_THREADS = 1;
+  /** Maximum number of partitions listed ahead of the partition being returned. Defaults to twice the number of
+   * listing threads. */
+  public static final String COPY_PARTITION_LISTING_LOOKAHEAD =
+      HiveDatasetFinder.HIVE_DATASET_PREFIX + ".copy.partition.listing.lookahead";
+  /** Number of seconds an idle partition listing thread is kept. */
+  public static final long PARTITION_LISTING_KEEP_ALIVE_SECONDS = 60;
+
+  /** Meter of partitions for which {@link CopyEntity}s were generated. */
+  public static final String PARTITIONS_PLANNED_METER = "hive.dataset.copy.partitions.planned";
+
   private static final Gson gson = new Gson();
 
   private static final String source_client = "source_client";
@@ -348,52 +376,112 @@ public class HiveCopyEntityHelper {
   /**
    * An iterator producing a {@link FileSet} of {@link CopyEntity} for each partition in this table. The files
    * are not scanned or the {@link FileSet} materialized until {@link #next} is called.
+   *
+   * <p>
+   *   If {@link #COPY_PARTITION_LISTING_THREADS} is larger than 1, each call to {@link #next} also submits the
+   *   following partitions, up to {@link #COPY_PARTITION_LISTING_LOOKAHEAD} of them, to a pool listing and diffing
+   *   their files, so that the {@link FileSet}s of later partitions are being computed while the returned one is
+   *   processed. {@link FileSet}s are still returned in the order of the partitions. The pending listings are
+   *   cancelled and the pool shut down once the partitions are exhausted or {@link #next} fails, after which the
+   *   iterator cannot be used. The threads of the pool also exit once idle for
+   *   {@link #PARTITION_LISTING_KEEP_ALIVE_SECONDS}, so that an abandoned iterator does not keep them.
+   * </p>
    */
-  private class PartitionIterator implements Iterator<FileSet<CopyEntity>> {
+  @VisibleForTesting
+  class PartitionIterator implements Iterator<FileSet<CopyEntity>> {
 
     private final Iterator<Map.Entry<List<String>, Partition>> partitionIterator;
+    private final Deque<PendingPartitionCopy> pendingPartitionCopies = new ArrayDeque<>();
+    private final ExecutorService executor;
+    private final int lookAhead;
+    private final Meter partitionsPlannedMeter;
+    private final long startNanos = System.nanoTime();
+    private int partitionsPlanned = 0;
+    private boolean shutdown = false;
 
     public PartitionIterator(Map<List<String>, Partition> partitionMap) {
       this.partitionIterator = partitionMap.entrySet().iterator();
+      this.partitionsPlannedMeter = getDataset().getMetricContext().meter(PARTITIONS_PLANNED_METER);
+
+      Properties properties = getDataset().getProperties();
+      int threads = Integer.parseInt(properties.getProperty(COPY_PARTITION_LISTING_THREADS,
+          Integer.toString(DEFAULT_COPY_PARTITION_LISTING_THREADS)));
+      if (threads > 1) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, PARTITION_LISTING_KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), ExecutorsUtils.newDaemonThreadFactory(
+                Optional.of(log), Optional.of("HiveCopyEntityHelper-partition-listing-%d")));
+        executor.allowCoreThreadTimeOut(true);
+        this.executor = executor;
+        this.lookAhead = Math.max(1,
+            Integer.parseInt(properties.getProperty(COPY_PARTITION_LISTING_LOOKAHEAD, Integer.toString(2 * threads))));
+      } else {
+        // Partitions are listed in the calling thread when they are requested
+        this.executor = MoreExecutors.sameThreadExecutor();
+        this.lookAhead = 1;
+      }
     }
 
     @Override
     public boolean hasNext() {
-      return this.partitionIterator.hasNext() || !HiveCopyEntityHelper.this.targetPartitions.isEmpty();
+      return !this.pendingPartitionCopies.isEmpty() || this.partitionIterator.hasNext()
+          || !getTargetPartitions().isEmpty();
     }
 
     @Override
     public FileSet<CopyEntity> next() {
-      if (this.partitionIterator.hasNext()) {
-        Map.Entry<List<String>, Partition> partitionEntry = this.partitionIterator.next();
+      boolean succeeded = false;
+      try {
+        FileSet<CopyEntity> fileSet = nextFileSet();
+        succeeded = true;
+        return fileSet;
+      } finally {
+        if (!succeeded) {
+          cancelPendingPartitionCopies();
+        }
+      }
+    }
+
+    private FileSet<CopyEntity> nextFileSet() {
+      submitPartitionCopies();
+      if (!this.pendingPartitionCopies.isEmpty()) {
+        PendingPartitionCopy pendingCopy = this.pendingPartitionCopies.poll();
+        Partition partition = pendingCopy.getPartitionCopy().getPartition();
         List<CopyEntity> copyEntities = Lists.newArrayList();
         try {
-          copyEntities = new PartitionCopy(partitionEntry.getValue(), HiveCopyEntityHelper.this.dataset.properties)
-              .getCopyEntities();
-        } catch (IOException ioe) {
-          log.error("Could not generate work units to copy partition " + partitionEntry.getValue().getCompleteName(),
-              ioe);
+          copyEntities = pendingCopy.getCopyEntities().get();
+        } catch (ExecutionException ee) {
+          if (!(ee.getCause() instanceof IOException)) {
+            throw Throwables.propagate(ee.getCause());
+          }
+          log.error("Could not generate work units to copy partition " + partition.getCompleteName(), ee.getCause());
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          throw new RuntimeException("Interrupted while generating work units for partition "
+              + partition.getCompleteName(), ie);
+        }
+        getTargetPartitions().remove(partition.getValues());
+        this.partitionsPlanned++;
+        this.partitionsPlannedMeter.mark();
+        if (this.pendingPartitionCopies.isEmpty() && !this.partitionIterator.hasNext()) {
+          shutdown();
         }
-        HiveCopyEntityHelper.this.targetPartitions.remove(partitionEntry.getKey());
-        return new FileSet.Builder<>(partitionEntry.getValue().getCompleteName(), HiveCopyEntityHelper.this.dataset)
-            .add(copyEntities).build();
-      } else if (!HiveCopyEntityHelper.this.targetPartitions.isEmpty()) {
+        return new FileSet.Builder<>(partition.getCompleteName(), getDataset()).add(copyEntities).build();
+      } else if (!getTargetPartitions().isEmpty()) {
+        shutdown();
         List<CopyEntity> deregisterCopyEntities = Lists.newArrayList();
         int priority = 1;
         String deregisterFileSet = "deregister";
-        for (Map.Entry<List<String>, Partition> partitionEntry : HiveCopyEntityHelper.this.targetPartitions
-            .entrySet()) {
+        for (Map.Entry<List<String>, Partition> partitionEntry : getTargetPartitions().entrySet()) {
           try {
             priority = addPartitionDeregisterSteps(deregisterCopyEntities, deregisterFileSet, priority,
-                HiveCopyEntityHelper.this.targetTable, partitionEntry.getValue());
+                getTargetTable(), partitionEntry.getValue());
           } catch (IOException ioe) {
             log.error(
                 "Could not create work unit to deregister partition " + partitionEntry.getValue().getCompleteName());
           }
         }
-        HiveCopyEntityHelper.this.targetPartitions.clear();
-        return new FileSet.Builder<>(deregisterFileSet, HiveCopyEntityHelper.this.dataset).add(deregisterCopyEntities)
-            .build();
+        getTargetPartitions().clear();
+        return new FileSet.Builder<>(deregisterFileSet, getDataset()).add(deregisterCopyEntities).build();
       } else {
         throw new NoSuchElementException();
       }
@@ -403,6 +491,67 @@ public class HiveCopyEntityHelper {
     public void remove() {
       throw new UnsupportedOperationException();
     }
+
+    /**
+     * Submit partitions until {@link #lookAhead} of them are pending. The {@link PartitionCopy}s are created in the
+     * calling thread, as they read the target partitions, which are only modified by this thread.
+     */
+    private void submitPartitionCopies() {
+      while (this.pendingPartitionCopies.size() < this.lookAhead && this.partitionIterator.hasNext()) {
+        Partition partition = this.partitionIterator.next().getValue();
+        final PartitionCopy partitionCopy = newPartitionCopy(partition);
+        this.pendingPartitionCopies.add(new PendingPartitionCopy(partitionCopy,
+            this.executor.submit(new Callable<List<CopyEntity>>() {
+              @Override
+              public List<CopyEntity> call() throws IOException {
+                return partitionCopy.getCopyEntities();
+              }
+            })));
+      }
+    }
+
+    /**
+     * Cancel the partitions being listed and shut down the pool, e.g., when a listing failed.
+     */
+    private void cancelPendingPartitionCopies() {
+      for (PendingPartitionCopy pendingCopy : this.pendingPartitionCopies) {
+        pendingCopy.getCopyEntities().cancel(true);
+      }
+      this.pendingPartitionCopies.clear();
+      this.executor.shutdownNow();
+      shutdown();
+    }
+
+    private void shutdown() {
+      if (this.shutdown) {
+        return;
+      }
+      this.shutdown = true;
+      ExecutorsUtils.shutdownExecutorService(this.executor, Optional.of(log));
+
+      long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.startNanos);
+      log.info(String.format("Generated work units for %d partitions of table %s in %d ms (%.2f partitions/sec).",
+          this.partitionsPlanned, getDataset().getTable().getCompleteName(), elapsedMillis,
+          elapsedMillis > 0 ? this.partitionsPlanned * 1000.0 / elapsedMillis : 0.0));
+    }
+  }
+
+  /**
+   * Create the {@link PartitionCopy} of a source partition. This must be called by the thread iterating over the
+   * partitions, as it reads the target partitions.
+   */
+  @VisibleForTesting
+  PartitionCopy newPartitionCopy(Partition partition) {
+    return new PartitionCopy(partition, this.dataset.properties);
+  }
+
+  /**
+   * A {@link PartitionCopy} whose {@link CopyEntity}s are being generated.
+   */
+  @Data
+  private static class PendingPartitionCopy {
+    private final PartitionCopy partitionCopy;
+    private final Future<List<CopyEntity>> copyEntities;
   }
 
   private Table getTargetTable(Table originTable, Path targetLocation) throws IOException {
@@ -463,7 +612,19 @@ public class HiveCopyEntityHelper {
               .addMetadata("Partition", this.partition.getName()).build();
     }
 
-    private List<CopyEntity> getCopyEntities() throws IOException {
+    /**
+     * Apply the fast partition skip predicate. Partitions may be listed concurrently, while the predicate is not
+     * required to be thread-safe, so it is applied to one partition at a time.
+     */
+    private boolean shouldFastSkip() {
+      Predicate<PartitionCopy> predicate = HiveCopyEntityHelper.this.fastPartitionSkip.get();
+      synchronized (predicate) {
+        return predicate.apply(this);
+      }
+    }
+
+    @VisibleForTesting
+    List<CopyEntity> getCopyEntities() throws IOException {
 
       try (Closer closer = Closer.create()) {
         log.info("Getting copy entities for partition " + this.partition.getCompleteName());
@@ -483,7 +644,6 @@ public class HiveCopyEntityHelper {
 
         multiTimer.nextStage(Stages.EXISTING_PARTITION);
         if (this.existingTargetPartition.isPresent()) {
-          HiveCopyEntityHelper.this.targetPartitions.remove(this.partition.getValues());
           try {
             checkPartitionCompatibility(targetPartition, this.existingTargetPartition.get());
           } catch (IOException ioe) {
@@ -500,8 +660,7 @@ public class HiveCopyEntityHelper {
         }
 
         multiTimer.nextStage(Stages.PARTITION_SKIP_PREDICATE);
-        if (HiveCopyEntityHelper.this.fastPartitionSkip.isPresent()
-            && HiveCopyEntityHelper.this.fastPartitionSkip.get().apply(this)) {
+        if (HiveCopyEntityHelper.this.fastPartitionSkip.isPresent() && shouldFastSkip()) {
           log.info(String.format("Skipping copy of partition %s due to fast partition skip predicate.",
               this.partition.getCompleteName()));
           return Lists.newArrayList();
@@ -546,7 +705,8 @@ public class HiveCopyEntityHelper {
     }
   }
 
-  private int addPartitionDeregisterSteps(List<CopyEntity> copyEntities, String fileSet, int initialPriority,
+  @VisibleForTesting
+  protected int addPartitionDeregisterSteps(List<CopyEntity> copyEntities, String fileSet, int initialPriority,
       Table table, Partition partition) throws IOException {
 
     int stepPriority = initialPriority;
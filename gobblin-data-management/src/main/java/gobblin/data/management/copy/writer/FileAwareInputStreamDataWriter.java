@@ -14,6 +14,8 @@ package gobblin.data.management.copy.writer;
 
 import gobblin.configuration.ConfigurationKeys;
 import gobblin.configuration.State;
+import gobblin.data.management.copy.BandwidthThrottlingHelper;
+import gobblin.data.management.copy.CopyConfiguration;
 import gobblin.data.management.copy.CopySource;
 import gobblin.data.management.copy.CopyableDatasetMetadata;
 import gobblin.data.management.copy.CopyEntity;
@@ -28,7 +30,7 @@ import gobblin.util.PathUtils;
 import gobblin.util.FileListUtils;
 import gobblin.util.ForkOperatorUtils;
 import gobblin.util.WriterUtils;
-import gobblin.util.io.StreamUtils;
+import gobblin.util.io.StreamCopier;
 import gobblin.writer.DataWriter;
 
 import java.io.IOException;
@@ -62,6 +64,13 @@ import com.google.common.io.Closer;
 @Slf4j
 public class FileAwareInputStreamDataWriter implements DataWriter<FileAwareInputStream>, FinalState {
 
+  public static final String BUFFER_SIZE_KEY = CopyConfiguration.COPY_PREFIX + ".writer.bufferSize";
+  /**
+   * If true, reads from the source and writes to the target are done in separate threads.
+   */
+  public static final String DOUBLE_BUFFERING_KEY = CopyConfiguration.COPY_PREFIX + ".writer.doubleBuffering";
+  public static final boolean DEFAULT_DOUBLE_BUFFERING = false;
+
   protected final AtomicLong bytesWritten = new AtomicLong();
   protected final AtomicLong filesWritten = new AtomicLong();
   protected final State state;
@@ -108,10 +117,19 @@ public class FileAwareInputStreamDataWriter implements DataWriter<FileAwareInput
     }
     this.actualProcessedCopyableFile = Optional.of(copyableFile);
     this.fs.mkdirs(stagingFile.getParent());
-    writeImpl(fileAwareInputStream.getInputStream(), stagingFile, copyableFile);
+    writeImpl(BandwidthThrottlingHelper.throttle(fileAwareInputStream.getInputStream(), this.state,
+        getSourceFsUri(copyableFile), this.fs.getUri()), stagingFile, copyableFile);
     this.filesWritten.incrementAndGet();
   }
 
+  private URI getSourceFsUri(CopyableFile copyableFile) {
+    URI originUri = copyableFile.getOrigin().getPath().toUri();
+    if (originUri.getScheme() != null) {
+      return originUri;
+    }
+    return URI.create(this.state.getProp(ConfigurationKeys.SOURCE_FILEBASED_FS_URI, ConfigurationKeys.LOCAL_FS_URI));
+  }
+
   /**
    * Write the contents of input stream into staging path.
    *
@@ -151,8 +169,14 @@ public class FileAwareInputStreamDataWriter implements DataWriter<FileAwareInput
       FSDataOutputStream os =
           this.fs.create(writeAt, true, this.fs.getConf().getInt("io.file.buffer.size", 4096), replication, blockSize);
       try {
-        this.bytesWritten.addAndGet(StreamUtils.copy(inputStream, os));
-        log.info("bytes written: " + this.bytesWritten.get() + " for file " + copyableFile);
+        long startTime = System.currentTimeMillis();
+        long bytesCopied = new StreamCopier(inputStream, os)
+            .withBufferSize(this.state.getPropAsInt(BUFFER_SIZE_KEY, StreamCopier.DEFAULT_BUFFER_SIZE))
+            .withDoubleBuffering(this.state.getPropAsBoolean(DOUBLE_BUFFERING_KEY, DEFAULT_DOUBLE_BUFFERING)).copy();
+        long elapsedMillis = Math.max(1, System.currentTimeMillis() - startTime);
+        this.bytesWritten.addAndGet(bytesCopied);
+        log.info(String.format("bytes written: %d for file %s, at %d bytes/sec", this.bytesWritten.get(), copyableFile,
+            bytesCopied * 1000 / elapsedMillis));
       } finally {
         os.close();
         inputStream.close();
@@ -14,12 +14,14 @@ package gobblin.data.management.retention;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.Callable;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
 
 import org.apache.commons.lang.exception.ExceptionUtils;
 import org.apache.hadoop.fs.FileSystem;
@@ -40,9 +42,10 @@ import com.google.common.util.concurrent.MoreExecutors;
 import gobblin.util.AzkabanTags;
 import gobblin.configuration.State;
 import gobblin.data.management.retention.dataset.CleanableDataset;
+import gobblin.data.management.retention.dataset.MultiVersionCleanableDatasetBase;
 import gobblin.data.management.retention.profile.MultiCleanableDatasetFinder;
 import gobblin.dataset.Dataset;
-import gobblin.dataset.DatasetsFinder;
+import gobblin.dataset.IterableDatasetFinder;
 import gobblin.instrumented.Instrumentable;
 import gobblin.instrumented.Instrumented;
 import gobblin.metrics.GobblinMetrics;
@@ -69,15 +72,16 @@ public class DatasetCleaner implements Instrumentable, Closeable {
 
   private static Logger LOG = LoggerFactory.getLogger(DatasetCleaner.class);
 
-  private final DatasetsFinder<Dataset> datasetFinder;
+  private final IterableDatasetFinder<Dataset> datasetFinder;
   private final ListeningExecutorService service;
+  private final int maxConcurrentDatasetsCleaned;
   private final Closer closer;
   private final boolean isMetricEnabled;
   private MetricContext metricContext;
   private final EventSubmitter eventSubmitter;
   private Optional<Meter> datasetsCleanSuccessMeter = Optional.absent();
   private Optional<Meter> datasetsCleanFailureMeter = Optional.absent();
-  private Optional<CountDownLatch> finishCleanSignal;
+  private Optional<Semaphore> finishCleanSignal;
   private final List<Throwable> throwables;
 
   public DatasetCleaner(FileSystem fs, Properties props) throws IOException {
@@ -96,8 +100,9 @@ public class DatasetCleaner implements Instrumentable, Closeable {
     } catch (ExecutionException exception) {
       throw new IOException(exception);
     }
-    ExecutorService executor = ScalingThreadPoolExecutor.newScalingThreadPool(0,
-        Integer.parseInt(props.getProperty(MAX_CONCURRENT_DATASETS_CLEANED, DEFAULT_MAX_CONCURRENT_DATASETS_CLEANED)),
+    this.maxConcurrentDatasetsCleaned =
+        Integer.parseInt(props.getProperty(MAX_CONCURRENT_DATASETS_CLEANED, DEFAULT_MAX_CONCURRENT_DATASETS_CLEANED));
+    ExecutorService executor = ScalingThreadPoolExecutor.newScalingThreadPool(0, this.maxConcurrentDatasetsCleaned,
         100, ExecutorsUtils.newThreadFactory(Optional.of(LOG), Optional.of("Dataset-cleaner-pool-%d")));
     this.service = MoreExecutors.listeningDecorator(executor);
 
@@ -108,21 +113,38 @@ public class DatasetCleaner implements Instrumentable, Closeable {
         this.closer.register(Instrumented.getMetricContext(new State(props), DatasetCleaner.class, tags));
     this.isMetricEnabled = GobblinMetrics.isEnabled(props);
     this.eventSubmitter = new EventSubmitter.Builder(this.metricContext, RetentionEvents.NAMESPACE).build();
-    this.throwables = Lists.newArrayList();
+    this.throwables = Collections.synchronizedList(Lists.<Throwable> newArrayList());
+    this.finishCleanSignal = Optional.absent();
   }
 
   /**
    * Perform the cleanup of old / deprecated dataset versions.
+   *
+   * <p>
+   *   Datasets are cleaned as they are found, and at most {@link #MAX_CONCURRENT_DATASETS_CLEANED} datasets are
+   *   being cleaned at any time. {@link #close()} waits for all datasets to be cleaned.
+   * </p>
    * @throws IOException
    */
   public void clean() throws IOException {
-    List<Dataset> dataSets = this.datasetFinder.findDatasets();
-    this.finishCleanSignal = Optional.of(new CountDownLatch(dataSets.size()));
-    for (final Dataset dataset : dataSets) {
+    final Semaphore cleanSlots = new Semaphore(this.maxConcurrentDatasetsCleaned);
+    this.finishCleanSignal = Optional.of(cleanSlots);
+    Iterator<Dataset> dataSets = this.datasetFinder.getDatasetsIterator();
+    while (dataSets.hasNext()) {
+      final Dataset dataset = dataSets.next();
+      try {
+        cleanSlots.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while waiting to clean " + dataset.datasetURN(), e);
+      }
       ListenableFuture<Void> future = this.service.submit(new Callable<Void>() {
         @Override
         public Void call() throws Exception {
-          if (dataset instanceof CleanableDataset) {
+          if (dataset instanceof MultiVersionCleanableDatasetBase) {
+            // Report the metrics of the dataset in the context of the cleaner rather than in a new root context
+            ((MultiVersionCleanableDatasetBase<?>) dataset).clean(DatasetCleaner.this.metricContext);
+          } else if (dataset instanceof CleanableDataset) {
             ((CleanableDataset) dataset).clean();
           }
           return null;
@@ -131,7 +153,7 @@ public class DatasetCleaner implements Instrumentable, Closeable {
       Futures.addCallback(future, new FutureCallback<Void>() {
         @Override
         public void onFailure(Throwable throwable) {
-          DatasetCleaner.this.finishCleanSignal.get().countDown();
+          cleanSlots.release();
           LOG.warn("Exception caught when cleaning " + dataset.datasetURN() + ".", throwable);
           DatasetCleaner.this.throwables.add(throwable);
           Instrumented.markMeter(DatasetCleaner.this.datasetsCleanFailureMeter);
@@ -143,7 +165,7 @@ public class DatasetCleaner implements Instrumentable, Closeable {
 
         @Override
         public void onSuccess(Void arg0) {
-          DatasetCleaner.this.finishCleanSignal.get().countDown();
+          cleanSlots.release();
           LOG.info("Successfully cleaned: " + dataset.datasetURN());
           Instrumented.markMeter(DatasetCleaner.this.datasetsCleanSuccessMeter);
         }
@@ -156,11 +178,14 @@ public class DatasetCleaner implements Instrumentable, Closeable {
   public void close() throws IOException {
     try {
       if (this.finishCleanSignal.isPresent()) {
-        this.finishCleanSignal.get().await();
+        // All slots are free once every dataset that was submitted has been cleaned.
+        this.finishCleanSignal.get().acquire(this.maxConcurrentDatasetsCleaned);
       }
       if (!this.throwables.isEmpty()) {
-        for (Throwable t : this.throwables) {
-          LOG.error("Failed clean due to ", t);
+        synchronized (this.throwables) {
+          for (Throwable t : this.throwables) {
+            LOG.error("Failed clean due to ", t);
+          }
         }
         throw new RuntimeException("Clean failed for one or more datasets");
       }
@@ -217,5 +242,8 @@ public class DatasetCleaner implements Instrumentable, Closeable {
   public static class DatasetCleanerMetrics {
     public static final String DATASETS_CLEAN_SUCCESS = "gobblin.retention.datasets.clean.success";
     public static final String DATASETS_CLEAN_FAILURE = "gobblin.retention.datasets.clean.failure";
+    public static final String VERSIONS_SCANNED = "gobblin.retention.versions.scanned";
+    public static final String VERSIONS_DELETED = "gobblin.retention.versions.deleted";
+    public static final String BYTES_RECLAIMED = "gobblin.retention.bytes.reclaimed";
   }
 }
@@ -28,19 +28,27 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.slf4j.Logger;
 
+import com.codahale.metrics.Meter;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
+import com.google.common.io.Closer;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
 
+import gobblin.configuration.State;
 import gobblin.data.management.policy.EmbeddedRetentionSelectionPolicy;
 import gobblin.data.management.policy.VersionSelectionPolicy;
+import gobblin.data.management.retention.DatasetCleaner.DatasetCleanerMetrics;
 import gobblin.data.management.retention.policy.RetentionPolicy;
 import gobblin.data.management.trash.ProxiedTrash;
 import gobblin.data.management.trash.TrashFactory;
 import gobblin.data.management.version.FileSystemDatasetVersion;
 import gobblin.data.management.version.finder.VersionFinder;
 import gobblin.dataset.FileSystemDataset;
+import gobblin.instrumented.Instrumented;
+import gobblin.metrics.GobblinMetrics;
+import gobblin.metrics.MetricContext;
 import gobblin.util.ConfigUtils;
 import gobblin.util.PathUtils;
 
@@ -112,6 +120,13 @@ public abstract class MultiVersionCleanableDatasetBase<T extends FileSystemDatas
   public static final String DELETE_AS_OWNER_DEFAULT = Boolean.toString(true);
   public static final String IS_DATASET_BLACKLISTED_DEFAULT = Boolean.toString(false);
 
+  /**
+   * If true and metrics are enabled, the size of each deleted path is computed before it is deleted and reported in
+   * {@link DatasetCleanerMetrics#BYTES_RECLAIMED}. This costs one extra file system call per path.
+   */
+  public static final String MEASURE_RECLAIMED_BYTES_KEY = CONFIGURATION_KEY_PREFIX + "measure.reclaimed.bytes";
+  public static final String MEASURE_RECLAIMED_BYTES_DEFAULT = Boolean.toString(false);
+
   protected final FileSystem fs;
   protected final ProxiedTrash trash;
   protected final boolean simulate;
@@ -122,6 +137,14 @@ public abstract class MultiVersionCleanableDatasetBase<T extends FileSystemDatas
 
   protected final Logger log;
 
+  private final State metricsState;
+  private final boolean isMetricEnabled;
+  private final boolean measureReclaimedBytes;
+  // Only present while the dataset is being cleaned, in the metric context of the clean
+  private Optional<Meter> versionsScannedMeter = Optional.absent();
+  private Optional<Meter> versionsDeletedMeter = Optional.absent();
+  private Optional<Meter> bytesReclaimedMeter = Optional.absent();
+
   /**
    * Get {@link gobblin.data.management.retention.policy.RetentionPolicy} to use.
    */
@@ -173,6 +196,11 @@ public abstract class MultiVersionCleanableDatasetBase<T extends FileSystemDatas
     this.trash = TrashFactory.createProxiedTrash(this.fs, thisProperties);
     this.deleteAsOwner = deleteAsOwner;
     this.isDatasetBlacklisted = isDatasetBlacklisted;
+
+    this.metricsState = new State(properties);
+    this.isMetricEnabled = GobblinMetrics.isEnabled(properties);
+    this.measureReclaimedBytes =
+        Boolean.valueOf(properties.getProperty(MEASURE_RECLAIMED_BYTES_KEY, MEASURE_RECLAIMED_BYTES_DEFAULT));
   }
 
   public MultiVersionCleanableDatasetBase(FileSystem fs, Properties properties, boolean simulate, boolean skipTrash,
@@ -188,12 +216,50 @@ public abstract class MultiVersionCleanableDatasetBase<T extends FileSystemDatas
    */
   @Override
   public void clean() throws IOException {
+    clean(Optional.<MetricContext> absent());
+  }
+
+  /**
+   * Same as {@link #clean()}, but the metrics of the cleanup are reported in a child of the given
+   * {@link MetricContext}, e.g., the one of the {@link gobblin.data.management.retention.DatasetCleaner}.
+   * @throws java.io.IOException
+   */
+  public void clean(MetricContext parentContext) throws IOException {
+    clean(Optional.of(parentContext));
+  }
+
+  private void clean(Optional<MetricContext> parentContext) throws IOException {
 
     if (this.isDatasetBlacklisted) {
       this.log.info("Dataset blacklisted. Cleanup skipped for " + datasetRoot());
       return;
     }
 
+    Closer closer = Closer.create();
+    try {
+      if (this.isMetricEnabled) {
+        // The context only lives as long as the cleanup, its meters are also reported in its parent
+        String contextName = getClass().getName() + "." + Instrumented.RAND.nextInt(Integer.MAX_VALUE);
+        MetricContext metricContext = closer.register(parentContext.isPresent()
+            ? parentContext.get().childBuilder(contextName).build()
+            : Instrumented.getMetricContext(this.metricsState, getClass()));
+        this.versionsScannedMeter = Optional.of(metricContext.meter(DatasetCleanerMetrics.VERSIONS_SCANNED));
+        this.versionsDeletedMeter = Optional.of(metricContext.meter(DatasetCleanerMetrics.VERSIONS_DELETED));
+        this.bytesReclaimedMeter = this.measureReclaimedBytes
+            ? Optional.of(metricContext.meter(DatasetCleanerMetrics.BYTES_RECLAIMED)) : Optional.<Meter> absent();
+      }
+      cleanVersions();
+    } catch (Throwable t) {
+      throw closer.rethrow(t, IOException.class);
+    } finally {
+      this.versionsScannedMeter = Optional.absent();
+      this.versionsDeletedMeter = Optional.absent();
+      this.bytesReclaimedMeter = Optional.absent();
+      closer.close();
+    }
+  }
+
+  private void cleanVersions() throws IOException {
     for (VersionFinderAndPolicy<T> versionFinderAndPolicy : getVersionFindersAndPolicies()) {
 
       VersionSelectionPolicy<T> selectionPolicy = versionFinderAndPolicy.getVersionSelectionPolicy();
@@ -207,6 +273,7 @@ public abstract class MultiVersionCleanableDatasetBase<T extends FileSystemDatas
           versionFinder.getClass().getName(), selectionPolicy.getClass().getName()));
 
       List<T> versions = Lists.newArrayList(versionFinder.findDatasetVersions(this));
+      Instrumented.markMeter(this.versionsScannedMeter, versions.size());
 
       if (versions.isEmpty()) {
         this.log.warn("No dataset version can be found. Ignoring.");
@@ -240,18 +307,24 @@ public abstract class MultiVersionCleanableDatasetBase<T extends FileSystemDatas
 
       for (Path path : pathsToDelete) {
 
+        long pathSize = getSizeIfMeasured(path);
         boolean successfullyDeleted =
             this.deleteAsOwner ? this.trash.moveToTrashAsOwner(path) : this.trash.moveToTrash(path);
 
         if (successfullyDeleted) {
           possiblyEmptyDirectories.add(path.getParent());
+          if (this.bytesReclaimedMeter.isPresent()) {
+            this.bytesReclaimedMeter.get().mark(pathSize);
+          }
         } else {
           this.log.error("Failed to delete path " + path + " in dataset version " + versionToDelete);
           deletedAllPaths = false;
         }
       }
 
-      if (!deletedAllPaths) {
+      if (deletedAllPaths) {
+        Instrumented.markMeter(this.versionsDeletedMeter);
+      } else {
         this.log.error("Failed to delete some paths in dataset version " + versionToDelete);
       }
 
@@ -264,6 +337,18 @@ public abstract class MultiVersionCleanableDatasetBase<T extends FileSystemDatas
     }
   }
 
+  private long getSizeIfMeasured(Path path) {
+    if (!this.bytesReclaimedMeter.isPresent()) {
+      return 0;
+    }
+    try {
+      return this.fs.getContentSummary(path).getLength();
+    } catch (IOException ioe) {
+      this.log.warn("Failed to get size of path " + path, ioe);
+      return 0;
+    }
+  }
+
   private void deleteEmptyParentDirectories(Path datasetRoot, Path parent) throws IOException {
     PathUtils.deleteEmptyParentDirectories(this.fs, datasetRoot, parent);
   }
@@ -16,6 +16,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
 
@@ -25,6 +26,8 @@ import org.apache.commons.lang3.reflect.ConstructorUtils;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 
+import com.google.common.base.Function;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import com.typesafe.config.Config;
 
@@ -36,11 +39,12 @@ import gobblin.config.store.api.ConfigStoreCreationException;
 import gobblin.config.store.api.VersionDoesNotExistException;
 import gobblin.dataset.Dataset;
 import gobblin.dataset.DatasetsFinder;
+import gobblin.dataset.IterableDatasetFinder;
 
 
 /**
  * A DatasetFinder that instantiates multiple DatasetFinders. {@link #findDatasets()} will return a union of all the
- * datasets found by each datasetFinder
+ * datasets found by each datasetFinder, and {@link #getDatasetsIterator()} will iterate over them.
  * <p>
  * Subclasses will specify the dataset finder class key name to instantiate. If {@link #datasetFinderClassKey()} is set
  * in jobProps, a single datasetFinder is created. Otherwise {@link #datasetFinderImportedByKey()} is used to find all
@@ -50,7 +54,7 @@ import gobblin.dataset.DatasetsFinder;
  *
  */
 @Slf4j
-public abstract class MultiDatasetFinder implements DatasetsFinder<Dataset> {
+public abstract class MultiDatasetFinder implements IterableDatasetFinder<Dataset> {
   protected abstract String datasetFinderClassKey();
 
   protected abstract String datasetFinderImportedByKey();
@@ -113,6 +117,27 @@ public abstract class MultiDatasetFinder implements DatasetsFinder<Dataset> {
     return datasets;
   }
 
+  /**
+   * Returns the {@link Dataset}s found by each datasetFinder, one datasetFinder at a time, so that datasets of the
+   * first datasetFinders can be processed before the last ones are found.
+   */
+  @Override
+  public Iterator<Dataset> getDatasetsIterator() throws IOException {
+    return Iterators.concat(Iterators.transform(this.datasetFinders.iterator(),
+        new Function<DatasetsFinder<Dataset>, Iterator<Dataset>>() {
+          @Override
+          public Iterator<Dataset> apply(DatasetsFinder<Dataset> datasetFinder) {
+            try {
+              return datasetFinder instanceof IterableDatasetFinder
+                  ? ((IterableDatasetFinder<Dataset>) datasetFinder).getDatasetsIterator()
+                  : datasetFinder.findDatasets().iterator();
+            } catch (IOException ioe) {
+              throw new RuntimeException("Failed to find datasets.", ioe);
+            }
+          }
+        }));
+  }
+
   @Override
   public Path commonDatasetRoot() {
     throw new UnsupportedOperationException("There is no common dataset root for MultiDatasetFinder");
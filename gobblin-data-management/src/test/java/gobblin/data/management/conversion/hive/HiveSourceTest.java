@@ -19,6 +19,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.metastore.api.Table;
 import org.joda.time.DateTime;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
 import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
@@ -33,6 +35,7 @@ import gobblin.configuration.WorkUnitState;
 import gobblin.data.management.ConversionHiveTestUtils;
 import gobblin.data.management.conversion.hive.entities.SerializableHivePartition;
 import gobblin.data.management.conversion.hive.entities.SerializableHiveTable;
+import gobblin.data.management.conversion.hive.source.BackfillHiveSource;
 import gobblin.data.management.conversion.hive.source.HiveSource;
 import gobblin.data.management.conversion.hive.util.HiveSourceUtils;
 import gobblin.source.workunit.WorkUnit;
@@ -139,6 +142,48 @@ public class HiveSourceTest {
     Assert.assertEquals(serializedHiveTable.getTableName(), tableName2);
   }
 
+  @Test
+  public void testGetWorkunitsWithPartitionFilter() throws Exception {
+
+    String dbName = "testdb8";
+    String tableName = "testtable8";
+    String tableSdLoc = "/tmp/testtable8";
+
+    this.hiveMetastoreTestUtils.getLocalMetastoreClient().dropDatabase(dbName, false, true, true);
+
+    Table tbl = this.hiveMetastoreTestUtils.createTestTable(dbName, tableName, tableSdLoc, Optional.of("field"));
+
+    DateTimeFormatter formatter = DateTimeFormat.forPattern("yyyy-MM-dd").withZoneUTC();
+    DateTime now = new DateTime();
+    int createTime = (int) TimeUnit.SECONDS.convert(now.getMillis(), TimeUnit.MILLISECONDS);
+    this.hiveMetastoreTestUtils.addTestPartition(tbl, ImmutableList.of(formatter.print(now.minusDays(10))), createTime);
+    this.hiveMetastoreTestUtils.addTestPartition(tbl, ImmutableList.of(formatter.print(now)), createTime);
+
+    List<WorkUnitState> previousWorkUnitStates = Lists.newArrayList();
+    previousWorkUnitStates.add(ConversionHiveTestUtils.createWus(dbName, tableName, now.minusDays(1).getMillis()));
+
+    SourceState testState = new SourceState(getTestState(dbName), previousWorkUnitStates);
+    testState.setProp(HiveSource.HIVE_SOURCE_PARTITION_FILTER_DATETIME_COLUMN_KEY, "field");
+    testState.setProp(HiveSource.HIVE_SOURCE_PARTITION_FILTER_DATETIME_FORMAT_KEY, "yyyy-MM-dd");
+    testState.setProp(HiveSource.HIVE_SOURCE_UPDATE_TIME_THREADS_KEY, 4);
+
+    // By default, the partitions within the maximum lookback are listed, as they may have been updated since the
+    // previous watermark
+    List<WorkUnit> workUnits = new HiveSource().getWorkunits(testState);
+    Assert.assertEquals(workUnits.size(), 2);
+
+    // Only the partition newer than the watermark is listed
+    testState.setProp(HiveSource.HIVE_SOURCE_PARTITION_FILTER_WATERMARK_LOOKBACK_KEY, "P0D");
+    workUnits = new HiveSource().getWorkunits(testState);
+    Assert.assertEquals(workUnits.size(), 1);
+    Assert.assertEquals(HiveSourceUtils.deserializePartition(workUnits.get(0)).getPartitionName(),
+        "field=" + formatter.print(now));
+
+    // All the partitions are backfilled
+    workUnits = new BackfillHiveSource().getWorkunits(testState);
+    Assert.assertEquals(workUnits.size(), 2);
+  }
+
   @Test
   public void testShouldCreateWorkunitsOlderThanLookback() throws Exception {
 
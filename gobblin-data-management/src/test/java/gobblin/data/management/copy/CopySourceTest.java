@@ -23,6 +23,7 @@ import gobblin.data.management.dataset.DatasetUtils;
 import gobblin.source.workunit.Extract;
 import gobblin.source.workunit.WorkUnit;
 import gobblin.util.JobLauncherUtils;
+import gobblin.util.binpacking.WorstFitDecreasingBinPacking;
 
 
 public class CopySourceTest {
@@ -101,5 +102,34 @@ public class CopySourceTest {
     Assert.assertNotNull(extractBelow);
   }
 
+  @Test
+  public void testBinPackingByNumberOfBins()
+      throws Exception {
+
+    SourceState state = new SourceState();
+
+    state.setProp(ConfigurationKeys.SOURCE_FILEBASED_FS_URI, "file:///");
+    state.setProp(ConfigurationKeys.WRITER_FILE_SYSTEM_URI, "file:///");
+    state.setProp(ConfigurationKeys.DATA_PUBLISHER_FINAL_DIR, "/target/dir");
+    state.setProp(DatasetUtils.DATASET_PROFILE_CLASS_KEY, TestCopyableDatasetFinder.class.getCanonicalName());
+    int numberOfBins = 3;
+    state.setProp(CopySource.NUMBER_OF_BINS, numberOfBins);
+
+    CopySource source = new CopySource();
+
+    List<WorkUnit> workunits = source.getWorkunits(state);
+
+    // 10 files of 10 bytes each are packed into at most 3 bins, largest bins first.
+    Assert.assertTrue(workunits.size() <= numberOfBins);
+    long previousWeight = Long.MAX_VALUE;
+    for (WorkUnit workUnit : workunits) {
+      long weight = workUnit.getPropAsLong(WorstFitDecreasingBinPacking.TOTAL_MULTI_WORK_UNIT_WEIGHT);
+      Assert.assertTrue(weight <= 40);
+      Assert.assertTrue(weight <= previousWeight);
+      previousWeight = weight;
+    }
+    Assert.assertEquals(JobLauncherUtils.flattenWorkUnits(workunits).size(), TestCopyableDataset.FILE_COUNT);
+  }
+
 
 }
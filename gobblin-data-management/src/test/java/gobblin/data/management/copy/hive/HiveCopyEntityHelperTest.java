@@ -15,9 +15,12 @@ package gobblin.data.management.copy.hive;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
@@ -38,7 +41,9 @@ import gobblin.data.management.copy.CopyEntity;
 import gobblin.data.management.copy.entities.PostPublishStep;
 import gobblin.data.management.copy.entities.PrePublishStep;
 import gobblin.data.management.copy.hive.HiveCopyEntityHelper.DeregisterFileDeleteMethod;
+import gobblin.data.management.partition.FileSet;
 import gobblin.hive.HiveRegProps;
+import gobblin.metrics.MetricContext;
 import gobblin.metrics.event.MultiTimingEvent;
 
 
@@ -183,6 +188,123 @@ public class HiveCopyEntityHelperTest {
     Assert.assertEquals(HiveCopyEntityHelper.replacedPrefix(sourcePath, prefixTobeReplaced, prefixReplacement), expected);
   }
 
+  @Test
+  public void testPartitionIteratorWithListingThreads() throws Exception {
+    Map<List<String>, Partition> sourcePartitions = Maps.newLinkedHashMap();
+    for (int i = 0; i < 10; i++) {
+      Partition partition = mockPartition("partition" + i);
+      sourcePartitions.put(partition.getValues(), partition);
+    }
+    Map<List<String>, Partition> targetPartitions = Maps.newHashMap();
+    targetPartitions.put(Lists.newArrayList("partition3"), mockPartition("partition3"));
+    Partition deletedPartition = mockPartition("deletedPartition");
+    targetPartitions.put(deletedPartition.getValues(), deletedPartition);
+
+    final List<String> deregisteredPartitions = Lists.newArrayList();
+    HiveCopyEntityHelper helper = mockPartitionedHelper(targetPartitions, 4, new Answer<List<CopyEntity>>() {
+      @Override
+      public List<CopyEntity> answer(InvocationOnMock invocation) throws Throwable {
+        // Earlier partitions take longer to list
+        Thread.sleep(50 - 5 * Integer.parseInt(((HiveCopyEntityHelper.PartitionCopy) invocation.getMock())
+            .getPartition().getCompleteName().substring("partition".length())));
+        return Lists.newArrayList();
+      }
+    });
+    Mockito.when(helper.addPartitionDeregisterSteps(Mockito.any(List.class), Mockito.any(String.class),
+        Mockito.anyInt(), Mockito.any(org.apache.hadoop.hive.ql.metadata.Table.class), Mockito.any(Partition.class)))
+        .then(new Answer<Integer>() {
+          @Override
+          public Integer answer(InvocationOnMock invocation) throws Throwable {
+            deregisteredPartitions.add(((Partition) invocation.getArguments()[4]).getCompleteName());
+            return (Integer) invocation.getArguments()[2] + 1;
+          }
+        });
+
+    Iterator<FileSet<CopyEntity>> iterator = helper.new PartitionIterator(sourcePartitions);
+    // The file sets are returned in the order of the partitions, followed by the deregistration of the target
+    // partitions missing from the source
+    for (int i = 0; i < 10; i++) {
+      Assert.assertTrue(iterator.hasNext());
+      Assert.assertEquals(iterator.next().getName(), "partition" + i);
+    }
+    Assert.assertTrue(iterator.hasNext());
+    Assert.assertEquals(iterator.next().getName(), "deregister");
+    Assert.assertFalse(iterator.hasNext());
+    Assert.assertEquals(deregisteredPartitions, Lists.newArrayList("deletedPartition"));
+    Assert.assertTrue(targetPartitions.isEmpty());
+  }
+
+  @Test
+  public void testPartitionIteratorCancelsListingsOnFailure() throws Exception {
+    Map<List<String>, Partition> sourcePartitions = Maps.newLinkedHashMap();
+    for (int i = 0; i < 4; i++) {
+      Partition partition = mockPartition("partition" + i);
+      sourcePartitions.put(partition.getValues(), partition);
+    }
+
+    final CountDownLatch interruptedListings = new CountDownLatch(1);
+    HiveCopyEntityHelper helper = mockPartitionedHelper(Maps.<List<String>, Partition>newHashMap(), 2,
+        new Answer<List<CopyEntity>>() {
+          @Override
+          public List<CopyEntity> answer(InvocationOnMock invocation) throws Throwable {
+            String name = ((HiveCopyEntityHelper.PartitionCopy) invocation.getMock()).getPartition().getCompleteName();
+            if (name.equals("partition0")) {
+              throw new IllegalStateException("Failed to list " + name);
+            }
+            try {
+              Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException ie) {
+              interruptedListings.countDown();
+            }
+            return Lists.newArrayList();
+          }
+        });
+
+    Iterator<FileSet<CopyEntity>> iterator = helper.new PartitionIterator(sourcePartitions);
+    try {
+      iterator.next();
+      Assert.fail("The failure to list a partition should be propagated");
+    } catch (IllegalStateException ise) {
+      // Expected
+    }
+    // The listing of the following partition is cancelled
+    Assert.assertTrue(interruptedListings.await(10, TimeUnit.SECONDS));
+  }
+
+  private HiveCopyEntityHelper mockPartitionedHelper(Map<List<String>, Partition> targetPartitions, int threads,
+      final Answer<List<CopyEntity>> getCopyEntities) throws IOException {
+    Properties properties = new Properties();
+    properties.setProperty(HiveCopyEntityHelper.COPY_PARTITION_LISTING_THREADS, Integer.toString(threads));
+    org.apache.hadoop.hive.ql.metadata.Table table = Mockito.mock(org.apache.hadoop.hive.ql.metadata.Table.class);
+    Mockito.when(table.getCompleteName()).thenReturn("db@table");
+    HiveDataset dataset = Mockito.mock(HiveDataset.class);
+    Mockito.when(dataset.getProperties()).thenReturn(properties);
+    Mockito.when(dataset.getTable()).thenReturn(table);
+    Mockito.when(dataset.getMetricContext()).thenReturn(MetricContext.builder(getClass().getName()).build());
+
+    HiveCopyEntityHelper helper = Mockito.mock(HiveCopyEntityHelper.class);
+    Mockito.when(helper.getDataset()).thenReturn(dataset);
+    Mockito.when(helper.getTargetPartitions()).thenReturn(targetPartitions);
+    Mockito.when(helper.newPartitionCopy(Mockito.any(Partition.class)))
+        .then(new Answer<HiveCopyEntityHelper.PartitionCopy>() {
+          @Override
+          public HiveCopyEntityHelper.PartitionCopy answer(InvocationOnMock invocation) throws Throwable {
+            HiveCopyEntityHelper.PartitionCopy partitionCopy = Mockito.mock(HiveCopyEntityHelper.PartitionCopy.class);
+            Mockito.when(partitionCopy.getPartition()).thenReturn((Partition) invocation.getArguments()[0]);
+            Mockito.when(partitionCopy.getCopyEntities()).then(getCopyEntities);
+            return partitionCopy;
+          }
+        });
+    return helper;
+  }
+
+  private static Partition mockPartition(String name) {
+    Partition partition = Mockito.mock(Partition.class);
+    Mockito.when(partition.getCompleteName()).thenReturn(name);
+    Mockito.when(partition.getValues()).thenReturn(Lists.newArrayList(name));
+    return partition;
+  }
+
   private boolean containsPath(Collection<FileStatus> statuses, Path path) {
     for (FileStatus status : statuses) {
       if (status.getPath().equals(path)) {
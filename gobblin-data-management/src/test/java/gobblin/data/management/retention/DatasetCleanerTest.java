@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.data.management.retention;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+
+import gobblin.data.management.retention.dataset.CleanableDataset;
+import gobblin.data.management.retention.profile.MultiCleanableDatasetFinder;
+import gobblin.dataset.Dataset;
+import gobblin.dataset.DatasetsFinder;
+
+
+@Test(groups = { "gobblin.data.management.retention" })
+public class DatasetCleanerTest {
+
+  private static final int DATASET_COUNT = 20;
+  private static final AtomicInteger CLEANED = new AtomicInteger();
+  private static final AtomicInteger CONCURRENT = new AtomicInteger();
+  private static final AtomicInteger MAX_CONCURRENT = new AtomicInteger();
+
+  @Test
+  public void testCleanWithBoundedConcurrency() throws Exception {
+    Properties props = new Properties();
+    props.setProperty(MultiCleanableDatasetFinder.DATASET_FINDER_CLASS_KEY, TestDatasetFinder.class.getName());
+    props.setProperty(DatasetCleaner.MAX_CONCURRENT_DATASETS_CLEANED, "3");
+
+    DatasetCleaner cleaner = new DatasetCleaner(FileSystem.getLocal(new Configuration()), props);
+    cleaner.clean();
+    cleaner.close();
+
+    Assert.assertEquals(CLEANED.get(), DATASET_COUNT);
+    Assert.assertTrue(MAX_CONCURRENT.get() <= 3);
+  }
+
+  public static class TestDatasetFinder implements DatasetsFinder<Dataset> {
+
+    public TestDatasetFinder(FileSystem fs, Properties props) {
+    }
+
+    @Override
+    public List<Dataset> findDatasets() throws IOException {
+      List<Dataset> datasets = Lists.newArrayList();
+      for (int i = 0; i < DATASET_COUNT; i++) {
+        datasets.add(new TestDataset(new Path("/dataset" + i)));
+      }
+      return datasets;
+    }
+
+    @Override
+    public Path commonDatasetRoot() {
+      return new Path("/");
+    }
+  }
+
+  private static class TestDataset implements CleanableDataset {
+
+    private final Path root;
+
+    private TestDataset(Path root) {
+      this.root = root;
+    }
+
+    @Override
+    public void clean() throws IOException {
+      int concurrent = CONCURRENT.incrementAndGet();
+      synchronized (MAX_CONCURRENT) {
+        MAX_CONCURRENT.set(Math.max(MAX_CONCURRENT.get(), concurrent));
+      }
+      try {
+        Thread.sleep(10);
+      } catch (InterruptedException ie) {
+        throw new IOException(ie);
+      }
+      CONCURRENT.decrementAndGet();
+      CLEANED.incrementAndGet();
+    }
+
+    @Override
+    public Path datasetRoot() {
+      return this.root;
+    }
+
+    @Override
+    public String datasetURN() {
+      return this.root.toString();
+    }
+  }
+}
@@ -31,6 +31,10 @@ public class JobHistoryDataSourceProvider extends gobblin.util.jdbc.DataSourcePr
     this.basicDataSource.setDriverClassName(properties.getProperty(ConfigurationKeys.JOB_HISTORY_STORE_JDBC_DRIVER_KEY,
         ConfigurationKeys.DEFAULT_JOB_HISTORY_STORE_JDBC_DRIVER));
     this.basicDataSource.setUrl(properties.getProperty(ConfigurationKeys.JOB_HISTORY_STORE_URL_KEY));
+    if (ConfigurationKeys.DEFAULT_JOB_HISTORY_STORE_JDBC_DRIVER.equals(this.basicDataSource.getDriverClassName())) {
+      // Have the MySQL driver send batched upserts of task executions, metrics and properties as multi-row upserts
+      this.basicDataSource.addConnectionProperty("rewriteBatchedStatements", "true");
+    }
     if (properties.containsKey(ConfigurationKeys.JOB_HISTORY_STORE_USER_KEY)
         && properties.containsKey(ConfigurationKeys.JOB_HISTORY_STORE_PASSWORD_KEY)) {
       this.basicDataSource.setUsername(properties.getProperty(ConfigurationKeys.JOB_HISTORY_STORE_USER_KEY));
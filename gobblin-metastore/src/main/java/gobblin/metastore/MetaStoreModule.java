@@ -18,6 +18,8 @@ import javax.sql.DataSource;
 import com.google.inject.AbstractModule;
 import com.google.inject.name.Names;
 
+import gobblin.configuration.ConfigurationKeys;
+
 
 /**
  * A Guice module defining the dependencies used by the metastore module.
@@ -36,6 +38,11 @@ public class MetaStoreModule extends AbstractModule {
   protected void configure() {
     bind(Properties.class).annotatedWith(Names.named("dataSourceProperties")).toInstance(this.properties);
     bind(DataSource.class).toProvider(JobHistoryDataSourceProvider.class);
-    bind(JobHistoryStore.class).to(DatabaseJobHistoryStore.class);
+    if (Boolean.valueOf(this.properties.getProperty(ConfigurationKeys.JOB_HISTORY_STORE_WRITE_BEHIND_ENABLED_KEY,
+        Boolean.toString(ConfigurationKeys.DEFAULT_JOB_HISTORY_STORE_WRITE_BEHIND_ENABLED)))) {
+      bind(JobHistoryStore.class).to(WriteBehindJobHistoryStore.class);
+    } else {
+      bind(JobHistoryStore.class).to(DatabaseJobHistoryStore.class);
+    }
   }
 }
@@ -0,0 +1,321 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.metastore;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+import com.linkedin.data.DataMap;
+
+import gobblin.configuration.ConfigurationKeys;
+import gobblin.rest.JobExecutionInfo;
+import gobblin.rest.JobExecutionQuery;
+import gobblin.rest.JobStateEnum;
+import gobblin.rest.TaskExecutionInfo;
+import gobblin.rest.TaskExecutionInfoArray;
+import gobblin.util.ExecutorsUtils;
+
+
+/**
+ * A {@link JobHistoryStore} that writes {@link JobExecutionInfo} records to another {@link JobHistoryStore}
+ * asynchronously, so writing job execution information never blocks job execution on the database.
+ *
+ * <p>
+ *   Records are queued per job and written by a single background thread. A record replaces the pending record of
+ *   the same job, if any, since each record carries the complete job execution information. Task executions that
+ *   have not changed since they were last written successfully are left out of the records written. If
+ *   {@link ConfigurationKeys#JOB_HISTORY_STORE_WRITE_BEHIND_MAX_PENDING_JOBS_KEY} jobs are already waiting to be
+ *   written, {@link #put(JobExecutionInfo)} waits for at most
+ *   {@link ConfigurationKeys#JOB_HISTORY_STORE_WRITE_BEHIND_PUT_TIMEOUT_MILLIS_KEY} and then drops the record.
+ *   {@link #close()} waits for the pending records to be written, so a store is meant to be shared by the jobs run
+ *   in a process and closed when the process exits, rather than closed with each job.
+ * </p>
+ */
+public class WriteBehindJobHistoryStore implements JobHistoryStore, MetricSet {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(WriteBehindJobHistoryStore.class);
+
+  static final String RECORDS_QUEUED = "gobblin.metastore.jobHistory.writeBehind.recordsQueued";
+  static final String RECORDS_COALESCED = "gobblin.metastore.jobHistory.writeBehind.recordsCoalesced";
+  static final String RECORDS_DROPPED = "gobblin.metastore.jobHistory.writeBehind.recordsDropped";
+  static final String RECORDS_FAILED = "gobblin.metastore.jobHistory.writeBehind.recordsFailed";
+  static final String UNCHANGED_TASKS_SKIPPED = "gobblin.metastore.jobHistory.writeBehind.unchangedTasksSkipped";
+  static final String PUT_BLOCKED_MILLIS = "gobblin.metastore.jobHistory.writeBehind.putBlockedMillis";
+  static final String WRITE_MILLIS = "gobblin.metastore.jobHistory.writeBehind.writeMillis";
+
+  private final JobHistoryStore delegate;
+  private final int maxPendingJobs;
+  private final long putTimeoutMillis;
+  private final long closeTimeoutSeconds;
+
+  // Records waiting to be written, keyed by job ID in the order the jobs were first queued. Guarded by itself.
+  private final Map<String, JobExecutionInfo> pendingRecords = Maps.newLinkedHashMap();
+  // Whether the background thread is writing a record taken from pendingRecords. Guarded by pendingRecords.
+  private boolean writeInProgress = false;
+  private boolean closed = false;
+
+  // Task executions last written successfully, keyed by job ID and task ID. Only accessed by the background thread.
+  private final Map<String, Map<String, TaskExecutionInfo>> writtenTaskExecutions = Maps.newHashMap();
+
+  private final ExecutorService writerExecutor;
+
+  private final Counter recordsQueued = new Counter();
+  private final Counter recordsCoalesced = new Counter();
+  private final Counter recordsDropped = new Counter();
+  private final Counter recordsFailed = new Counter();
+  private final Counter unchangedTasksSkipped = new Counter();
+  private final Counter putBlockedMillis = new Counter();
+  private final Counter writeMillis = new Counter();
+
+  @Inject
+  public WriteBehindJobHistoryStore(DatabaseJobHistoryStore delegate,
+      @Named("dataSourceProperties") Properties properties) {
+    this(delegate,
+        Integer.parseInt(properties.getProperty(ConfigurationKeys.JOB_HISTORY_STORE_WRITE_BEHIND_MAX_PENDING_JOBS_KEY,
+            Integer.toString(ConfigurationKeys.DEFAULT_JOB_HISTORY_STORE_WRITE_BEHIND_MAX_PENDING_JOBS))),
+        Long.parseLong(properties.getProperty(ConfigurationKeys.JOB_HISTORY_STORE_WRITE_BEHIND_PUT_TIMEOUT_MILLIS_KEY,
+            Long.toString(ConfigurationKeys.DEFAULT_JOB_HISTORY_STORE_WRITE_BEHIND_PUT_TIMEOUT_MILLIS))),
+        Long.parseLong(
+            properties.getProperty(ConfigurationKeys.JOB_HISTORY_STORE_WRITE_BEHIND_CLOSE_TIMEOUT_SECONDS_KEY,
+                Long.toString(ConfigurationKeys.DEFAULT_JOB_HISTORY_STORE_WRITE_BEHIND_CLOSE_TIMEOUT_SECONDS))));
+  }
+
+  public WriteBehindJobHistoryStore(JobHistoryStore delegate, int maxPendingJobs, long putTimeoutMillis,
+      long closeTimeoutSeconds) {
+    this.delegate = delegate;
+    this.maxPendingJobs = maxPendingJobs;
+    this.putTimeoutMillis = putTimeoutMillis;
+    this.closeTimeoutSeconds = closeTimeoutSeconds;
+    this.writerExecutor = Executors.newSingleThreadExecutor(ExecutorsUtils.newDaemonThreadFactory(
+        Optional.of(LOGGER), Optional.of("JobHistoryStoreWriter")));
+    this.writerExecutor.submit(new Runnable() {
+      @Override
+      public void run() {
+        writePendingRecords();
+      }
+    });
+  }
+
+  /**
+   * Queue a {@link JobExecutionInfo} record to be written asynchronously.
+   *
+   * @param jobExecutionInfo a {@link JobExecutionInfo} record
+   * @throws IOException if the store has been closed
+   */
+  @Override
+  public void put(JobExecutionInfo jobExecutionInfo) throws IOException {
+    String jobId = jobExecutionInfo.getJobId();
+    synchronized (this.pendingRecords) {
+      if (this.closed) {
+        throw new IOException("The job history store has been closed");
+      }
+
+      if (this.pendingRecords.containsKey(jobId)) {
+        this.pendingRecords.put(jobId, jobExecutionInfo);
+        this.recordsCoalesced.inc();
+        return;
+      }
+
+      if (this.pendingRecords.size() >= this.maxPendingJobs) {
+        long blockedSince = System.currentTimeMillis();
+        long deadline = blockedSince + this.putTimeoutMillis;
+        try {
+          long remainingMillis;
+          while (this.pendingRecords.size() >= this.maxPendingJobs
+              && (remainingMillis = deadline - System.currentTimeMillis()) > 0) {
+            this.pendingRecords.wait(remainingMillis);
+          }
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+        } finally {
+          this.putBlockedMillis.inc(System.currentTimeMillis() - blockedSince);
+        }
+
+        if (this.pendingRecords.size() >= this.maxPendingJobs) {
+          LOGGER.warn(String.format("Dropped job execution information of job %s as %d jobs are waiting to be written",
+              jobId, this.pendingRecords.size()));
+          this.recordsDropped.inc();
+          return;
+        }
+      }
+
+      this.pendingRecords.put(jobId, jobExecutionInfo);
+      this.recordsQueued.inc();
+      this.pendingRecords.notifyAll();
+    }
+  }
+
+  @Override
+  public List<JobExecutionInfo> get(JobExecutionQuery query) throws IOException {
+    return this.delegate.get(query);
+  }
+
+  /**
+   * Wait for the pending records to be written for at most
+   * {@link ConfigurationKeys#JOB_HISTORY_STORE_WRITE_BEHIND_CLOSE_TIMEOUT_SECONDS_KEY} and close the underlying
+   * {@link JobHistoryStore}.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      synchronized (this.pendingRecords) {
+        this.closed = true;
+        this.pendingRecords.notifyAll();
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(this.closeTimeoutSeconds);
+        long remainingMillis;
+        while ((!this.pendingRecords.isEmpty() || this.writeInProgress)
+            && (remainingMillis = deadline - System.currentTimeMillis()) > 0) {
+          this.pendingRecords.wait(remainingMillis);
+        }
+        if (!this.pendingRecords.isEmpty()) {
+          LOGGER.warn(String.format("Job execution information of %d jobs was not written before closing",
+              this.pendingRecords.size()));
+          this.recordsDropped.inc(this.pendingRecords.size());
+          this.pendingRecords.clear();
+        }
+      }
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+    } finally {
+      try {
+        ExecutorsUtils.shutdownExecutorService(this.writerExecutor, Optional.of(LOGGER), 1, TimeUnit.SECONDS);
+      } finally {
+        this.delegate.close();
+      }
+    }
+  }
+
+  /**
+   * Get the metrics of this store as {@link Gauge}s of cumulative counts, keyed by metric name.
+   */
+  @Override
+  public Map<String, Metric> getMetrics() {
+    return ImmutableMap.<String, Metric>builder()
+        .put(RECORDS_QUEUED, asGauge(this.recordsQueued))
+        .put(RECORDS_COALESCED, asGauge(this.recordsCoalesced))
+        .put(RECORDS_DROPPED, asGauge(this.recordsDropped))
+        .put(RECORDS_FAILED, asGauge(this.recordsFailed))
+        .put(UNCHANGED_TASKS_SKIPPED, asGauge(this.unchangedTasksSkipped))
+        .put(PUT_BLOCKED_MILLIS, asGauge(this.putBlockedMillis))
+        .put(WRITE_MILLIS, asGauge(this.writeMillis))
+        .build();
+  }
+
+  private static Gauge<Long> asGauge(final Counter counter) {
+    return new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return counter.getCount();
+      }
+    };
+  }
+
+  private void writePendingRecords() {
+    while (true) {
+      JobExecutionInfo jobExecutionInfo;
+      synchronized (this.pendingRecords) {
+        this.writeInProgress = false;
+        this.pendingRecords.notifyAll();
+        try {
+          while (this.pendingRecords.isEmpty()) {
+            if (this.closed) {
+              return;
+            }
+            this.pendingRecords.wait();
+          }
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+
+        Iterator<JobExecutionInfo> iterator = this.pendingRecords.values().iterator();
+        jobExecutionInfo = iterator.next();
+        iterator.remove();
+        this.writeInProgress = true;
+        this.pendingRecords.notifyAll();
+      }
+
+      write(jobExecutionInfo);
+    }
+  }
+
+  @VisibleForTesting
+  void write(JobExecutionInfo jobExecutionInfo) {
+    String jobId = jobExecutionInfo.getJobId();
+    Map<String, TaskExecutionInfo> writtenTaskExecutions = this.writtenTaskExecutions.get(jobId);
+    if (writtenTaskExecutions == null) {
+      writtenTaskExecutions = Maps.newHashMap();
+      this.writtenTaskExecutions.put(jobId, writtenTaskExecutions);
+    }
+
+    // Only write the task executions that changed since they were last written
+    List<TaskExecutionInfo> changedTaskExecutions = Lists.newArrayList();
+    JobExecutionInfo record = jobExecutionInfo;
+    if (jobExecutionInfo.hasTaskExecutions()) {
+      for (TaskExecutionInfo taskExecution : jobExecutionInfo.getTaskExecutions()) {
+        if (taskExecution.equals(writtenTaskExecutions.get(taskExecution.getTaskId()))) {
+          this.unchangedTasksSkipped.inc();
+          continue;
+        }
+        changedTaskExecutions.add(taskExecution);
+      }
+      if (changedTaskExecutions.size() < jobExecutionInfo.getTaskExecutions().size()) {
+        // Write a copy of the record with the changed task executions only, leaving the given record as it is
+        record = new JobExecutionInfo(new DataMap(jobExecutionInfo.data()));
+        record.setTaskExecutions(new TaskExecutionInfoArray(changedTaskExecutions));
+      }
+    }
+
+    long writeStartTime = System.currentTimeMillis();
+    try {
+      this.delegate.put(record);
+      for (TaskExecutionInfo taskExecution : changedTaskExecutions) {
+        writtenTaskExecutions.put(taskExecution.getTaskId(), taskExecution);
+      }
+    } catch (IOException | RuntimeException e) {
+      // Task executions that failed to be written are written with the next record of the job
+      LOGGER.error("Failed to write job execution information of job " + jobId, e);
+      this.recordsFailed.inc();
+    } finally {
+      this.writeMillis.inc(System.currentTimeMillis() - writeStartTime);
+    }
+
+    if (jobExecutionInfo.hasState() && isFinal(jobExecutionInfo.getState())) {
+      this.writtenTaskExecutions.remove(jobId);
+    }
+  }
+
+  private static boolean isFinal(JobStateEnum state) {
+    return state == JobStateEnum.COMMITTED || state == JobStateEnum.FAILED || state == JobStateEnum.CANCELLED;
+  }
+}
@@ -12,6 +12,7 @@
 
 package gobblin.metastore.database;
 
+import com.google.common.base.Joiner;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
@@ -31,6 +32,7 @@ import gobblin.rest.LauncherTypeEnum;
 import gobblin.rest.Metric;
 import gobblin.rest.MetricArray;
 import gobblin.rest.MetricTypeEnum;
+import gobblin.rest.QueryIdTypeEnum;
 import gobblin.rest.QueryListType;
 import gobblin.rest.Table;
 import gobblin.rest.TableTypeEnum;
@@ -125,6 +127,11 @@ public class DatabaseJobHistoryStoreV101 implements VersionedDatabaseJobHistoryS
   private static final String LIST_RECENT_JOB_EXECUTION_QUERY_TEMPLATE =
       "SELECT job_id FROM gobblin_job_executions";
 
+  // Selects the job executions ordered after the cursor job execution by the given timestamp column and job ID
+  private static final String CURSOR_FILTER_TEMPLATE =
+      "(%1$s<(SELECT %1$s FROM gobblin_job_executions WHERE job_id=?) OR "
+          + "(%1$s=(SELECT %1$s FROM gobblin_job_executions WHERE job_id=?) AND job_id<?))";
+
   private static final String JOB_NAME_QUERY_BY_TABLE_STATEMENT_TEMPLATE =
       "SELECT j.job_name FROM gobblin_job_executions j, gobblin_task_executions t "
           + "WHERE j.job_id=t.job_id AND %s GROUP BY j.job_name";
@@ -470,6 +477,7 @@ public class DatabaseJobHistoryStoreV101 implements VersionedDatabaseJobHistoryS
   private Map<String, JobExecutionInfo> getJobExecutionInfos(Connection connection, List<String> jobIds) throws SQLException {
     Map<String, JobExecutionInfo> jobExecutionInfos = Maps.newLinkedHashMap();
     if (jobIds != null && jobIds.size() > 0) {
+      Map<String, JobExecutionInfo> jobExecutionInfosById = Maps.newHashMap();
       String template = String.format(JOB_EXECUTION_QUERY_BY_JOB_ID_STATEMENT_TEMPLATE, getInPredicate(jobIds.size()));
       int index = 1;
       try (PreparedStatement jobExecutionQueryStatement = connection.prepareStatement(template)) {
@@ -479,10 +487,16 @@ public class DatabaseJobHistoryStoreV101 implements VersionedDatabaseJobHistoryS
         try (ResultSet jobRs = jobExecutionQueryStatement.executeQuery()) {
           while (jobRs.next()) {
             JobExecutionInfo jobExecutionInfo = resultSetToJobExecutionInfo(jobRs);
-            jobExecutionInfos.put(jobExecutionInfo.getJobId(), jobExecutionInfo);
+            jobExecutionInfosById.put(jobExecutionInfo.getJobId(), jobExecutionInfo);
           }
         }
       }
+      // Keep the order of the given job IDs, which is the order of a page of job executions
+      for (String jobId : jobIds) {
+        if (jobExecutionInfosById.containsKey(jobId)) {
+          jobExecutionInfos.put(jobId, jobExecutionInfosById.get(jobId));
+        }
+      }
     }
     return jobExecutionInfos;
   }
@@ -652,7 +666,7 @@ public class DatabaseJobHistoryStoreV101 implements VersionedDatabaseJobHistoryS
         String template = String.format(TASK_PROPERTY_QUERY_STATEMENT_TEMPLATE,
                 getInPredicate(taskExecutionInfos.size()));
         if (propertyKeys != null && propertyKeys.size() > 0) {
-          template += String.format("AND property_key IN (%s)", getInPredicate(propertyKeys.size()));
+          template += String.format(" AND property_key IN (%s)", getInPredicate(propertyKeys.size()));
         }
         if (tableFilter.isPresent() && !Strings.isNullOrEmpty(tableFilter.get())) {
           template += " AND t." + tableFilter.get();
@@ -695,21 +709,20 @@ public class DatabaseJobHistoryStoreV101 implements VersionedDatabaseJobHistoryS
 
     // Construct the query for job IDs by a given job name
     String jobIdByNameQuery = JOB_ID_QUERY_BY_JOB_NAME_STATEMENT_TEMPLATE;
-    if (query.hasTimeRange()) {
-      // Add time range filter if applicable
-      try {
-        String timeRangeFilter = constructTimeRangeFilter(query.getTimeRange());
-        if (!Strings.isNullOrEmpty(timeRangeFilter)) {
-          jobIdByNameQuery += " AND " + timeRangeFilter;
-        }
-      } catch (ParseException pe) {
-        LOGGER.error("Failed to parse the query time range", pe);
-        throw new SQLException(pe);
-      }
+    // Add time range filter if applicable
+    String timeRangeFilter = getTimeRangeFilter(query);
+    if (!Strings.isNullOrEmpty(timeRangeFilter)) {
+      jobIdByNameQuery += " AND " + timeRangeFilter;
+    }
+
+    // Only a query by job name is paged, not each job name of a query by table
+    boolean paged = query.getIdType() == QueryIdTypeEnum.JOB_NAME && query.hasCursor();
+    if (paged) {
+      jobIdByNameQuery += " AND " + String.format(CURSOR_FILTER_TEMPLATE, "created_ts");
     }
 
     // Add ORDER BY
-    jobIdByNameQuery += " ORDER BY created_ts DESC";
+    jobIdByNameQuery += " ORDER BY created_ts DESC, job_id DESC";
 
     // Query job IDs by the given job name
     List<String> jobIds = Lists.newArrayList();
@@ -719,6 +732,9 @@ public class DatabaseJobHistoryStoreV101 implements VersionedDatabaseJobHistoryS
         queryStatement.setMaxRows(limit);
       }
       queryStatement.setString(1, jobName);
+      if (paged) {
+        setCursorParameters(queryStatement, 2, query.getCursor());
+      }
       try (ResultSet rs = queryStatement.executeQuery()) {
         while (rs.next()) {
           jobIds.add(rs.getString(1));
@@ -755,30 +771,31 @@ public class DatabaseJobHistoryStoreV101 implements VersionedDatabaseJobHistoryS
     Preconditions.checkArgument(query.getId().isQueryListType());
 
     QueryListType queryType = query.getId().getQueryListType();
-    String listJobExecutionsQuery;
-    if (queryType == QueryListType.DISTINCT) {
-      listJobExecutionsQuery = LIST_DISTINCT_JOB_EXECUTION_QUERY_TEMPLATE;
-      if (query.hasTimeRange()) {
-        try {
-          String timeRangeFilter = constructTimeRangeFilter(query.getTimeRange());
-          if (!Strings.isNullOrEmpty(timeRangeFilter)) {
-            listJobExecutionsQuery += " AND " + timeRangeFilter;
-          }
-        } catch (ParseException pe) {
-          LOGGER.error("Failed to parse the query time range", pe);
-          throw new SQLException(pe);
-        }
-      }
-    } else {
-      listJobExecutionsQuery = LIST_RECENT_JOB_EXECUTION_QUERY_TEMPLATE;
+    String listJobExecutionsQuery = queryType == QueryListType.DISTINCT ? LIST_DISTINCT_JOB_EXECUTION_QUERY_TEMPLATE
+        : LIST_RECENT_JOB_EXECUTION_QUERY_TEMPLATE;
+
+    List<String> filters = Lists.newArrayList();
+    String timeRangeFilter = getTimeRangeFilter(query);
+    if (!Strings.isNullOrEmpty(timeRangeFilter)) {
+      filters.add(timeRangeFilter);
+    }
+    if (query.hasCursor()) {
+      filters.add(String.format(CURSOR_FILTER_TEMPLATE, "last_modified_ts"));
     }
-    listJobExecutionsQuery += " ORDER BY last_modified_ts DESC";
+    if (!filters.isEmpty()) {
+      listJobExecutionsQuery +=
+          (queryType == QueryListType.DISTINCT ? " AND " : " WHERE ") + Joiner.on(" AND ").join(filters);
+    }
+    listJobExecutionsQuery += " ORDER BY last_modified_ts DESC, job_id DESC";
 
     try (PreparedStatement queryStatement = connection.prepareStatement(listJobExecutionsQuery)) {
       int limit = query.getLimit();
       if (limit > 0) {
         queryStatement.setMaxRows(limit);
       }
+      if (query.hasCursor()) {
+        setCursorParameters(queryStatement, 1, query.getCursor());
+      }
 
       try (ResultSet rs = queryStatement.executeQuery()) {
         List<String> jobIds = Lists.newArrayList();
@@ -898,6 +915,26 @@ public class DatabaseJobHistoryStoreV101 implements VersionedDatabaseJobHistoryS
     return new AbstractMap.SimpleEntry<>(rs.getString("property_key"), rs.getString("property_value"));
   }
 
+  private String getTimeRangeFilter(JobExecutionQuery query) throws SQLException {
+    if (!query.hasTimeRange()) {
+      return "";
+    }
+    try {
+      return constructTimeRangeFilter(query.getTimeRange());
+    } catch (ParseException pe) {
+      LOGGER.error("Failed to parse the query time range", pe);
+      throw new SQLException(pe);
+    }
+  }
+
+  private static void setCursorParameters(PreparedStatement queryStatement, int startIndex, String cursor)
+      throws SQLException {
+    int index = startIndex;
+    queryStatement.setString(index++, cursor);
+    queryStatement.setString(index++, cursor);
+    queryStatement.setString(index, cursor);
+  }
+
   private String constructTimeRangeFilter(TimeRange timeRange)
       throws ParseException {
     StringBuilder sb = new StringBuilder();
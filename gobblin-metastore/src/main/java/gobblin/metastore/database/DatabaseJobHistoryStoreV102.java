@@ -0,0 +1,28 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.metastore.database;
+
+import gobblin.metastore.JobHistoryStore;
+
+
+/**
+ * An implementation of {@link JobHistoryStore} backed by MySQL.
+ *
+ * <p>
+ *   Version 1.0.2 of the schema only adds the indexes used by paged and time range queries, so the statements of
+ *   {@link DatabaseJobHistoryStoreV101} are used unchanged.
+ * </p>
+ */
+@SupportedDatabaseVersion(isDefault = false, version = "1.0.2")
+public class DatabaseJobHistoryStoreV102 extends DatabaseJobHistoryStoreV101 {
+}
@@ -0,0 +1,30 @@
+-- Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+--
+-- Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+-- this file except in compliance with the License. You may obtain a copy of the
+-- License at  http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software distributed
+-- under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+-- CONDITIONS OF ANY KIND, either express or implied.
+
+--
+-- Version: 1.0.2
+--
+-- Changes:
+--   1. Adds indexes on `gobblin_job_executions` matching the orderings and
+--      cursors of the job name and list queries, so that a page of job
+--      executions is read from the index rather than by sorting all the
+--      executions of a job.
+--   2. Adds an index on the start time of job executions for time range
+--      filters, and one on the table definition of task executions for
+--      table queries.
+--
+
+ALTER TABLE `gobblin_job_executions` ADD INDEX `ix_job_name_created_ts` (job_name, created_ts, job_id);
+ALTER TABLE `gobblin_job_executions` ADD INDEX `ix_job_name_last_modified_ts` (job_name, last_modified_ts);
+ALTER TABLE `gobblin_job_executions` ADD INDEX `ix_last_modified_ts` (last_modified_ts, job_id);
+ALTER TABLE `gobblin_job_executions` ADD INDEX `ix_start_time` (start_time);
+ALTER TABLE `gobblin_job_executions` DROP INDEX `job_name`;
+
+ALTER TABLE `gobblin_task_executions` ADD INDEX `ix_task_table` (table_namespace, table_name, table_type);
@@ -165,6 +165,10 @@ public abstract class DatabaseJobHistoryStoreTest {
         this.expectedJobExecutionInfos.get(1).getTaskExecutions().get(1).getTable());
   }
 
+  protected JobHistoryStore getJobHistoryStore() {
+    return this.jobHistoryStore;
+  }
+
   @AfterClass(alwaysRun = true)
   public void tearDown()
       throws Exception {
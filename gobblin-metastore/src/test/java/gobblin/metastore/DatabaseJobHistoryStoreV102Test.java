@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.metastore;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+
+import gobblin.rest.JobExecutionInfo;
+import gobblin.rest.JobExecutionQuery;
+import gobblin.rest.JobStateEnum;
+import gobblin.rest.QueryIdTypeEnum;
+
+
+/**
+ * Unit tests for {@link DatabaseJobHistoryStore} V1.0.2.
+ */
+@Test(groups = {"gobblin.metastore"})
+public class DatabaseJobHistoryStoreV102Test extends DatabaseJobHistoryStoreTest {
+  @Override
+  protected String getVersion() {
+    return "1.0.2";
+  }
+
+  @Test(dependsOnMethods = {"testUpdate"})
+  public void testPagedQueryByJobName()
+      throws IOException {
+    List<String> jobIds = Lists.newArrayList();
+    for (int i = 0; i < 3; i++) {
+      JobExecutionInfo jobExecutionInfo = new JobExecutionInfo();
+      jobExecutionInfo.setJobName("PagedJob");
+      jobExecutionInfo.setJobId("PagedJob_" + i);
+      jobExecutionInfo.setStartTime(System.currentTimeMillis());
+      jobExecutionInfo.setState(JobStateEnum.COMMITTED);
+      getJobHistoryStore().put(jobExecutionInfo);
+      jobIds.add(0, jobExecutionInfo.getJobId());
+    }
+
+    JobExecutionQuery query = new JobExecutionQuery();
+    query.setIdType(QueryIdTypeEnum.JOB_NAME);
+    query.setId(JobExecutionQuery.Id.create("PagedJob"));
+    query.setLimit(2);
+    query.setIncludeTaskExecutions(false);
+
+    // Executions are ordered from the most recent one, with ties broken by job ID
+    List<JobExecutionInfo> firstPage = getJobHistoryStore().get(query);
+    Assert.assertEquals(firstPage.size(), 2);
+    Assert.assertEquals(firstPage.get(0).getJobId(), jobIds.get(0));
+    Assert.assertEquals(firstPage.get(1).getJobId(), jobIds.get(1));
+
+    query.setCursor(firstPage.get(1).getJobId());
+    List<JobExecutionInfo> secondPage = getJobHistoryStore().get(query);
+    Assert.assertEquals(secondPage.size(), 1);
+    Assert.assertEquals(secondPage.get(0).getJobId(), jobIds.get(2));
+    Assert.assertFalse(secondPage.get(0).hasTaskExecutions());
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.metastore;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.google.common.collect.Lists;
+
+import gobblin.rest.JobExecutionInfo;
+import gobblin.rest.JobExecutionQuery;
+import gobblin.rest.JobStateEnum;
+import gobblin.rest.TaskExecutionInfo;
+import gobblin.rest.TaskExecutionInfoArray;
+import gobblin.rest.TaskStateEnum;
+
+
+/**
+ * Unit tests for {@link WriteBehindJobHistoryStore}.
+ */
+@Test(groups = {"gobblin.metastore"})
+public class WriteBehindJobHistoryStoreTest {
+
+  @Test
+  public void testCoalescingAndUnchangedTasks() throws Exception {
+    BlockingJobHistoryStore delegate = new BlockingJobHistoryStore();
+    WriteBehindJobHistoryStore store = new WriteBehindJobHistoryStore(delegate, 10, 0, 10);
+
+    store.put(create("job_1", JobStateEnum.RUNNING, TaskStateEnum.RUNNING, TaskStateEnum.PENDING));
+    Assert.assertTrue(delegate.writeStarted.await(10, TimeUnit.SECONDS));
+
+    // Both records are queued while the first one is being written, and only the second one is kept
+    store.put(create("job_1", JobStateEnum.RUNNING, TaskStateEnum.SUCCESSFUL, TaskStateEnum.RUNNING));
+    JobExecutionInfo committedRecord =
+        create("job_1", JobStateEnum.COMMITTED, TaskStateEnum.RUNNING, TaskStateEnum.COMMITTED);
+    store.put(committedRecord);
+    delegate.unblock.countDown();
+    store.close();
+    // The record given to the store is not changed when unchanged task executions are left out
+    Assert.assertEquals(committedRecord.getTaskExecutions().size(), 2);
+
+    Assert.assertEquals(delegate.records.size(), 2);
+    // The first task did not change since the first record was written
+    JobExecutionInfo lastRecord = delegate.records.get(1);
+    Assert.assertEquals(lastRecord.getState(), JobStateEnum.COMMITTED);
+    Assert.assertEquals(lastRecord.getTaskExecutions().size(), 1);
+    Assert.assertEquals(lastRecord.getTaskExecutions().get(0).getTaskId(), "job_1_task_1");
+    Assert.assertTrue(delegate.closed);
+
+    Map<String, Metric> metrics = store.getMetrics();
+    Assert.assertEquals(getValue(metrics, WriteBehindJobHistoryStore.RECORDS_QUEUED), 2L);
+    Assert.assertEquals(getValue(metrics, WriteBehindJobHistoryStore.RECORDS_COALESCED), 1L);
+    Assert.assertEquals(getValue(metrics, WriteBehindJobHistoryStore.UNCHANGED_TASKS_SKIPPED), 1L);
+    Assert.assertEquals(getValue(metrics, WriteBehindJobHistoryStore.RECORDS_DROPPED), 0L);
+  }
+
+  @Test
+  public void testDropWhenFull() throws Exception {
+    BlockingJobHistoryStore delegate = new BlockingJobHistoryStore();
+    WriteBehindJobHistoryStore store = new WriteBehindJobHistoryStore(delegate, 1, 10, 10);
+
+    store.put(create("job_1", JobStateEnum.RUNNING, TaskStateEnum.RUNNING));
+    Assert.assertTrue(delegate.writeStarted.await(10, TimeUnit.SECONDS));
+    store.put(create("job_2", JobStateEnum.RUNNING, TaskStateEnum.RUNNING));
+    // The queue is full, so the record is dropped after waiting for the put timeout
+    store.put(create("job_3", JobStateEnum.RUNNING, TaskStateEnum.RUNNING));
+    // Records of queued jobs are still coalesced
+    store.put(create("job_2", JobStateEnum.COMMITTED, TaskStateEnum.COMMITTED));
+    delegate.unblock.countDown();
+    store.close();
+
+    Assert.assertEquals(delegate.records.size(), 2);
+    Assert.assertEquals(delegate.records.get(0).getJobId(), "job_1");
+    Assert.assertEquals(delegate.records.get(1).getJobId(), "job_2");
+    Assert.assertEquals(delegate.records.get(1).getState(), JobStateEnum.COMMITTED);
+    Assert.assertEquals(getValue(store.getMetrics(), WriteBehindJobHistoryStore.RECORDS_DROPPED), 1L);
+  }
+
+  @Test(expectedExceptions = IOException.class)
+  public void testPutAfterClose() throws IOException {
+    WriteBehindJobHistoryStore store = new WriteBehindJobHistoryStore(new BlockingJobHistoryStore(), 1, 0, 1);
+    store.close();
+    store.put(create("job_1", JobStateEnum.RUNNING));
+  }
+
+  private static Object getValue(Map<String, Metric> metrics, String name) {
+    return ((Gauge<?>) metrics.get(name)).getValue();
+  }
+
+  private static JobExecutionInfo create(String jobId, JobStateEnum jobState, TaskStateEnum... taskStates) {
+    JobExecutionInfo jobExecutionInfo = new JobExecutionInfo();
+    jobExecutionInfo.setJobName("TestJob");
+    jobExecutionInfo.setJobId(jobId);
+    jobExecutionInfo.setState(jobState);
+
+    TaskExecutionInfoArray taskExecutionInfos = new TaskExecutionInfoArray();
+    for (int i = 0; i < taskStates.length; i++) {
+      TaskExecutionInfo taskExecutionInfo = new TaskExecutionInfo();
+      taskExecutionInfo.setJobId(jobId);
+      taskExecutionInfo.setTaskId(jobId + "_task_" + i);
+      taskExecutionInfo.setState(taskStates[i]);
+      taskExecutionInfos.add(taskExecutionInfo);
+    }
+    jobExecutionInfo.setTaskExecutions(taskExecutionInfos);
+    return jobExecutionInfo;
+  }
+
+  /**
+   * A {@link JobHistoryStore} recording the records written to it, which blocks the first write until unblocked.
+   */
+  private static class BlockingJobHistoryStore implements JobHistoryStore {
+
+    private final List<JobExecutionInfo> records = Lists.newCopyOnWriteArrayList();
+    private final CountDownLatch writeStarted = new CountDownLatch(1);
+    private final CountDownLatch unblock = new CountDownLatch(1);
+    private volatile boolean closed = false;
+
+    @Override
+    public void put(JobExecutionInfo jobExecutionInfo) throws IOException {
+      this.writeStarted.countDown();
+      try {
+        this.unblock.await();
+      } catch (InterruptedException ie) {
+        throw new IOException(ie);
+      }
+      this.records.add(jobExecutionInfo);
+    }
+
+    @Override
+    public List<JobExecutionInfo> get(JobExecutionQuery query) {
+      return Lists.newArrayList(this.records);
+    }
+
+    @Override
+    public void close() {
+      this.closed = true;
+    }
+  }
+}
@@ -21,6 +21,8 @@ import javax.inject.Named;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.google.common.collect.Maps;
 
 import com.linkedin.restli.common.ComplexResourceKey;
@@ -41,28 +43,47 @@ public class JobExecutionInfoResource extends ComplexKeyResourceTemplate<JobExec
 
   private static final Logger LOGGER = LoggerFactory.getLogger(JobExecutionInfoResource.class);
 
+  static final String QUERY_TIMER_PREFIX = MetricRegistry.name(JobExecutionInfoResource.class, "query");
+  static final String FAILED_QUERIES_METER = MetricRegistry.name(JobExecutionInfoResource.class, "failedQueries");
+  static final String RETURNED_JOB_EXECUTIONS_HISTOGRAM =
+      MetricRegistry.name(JobExecutionInfoResource.class, "returnedJobExecutions");
+
   @Inject
   @Named("jobHistoryStore")
   private JobHistoryStore jobHistoryStore;
 
+  @Inject
+  @Named("metricRegistry")
+  private MetricRegistry metricRegistry;
+
   @Override
   public JobExecutionQueryResult get(ComplexResourceKey<JobExecutionQuery, EmptyRecord> key) {
     JobExecutionQuery query = key.getKey();
 
     JobExecutionInfoArray jobExecutionInfos = new JobExecutionInfoArray();
+    Timer.Context timerContext =
+        this.metricRegistry.timer(MetricRegistry.name(QUERY_TIMER_PREFIX, query.getIdType().name())).time();
     try {
       for (JobExecutionInfo jobExecutionInfo : this.jobHistoryStore.get(query)) {
         jobExecutionInfos.add(jobExecutionInfo);
       }
     } catch (Throwable t) {
+      this.metricRegistry.meter(FAILED_QUERIES_METER).mark();
       LOGGER
           .error(String.format("Failed to execute query [id = %s, type = %s]", query.getId(), query.getIdType().name()),
               t);
       return null;
+    } finally {
+      timerContext.stop();
     }
+    this.metricRegistry.histogram(RETURNED_JOB_EXECUTIONS_HISTOGRAM).update(jobExecutionInfos.size());
 
     JobExecutionQueryResult result = new JobExecutionQueryResult();
     result.setJobExecutions(jobExecutionInfos);
+    if (isPaged(query) && query.getLimit() > 0 && jobExecutionInfos.size() >= query.getLimit()) {
+      // A full page may be followed by more job executions, which are after the last one of this page
+      result.setNextCursor(jobExecutionInfos.get(jobExecutionInfos.size() - 1).getJobId());
+    }
     ResourceContext rc = this.getContext();
     rc.setResponseHeader("Access-Control-Allow-Origin", "*");
     this.setContext(rc);
@@ -78,7 +99,7 @@ public class JobExecutionInfoResource extends ComplexKeyResourceTemplate<JobExec
     for (ComplexResourceKey<JobExecutionQuery, EmptyRecord> key : keys) {
       JobExecutionQueryResult result = get(key);
       if (result != null) {
-        results.put(key, get(key));
+        results.put(key, result);
       }
     }
     ResourceContext rc = this.getContext();
@@ -87,4 +108,11 @@ public class JobExecutionInfoResource extends ComplexKeyResourceTemplate<JobExec
 
     return results;
   }
+
+  /**
+   * Queries by job name and list queries are paged with cursors, other queries are not.
+   */
+  private static boolean isPaged(JobExecutionQuery query) {
+    return query.getIdType() == QueryIdTypeEnum.JOB_NAME || query.getIdType() == QueryIdTypeEnum.LIST_TYPE;
+  }
 }
@@ -18,6 +18,8 @@ import java.util.Properties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.JmxReporter;
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Optional;
 import com.google.common.util.concurrent.AbstractIdleService;
 import com.google.inject.Guice;
@@ -56,7 +58,9 @@ public class JobExecutionInfoServer extends AbstractIdleService {
   private final URI serverAdvertisedUri;
   private final int port;
   private final Properties properties;
+  private final MetricRegistry metricRegistry = new MetricRegistry();
   private volatile Optional<HttpServer> httpServer;
+  private volatile Optional<JmxReporter> jmxReporter = Optional.absent();
 
   public JobExecutionInfoServer(Properties properties) {
     this.properties = properties;
@@ -80,6 +84,7 @@ public class JobExecutionInfoServer extends AbstractIdleService {
     JobHistoryStore jobHistoryStore = injector.getInstance(JobHistoryStore.class);
     SimpleBeanProvider beanProvider = new SimpleBeanProvider();
     beanProvider.add("jobHistoryStore", jobHistoryStore);
+    beanProvider.add("metricRegistry", this.metricRegistry);
     // Use InjectMockResourceFactory to keep this Spring free
     ResourceFactory factory = new InjectMockResourceFactory(beanProvider);
 
@@ -92,6 +97,10 @@ public class JobExecutionInfoServer extends AbstractIdleService {
     this.httpServer = Optional.of(new HttpNettyServerFactory(filterChain).createServer(port, dispatcher));
     LOGGER.info("Starting the job execution information server");
     this.httpServer.get().start();
+
+    // Report query latencies and failures of the server over JMX
+    this.jmxReporter = Optional.of(JmxReporter.forRegistry(this.metricRegistry).build());
+    this.jmxReporter.get().start();
   }
 
   @Override
@@ -101,6 +110,16 @@ public class JobExecutionInfoServer extends AbstractIdleService {
       LOGGER.info("Stopping the job execution information server");
       this.httpServer.get().stop();
     }
+    if (this.jmxReporter.isPresent()) {
+      this.jmxReporter.get().stop();
+    }
+  }
+
+  /**
+   * Get the {@link MetricRegistry} with the query latency and failure metrics of the server.
+   */
+  public MetricRegistry getMetricRegistry() {
+    return this.metricRegistry;
   }
 
   public URI getAdvertisedServerUri() {
@@ -23,6 +23,7 @@ import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.inject.Guice;
@@ -93,6 +94,27 @@ public class JobExecutionInfoServerTest {
     Assert.assertEquals(jobExecutionInfos.size(), 1);
     JobExecutionInfo actual = jobExecutionInfos.get(0);
     assertJobExecution(actual, this.expected1);
+    // Queries by job ID are not paged
+    Assert.assertFalse(result.hasNextCursor());
+    Assert.assertTrue(this.server.getMetricRegistry().getTimers().get(
+        MetricRegistry.name(JobExecutionInfoResource.QUERY_TIMER_PREFIX, QueryIdTypeEnum.JOB_ID.name())).getCount() > 0);
+  }
+
+  @Test
+  public void testPagedGet() throws Exception {
+    JobExecutionQuery queryByJobName = new JobExecutionQuery();
+    queryByJobName.setIdType(QueryIdTypeEnum.JOB_NAME);
+    queryByJobName.setId(JobExecutionQuery.Id.create(this.expected1.getJobName()));
+    queryByJobName.setLimit(1);
+
+    JobExecutionQueryResult result = this.client.get(queryByJobName);
+    Assert.assertEquals(result.getJobExecutions().size(), 1);
+    Assert.assertEquals(result.getNextCursor(), this.expected1.getJobId());
+
+    queryByJobName.setCursor(result.getNextCursor());
+    result = this.client.get(queryByJobName);
+    Assert.assertTrue(result.getJobExecutions().isEmpty());
+    Assert.assertFalse(result.hasNextCursor());
   }
 
   @Test
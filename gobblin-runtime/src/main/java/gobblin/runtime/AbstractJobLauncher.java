@@ -408,8 +408,12 @@ public abstract class AbstractJobLauncher implements JobLauncher {
     try {
       this.jobContext.getSource().shutdown(this.jobContext.getJobState());
     } finally {
-      if (GobblinMetrics.isEnabled(this.jobProps)) {
-        GobblinMetricsRegistry.getInstance().remove(this.jobContext.getJobId());
+      try {
+        this.jobContext.closeJobHistoryStore();
+      } finally {
+        if (GobblinMetrics.isEnabled(this.jobProps)) {
+          GobblinMetricsRegistry.getInstance().remove(this.jobContext.getJobId());
+        }
       }
     }
   }
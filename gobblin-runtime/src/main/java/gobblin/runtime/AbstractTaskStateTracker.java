@@ -40,12 +40,26 @@ public abstract class AbstractTaskStateTracker extends AbstractIdleService imple
   // This is used to schedule and run task metrics updaters
   private final ScheduledThreadPoolExecutor taskMetricsUpdaterExecutor;
 
+  // Whether the executor is shut down with this tracker, which is not the case if it is shared with other trackers
+  private final boolean ownsTaskMetricsUpdaterExecutor;
+
   private final Logger logger;
 
   public AbstractTaskStateTracker(int coreThreadPoolSize, Logger logger) {
     Preconditions.checkArgument(coreThreadPoolSize > 0, "Thread pool size should be positive");
     this.taskMetricsUpdaterExecutor = new ScheduledThreadPoolExecutor(coreThreadPoolSize,
         ExecutorsUtils.newThreadFactory(Optional.of(logger), Optional.of("TaskStateTracker-%d")));
+    this.ownsTaskMetricsUpdaterExecutor = true;
+    this.logger = logger;
+  }
+
+  /**
+   * Constructor for a tracker that schedules task metrics updaters on an executor shared with other trackers.
+   * The executor is not shut down with the tracker.
+   */
+  public AbstractTaskStateTracker(ScheduledThreadPoolExecutor taskMetricsUpdaterExecutor, Logger logger) {
+    this.taskMetricsUpdaterExecutor = Preconditions.checkNotNull(taskMetricsUpdaterExecutor);
+    this.ownsTaskMetricsUpdaterExecutor = false;
     this.logger = logger;
   }
 
@@ -67,7 +81,9 @@ public abstract class AbstractTaskStateTracker extends AbstractIdleService imple
   @Override
   protected void shutDown() throws Exception {
     this.logger.info("Stopping the task state tracker");
-    ExecutorsUtils.shutdownExecutorService(this.taskMetricsUpdaterExecutor, Optional.of(this.logger));
+    if (this.ownsTaskMetricsUpdaterExecutor) {
+      ExecutorsUtils.shutdownExecutorService(this.taskMetricsUpdaterExecutor, Optional.of(this.logger));
+    }
   }
 
   /**
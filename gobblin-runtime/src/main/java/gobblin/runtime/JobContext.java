@@ -30,6 +30,9 @@ import org.apache.hadoop.fs.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
@@ -50,6 +53,7 @@ import gobblin.instrumented.Instrumented;
 import gobblin.metastore.JobHistoryStore;
 import gobblin.metastore.MetaStoreModule;
 import gobblin.metrics.GobblinMetrics;
+import gobblin.metrics.MetricContext;
 import gobblin.publisher.DataPublisher;
 import gobblin.runtime.JobState.DatasetState;
 import gobblin.runtime.commit.FsCommitSequenceStore;
@@ -90,6 +94,11 @@ public class JobContext {
 
   // Store for runtime job execution information
   private final Optional<JobHistoryStore> jobHistoryStoreOptional;
+  private final boolean jobHistoryStoreShared;
+
+  // Write-behind job history stores shared by the jobs run in this process, keyed by database URL and user, so
+  // records of concurrent jobs are coalesced and written by one thread. They are closed when the process exits.
+  private static final Map<String, JobHistoryStore> SHARED_JOB_HISTORY_STORES = Maps.newHashMap();
 
   // Should commits be done in parallel
   private final boolean parallelizeCommit;
@@ -128,6 +137,7 @@ public class JobContext {
 
     this.datasetStateStore = createStateStore(jobProps, conf);
     this.jobHistoryStoreOptional = createJobHistoryStore(jobProps);
+    this.jobHistoryStoreShared = isJobHistoryStoreShared(jobProps);
 
     State jobPropsState = new State();
     jobPropsState.addAll(jobProps);
@@ -139,6 +149,7 @@ public class JobContext {
     if (GobblinMetrics.isEnabled(jobProps)) {
       this.jobMetricsOptional = Optional.of(JobMetrics.get(this.jobState));
       this.jobState.setProp(Instrumented.METRIC_CONTEXT_NAME_KEY, this.jobMetricsOptional.get().getName());
+      registerJobHistoryStoreMetrics(this.jobMetricsOptional.get().getMetricContext());
     } else {
       this.jobMetricsOptional = Optional.absent();
     }
@@ -174,6 +185,9 @@ public class JobContext {
     boolean jobHistoryStoreEnabled = Boolean
         .valueOf(jobProps.getProperty(ConfigurationKeys.JOB_HISTORY_STORE_ENABLED_KEY, Boolean.FALSE.toString()));
     if (jobHistoryStoreEnabled) {
+      if (isJobHistoryStoreShared(jobProps)) {
+        return Optional.of(getSharedJobHistoryStore(jobProps));
+      }
       Injector injector = Guice.createInjector(new MetaStoreModule(jobProps));
       return Optional.of(injector.getInstance(JobHistoryStore.class));
     } else {
@@ -181,6 +195,49 @@ public class JobContext {
     }
   }
 
+  private static boolean isJobHistoryStoreShared(Properties jobProps) {
+    return Boolean.valueOf(jobProps.getProperty(ConfigurationKeys.JOB_HISTORY_STORE_WRITE_BEHIND_ENABLED_KEY,
+        Boolean.toString(ConfigurationKeys.DEFAULT_JOB_HISTORY_STORE_WRITE_BEHIND_ENABLED)));
+  }
+
+  private static synchronized JobHistoryStore getSharedJobHistoryStore(Properties jobProps) {
+    String key = jobProps.getProperty(ConfigurationKeys.JOB_HISTORY_STORE_URL_KEY) + " as "
+        + jobProps.getProperty(ConfigurationKeys.JOB_HISTORY_STORE_USER_KEY);
+    JobHistoryStore jobHistoryStore = SHARED_JOB_HISTORY_STORES.get(key);
+    if (jobHistoryStore == null) {
+      final JobHistoryStore newJobHistoryStore =
+          Guice.createInjector(new MetaStoreModule(jobProps)).getInstance(JobHistoryStore.class);
+      Runtime.getRuntime().addShutdownHook(new Thread() {
+        @Override
+        public void run() {
+          try {
+            // Waits for the pending job execution information to be written
+            newJobHistoryStore.close();
+          } catch (IOException ioe) {
+            LOG.error("Failed to close the job history store: " + ioe, ioe);
+          }
+        }
+      });
+      SHARED_JOB_HISTORY_STORES.put(key, newJobHistoryStore);
+      jobHistoryStore = newJobHistoryStore;
+    }
+    return jobHistoryStore;
+  }
+
+  /**
+   * Report the metrics of the job history store, if it has any, through the given {@link MetricContext}.
+   */
+  private void registerJobHistoryStoreMetrics(MetricContext metricContext) {
+    if (this.jobHistoryStoreOptional.isPresent() && this.jobHistoryStoreOptional.get() instanceof MetricSet) {
+      for (Map.Entry<String, Metric> metric : ((MetricSet) this.jobHistoryStoreOptional.get()).getMetrics()
+          .entrySet()) {
+        if (metric.getValue() instanceof Gauge) {
+          metricContext.register(metricContext.newContextAwareGauge(metric.getKey(), (Gauge<?>) metric.getValue()));
+        }
+      }
+    }
+  }
+
   protected Optional<CommitSequenceStore> createCommitSequenceStore() throws IOException {
 
     if (this.semantics != DeliverySemantics.EXACTLY_ONCE) {
@@ -344,6 +401,20 @@ public class JobContext {
     }
   }
 
+  /**
+   * Close the job history store of the job. A job history store shared with other jobs is left open, so the job does
+   * not wait for the job execution information written asynchronously.
+   */
+  void closeJobHistoryStore() {
+    if (this.jobHistoryStoreOptional.isPresent() && !this.jobHistoryStoreShared) {
+      try {
+        this.jobHistoryStoreOptional.get().close();
+      } catch (IOException ioe) {
+        this.logger.error("Failed to close the job history store: " + ioe, ioe);
+      }
+    }
+  }
+
   @Subscribe
   public void handleNewTaskCompletionEvent(NewTaskCompletionEvent newOutputTaskStateEvent) {
     LOG.info("{} more tasks of job {} have completed", newOutputTaskStateEvent.getTaskStates().size(), this.jobId);
@@ -13,6 +13,7 @@
 package gobblin.runtime;
 
 import java.util.Properties;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import javax.annotation.Nonnull;
 
 import com.google.common.base.Enums;
@@ -52,6 +53,28 @@ public class JobLauncherFactory {
    * @return newly created {@link JobLauncher}
    */
   public static @Nonnull JobLauncher newJobLauncher(Properties sysProps, Properties jobProps) throws Exception {
+    return newJobLauncher(sysProps, jobProps, Optional.<TaskExecutor>absent(),
+        Optional.<ScheduledThreadPoolExecutor>absent());
+  }
+
+  /**
+   * Create a new {@link JobLauncher}.
+   *
+   * <p>
+   *   This method does what {@link #newJobLauncher(Properties, Properties)} does, and additionally a
+   *   {@link LocalJobLauncher} runs the tasks of the job on the given running {@link TaskExecutor} and schedules
+   *   task metrics updaters on the given executor, if present, instead of creating them for the job.
+   * </p>
+   *
+   * @param sysProps system configuration properties
+   * @param jobProps job configuration properties
+   * @param sharedTaskExecutor an optional {@link TaskExecutor} shared by local jobs
+   * @param sharedTaskMetricsUpdaterExecutor an optional executor for task metrics updaters shared by local jobs
+   * @return newly created {@link JobLauncher}
+   */
+  public static @Nonnull JobLauncher newJobLauncher(Properties sysProps, Properties jobProps,
+      Optional<TaskExecutor> sharedTaskExecutor, Optional<ScheduledThreadPoolExecutor> sharedTaskMetricsUpdaterExecutor)
+      throws Exception {
 
     String launcherTypeValue =
         sysProps.getProperty(ConfigurationKeys.JOB_LAUNCHER_TYPE_KEY, JobLauncherType.LOCAL.name());
@@ -60,6 +83,10 @@ public class JobLauncherFactory {
     if (launcherType.isPresent()) {
       switch (launcherType.get()) {
         case LOCAL:
+          if (sharedTaskExecutor.isPresent() && sharedTaskMetricsUpdaterExecutor.isPresent()) {
+            return new LocalJobLauncher(JobConfigurationUtils.combineSysAndJobProperties(sysProps, jobProps),
+                sharedTaskExecutor.get(), sharedTaskMetricsUpdaterExecutor.get());
+          }
           return new LocalJobLauncher(JobConfigurationUtils.combineSysAndJobProperties(sysProps, jobProps));
         case MAPREDUCE:
           return new MRJobLauncher(JobConfigurationUtils.combineSysAndJobProperties(sysProps, jobProps));
@@ -12,10 +12,16 @@
 
 package gobblin.runtime;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -27,6 +33,11 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
 import com.google.common.util.concurrent.AbstractIdleService;
 
 import gobblin.configuration.ConfigurationKeys;
@@ -37,6 +48,14 @@ import gobblin.util.ExecutorsUtils;
 /**
  * A class for executing {@link Task}s and retrying failed ones as well as for executing {@link Fork}s.
  *
+ * <p>
+ *   A {@link TaskExecutor} can be shared by concurrent runs of different jobs. If
+ *   {@link ConfigurationKeys#TASK_EXECUTOR_MAX_CONCURRENT_TASKS_PER_JOB_KEY} is set, at most that many tasks of a job
+ *   run at the same time, and a free thread runs a waiting task of the job with the fewest running tasks, so that a
+ *   job with many tasks does not hold back the jobs submitted after it. Otherwise tasks are run in the order they
+ *   are submitted. The tasks of a job run this way can be cancelled with {@link #cancelTasks(String)}.
+ * </p>
+ *
  * @author Yinan Li
  */
 public class TaskExecutor extends AbstractIdleService {
@@ -55,12 +74,34 @@ public class TaskExecutor extends AbstractIdleService {
   // Task retry interval
   private final long retryIntervalInSeconds;
 
+  private final int taskExecutorThreadPoolSize;
+
+  private final int coreRetryThreadPoolSize;
+
+  // Maximum number of tasks of a job running at the same time, or 0 if tasks are run in submission order
+  private final int maxConcurrentTasksPerJob;
+
+  // Tasks waiting for a thread by job ID, with the job whose task should run next first
+  private final Map<String, Deque<FutureTask<?>>> waitingTasks = Maps.newLinkedHashMap();
+
+  // Futures of running tasks by job ID
+  private final SetMultimap<String, Future<?>> runningTasks = HashMultimap.create();
+
+  // Futures of scheduled task retries by job ID
+  private final SetMultimap<String, Future<?>> retryingTasks = HashMultimap.create();
+
   /**
    * Constructor used internally.
    */
-  private TaskExecutor(int taskExecutorThreadPoolSize, int coreRetryThreadPoolSize, long retryIntervalInSeconds) {
+  private TaskExecutor(int taskExecutorThreadPoolSize, int coreRetryThreadPoolSize, long retryIntervalInSeconds,
+      int maxConcurrentTasksPerJob) {
     Preconditions.checkArgument(taskExecutorThreadPoolSize > 0, "Task executor thread pool size should be positive");
     Preconditions.checkArgument(retryIntervalInSeconds > 0, "Task retry interval should be positive");
+    Preconditions.checkArgument(maxConcurrentTasksPerJob >= 0,
+        "Maximum number of concurrent tasks per job should not be negative");
+    this.taskExecutorThreadPoolSize = taskExecutorThreadPoolSize;
+    this.coreRetryThreadPoolSize = coreRetryThreadPoolSize;
+    this.maxConcurrentTasksPerJob = maxConcurrentTasksPerJob;
 
     // Currently a fixed-size thread pool is used to execute tasks. We probably need to revisit this later.
     this.taskExecutor = Executors.newFixedThreadPool(
@@ -98,7 +139,9 @@ public class TaskExecutor extends AbstractIdleService {
         Integer.parseInt(properties.getProperty(ConfigurationKeys.TASK_RETRY_THREAD_POOL_CORE_SIZE_KEY,
             Integer.toString(ConfigurationKeys.DEFAULT_TASK_RETRY_THREAD_POOL_CORE_SIZE))),
         Long.parseLong(properties.getProperty(ConfigurationKeys.TASK_RETRY_INTERVAL_IN_SEC_KEY,
-            Long.toString(ConfigurationKeys.DEFAULT_TASK_RETRY_INTERVAL_IN_SEC))));
+            Long.toString(ConfigurationKeys.DEFAULT_TASK_RETRY_INTERVAL_IN_SEC))),
+        Integer.parseInt(properties.getProperty(ConfigurationKeys.TASK_EXECUTOR_MAX_CONCURRENT_TASKS_PER_JOB_KEY,
+            Integer.toString(ConfigurationKeys.DEFAULT_TASK_EXECUTOR_MAX_CONCURRENT_TASKS_PER_JOB))));
   }
 
   /**
@@ -110,7 +153,9 @@ public class TaskExecutor extends AbstractIdleService {
         conf.getInt(ConfigurationKeys.TASK_RETRY_THREAD_POOL_CORE_SIZE_KEY,
             ConfigurationKeys.DEFAULT_TASK_RETRY_THREAD_POOL_CORE_SIZE),
         conf.getLong(ConfigurationKeys.TASK_RETRY_INTERVAL_IN_SEC_KEY,
-            ConfigurationKeys.DEFAULT_TASK_RETRY_INTERVAL_IN_SEC));
+            ConfigurationKeys.DEFAULT_TASK_RETRY_INTERVAL_IN_SEC),
+        conf.getInt(ConfigurationKeys.TASK_EXECUTOR_MAX_CONCURRENT_TASKS_PER_JOB_KEY,
+            ConfigurationKeys.DEFAULT_TASK_EXECUTOR_MAX_CONCURRENT_TASKS_PER_JOB));
   }
 
   @Override
@@ -150,7 +195,11 @@ public class TaskExecutor extends AbstractIdleService {
    */
   public void execute(Task task) {
     LOG.info(String.format("Executing task %s", task.getTaskId()));
-    this.taskExecutor.execute(task);
+    if (this.maxConcurrentTasksPerJob > 0) {
+      addWaitingTask(task.getJobId(), new FutureTask<>(task, null));
+    } else {
+      this.taskExecutor.execute(task);
+    }
   }
 
   /**
@@ -161,6 +210,11 @@ public class TaskExecutor extends AbstractIdleService {
    */
   public Future<?> submit(Task task) {
     LOG.info(String.format("Submitting task %s", task.getTaskId()));
+    if (this.maxConcurrentTasksPerJob > 0) {
+      FutureTask<?> future = new FutureTask<>(task, null);
+      addWaitingTask(task.getJobId(), future);
+      return future;
+    }
     return this.taskExecutor.submit(task);
   }
 
@@ -201,8 +255,170 @@ public class TaskExecutor extends AbstractIdleService {
     // Task retry interval increases linearly with number of retries
     long interval = task.getRetryCount() * this.retryIntervalInSeconds;
     // Schedule the retry of the failed task
-    this.taskRetryExecutor.schedule(task, interval, TimeUnit.SECONDS);
+    if (this.maxConcurrentTasksPerJob > 0) {
+      scheduleRetry(task, interval);
+    } else {
+      this.taskRetryExecutor.schedule(task, interval, TimeUnit.SECONDS);
+    }
     LOG.info(String.format("Scheduled retry of failed task %s to run in %d seconds", task.getTaskId(), interval));
     task.incrementRetryCount();
   }
+
+  /**
+   * Get the number of tasks of a job that are running, which does not include the tasks being retried.
+   */
+  public synchronized int getNumRunningTasks(String jobId) {
+    return this.runningTasks.get(jobId).size();
+  }
+
+  /**
+   * Get the number of tasks of a job that are waiting for a thread.
+   */
+  public synchronized int getNumWaitingTasks(String jobId) {
+    Deque<FutureTask<?>> jobWaitingTasks = this.waitingTasks.get(jobId);
+    return jobWaitingTasks == null ? 0 : jobWaitingTasks.size();
+  }
+
+  /**
+   * Cancel the tasks of a job, e.g., when the job is cancelled. Tasks waiting for a thread are removed and never run,
+   * running tasks are interrupted and scheduled retries are cancelled. The futures of all of them are cancelled, so
+   * anything waiting on the futures returned by {@link #submit(Task)} is unblocked.
+   *
+   * <p>
+   *   This only applies to tasks run with {@link ConfigurationKeys#TASK_EXECUTOR_MAX_CONCURRENT_TASKS_PER_JOB_KEY}
+   *   set, as the tasks of all jobs are otherwise run in the same queue.
+   * </p>
+   *
+   * @return the number of tasks cancelled
+   */
+  public synchronized int cancelTasks(String jobId) {
+    List<Future<?>> futures = Lists.newArrayList();
+    Deque<FutureTask<?>> jobWaitingTasks = this.waitingTasks.remove(jobId);
+    if (jobWaitingTasks != null) {
+      futures.addAll(jobWaitingTasks);
+    }
+    // Running tasks are removed from the running tasks when their threads are done with them
+    futures.addAll(this.runningTasks.get(jobId));
+    futures.addAll(this.retryingTasks.removeAll(jobId));
+
+    int cancelledTasks = 0;
+    for (Future<?> future : futures) {
+      if (future.cancel(true)) {
+        cancelledTasks++;
+      }
+    }
+    return cancelledTasks;
+  }
+
+  /**
+   * Get the keys of the properties that configure a {@link TaskExecutor} whose values in the given properties differ
+   * from the configuration of this {@link TaskExecutor}, e.g., to tell which properties of a job are ignored when the
+   * job runs on a shared {@link TaskExecutor}.
+   */
+  public List<String> getDifferentConfigurationKeys(Properties properties) {
+    Map<String, Long> configuration = ImmutableMap.of(
+        ConfigurationKeys.TASK_EXECUTOR_THREADPOOL_SIZE_KEY, (long) this.taskExecutorThreadPoolSize,
+        ConfigurationKeys.TASK_RETRY_THREAD_POOL_CORE_SIZE_KEY, (long) this.coreRetryThreadPoolSize,
+        ConfigurationKeys.TASK_RETRY_INTERVAL_IN_SEC_KEY, this.retryIntervalInSeconds,
+        ConfigurationKeys.TASK_EXECUTOR_MAX_CONCURRENT_TASKS_PER_JOB_KEY, (long) this.maxConcurrentTasksPerJob);
+    List<String> differentKeys = Lists.newArrayList();
+    for (Map.Entry<String, Long> entry : configuration.entrySet()) {
+      if (properties.containsKey(entry.getKey())
+          && Long.parseLong(properties.getProperty(entry.getKey())) != entry.getValue()) {
+        differentKeys.add(entry.getKey());
+      }
+    }
+    return differentKeys;
+  }
+
+  private synchronized void addWaitingTask(String jobId, FutureTask<?> task) {
+    Deque<FutureTask<?>> jobWaitingTasks = this.waitingTasks.get(jobId);
+    if (jobWaitingTasks == null) {
+      jobWaitingTasks = new ArrayDeque<>();
+      this.waitingTasks.put(jobId, jobWaitingTasks);
+    }
+    jobWaitingTasks.add(task);
+    runWaitingTasks();
+  }
+
+  /**
+   * Run waiting tasks while there are free threads, taking the next task from the job with the fewest running tasks
+   * among the jobs below their limit, and then moving that job to the end of the order so that jobs with the same
+   * number of running tasks take turns.
+   */
+  private synchronized void runWaitingTasks() {
+    while (this.runningTasks.size() < this.taskExecutorThreadPoolSize) {
+      Map.Entry<String, Deque<FutureTask<?>>> next = null;
+      int nextRunningTasks = this.maxConcurrentTasksPerJob;
+      for (Map.Entry<String, Deque<FutureTask<?>>> entry : this.waitingTasks.entrySet()) {
+        int jobRunningTasks = this.runningTasks.get(entry.getKey()).size();
+        if (jobRunningTasks < nextRunningTasks) {
+          next = entry;
+          nextRunningTasks = jobRunningTasks;
+        }
+      }
+      if (next == null) {
+        return;
+      }
+      this.waitingTasks.remove(next.getKey());
+
+      final String jobId = next.getKey();
+      final FutureTask<?> task = next.getValue().poll();
+      if (!next.getValue().isEmpty()) {
+        this.waitingTasks.put(jobId, next.getValue());
+      }
+
+      this.runningTasks.put(jobId, task);
+      try {
+        this.taskExecutor.execute(new Runnable() {
+          @Override
+          public void run() {
+            try {
+              task.run();
+            } finally {
+              onTaskFinished(jobId, task);
+            }
+          }
+        });
+      } catch (RejectedExecutionException ree) {
+        this.runningTasks.remove(jobId, task);
+        throw ree;
+      }
+    }
+  }
+
+  private synchronized void onTaskFinished(String jobId, Future<?> task) {
+    this.runningTasks.remove(jobId, task);
+    if (!this.taskExecutor.isShutdown()) {
+      runWaitingTasks();
+    }
+  }
+
+  /**
+   * Schedule the retry of a task, keeping its future until the retry is done so it can be cancelled with the job.
+   */
+  private synchronized void scheduleRetry(Task task, long interval) {
+    final String jobId = task.getJobId();
+    final FutureTask<?> retry = new FutureTask<>(task, null);
+    this.retryingTasks.put(jobId, retry);
+    try {
+      this.taskRetryExecutor.schedule(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            retry.run();
+          } finally {
+            onRetryFinished(jobId, retry);
+          }
+        }
+      }, interval, TimeUnit.SECONDS);
+    } catch (RejectedExecutionException ree) {
+      this.retryingTasks.remove(jobId, retry);
+      throw ree;
+    }
+  }
+
+  private synchronized void onRetryFinished(String jobId, Future<?> retry) {
+    this.retryingTasks.remove(jobId, retry);
+  }
 }
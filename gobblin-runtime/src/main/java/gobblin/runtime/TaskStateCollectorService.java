@@ -13,6 +13,9 @@
 package gobblin.runtime;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Queue;
 import java.util.concurrent.TimeUnit;
@@ -26,6 +29,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Queues;
 import com.google.common.eventbus.EventBus;
 import com.google.common.util.concurrent.AbstractScheduledService;
@@ -41,6 +46,13 @@ import gobblin.util.ParallelRunner;
  * For each batch of {@link TaskState}s collected, it posts a {@link NewTaskCompletionEvent} to notify
  * parties that are interested in such events.
  *
+ * <p>
+ *   {@link TaskState}s may also be pushed to this service through {@link #collectReportedTaskStates(Collection)}.
+ *   Files of tasks that have already been reported this way are still read, as a retried task writes a new file
+ *   under the same task ID. If several attempts of the same task are collected, the one that completed last is kept,
+ *   and listeners are only notified again if it is a later attempt than the one already collected.
+ * </p>
+ *
  * @author Yinan Li
  */
 public class TaskStateCollectorService extends AbstractScheduledService {
@@ -61,6 +73,9 @@ public class TaskStateCollectorService extends AbstractScheduledService {
 
   private final Path outputTaskStateDir;
 
+  // End times of the tasks whose TaskStates have been collected, keyed by task IDs
+  private final Map<String, Long> collectedTaskEndTimes = Maps.newHashMap();
+
   public TaskStateCollectorService(Properties jobProps, JobState jobState, EventBus eventBus, FileSystem fs,
       Path outputTaskStateDir) {
     this.jobState = jobState;
@@ -103,6 +118,17 @@ public class TaskStateCollectorService extends AbstractScheduledService {
     }
   }
 
+  /**
+   * Collect {@link TaskState}s of completed tasks of the job launched that are reported directly instead of being
+   * read from files.
+   *
+   * @param taskStates {@link TaskState}s of completed tasks of the job
+   */
+  public void collectReportedTaskStates(Collection<TaskState> taskStates) {
+    LOGGER.info(String.format("Received reported task state of %d completed tasks", taskStates.size()));
+    addTaskStates(taskStates);
+  }
+
   /**
    * Collect output {@link TaskState}s of tasks of the job launched.
    *
@@ -146,14 +172,35 @@ public class TaskStateCollectorService extends AbstractScheduledService {
 
     LOGGER.info(String.format("Collected task state of %d completed tasks", taskStateQueue.size()));
 
-    // Add the TaskStates of completed tasks to the JobState so when the control
-    // returns to the launcher, it sees the TaskStates of all completed tasks.
-    for (TaskState taskState : taskStateQueue) {
-      taskState.setJobState(this.jobState);
-      this.jobState.addTaskState(taskState);
+    addTaskStates(taskStateQueue);
+  }
+
+  /**
+   * Add the {@link TaskState}s of completed tasks to the {@link JobState} so when the control returns to the
+   * launcher, it sees the {@link TaskState}s of all completed tasks, and notify the listeners for the completion
+   * of the tasks.
+   */
+  private void addTaskStates(Collection<TaskState> taskStates) {
+    List<TaskState> newTaskStates = Lists.newArrayList();
+    synchronized (this.collectedTaskEndTimes) {
+      for (TaskState taskState : taskStates) {
+        // A TaskState of an earlier attempt of the task may arrive after the one of a later attempt
+        Long collectedEndTime = this.collectedTaskEndTimes.get(taskState.getTaskId());
+        if (collectedEndTime != null && collectedEndTime > taskState.getEndTime()) {
+          continue;
+        }
+        this.collectedTaskEndTimes.put(taskState.getTaskId(), taskState.getEndTime());
+        taskState.setJobState(this.jobState);
+        this.jobState.addTaskState(taskState);
+        // The file of a reported attempt replaces the reported TaskState, but listeners were already notified
+        if (collectedEndTime == null || collectedEndTime < taskState.getEndTime()) {
+          newTaskStates.add(taskState);
+        }
+      }
     }
 
-    // Notify the listeners for the completion of the tasks
-    this.eventBus.post(new NewTaskCompletionEvent(ImmutableList.copyOf(taskStateQueue)));
+    if (!newTaskStates.isEmpty()) {
+      this.eventBus.post(new NewTaskCompletionEvent(ImmutableList.copyOf(newTaskStates)));
+    }
   }
 }
@@ -16,6 +16,7 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -40,6 +41,11 @@ import gobblin.util.JobLauncherUtils;
  * An implementation of {@link gobblin.runtime.JobLauncher} for launching and running jobs
  * locally on a single node.
  *
+ * <p>
+ *   The tasks of the job run on a {@link TaskExecutor} created for the job, or on a {@link TaskExecutor} shared
+ *   with other jobs that is started and stopped by its owner, e.g., the {@link gobblin.scheduler.JobScheduler}.
+ * </p>
+ *
  * @author Yinan Li
  */
 public class LocalJobLauncher extends AbstractJobLauncher {
@@ -48,6 +54,8 @@ public class LocalJobLauncher extends AbstractJobLauncher {
 
   private final TaskExecutor taskExecutor;
 
+  private final boolean sharedTaskExecutor;
+
   private final TaskStateTracker taskStateTracker;
 
   // Service manager to manage dependent services
@@ -61,6 +69,7 @@ public class LocalJobLauncher extends AbstractJobLauncher {
     TimingEvent jobLocalSetupTimer = this.eventSubmitter.getTimingEvent(TimingEvent.RunJobTimings.JOB_LOCAL_SETUP);
 
     this.taskExecutor = new TaskExecutor(jobProps);
+    this.sharedTaskExecutor = false;
     this.taskStateTracker =
         new LocalTaskStateTracker(jobProps, this.jobContext.getJobState(), this.taskExecutor, this.eventBus);
 
@@ -75,6 +84,35 @@ public class LocalJobLauncher extends AbstractJobLauncher {
     jobLocalSetupTimer.stop();
   }
 
+  /**
+   * Constructor for a launcher that runs the tasks of the job on a running {@link TaskExecutor} and schedules task
+   * metrics updaters on an executor, both shared with other jobs. Neither is stopped when the launcher is closed.
+   */
+  public LocalJobLauncher(Properties jobProps, TaskExecutor sharedTaskExecutor,
+      ScheduledThreadPoolExecutor sharedTaskMetricsUpdaterExecutor) throws Exception {
+    super(jobProps, ImmutableList.<Tag<?>> of());
+
+    TimingEvent jobLocalSetupTimer = this.eventSubmitter.getTimingEvent(TimingEvent.RunJobTimings.JOB_LOCAL_SETUP);
+
+    this.taskExecutor = sharedTaskExecutor;
+    this.sharedTaskExecutor = true;
+    List<String> ignoredKeys = this.taskExecutor.getDifferentConfigurationKeys(jobProps);
+    if (!ignoredKeys.isEmpty()) {
+      LOG.warn(String.format("Ignoring %s of job %s, which runs on a shared task executor configured by the scheduler",
+          ignoredKeys, this.jobContext.getJobId()));
+    }
+    this.taskStateTracker = new LocalTaskStateTracker(jobProps, this.jobContext.getJobState(), this.taskExecutor,
+        sharedTaskMetricsUpdaterExecutor, this.eventBus);
+
+    this.serviceManager = new ServiceManager(Lists.newArrayList(this.taskStateTracker));
+    // Start all dependent services
+    this.serviceManager.startAsync().awaitHealthy(5, TimeUnit.SECONDS);
+
+    startCancellationExecutor();
+
+    jobLocalSetupTimer.stop();
+  }
+
   @Override
   public void close() throws IOException {
     try {
@@ -138,6 +176,17 @@ public class LocalJobLauncher extends AbstractJobLauncher {
 
   @Override
   protected void executeCancellation() {
+    if (this.sharedTaskExecutor) {
+      // The executor is not stopped with the job, so the tasks of the job are cancelled on it. The task state
+      // tracker is stopped first so that interrupted tasks are not retried.
+      try {
+        this.taskStateTracker.stopAsync().awaitTerminated(5, TimeUnit.SECONDS);
+      } catch (TimeoutException te) {
+        LOG.warn("Timed out while waiting for the task state tracker to be stopped", te);
+      }
+      int cancelledTasks = this.taskExecutor.cancelTasks(this.jobContext.getJobId());
+      LOG.info(String.format("Cancelled %d tasks of job %s", cancelledTasks, this.jobContext.getJobId()));
+    }
     if (this.countDownLatch != null) {
       while (this.countDownLatch.getCount() > 0) {
         this.countDownLatch.countDown();
@@ -16,6 +16,7 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -63,10 +64,37 @@ public class LocalTaskStateTracker extends AbstractTaskStateTracker {
     this.jobState = jobState;
     this.taskExecutor = taskExecutor;
     this.eventBus = eventBus;
-    this.maxTaskRetries = Integer.parseInt(properties.getProperty(
+    this.maxTaskRetries = getMaxTaskRetries(properties);
+  }
+
+  /**
+   * Constructor for a tracker that schedules task metrics updaters on an executor shared with other trackers.
+   */
+  public LocalTaskStateTracker(Properties properties, JobState jobState, TaskExecutor taskExecutor,
+      ScheduledThreadPoolExecutor taskMetricsUpdaterExecutor, EventBus eventBus) {
+    super(taskMetricsUpdaterExecutor, LOG);
+
+    this.jobState = jobState;
+    this.taskExecutor = taskExecutor;
+    this.eventBus = eventBus;
+    this.maxTaskRetries = getMaxTaskRetries(properties);
+  }
+
+  private static int getMaxTaskRetries(Properties properties) {
+    return Integer.parseInt(properties.getProperty(
         ConfigurationKeys.MAX_TASK_RETRIES_KEY, Integer.toString(ConfigurationKeys.DEFAULT_MAX_TASK_RETRIES)));
   }
 
+  @Override
+  protected void shutDown() throws Exception {
+    // Cancel the reporters of tasks that did not complete, which matters if the executor is shared and keeps running
+    for (ScheduledFuture<?> scheduledReporter : this.scheduledReporters.values()) {
+      scheduledReporter.cancel(false);
+    }
+    this.scheduledReporters.clear();
+    super.shutDown();
+  }
+
   @Override
   public void registerNewTask(Task task) {
     try {
@@ -93,9 +121,9 @@ public class LocalTaskStateTracker extends AbstractTaskStateTracker {
       }
 
       // Check the task state and handle task retry if task failed and
-      // it has not reached the maximum number of retries
+      // it has not reached the maximum number of retries, unless the tracker is stopped, e.g., with a cancelled job
       WorkUnitState.WorkingState state = task.getTaskState().getWorkingState();
-      if (state == WorkUnitState.WorkingState.FAILED && task.getRetryCount() < this.maxTaskRetries) {
+      if (state == WorkUnitState.WorkingState.FAILED && task.getRetryCount() < this.maxTaskRetries && isRunning()) {
         this.taskExecutor.retry(task);
         return;
       }
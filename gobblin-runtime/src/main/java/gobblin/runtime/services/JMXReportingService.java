@@ -26,9 +26,13 @@ import com.codahale.metrics.jvm.ThreadStatesGaugeSet;
 
 import com.google.common.util.concurrent.AbstractIdleService;
 
+import gobblin.config.client.ConfigClientCache;
+import gobblin.util.SchedulerUtils;
+
 
 /**
- * A {@link com.google.common.util.concurrent.Service} for collecting various JVM metrics and reporting them via JMX.
+ * A {@link com.google.common.util.concurrent.Service} for collecting various JVM and process metrics and reporting
+ * them via JMX.
  *
  * <p>
  *   The class uses Codahale to collect the various JVM metrics which includes:
@@ -38,6 +42,8 @@ import com.google.common.util.concurrent.AbstractIdleService;
  *     <li>Memory usage using a {@link MemoryUsageGaugeSet}</li>
  *     <li>Thread usage and state using a {@link ThreadStatesGaugeSet}</li>
  *     <li>Used file descriptors using a {@link FileDescriptorRatioGauge}</li>
+ *     <li>Job configuration loading using the metrics of {@link SchedulerUtils#getMetrics()}</li>
+ *     <li>Merged configs kept by config clients using the metrics of {@link ConfigClientCache#getMetrics()}</li>
  *   </ul>
  *
  *   All metrics are collected via a {@link JmxReporter}.
@@ -54,6 +60,8 @@ public class JMXReportingService extends AbstractIdleService {
   @Override
   protected void startUp() throws Exception {
     registerJvmMetrics();
+    registerMetricsWithPrefix("gobblin.scheduler", SchedulerUtils.getMetrics());
+    registerMetricsWithPrefix("gobblin.configClient", ConfigClientCache.getMetrics());
     this.jmxReporter.start();
   }
 
@@ -70,7 +78,11 @@ public class JMXReportingService extends AbstractIdleService {
   }
 
   private void registerMetricSetWithPrefix(String prefix, MetricSet metricSet) {
-    for (Map.Entry<String, Metric> entry : metricSet.getMetrics().entrySet()) {
+    registerMetricsWithPrefix(prefix, metricSet.getMetrics());
+  }
+
+  private void registerMetricsWithPrefix(String prefix, Map<String, Metric> metrics) {
+    for (Map.Entry<String, Metric> entry : metrics.entrySet()) {
       this.metricRegistry.register(MetricRegistry.name(prefix, entry.getKey()), entry.getValue());
     }
   }
@@ -21,6 +21,7 @@ import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 
 import org.apache.commons.configuration.ConfigurationException;
 
@@ -60,6 +61,7 @@ import gobblin.configuration.ConfigurationKeys;
 import gobblin.runtime.JobException;
 import gobblin.runtime.JobLauncher;
 import gobblin.runtime.JobLauncherFactory;
+import gobblin.runtime.TaskExecutor;
 import gobblin.runtime.listeners.EmailNotificationJobListener;
 import gobblin.runtime.listeners.JobListener;
 import gobblin.runtime.listeners.RunOnceJobListener;
@@ -83,6 +85,14 @@ import gobblin.util.SchedulerUtils;
  *     {@link org.quartz.Trigger} for the job.
  * </p>
  *
+ * <p>
+ *     If {@link ConfigurationKeys#SCHEDULER_SHARED_TASK_EXECUTOR_ENABLED_KEY} is set and jobs are launched locally,
+ *     the tasks of all the jobs run on a single {@link TaskExecutor} and their metrics are updated on a single
+ *     executor, both created from the system configuration properties and running as long as the scheduler. Unless
+ *     {@link ConfigurationKeys#TASK_EXECUTOR_MAX_CONCURRENT_TASKS_PER_JOB_KEY} is set, a job may use all the task
+ *     threads, and free threads go to the waiting tasks of the concurrent jobs with the fewest running tasks.
+ * </p>
+ *
  * @author Yinan Li
  */
 public class JobScheduler extends AbstractIdleService {
@@ -108,6 +118,9 @@ public class JobScheduler extends AbstractIdleService {
   // A map for all scheduled jobs
   private final Map<String, JobKey> scheduledJobs = Maps.newHashMap();
 
+  // Copies of the configurations the scheduled jobs were scheduled with, used to skip unchanged jobs on reloads
+  private final Map<String, Properties> scheduledJobProps = Maps.newHashMap();
+
   // Set of supported job configuration file extensions
   private final Set<String> jobConfigFileExtensions;
 
@@ -116,11 +129,38 @@ public class JobScheduler extends AbstractIdleService {
 
   private final boolean waitForJobCompletion;
 
+  // A task executor and an executor for task metrics updaters shared by the jobs launched locally, if enabled
+  private final Optional<TaskExecutor> sharedTaskExecutor;
+  private final Optional<ScheduledThreadPoolExecutor> sharedTaskMetricsUpdaterExecutor;
+
   public JobScheduler(Properties properties)
       throws Exception {
     this.properties = properties;
     this.scheduler = new StdSchedulerFactory().getScheduler();
 
+    boolean localJobLauncher = JobLauncherFactory.JobLauncherType.LOCAL.name().equals(this.properties.getProperty(
+        ConfigurationKeys.JOB_LAUNCHER_TYPE_KEY, JobLauncherFactory.JobLauncherType.LOCAL.name()));
+    if (localJobLauncher && Boolean.parseBoolean(
+        this.properties.getProperty(ConfigurationKeys.SCHEDULER_SHARED_TASK_EXECUTOR_ENABLED_KEY,
+            Boolean.toString(ConfigurationKeys.DEFAULT_SCHEDULER_SHARED_TASK_EXECUTOR_ENABLED)))) {
+      Properties taskExecutorProps = new Properties();
+      taskExecutorProps.putAll(this.properties);
+      if (!taskExecutorProps.containsKey(ConfigurationKeys.TASK_EXECUTOR_MAX_CONCURRENT_TASKS_PER_JOB_KEY)) {
+        // No limit other than the thread pool size, but tasks of concurrent jobs are still run in turn
+        taskExecutorProps.setProperty(ConfigurationKeys.TASK_EXECUTOR_MAX_CONCURRENT_TASKS_PER_JOB_KEY,
+            taskExecutorProps.getProperty(ConfigurationKeys.TASK_EXECUTOR_THREADPOOL_SIZE_KEY,
+                Integer.toString(ConfigurationKeys.DEFAULT_TASK_EXECUTOR_THREADPOOL_SIZE)));
+      }
+      this.sharedTaskExecutor = Optional.of(new TaskExecutor(taskExecutorProps));
+      this.sharedTaskMetricsUpdaterExecutor = Optional.of(new ScheduledThreadPoolExecutor(Integer.parseInt(
+          this.properties.getProperty(ConfigurationKeys.TASK_STATE_TRACKER_THREAD_POOL_CORE_SIZE_KEY,
+              Integer.toString(ConfigurationKeys.DEFAULT_TASK_STATE_TRACKER_THREAD_POOL_CORE_SIZE))),
+          ExecutorsUtils.newThreadFactory(Optional.of(LOG), Optional.of("TaskStateTracker-%d"))));
+    } else {
+      this.sharedTaskExecutor = Optional.absent();
+      this.sharedTaskMetricsUpdaterExecutor = Optional.absent();
+    }
+
     this.jobExecutor = Executors.newFixedThreadPool(Integer.parseInt(
         properties.getProperty(ConfigurationKeys.JOB_EXECUTOR_THREAD_POOL_SIZE_KEY,
             Integer.toString(ConfigurationKeys.DEFAULT_JOB_EXECUTOR_THREAD_POOL_SIZE))),
@@ -145,6 +185,9 @@ public class JobScheduler extends AbstractIdleService {
   protected void startUp()
       throws Exception {
     LOG.info("Starting the job scheduler");
+    if (this.sharedTaskExecutor.isPresent()) {
+      this.sharedTaskExecutor.get().startAsync().awaitRunning();
+    }
     this.scheduler.start();
 
     Preconditions.checkArgument(
@@ -174,7 +217,15 @@ public class JobScheduler extends AbstractIdleService {
     try {
       ExecutorsUtils.shutdownExecutorService(this.jobExecutor, Optional.of(LOG));
     } finally {
-      this.scheduler.shutdown(this.waitForJobCompletion);
+      try {
+        this.scheduler.shutdown(this.waitForJobCompletion);
+      } finally {
+        // Stop the shared executors after the jobs using them
+        if (this.sharedTaskExecutor.isPresent()) {
+          this.sharedTaskExecutor.get().stopAsync().awaitTerminated();
+          ExecutorsUtils.shutdownExecutorService(this.sharedTaskMetricsUpdaterExecutor.get(), Optional.of(LOG));
+        }
+      }
     }
   }
 
@@ -266,6 +317,9 @@ public class JobScheduler extends AbstractIdleService {
     }
 
     this.scheduledJobs.put(jobName, job.getKey());
+    Properties jobPropsCopy = new Properties();
+    jobPropsCopy.putAll(jobProps);
+    this.scheduledJobProps.put(jobName, jobPropsCopy);
   }
 
   /**
@@ -278,6 +332,7 @@ public class JobScheduler extends AbstractIdleService {
       throws JobException {
     if (this.scheduledJobs.containsKey(jobName)) {
       try {
+        this.scheduledJobProps.remove(jobName);
         this.scheduler.deleteJob(this.scheduledJobs.remove(jobName));
       } catch (SchedulerException se) {
         LOG.error("Failed to unschedule and delete job " + jobName, se);
@@ -301,7 +356,8 @@ public class JobScheduler extends AbstractIdleService {
   public void runJob(Properties jobProps, JobListener jobListener)
       throws JobException {
     try {
-      runJob(jobProps, jobListener, JobLauncherFactory.newJobLauncher(this.properties, jobProps));
+      runJob(jobProps, jobListener, JobLauncherFactory.newJobLauncher(this.properties, jobProps,
+          this.sharedTaskExecutor, this.sharedTaskMetricsUpdaterExecutor));
     } catch (Exception e) {
       throw new JobException("Failed to run job " + jobProps.getProperty(ConfigurationKeys.JOB_NAME_KEY), e);
     }
@@ -346,6 +402,7 @@ public class JobScheduler extends AbstractIdleService {
       closer.register(jobLauncher).launchJob(jobListener);
       boolean runOnce = Boolean.valueOf(jobProps.getProperty(ConfigurationKeys.JOB_RUN_ONCE_KEY, "false"));
       if (runOnce && this.scheduledJobs.containsKey(jobName)) {
+        this.scheduledJobProps.remove(jobName);
         this.scheduler.deleteJob(this.scheduledJobs.remove(jobName));
       }
     } catch (Throwable t) {
@@ -477,6 +534,11 @@ public class JobScheduler extends AbstractIdleService {
       private void rescheduleJob(Properties jobProps)
           throws JobException {
         String jobName = jobProps.getProperty(ConfigurationKeys.JOB_NAME_KEY);
+        if (jobProps.equals(JobScheduler.this.scheduledJobProps.get(jobName))) {
+          // The job configuration did not change, e.g., when a common properties file changed for other jobs
+          LOG.debug("Skipping rescheduling of unchanged job " + jobName);
+          return;
+        }
         // First unschedule and delete the old job
         unscheduleJob(jobName);
         boolean runOnce = Boolean.valueOf(jobProps.getProperty(ConfigurationKeys.JOB_RUN_ONCE_KEY, "false"));
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.runtime;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import gobblin.configuration.ConfigurationKeys;
+
+
+/**
+ * Unit tests for {@link TaskExecutor} running tasks of concurrent jobs.
+ */
+@Test(groups = { "gobblin.runtime" })
+public class TaskExecutorTest {
+
+  private static final long TIMEOUT_SECONDS = 10;
+
+  private TaskExecutor taskExecutor;
+  private List<String> startedTasks;
+  // Latches the test tasks wait for, which are all released after each test
+  private List<CountDownLatch> taskFinishes;
+
+  @BeforeMethod
+  public void setUp() {
+    Properties properties = new Properties();
+    properties.setProperty(ConfigurationKeys.TASK_EXECUTOR_THREADPOOL_SIZE_KEY, "2");
+    properties.setProperty(ConfigurationKeys.TASK_EXECUTOR_MAX_CONCURRENT_TASKS_PER_JOB_KEY, "2");
+    this.taskExecutor = new TaskExecutor(properties);
+    this.taskExecutor.startAsync().awaitRunning();
+    this.startedTasks = Lists.newCopyOnWriteArrayList();
+    this.taskFinishes = Lists.newCopyOnWriteArrayList();
+  }
+
+  @Test
+  public void testJobsShareThreads() throws Exception {
+    for (int i = 0; i < 3; i++) {
+      this.taskExecutor.execute(newTask("job_a", "task_a_" + i, new CountDownLatch(1)));
+    }
+    this.taskExecutor.execute(newTask("job_b", "task_b_0", new CountDownLatch(1)));
+
+    waitForStartedTasks(2);
+    Assert.assertEquals(this.taskExecutor.getNumRunningTasks("job_a"), 2);
+    Assert.assertEquals(this.taskExecutor.getNumWaitingTasks("job_a"), 1);
+    Assert.assertEquals(this.taskExecutor.getNumWaitingTasks("job_b"), 1);
+
+    // The freed thread goes to the job without running tasks, although its task was submitted last
+    this.taskFinishes.get(0).countDown();
+    waitForStartedTasks(3);
+    Assert.assertEquals(this.startedTasks.get(2), "task_b_0");
+    Assert.assertEquals(this.taskExecutor.getNumWaitingTasks("job_a"), 1);
+  }
+
+  @Test
+  public void testMaxConcurrentTasksPerJob() throws Exception {
+    CountDownLatch taskFinish = new CountDownLatch(1);
+    Properties properties = new Properties();
+    properties.setProperty(ConfigurationKeys.TASK_EXECUTOR_THREADPOOL_SIZE_KEY, "4");
+    properties.setProperty(ConfigurationKeys.TASK_EXECUTOR_MAX_CONCURRENT_TASKS_PER_JOB_KEY, "1");
+    TaskExecutor limitedTaskExecutor = new TaskExecutor(properties);
+    limitedTaskExecutor.startAsync().awaitRunning();
+    try {
+      for (int i = 0; i < 3; i++) {
+        limitedTaskExecutor.execute(newTask("job_a", "task_a_" + i, taskFinish));
+      }
+      waitForStartedTasks(1);
+      Assert.assertEquals(limitedTaskExecutor.getNumRunningTasks("job_a"), 1);
+      Assert.assertEquals(limitedTaskExecutor.getNumWaitingTasks("job_a"), 2);
+
+      // Waiting tasks of a cancelled job are not run
+      Assert.assertEquals(limitedTaskExecutor.cancelTasks("job_a"), 3);
+      taskFinish.countDown();
+      limitedTaskExecutor.stopAsync().awaitTerminated();
+      Assert.assertEquals(this.startedTasks.size(), 1);
+    } finally {
+      limitedTaskExecutor.stopAsync().awaitTerminated();
+    }
+  }
+
+  @Test
+  public void testCancelTasks() throws Exception {
+    Future<?> runningTask = this.taskExecutor.submit(newTask("job_a", "task_a_0", new CountDownLatch(1)));
+    this.taskExecutor.submit(newTask("job_a", "task_a_1", new CountDownLatch(1)));
+    Future<?> waitingTask = this.taskExecutor.submit(newTask("job_a", "task_a_2", new CountDownLatch(1)));
+    this.taskExecutor.submit(newTask("job_b", "task_b_0", new CountDownLatch(1)));
+    waitForStartedTasks(2);
+
+    Assert.assertEquals(this.taskExecutor.cancelTasks("job_a"), 3);
+    // Callers waiting on the futures of the cancelled tasks are unblocked
+    Assert.assertTrue(runningTask.isCancelled());
+    Assert.assertTrue(waitingTask.isCancelled());
+    Assert.assertEquals(this.taskExecutor.getNumWaitingTasks("job_a"), 0);
+
+    // The running tasks are interrupted, and their threads go to the other job
+    waitForStartedTasks(3);
+    Assert.assertEquals(this.startedTasks.get(2), "task_b_0");
+    Assert.assertEquals(this.taskExecutor.getNumRunningTasks("job_a"), 0);
+  }
+
+  @Test
+  public void testDifferentConfigurationKeys() {
+    Properties jobProps = new Properties();
+    jobProps.setProperty(ConfigurationKeys.TASK_EXECUTOR_THREADPOOL_SIZE_KEY, "2");
+    jobProps.setProperty(ConfigurationKeys.TASK_EXECUTOR_MAX_CONCURRENT_TASKS_PER_JOB_KEY, "1");
+    Assert.assertEquals(this.taskExecutor.getDifferentConfigurationKeys(jobProps),
+        ImmutableList.of(ConfigurationKeys.TASK_EXECUTOR_MAX_CONCURRENT_TASKS_PER_JOB_KEY));
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    for (CountDownLatch taskFinish : this.taskFinishes) {
+      taskFinish.countDown();
+    }
+    this.taskExecutor.stopAsync().awaitTerminated();
+  }
+
+  private Task newTask(String jobId, final String taskId, final CountDownLatch taskFinish) {
+    this.taskFinishes.add(taskFinish);
+    Task task = Mockito.mock(Task.class);
+    Mockito.when(task.getJobId()).thenReturn(jobId);
+    Mockito.when(task.getTaskId()).thenReturn(taskId);
+    Mockito.doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        TaskExecutorTest.this.startedTasks.add(taskId);
+        taskFinish.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        return null;
+      }
+    }).when(task).run();
+    return task;
+  }
+
+  private void waitForStartedTasks(int numTasks) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+    while (this.startedTasks.size() < numTasks && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    // No more tasks are started
+    Thread.sleep(100);
+    Assert.assertEquals(this.startedTasks.size(), numTasks);
+  }
+}
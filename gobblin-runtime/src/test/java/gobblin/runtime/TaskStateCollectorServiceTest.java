@@ -13,6 +13,7 @@
 package gobblin.runtime;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Properties;
 
@@ -44,6 +45,7 @@ public class TaskStateCollectorServiceTest {
   private static final String JOB_ID = JobLauncherUtils.newJobId(JOB_NAME);
   private static final String TASK_ID_0 = JobLauncherUtils.newTaskId(JOB_ID, 0);
   private static final String TASK_ID_1 = JobLauncherUtils.newTaskId(JOB_ID, 1);
+  private static final String TASK_ID_2 = JobLauncherUtils.newTaskId(JOB_ID, 2);
 
   private final Path outputTaskStateDir = new Path(TaskStateCollectorServiceTest.class.getSimpleName());
 
@@ -96,6 +98,55 @@ public class TaskStateCollectorServiceTest {
     Assert.assertEquals(this.taskStateMap.get(TASK_ID_1).getTaskId(), TASK_ID_1);
   }
 
+  @Test(dependsOnMethods = "testCollectOutputTaskStates")
+  public void testCollectReportedTaskStates() throws Exception {
+    TaskState reportedTaskState = new TaskState();
+    reportedTaskState.setJobId(JOB_ID);
+    reportedTaskState.setTaskId(TASK_ID_2);
+    reportedTaskState.setEndTime(10);
+    reportedTaskState.setProp("attempt", "reported");
+    this.taskStateStore.put(JOB_ID, TASK_ID_2 + AbstractJobLauncher.TASK_STATE_STORE_TABLE_SUFFIX, reportedTaskState);
+
+    this.taskStateCollectorService.collectReportedTaskStates(Collections.singletonList(reportedTaskState));
+    Assert.assertEquals(this.jobState.getTaskStates().size(), 3);
+    Assert.assertEquals(this.taskStateMap.get(TASK_ID_2).getProp("attempt"), "reported");
+
+    // A report of an earlier attempt of the task is ignored
+    TaskState earlierTaskState = new TaskState();
+    earlierTaskState.setJobId(JOB_ID);
+    earlierTaskState.setTaskId(TASK_ID_2);
+    earlierTaskState.setEndTime(5);
+    earlierTaskState.setProp("attempt", "earlier");
+    this.taskStateCollectorService.collectReportedTaskStates(Collections.singletonList(earlierTaskState));
+    Assert.assertEquals(this.taskStateMap.get(TASK_ID_2).getProp("attempt"), "reported");
+
+    // The file of the reported attempt is read and deleted, without notifying the listeners again
+    this.taskStateMap.clear();
+    this.taskStateCollectorService.runOneIteration();
+    Assert.assertTrue(this.taskStateMap.isEmpty());
+    Assert.assertFalse(
+        this.taskStateStore.exists(JOB_ID, TASK_ID_2 + AbstractJobLauncher.TASK_STATE_STORE_TABLE_SUFFIX));
+    Assert.assertEquals(this.jobState.getTaskStates().size(), 3);
+  }
+
+  @Test(dependsOnMethods = "testCollectReportedTaskStates")
+  public void testCollectRetriedReportedTask() throws Exception {
+    // A retried attempt of a reported task writes a new file under the same task ID
+    TaskState retriedTaskState = new TaskState();
+    retriedTaskState.setJobId(JOB_ID);
+    retriedTaskState.setTaskId(TASK_ID_2);
+    retriedTaskState.setEndTime(20);
+    retriedTaskState.setProp("attempt", "retried");
+    this.taskStateStore.put(JOB_ID, TASK_ID_2 + AbstractJobLauncher.TASK_STATE_STORE_TABLE_SUFFIX, retriedTaskState);
+
+    this.taskStateMap.clear();
+    this.taskStateCollectorService.runOneIteration();
+    Assert.assertEquals(this.taskStateMap.get(TASK_ID_2).getProp("attempt"), "retried");
+    Assert.assertFalse(
+        this.taskStateStore.exists(JOB_ID, TASK_ID_2 + AbstractJobLauncher.TASK_STATE_STORE_TABLE_SUFFIX));
+    Assert.assertEquals(this.jobState.getTaskStates().size(), 3);
+  }
+
   @AfterClass
   public void tearDown() throws IOException {
     if (this.localFs.exists(this.outputTaskStateDir)) {
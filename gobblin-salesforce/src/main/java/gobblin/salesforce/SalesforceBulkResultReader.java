@@ -0,0 +1,281 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.salesforce;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.sforce.async.AsyncApiException;
+import com.sforce.async.BatchInfo;
+import com.sforce.async.BatchStateEnum;
+import com.sforce.async.BulkConnection;
+
+import gobblin.configuration.ConfigurationKeys;
+import gobblin.metrics.MetricContext;
+import gobblin.source.extractor.utils.InputStreamCSVReader;
+import gobblin.source.extractor.utils.Utils;
+import gobblin.util.ExecutorsUtils;
+
+
+/**
+ * Reads the results of all the batches of a bulk query job, e.g., the batches Salesforce splits a query into when PK
+ * chunking is enabled for the job.
+ *
+ * <p>
+ *   A polling thread lists the batches of the job every poll interval until all of them are done, and submits the
+ *   result sets of each batch to a pool of download threads as soon as the batch completes. The download threads
+ *   parse the CSV result sets into {@link JsonObject}s and put them in a bounded queue, from which {@link #next(int)}
+ *   takes them, so result sets are downloaded while other batches are still being processed and the records of
+ *   different result sets are interleaved. The batch Salesforce splits into chunks is
+ *   {@link BatchStateEnum#NotProcessed} and has no results.
+ * </p>
+ *
+ * <p>
+ *   The numbers of batch listings, completed batches, downloaded result sets and downloaded records are kept in the
+ *   given {@link MetricContext}, so that they are reported with the metrics of the task.
+ * </p>
+ */
+class SalesforceBulkResultReader implements Closeable, MetricSet {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SalesforceBulkResultReader.class);
+
+  /** Number of times the batches of the job were listed. */
+  static final String BATCH_POLLS = "salesforce.bulk.batchPolls";
+  /** Number of completed batches whose result sets were submitted for download. */
+  static final String BATCHES_COMPLETED = "salesforce.bulk.batchesCompleted";
+  /** Number of result sets downloaded. */
+  static final String RESULT_SETS_DOWNLOADED = "salesforce.bulk.resultSetsDownloaded";
+  /** Number and rates of records downloaded. */
+  static final String RECORDS_DOWNLOADED = "salesforce.bulk.recordsDownloaded";
+
+  // Marks the end of the records in the queue
+  private static final JsonElement END_OF_RECORDS = new JsonObject();
+  private static final long FAILURE_CHECK_INTERVAL_MILLIS = 100;
+
+  private final BulkConnection bulkConnection;
+  private final String jobId;
+  private final long pollIntervalMillis;
+  private final BlockingQueue<JsonElement> records;
+  private final ExecutorService pollExecutor;
+  private final ExecutorService downloadExecutor;
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+  private boolean finished = false;
+
+  private final Counter batchPolls;
+  private final Counter batchesCompleted;
+  private final Counter resultSetsDownloaded;
+  private final Meter recordsDownloaded;
+
+  /**
+   * @param bulkConnection the {@link BulkConnection} of the job
+   * @param jobId the id of the bulk query job
+   * @param downloadThreads the number of threads downloading result sets
+   * @param pollIntervalMillis the interval between listings of the batches of the job
+   * @param queueSize the maximum number of downloaded records waiting to be read
+   * @param metricContext the {@link MetricContext} to keep the metrics of the reader in
+   */
+  SalesforceBulkResultReader(BulkConnection bulkConnection, String jobId, int downloadThreads,
+      long pollIntervalMillis, int queueSize, MetricContext metricContext) {
+    this.bulkConnection = bulkConnection;
+    this.jobId = jobId;
+    this.pollIntervalMillis = pollIntervalMillis;
+    this.records = new ArrayBlockingQueue<>(queueSize);
+    this.pollExecutor = Executors.newSingleThreadExecutor(
+        ExecutorsUtils.newDaemonThreadFactory(Optional.of(LOG), Optional.of("SalesforceBulkPoller-" + jobId)));
+    this.downloadExecutor = Executors.newFixedThreadPool(downloadThreads,
+        ExecutorsUtils.newDaemonThreadFactory(Optional.of(LOG),
+            Optional.of("SalesforceBulkDownloader-" + jobId + "-%d")));
+    this.batchPolls = metricContext.counter(BATCH_POLLS);
+    this.batchesCompleted = metricContext.counter(BATCHES_COMPLETED);
+    this.resultSetsDownloaded = metricContext.counter(RESULT_SETS_DOWNLOADED);
+    this.recordsDownloaded = metricContext.meter(RECORDS_DOWNLOADED);
+  }
+
+  /**
+   * Start polling the batches of the job and downloading their results.
+   */
+  void start() {
+    this.pollExecutor.submit(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          pollAndDownload();
+          records.put(END_OF_RECORDS);
+        } catch (Throwable t) {
+          fail(t);
+        }
+      }
+    });
+  }
+
+  /**
+   * Get the next records, waiting until at least one record is downloaded or all the results are read.
+   *
+   * @param maxRecords the maximum number of records to return
+   * @return the next records, which are empty only if all the results were read
+   * @throws IOException if a batch failed or a result set could not be downloaded
+   */
+  List<JsonElement> next(int maxRecords) throws IOException {
+    List<JsonElement> nextRecords = Lists.newArrayListWithCapacity(maxRecords);
+    if (this.finished) {
+      return nextRecords;
+    }
+
+    try {
+      JsonElement record;
+      while ((record = this.records.poll(FAILURE_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+        checkFailure();
+      }
+      nextRecords.add(record);
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for bulk api results of job " + this.jobId, ie);
+    }
+    this.records.drainTo(nextRecords, maxRecords - 1);
+
+    if (nextRecords.get(nextRecords.size() - 1) == END_OF_RECORDS) {
+      // A download may fail after the polling thread finished waiting for it, so the results are only complete if
+      // nothing failed
+      checkFailure();
+      this.finished = true;
+      nextRecords.remove(nextRecords.size() - 1);
+    }
+    return nextRecords;
+  }
+
+  @Override
+  public Map<String, Metric> getMetrics() {
+    return ImmutableMap.<String, Metric>of(BATCH_POLLS, this.batchPolls, BATCHES_COMPLETED, this.batchesCompleted,
+        RESULT_SETS_DOWNLOADED, this.resultSetsDownloaded, RECORDS_DOWNLOADED, this.recordsDownloaded);
+  }
+
+  @Override
+  public void close() {
+    this.pollExecutor.shutdownNow();
+    this.downloadExecutor.shutdownNow();
+  }
+
+  private void checkFailure() throws IOException {
+    if (this.failure.get() != null) {
+      throw new IOException("Failed to read bulk api results of job " + this.jobId, this.failure.get());
+    }
+  }
+
+  /**
+   * Record the first failure and stop polling and downloading, which interrupts the threads that are still running.
+   */
+  private void fail(Throwable t) {
+    this.failure.compareAndSet(null, t);
+    close();
+  }
+
+  private void pollAndDownload() throws AsyncApiException, InterruptedException, ExecutionException {
+    Set<String> submittedBatchIds = Sets.newHashSet();
+    List<Future<?>> downloads = Lists.newArrayList();
+
+    boolean allBatchesDone = false;
+    while (!allBatchesDone) {
+      BatchInfo[] batchInfos = this.bulkConnection.getBatchInfoList(this.jobId).getBatchInfo();
+      this.batchPolls.inc();
+
+      allBatchesDone = true;
+      for (BatchInfo batchInfo : batchInfos) {
+        if (batchInfo.getState() == BatchStateEnum.Failed) {
+          throw new RuntimeException(String.format("Bulk api batch %s of job %s failed; error - %s",
+              batchInfo.getId(), this.jobId, batchInfo.getStateMessage()));
+        }
+        if (batchInfo.getState() == BatchStateEnum.Completed && submittedBatchIds.add(batchInfo.getId())) {
+          this.batchesCompleted.inc();
+          for (String resultId : this.bulkConnection.getQueryResultList(this.jobId, batchInfo.getId()).getResult()) {
+            downloads.add(this.downloadExecutor.submit(new ResultSetDownload(batchInfo.getId(), resultId)));
+          }
+        }
+        allBatchesDone &= batchInfo.getState() == BatchStateEnum.Completed
+            || batchInfo.getState() == BatchStateEnum.NotProcessed;
+      }
+
+      LOG.info(String.format("%d of %d bulk api batches of job %s completed", submittedBatchIds.size(),
+          batchInfos.length, this.jobId));
+      if (!allBatchesDone) {
+        Thread.sleep(this.pollIntervalMillis);
+      }
+    }
+
+    for (Future<?> download : downloads) {
+      download.get();
+    }
+  }
+
+  /**
+   * Downloads and parses one result set of a batch.
+   */
+  private class ResultSetDownload implements Runnable {
+
+    private final String batchId;
+    private final String resultId;
+
+    private ResultSetDownload(String batchId, String resultId) {
+      this.batchId = batchId;
+      this.resultId = resultId;
+    }
+
+    @Override
+    public void run() {
+      LOG.info("Stream resultset for resultId:" + this.resultId + " of batch " + this.batchId);
+      try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(
+          bulkConnection.getQueryResultStream(jobId, this.batchId, this.resultId),
+          ConfigurationKeys.DEFAULT_CHARSET_ENCODING))) {
+        InputStreamCSVReader reader = new InputStreamCSVReader(bufferedReader);
+        List<String> header = reader.nextRecord();
+        if (header == null) {
+          return;
+        }
+
+        List<String> csvRecord;
+        while ((csvRecord = reader.nextRecord()) != null) {
+          records.put(Utils.csvToJsonObject(header, csvRecord, header.size()));
+          recordsDownloaded.mark();
+        }
+        resultSetsDownloaded.inc();
+      } catch (IOException | AsyncApiException | InterruptedException e) {
+        fail(new IOException("Failed to download bulk api result set " + this.resultId, e));
+      }
+    }
+  }
+}
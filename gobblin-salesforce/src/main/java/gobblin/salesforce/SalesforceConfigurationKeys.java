@@ -17,4 +17,15 @@ public class SalesforceConfigurationKeys {
       "source.querybased.salesforce.is.soft.deletes.pull.disabled";
   public static final int DEFAULT_SALESFORCE_MAX_CHARS_IN_FILE = 200000000;
   public static final int DEFAULT_SALESFORCE_MAX_ROWS_IN_FILE = 1000000;
+
+  // Size of the Id ranges bulk queries are split into by PK chunking, which is disabled if not positive
+  public static final String SOURCE_QUERYBASED_SALESFORCE_BULK_PK_CHUNKING_SIZE =
+      "source.querybased.salesforce.bulk.pk.chunking.size";
+  public static final int DEFAULT_SALESFORCE_BULK_PK_CHUNKING_SIZE = 0;
+  public static final String SOURCE_QUERYBASED_SALESFORCE_BULK_DOWNLOAD_THREADS =
+      "source.querybased.salesforce.bulk.download.threads";
+  public static final int DEFAULT_SALESFORCE_BULK_DOWNLOAD_THREADS = 4;
+  public static final String SOURCE_QUERYBASED_SALESFORCE_BULK_POLL_INTERVAL_SECONDS =
+      "source.querybased.salesforce.bulk.poll.interval.seconds";
+  public static final int DEFAULT_SALESFORCE_BULK_POLL_INTERVAL_SECONDS = 30;
 }
@@ -26,6 +26,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.http.HttpEntity;
 import org.apache.http.NameValuePair;
@@ -33,6 +34,9 @@ import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.message.BasicNameValuePair;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Metric;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
@@ -54,6 +58,8 @@ import com.sforce.ws.ConnectorConfig;
 
 import gobblin.configuration.ConfigurationKeys;
 import gobblin.configuration.WorkUnitState;
+import gobblin.instrumented.Instrumented;
+import gobblin.metrics.MetricContext;
 import gobblin.password.PasswordManager;
 import gobblin.source.extractor.DataRecordException;
 import gobblin.source.extractor.exception.HighWatermarkException;
@@ -91,6 +97,7 @@ public class SalesforceExtractor extends RestApiExtractor {
   private static final String SALESFORCE_HOUR_FORMAT = "HH";
   private static final String SALESFORCE_SOAP_AUTH_SERVICE = "/services/Soap/u";
   private static final Gson GSON = new Gson();
+  private static final String PK_CHUNKING_HEADER = "Sforce-Enable-PKChunking";
 
   private boolean pullStatus = true;
   private String nextUrl;
@@ -107,6 +114,9 @@ public class SalesforceExtractor extends RestApiExtractor {
   private int bulkResultColumCount;
   private boolean newBulkResultSet = true;
   private int bulkRecordCount = 0;
+  private SalesforceBulkResultReader bulkResultReader = null;
+  // Child of the metric context of the task keeping the metrics of the bulkResultReader
+  private MetricContext bulkMetricContext = null;
 
   private final SalesforceConnector sfConnector;
 
@@ -539,14 +549,21 @@ public class SalesforceExtractor extends RestApiExtractor {
       if (this.bulkApiInitialRun == true) {
         // set finish status to false before starting the bulk job
         this.setBulkJobFinished(false);
-        this.bulkResultIdList = getQueryResultIds(entity, predicateList);
-        log.info("Number of bulk api resultSet Ids:" + this.bulkResultIdList.size());
+        int pkChunkingSize = this.workUnit.getPropAsInt(
+            SalesforceConfigurationKeys.SOURCE_QUERYBASED_SALESFORCE_BULK_PK_CHUNKING_SIZE,
+            SalesforceConfigurationKeys.DEFAULT_SALESFORCE_BULK_PK_CHUNKING_SIZE);
+        if (pkChunkingSize > 0) {
+          this.bulkResultReader = startPkChunkedQuery(entity, predicateList, pkChunkingSize);
+        } else {
+          this.bulkResultIdList = getQueryResultIds(entity, predicateList);
+          log.info("Number of bulk api resultSet Ids:" + this.bulkResultIdList.size());
+        }
       }
 
       // Get data from input stream
       // If bulk load is not finished, get data from the stream
       if (!this.isBulkJobFinished()) {
-        rs = getBulkData();
+        rs = this.bulkResultReader != null ? getPkChunkedBulkData() : getBulkData();
       }
 
       // Set bulkApiInitialRun to false after the completion of first run
@@ -646,36 +663,7 @@ public class SalesforceExtractor extends RestApiExtractor {
     }
 
     try {
-      // Set bulk job attributes
-      this.bulkJob.setObject(entity);
-      this.bulkJob.setOperation(OperationEnum.query);
-      this.bulkJob.setConcurrencyMode(ConcurrencyMode.Parallel);
-
-      // Result type as CSV
-      this.bulkJob.setContentType(ContentType.CSV);
-
-      this.bulkJob = this.bulkConnection.createJob(this.bulkJob);
-      this.bulkJob = this.bulkConnection.getJobStatus(this.bulkJob.getId());
-
-      // Construct query with the predicates
-      String query = this.updatedQuery;
-      if (!isNullPredicate(predicateList)) {
-        String limitString = getLimitFromInputQuery(query);
-        query = query.replace(limitString, "");
-
-        Iterator<Predicate> i = predicateList.listIterator();
-        while (i.hasNext()) {
-          Predicate predicate = i.next();
-          query = SqlQueryUtils.addPredicate(query, predicate.getCondition());
-        }
-
-        query = query + limitString;
-      }
-
-      log.info("QUERY:" + query);
-      ByteArrayInputStream bout = new ByteArrayInputStream(query.getBytes(ConfigurationKeys.DEFAULT_CHARSET_ENCODING));
-
-      this.bulkBatchInfo = this.bulkConnection.createBatchFromStream(this.bulkJob, bout);
+      this.bulkBatchInfo = createBulkQueryJob(entity, predicateList);
 
       int retryInterval = 30 + (int) Math.ceil((float) this.getExpectedRecordCount() / 10000) * 2;
       log.info("Salesforce bulk api retry interval in seconds:" + retryInterval);
@@ -706,6 +694,118 @@ public class SalesforceExtractor extends RestApiExtractor {
     }
   }
 
+  /**
+   * Create a bulk query job with the query and the predicates, which are executed by a single batch unless PK chunking
+   * is enabled for the {@link #bulkConnection}
+   * @return the batch info of the query
+   */
+  private BatchInfo createBulkQueryJob(String entity, List<Predicate> predicateList) throws Exception {
+    // Set bulk job attributes
+    this.bulkJob.setObject(entity);
+    this.bulkJob.setOperation(OperationEnum.query);
+    this.bulkJob.setConcurrencyMode(ConcurrencyMode.Parallel);
+
+    // Result type as CSV
+    this.bulkJob.setContentType(ContentType.CSV);
+
+    this.bulkJob = this.bulkConnection.createJob(this.bulkJob);
+    this.bulkJob = this.bulkConnection.getJobStatus(this.bulkJob.getId());
+
+    // Construct query with the predicates
+    String query = this.updatedQuery;
+    if (!isNullPredicate(predicateList)) {
+      String limitString = getLimitFromInputQuery(query);
+      query = query.replace(limitString, "");
+
+      Iterator<Predicate> i = predicateList.listIterator();
+      while (i.hasNext()) {
+        Predicate predicate = i.next();
+        query = SqlQueryUtils.addPredicate(query, predicate.getCondition());
+      }
+
+      query = query + limitString;
+    }
+
+    log.info("QUERY:" + query);
+    ByteArrayInputStream bout = new ByteArrayInputStream(query.getBytes(ConfigurationKeys.DEFAULT_CHARSET_ENCODING));
+
+    return this.bulkConnection.createBatchFromStream(this.bulkJob, bout);
+  }
+
+  /**
+   * Start a bulk query job that Salesforce splits into batches of Id ranges of the given size, whose results are
+   * downloaded in parallel as soon as the batches complete
+   * @return the reader of the results of all the batches
+   */
+  private SalesforceBulkResultReader startPkChunkedQuery(String entity, List<Predicate> predicateList,
+      int pkChunkingSize) throws Exception {
+    if (!bulkApiLogin()) {
+      throw new IllegalArgumentException("Invalid Login");
+    }
+
+    try {
+      this.bulkConnection.addHeader(PK_CHUNKING_HEADER, "chunkSize=" + pkChunkingSize);
+      this.bulkBatchInfo = createBulkQueryJob(entity, predicateList);
+
+      int downloadThreads =
+          this.workUnit.getPropAsInt(SalesforceConfigurationKeys.SOURCE_QUERYBASED_SALESFORCE_BULK_DOWNLOAD_THREADS,
+              SalesforceConfigurationKeys.DEFAULT_SALESFORCE_BULK_DOWNLOAD_THREADS);
+      int pollIntervalSeconds = this.workUnit.getPropAsInt(
+          SalesforceConfigurationKeys.SOURCE_QUERYBASED_SALESFORCE_BULK_POLL_INTERVAL_SECONDS,
+          SalesforceConfigurationKeys.DEFAULT_SALESFORCE_BULK_POLL_INTERVAL_SECONDS);
+      log.info(String.format("Reading bulk api results of job %s with PK chunk size %d and %d download threads",
+          this.bulkJob.getId(), pkChunkingSize, downloadThreads));
+
+      // Buffer a fetch of records for each download thread
+      this.bulkMetricContext = Instrumented.getMetricContext(this.workUnitState, SalesforceBulkResultReader.class);
+      SalesforceBulkResultReader reader = new SalesforceBulkResultReader(this.bulkConnection, this.bulkJob.getId(),
+          downloadThreads, TimeUnit.SECONDS.toMillis(pollIntervalSeconds), getFetchSize() * downloadThreads,
+          this.bulkMetricContext);
+      reader.start();
+      return reader;
+    } catch (RuntimeException | AsyncApiException e) {
+      throw new RuntimeException("Failed to start PK chunked bulk api query; error - " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Get data downloaded from the batches of a PK chunked bulk query
+   * @return record set with each record as a JsonObject, which is empty if all the records were read
+   */
+  private RecordSet<JsonElement> getPkChunkedBulkData() throws DataRecordException {
+    RecordSetList<JsonElement> rs = new RecordSetList<>();
+
+    try {
+      List<JsonElement> records = this.bulkResultReader.next(getFetchSize());
+      if (records.isEmpty()) {
+        log.info("Bulk job is finished");
+        this.setBulkJobFinished(true);
+        return rs;
+      }
+
+      for (JsonElement record : records) {
+        rs.add(record);
+      }
+      this.bulkRecordCount += records.size();
+      log.info("Total number of records processed so far: " + this.bulkRecordCount);
+    } catch (IOException e) {
+      throw new DataRecordException("Failed to get records from salesforce; error - " + e.getMessage(), e);
+    }
+
+    return rs;
+  }
+
+  /**
+   * Get the batch size from .pull file
+   */
+  private int getFetchSize() {
+    int batchSize = Utils.getAsInt(this.workUnit.getProp(ConfigurationKeys.SOURCE_QUERYBASED_FETCH_SIZE));
+    if (batchSize == 0) {
+      batchSize = ConfigurationKeys.DEFAULT_SOURCE_FETCH_SIZE;
+    }
+    return batchSize;
+  }
+
   /**
    * Get data from the bulk api input stream
      * @return record set with each record as a JsonObject
@@ -740,11 +840,7 @@ public class SalesforceExtractor extends RestApiExtractor {
 
       // if Buffer stream has data then process the same
 
-      // Get batch size from .pull file
-      int batchSize = Utils.getAsInt(this.workUnit.getProp(ConfigurationKeys.SOURCE_QUERYBASED_FETCH_SIZE));
-      if (batchSize == 0) {
-        batchSize = ConfigurationKeys.DEFAULT_SOURCE_FETCH_SIZE;
-      }
+      int batchSize = getFetchSize();
 
       // Stream the resultset through CSV reader to identify columns in each record
       InputStreamCSVReader reader = new InputStreamCSVReader(this.bulkBufferedReader);
@@ -783,6 +879,20 @@ public class SalesforceExtractor extends RestApiExtractor {
 
   @Override
   public void closeConnection() throws Exception {
+    if (this.bulkResultReader != null) {
+      this.bulkResultReader.close();
+      Map<String, Metric> metrics = this.bulkResultReader.getMetrics();
+      Meter recordsDownloaded = (Meter) metrics.get(SalesforceBulkResultReader.RECORDS_DOWNLOADED);
+      log.info(String.format("Bulk api batches polled %d times, %d batches and %d result sets with %d records "
+          + "downloaded at %.1f records per second",
+          ((Counter) metrics.get(SalesforceBulkResultReader.BATCH_POLLS)).getCount(),
+          ((Counter) metrics.get(SalesforceBulkResultReader.BATCHES_COMPLETED)).getCount(),
+          ((Counter) metrics.get(SalesforceBulkResultReader.RESULT_SETS_DOWNLOADED)).getCount(),
+          recordsDownloaded.getCount(), recordsDownloaded.getMeanRate()));
+    }
+    if (this.bulkMetricContext != null) {
+      this.bulkMetricContext.close();
+    }
     if (this.bulkConnection != null
         && !this.bulkConnection.getJobStatus(this.bulkJob.getId()).getState().toString().equals("Closed")) {
       log.info("Closing salesforce bulk job connection");
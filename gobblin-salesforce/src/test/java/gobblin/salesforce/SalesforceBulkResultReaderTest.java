@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.salesforce;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.gson.JsonElement;
+import com.sforce.async.BulkConnection;
+import com.sforce.ws.ConnectorConfig;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import gobblin.metrics.MetricContext;
+
+
+/**
+ * Unit tests for {@link SalesforceBulkResultReader} against a local HTTP stand-in for the Salesforce bulk api.
+ */
+@Test(groups = { "gobblin.salesforce" })
+public class SalesforceBulkResultReaderTest {
+
+  private static final String JOB_ID = "job1";
+  private static final String ASYNC_NAMESPACE = "http://www.force.com/2009/06/asyncapi/dataload";
+
+  private HttpServer server;
+  private BulkConnection bulkConnection;
+  private final AtomicInteger batchListRequests = new AtomicInteger();
+  // The batches reported as in progress until the batches were listed the given number of times
+  private final Map<String, Integer> batchCompletionPolls = new ConcurrentHashMap<>();
+  private final Map<String, String> resultSets = new ConcurrentHashMap<>();
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    this.batchListRequests.set(0);
+    this.batchCompletionPolls.clear();
+    this.resultSets.clear();
+
+    this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    this.server.createContext("/services/async/37.0/job/" + JOB_ID + "/batch", new HttpHandler() {
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+        handleRequest(exchange);
+      }
+    });
+    this.server.start();
+
+    ConnectorConfig config = new ConnectorConfig();
+    config.setSessionId("session");
+    config.setRestEndpoint("http://localhost:" + this.server.getAddress().getPort() + "/services/async/37.0");
+    config.setCompression(false);
+    this.bulkConnection = new BulkConnection(config);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    this.server.stop(0);
+  }
+
+  @Test
+  public void testReadPkChunkedBatches() throws Exception {
+    this.batchCompletionPolls.put("batch1", 1);
+    this.batchCompletionPolls.put("batch2", 3);
+    this.batchCompletionPolls.put("batch3", 2);
+    this.resultSets.put("batch1/result1", "\"Id\",\"Name\"\n\"1\",\"a\"\n\"2\",\"b\"\n");
+    this.resultSets.put("batch1/result2", "\"Id\",\"Name\"\n\"3\",\"c\"\n");
+    this.resultSets.put("batch2/result1", "\"Id\",\"Name\"\n\"4\",\"d\"\n\"5\",\"e\"\n\"6\",\"f\"\n");
+    this.resultSets.put("batch3/result1", "\"Id\",\"Name\"\n");
+
+    MetricContext taskContext = MetricContext.builder("task").build();
+    MetricContext readerContext = taskContext.childBuilder("reader").build();
+    SalesforceBulkResultReader reader =
+        new SalesforceBulkResultReader(this.bulkConnection, JOB_ID, 2, 10, 2, readerContext);
+    try {
+      reader.start();
+
+      Set<String> ids = Sets.newHashSet();
+      List<JsonElement> records;
+      while (!(records = reader.next(2)).isEmpty()) {
+        Assert.assertTrue(records.size() <= 2);
+        for (JsonElement record : records) {
+          String id = record.getAsJsonObject().get("Id").getAsString();
+          Assert.assertTrue(ids.add(id));
+          Assert.assertEquals(record.getAsJsonObject().get("Name").getAsString(),
+              String.valueOf((char) ('a' + Integer.parseInt(id) - 1)));
+        }
+      }
+      Assert.assertEquals(ids, Sets.newHashSet("1", "2", "3", "4", "5", "6"));
+      Assert.assertTrue(reader.next(2).isEmpty());
+
+      Assert.assertEquals(((Counter) reader.getMetrics().get(SalesforceBulkResultReader.BATCH_POLLS)).getCount(), 4);
+      Assert.assertEquals(
+          ((Counter) reader.getMetrics().get(SalesforceBulkResultReader.BATCHES_COMPLETED)).getCount(), 3);
+      Assert.assertEquals(
+          ((Counter) reader.getMetrics().get(SalesforceBulkResultReader.RESULT_SETS_DOWNLOADED)).getCount(), 4);
+      Assert.assertEquals(
+          ((Meter) reader.getMetrics().get(SalesforceBulkResultReader.RECORDS_DOWNLOADED)).getCount(), 6);
+
+      // The metrics are kept in the given context and reported with the metrics of the task
+      Assert.assertEquals(readerContext.getCounters().get(SalesforceBulkResultReader.BATCH_POLLS).getCount(), 4);
+      Assert.assertEquals(taskContext.getCounters().get(SalesforceBulkResultReader.BATCH_POLLS).getCount(), 4);
+      Assert.assertEquals(taskContext.getMeters().get(SalesforceBulkResultReader.RECORDS_DOWNLOADED).getCount(), 6);
+    } finally {
+      reader.close();
+      readerContext.close();
+      taskContext.close();
+    }
+  }
+
+  @Test(expectedExceptions = IOException.class)
+  public void testFailedBatch() throws Exception {
+    this.batchCompletionPolls.put("batch1", 1);
+    this.batchCompletionPolls.put("batch2", -1);
+    this.resultSets.put("batch1/result1", "\"Id\",\"Name\"\n\"1\",\"a\"\n");
+
+    SalesforceBulkResultReader reader = new SalesforceBulkResultReader(this.bulkConnection, JOB_ID, 2, 10, 10,
+        MetricContext.builder("testFailedBatch").build());
+    try {
+      reader.start();
+      while (!reader.next(10).isEmpty()) {
+        // Read until the failure is thrown
+      }
+    } finally {
+      reader.close();
+    }
+  }
+
+  @Test(expectedExceptions = IOException.class)
+  public void testFailedResultSetDownload() throws Exception {
+    this.batchCompletionPolls.put("batch1", 1);
+    this.batchCompletionPolls.put("batch2", 1);
+    this.resultSets.put("batch1/result1", "\"Id\",\"Name\"\n\"1\",\"a\"\n");
+    // The result set of batch2 is listed but cannot be downloaded
+    this.resultSets.put("batch2/result1", "");
+
+    SalesforceBulkResultReader reader = new SalesforceBulkResultReader(this.bulkConnection, JOB_ID, 2, 10, 10,
+        MetricContext.builder("testFailedResultSetDownload").build());
+    try {
+      reader.start();
+      // The records that were downloaded are read, but the end of the results is never reached
+      while (!reader.next(10).isEmpty()) {
+        // Read until the failure is thrown
+      }
+    } finally {
+      reader.close();
+    }
+  }
+
+  private void handleRequest(HttpExchange exchange) throws IOException {
+    // The path is /services/async/37.0/job/<jobId>/batch[/<batchId>/result[/<resultId>]]
+    String[] path = exchange.getRequestURI().getPath().split("/");
+    String response;
+    String contentType = "application/xml";
+    if (path.length == 7) {
+      response = getBatchInfoList(this.batchListRequests.incrementAndGet());
+    } else if (path.length == 9) {
+      List<String> resultIds = Lists.newArrayList();
+      for (String resultSet : this.resultSets.keySet()) {
+        if (resultSet.startsWith(path[7] + "/")) {
+          resultIds.add(resultSet.substring(path[7].length() + 1));
+        }
+      }
+      StringBuilder builder = new StringBuilder("<result-list xmlns=\"" + ASYNC_NAMESPACE + "\">");
+      for (String resultId : resultIds) {
+        builder.append("<result>").append(resultId).append("</result>");
+      }
+      response = builder.append("</result-list>").toString();
+    } else {
+      response = this.resultSets.get(path[7] + "/" + path[9]);
+      contentType = "text/csv";
+      if (response.isEmpty()) {
+        exchange.sendResponseHeaders(500, -1);
+        exchange.close();
+        return;
+      }
+    }
+
+    byte[] bytes = response.getBytes(Charsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", contentType);
+    exchange.sendResponseHeaders(200, bytes.length);
+    try (OutputStream outputStream = exchange.getResponseBody()) {
+      outputStream.write(bytes);
+    }
+  }
+
+  /**
+   * The batch the query was submitted as is split into the chunk batches on the first listing.
+   */
+  private String getBatchInfoList(int polls) {
+    StringBuilder builder = new StringBuilder("<batchInfoList xmlns=\"" + ASYNC_NAMESPACE + "\">");
+    builder.append(getBatchInfo("batch0", polls == 1 ? "Queued" : "NotProcessed"));
+    if (polls > 1) {
+      for (Map.Entry<String, Integer> batch : this.batchCompletionPolls.entrySet()) {
+        String state;
+        if (batch.getValue() < 0) {
+          state = "Failed";
+        } else {
+          state = polls - 1 >= batch.getValue() ? "Completed" : "InProgress";
+        }
+        builder.append(getBatchInfo(batch.getKey(), state));
+      }
+    }
+    return builder.append("</batchInfoList>").toString();
+  }
+
+  private static String getBatchInfo(String batchId, String state) {
+    return "<batchInfo><id>" + batchId + "</id><jobId>" + JOB_ID + "</jobId><state>" + state + "</state>"
+        + "<numberRecordsProcessed>0</numberRecordsProcessed><numberRecordsFailed>0</numberRecordsFailed>"
+        + "<totalProcessingTime>0</totalProcessingTime><apiActiveProcessingTime>0</apiActiveProcessingTime>"
+        + "<apexProcessingTime>0</apexProcessingTime></batchInfo>";
+  }
+}
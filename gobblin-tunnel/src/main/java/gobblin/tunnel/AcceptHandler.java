@@ -13,9 +13,9 @@
 package gobblin.tunnel;
 
 import java.io.IOException;
-import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.List;
 import java.util.concurrent.Callable;
 
 import org.slf4j.Logger;
@@ -28,26 +28,52 @@ class AcceptHandler implements Callable<HandlerState> {
   private static final Logger LOG = LoggerFactory.getLogger(Tunnel.class);
 
   private final ServerSocketChannel server;
-  private final Selector selector;
+  private final List<Dispatcher> dispatchers;
   private final Config config;
+  private final ByteBufferPool bufferPool;
+  private final TunnelMetrics metrics;
+  private int nextDispatcher = 0;
 
-  AcceptHandler(ServerSocketChannel server, Selector selector, Config config) {
+  AcceptHandler(ServerSocketChannel server, List<Dispatcher> dispatchers, Config config, ByteBufferPool bufferPool,
+      TunnelMetrics metrics) {
     this.config = config;
     this.server = server;
-    this.selector = selector;
+    this.dispatchers = dispatchers;
+    this.bufferPool = bufferPool;
+    this.metrics = metrics;
   }
 
   @Override
   public HandlerState call()
       throws Exception {
-    SocketChannel client = this.server.accept();
+    final SocketChannel client = this.server.accept();
+    if (client == null) {
+      return HandlerState.ACCEPTING;
+    }
 
     LOG.info("Accepted connection from {}", client.getRemoteAddress());
-    try {
-      new ProxySetupHandler(client, selector, config);
-    } catch (IOException ioe) {
-      client.close();
-    }
+    this.metrics.connectionAccepted();
+
+    // The connection is handled by the dispatchers in turn
+    final Dispatcher dispatcher = this.dispatchers.get(this.nextDispatcher);
+    this.nextDispatcher = (this.nextDispatcher + 1) % this.dispatchers.size();
+    dispatcher.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          new ProxySetupHandler(client, dispatcher.getSelector(), AcceptHandler.this.config,
+              AcceptHandler.this.bufferPool, AcceptHandler.this.metrics);
+        } catch (IOException ioe) {
+          LOG.warn("Failed to set up a proxy connection for {}", client, ioe);
+          try {
+            client.close();
+          } catch (IOException log) {
+            LOG.warn("Failed to close client channel {}", client, log);
+          }
+          AcceptHandler.this.metrics.connectionClosed();
+        }
+      }
+    });
     return HandlerState.ACCEPTING;
   }
 }
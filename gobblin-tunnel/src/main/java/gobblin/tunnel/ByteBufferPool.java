@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.tunnel;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * A pool of the {@link ByteBuffer}s connections relay data through.
+ *
+ * <p>
+ *   If the pool keeps any buffers, it allocates direct buffers, which are reused by later connections once the
+ *   connections that acquired them are closed, so their allocation cost is paid once and at most the buffers of the
+ *   open connections and the pooled buffers are held. Otherwise each connection gets its own heap buffer. This class
+ *   is thread safe.
+ * </p>
+ */
+class ByteBufferPool {
+
+  private final int bufferSize;
+  private final int maxPooledBuffers;
+  private final Queue<ByteBuffer> pooledBuffers = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger numPooledBuffers = new AtomicInteger();
+
+  /**
+   * @param bufferSize the size of the buffers
+   * @param maxPooledBuffers the maximum number of released buffers kept for reuse, or 0 to not pool buffers
+   */
+  ByteBufferPool(int bufferSize, int maxPooledBuffers) {
+    this.bufferSize = bufferSize;
+    this.maxPooledBuffers = maxPooledBuffers;
+  }
+
+  /**
+   * @return a cleared buffer, which should be {@link #release(ByteBuffer)}d once it is not used anymore
+   */
+  ByteBuffer acquire() {
+    if (this.maxPooledBuffers <= 0) {
+      return ByteBuffer.allocate(this.bufferSize);
+    }
+
+    ByteBuffer buffer = this.pooledBuffers.poll();
+    if (buffer == null) {
+      return ByteBuffer.allocateDirect(this.bufferSize);
+    }
+    this.numPooledBuffers.decrementAndGet();
+    buffer.clear();
+    return buffer;
+  }
+
+  /**
+   * Return a buffer acquired from this pool, which must not be used afterwards.
+   */
+  void release(ByteBuffer buffer) {
+    if (this.maxPooledBuffers <= 0) {
+      return;
+    }
+
+    if (this.numPooledBuffers.incrementAndGet() <= this.maxPooledBuffers) {
+      this.pooledBuffers.offer(buffer);
+    } else {
+      this.numPooledBuffers.decrementAndGet();
+    }
+  }
+
+  /**
+   * @return the number of released buffers kept for reuse
+   */
+  int getNumPooledBuffers() {
+    return this.numPooledBuffers.get();
+  }
+}
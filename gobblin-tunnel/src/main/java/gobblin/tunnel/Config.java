@@ -14,16 +14,31 @@ package gobblin.tunnel;
 
 class Config {
   public static final int PROXY_CONNECT_TIMEOUT_MS = 5000;
+  public static final int DEFAULT_SELECTOR_THREADS = 1;
+  public static final int DEFAULT_BUFFER_SIZE = 1000000;
+  public static final int DEFAULT_MAX_POOLED_BUFFERS = 0;
   private final String remoteHost;
   private final int remotePort;
   private final String proxyHost;
   private final int proxyPort;
+  private final int selectorThreads;
+  private final int bufferSize;
+  private final int maxPooledBuffers;
 
   public Config(String remoteHost, int remotePort, String proxyHost, int proxyPort) {
+    this(remoteHost, remotePort, proxyHost, proxyPort, DEFAULT_SELECTOR_THREADS, DEFAULT_BUFFER_SIZE,
+        DEFAULT_MAX_POOLED_BUFFERS);
+  }
+
+  public Config(String remoteHost, int remotePort, String proxyHost, int proxyPort, int selectorThreads,
+      int bufferSize, int maxPooledBuffers) {
     this.remoteHost = remoteHost;
     this.remotePort = remotePort;
     this.proxyHost = proxyHost;
     this.proxyPort = proxyPort;
+    this.selectorThreads = selectorThreads;
+    this.bufferSize = bufferSize;
+    this.maxPooledBuffers = maxPooledBuffers;
   }
 
   public String getRemoteHost() {
@@ -41,4 +56,16 @@ class Config {
   public int getProxyPort() {
     return this.proxyPort;
   }
+
+  public int getSelectorThreads() {
+    return this.selectorThreads;
+  }
+
+  public int getBufferSize() {
+    return this.bufferSize;
+  }
+
+  public int getMaxPooledBuffers() {
+    return this.maxPooledBuffers;
+  }
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.tunnel;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * A thread running a {@link Selector} and the handlers of the channels registered with it.
+ *
+ * <p>
+ *   The channels of a connection are registered with the {@link Selector} of a single {@link Dispatcher}, so the
+ *   handlers of a connection always run on the same thread. Since registering a channel with a {@link Selector} blocks
+ *   while another thread is selecting on it, other threads hand work on a {@link Dispatcher} over with
+ *   {@link #execute(Runnable)}, which runs it on the thread of the {@link Dispatcher} before its next selection.
+ * </p>
+ */
+class Dispatcher implements Runnable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(Tunnel.class);
+
+  private final Selector selector;
+  private final Queue<Runnable> pendingTasks = new ConcurrentLinkedQueue<>();
+
+  Dispatcher() throws IOException {
+    this.selector = Selector.open();
+  }
+
+  Selector getSelector() {
+    return this.selector;
+  }
+
+  /**
+   * Run a task on the thread of this {@link Dispatcher}.
+   */
+  void execute(Runnable task) {
+    this.pendingTasks.offer(task);
+    this.selector.wakeup();
+  }
+
+  @Override
+  public void run() {
+    try {
+      while (!Thread.interrupted()) {
+        runPendingTasks();
+
+        this.selector.select();
+        Set<SelectionKey> selectionKeys = this.selector.selectedKeys();
+
+        for (SelectionKey selectionKey : selectionKeys) {
+          dispatch(selectionKey);
+        }
+        selectionKeys.clear();
+      }
+    } catch (IOException ioe) {
+      LOG.error("Unhandled IOException. Tunnel will close", ioe);
+    } finally {
+      try {
+        this.selector.close();
+      } catch (IOException ioe) {
+        LOG.warn("Failed to close selector", ioe);
+      }
+    }
+
+    LOG.info("Closing tunnel");
+  }
+
+  private void runPendingTasks() {
+    Runnable task;
+    while ((task = this.pendingTasks.poll()) != null) {
+      try {
+        task.run();
+      } catch (RuntimeException e) {
+        LOG.error("Exception running task", e);
+      }
+    }
+  }
+
+  private void dispatch(SelectionKey selectionKey) {
+    Callable<?> attachment = (Callable<?>) selectionKey.attachment();
+
+    try {
+      attachment.call();
+    } catch (Exception e) {
+      LOG.error("exception handling event on {}", selectionKey.channel(), e);
+    }
+  }
+}
@@ -51,9 +51,15 @@ class ProxySetupHandler implements Callable<HandlerState> {
   private final long connectStartTime;
   private int totalBytesRead = 0;
   private final Config config;
+  private final ByteBufferPool bufferPool;
+  private final TunnelMetrics metrics;
+  private boolean closed = false;
 
-  ProxySetupHandler(SocketChannel client, Selector selector, Config config) throws IOException {
+  ProxySetupHandler(SocketChannel client, Selector selector, Config config, ByteBufferPool bufferPool,
+      TunnelMetrics metrics) throws IOException {
     this.config = config;
+    this.bufferPool = bufferPool;
+    this.metrics = metrics;
     this.client = client;
     this.selector = selector;
     this.buffer =
@@ -151,7 +157,7 @@ class ProxySetupHandler implements Callable<HandlerState> {
               || ((temp[i] == '\r') && (temp[i + 1] == '\n') && (temp[i + 2] == '\r') && (temp[i + 3] == '\n'))) {
             this.state = null;
             this.buffer.position(i + 4);
-            new ReadWriteHandler(this.proxy, this.buffer, this.client, this.selector);
+            new ReadWriteHandler(this.proxy, this.buffer, this.client, this.selector, this.bufferPool, this.metrics);
             return;
           }
         }
@@ -165,6 +171,11 @@ class ProxySetupHandler implements Callable<HandlerState> {
   }
 
   private void closeChannels() {
+    if (!this.closed) {
+      this.closed = true;
+      this.metrics.connectionClosed();
+    }
+
     if (this.proxy.isOpen()) {
       try {
         this.proxy.close();
@@ -35,14 +35,20 @@ class ReadWriteHandler implements Callable<HandlerState> {
   private final SocketChannel proxy;
   private final SocketChannel client;
   private final Selector selector;
-  private final ByteBuffer buffer = ByteBuffer.allocate(1000000);
+  private final ByteBufferPool bufferPool;
+  private final TunnelMetrics metrics;
+  private ByteBuffer buffer;
   private HandlerState state = HandlerState.READING;
 
-  ReadWriteHandler(SocketChannel proxy, ByteBuffer mixedServerResponseBuffer, SocketChannel client, Selector selector)
+  ReadWriteHandler(SocketChannel proxy, ByteBuffer mixedServerResponseBuffer, SocketChannel client, Selector selector,
+      ByteBufferPool bufferPool, TunnelMetrics metrics)
       throws IOException {
     this.proxy = proxy;
     this.client = client;
     this.selector = selector;
+    this.bufferPool = bufferPool;
+    this.metrics = metrics;
+    this.buffer = bufferPool.acquire();
 
     // drain response that is not part of proxy's 200 OK and is part of data pushed from server, and push to client
     if (mixedServerResponseBuffer.limit() > mixedServerResponseBuffer.position()) {
@@ -51,6 +57,7 @@ class ReadWriteHandler implements Callable<HandlerState> {
       clientOut.write(mixedServerResponseBuffer.array(), mixedServerResponseBuffer.position(),
           mixedServerResponseBuffer.limit() - mixedServerResponseBuffer.position());
       clientOut.flush();
+      this.metrics.bytesFromRemote(mixedServerResponseBuffer.limit() - mixedServerResponseBuffer.position());
     }
     this.proxy.configureBlocking(false);
     this.client.configureBlocking(false);
@@ -120,6 +127,11 @@ class ReadWriteHandler implements Callable<HandlerState> {
       }
 
       LOG.debug("{} bytes written to {}", totalWrite, writeChannel == this.proxy ? "proxy" : "client");
+      if (writeChannel == this.proxy) {
+        this.metrics.bytesToRemote(totalWrite);
+      } else {
+        this.metrics.bytesFromRemote(totalWrite);
+      }
 
       if (totalWrite == available) {
         this.buffer.clear();
@@ -129,6 +141,7 @@ class ReadWriteHandler implements Callable<HandlerState> {
         }
         else{
           writeChannel.close();
+          releaseResources();
         }
         this.state = HandlerState.READING;
       } else {
@@ -176,11 +189,28 @@ class ReadWriteHandler implements Callable<HandlerState> {
       }
       if (lastRead == -1) {
         readChannel.close();
+        if (totalRead == 0) {
+          // Nothing is left to relay to the other side, which is closed as well
+          closeChannels();
+        }
       }
     }
   }
 
+  /**
+   * Release the buffer to the pool and count the connection as closed, once both channels are closed.
+   */
+  private void releaseResources() {
+    if (this.buffer != null) {
+      this.bufferPool.release(this.buffer);
+      this.buffer = null;
+      this.metrics.connectionClosed();
+    }
+  }
+
   private void closeChannels() {
+    releaseResources();
+
     if (this.proxy.isOpen()) {
       try {
         this.proxy.close();
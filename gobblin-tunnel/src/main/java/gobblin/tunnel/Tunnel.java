@@ -15,15 +15,19 @@ package gobblin.tunnel;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SelectionKey;
-import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
-import java.util.Set;
-import java.util.concurrent.Callable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+
 
 /**
  * This class implements a tunnel through a proxy to resource on the internet. Frequently data stores to be accessed by
@@ -54,21 +58,38 @@ import org.slf4j.LoggerFactory;
  * 7. When the Gobblin extractor (e.g. JDBC data source) is closed down, the Tunnel must be shut down as well.
  *
  * The Tunnel can accept as many connections as the JdbcExtractor opens. It uses NIO to minimize resource usage.
+ * The connections are spread over a configurable number of selector threads, and the buffers they relay data through
+ * can be pooled direct buffers of a configurable size (see
+ * {@link #build(String, int, String, int, int, int, int)}). The numbers of connections and bytes transferred are
+ * available from {@link #getMetrics()}.
  *
  * @author navteniev@linkedin.com
  * @author kkandekar@linkedin.com
  */
-public class Tunnel {
+public class Tunnel implements MetricSet {
   public static final int NON_EXISTENT_PORT = -1;
 
+  /** Number of connections accepted by the tunnel. */
+  public static final String CONNECTIONS_ACCEPTED = "tunnel.connectionsAccepted";
+  /** Number of accepted connections that are not closed yet. */
+  public static final String ACTIVE_CONNECTIONS = "tunnel.activeConnections";
+  /** Number and rates of bytes relayed from clients to the remote host. */
+  public static final String BYTES_TO_REMOTE = "tunnel.bytesToRemote";
+  /** Number and rates of bytes relayed from the remote host to clients. */
+  public static final String BYTES_FROM_REMOTE = "tunnel.bytesFromRemote";
+
   private static final Logger LOG = LoggerFactory.getLogger(Tunnel.class);
 
   private ServerSocketChannel server;
-  private Thread thread;
+  private final List<Dispatcher> dispatchers = new ArrayList<>();
+  private final List<Thread> threads = new ArrayList<>();
   private final Config config;
+  private final ByteBufferPool bufferPool;
+  private final TunnelMetrics metrics = new TunnelMetrics();
 
-  private Tunnel(String remoteHost, int remotePort, String proxyHost, int proxyPort) {
-    this.config = new Config(remoteHost, remotePort, proxyHost, proxyPort);
+  private Tunnel(Config config) {
+    this.config = config;
+    this.bufferPool = new ByteBufferPool(config.getBufferSize(), config.getMaxPooledBuffers());
   }
 
   private Tunnel open() throws IOException {
@@ -76,8 +97,27 @@ public class Tunnel {
       this.server = ServerSocketChannel.open().bind(null);
       this.server.configureBlocking(false);
 
-      Selector selector = Selector.open();
-      startTunnelThread(selector);
+      for (int i = 0; i < Math.max(1, this.config.getSelectorThreads()); i++) {
+        this.dispatchers.add(new Dispatcher());
+      }
+      for (int i = 0; i < this.dispatchers.size(); i++) {
+        startTunnelThread(this.dispatchers.get(i), i == 0 ? "Tunnel Listener" : "Tunnel Selector " + i);
+      }
+
+      // The first dispatcher accepts the connections and hands them over to the dispatchers in turn
+      final Dispatcher acceptDispatcher = this.dispatchers.get(0);
+      acceptDispatcher.execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            Tunnel.this.server.register(acceptDispatcher.getSelector(), SelectionKey.OP_ACCEPT,
+                new AcceptHandler(Tunnel.this.server, Tunnel.this.dispatchers, Tunnel.this.config,
+                    Tunnel.this.bufferPool, Tunnel.this.metrics));
+          } catch (ClosedChannelException cce) {
+            LOG.error("Tunnel closed before accepting connections", cce);
+          }
+        }
+      });
       return this;
     } catch (IOException ioe) {
       LOG.error("Failed to open the tunnel", ioe);
@@ -102,63 +142,39 @@ public class Tunnel {
     return NON_EXISTENT_PORT;
   }
 
-  private void startTunnelThread(Selector selector) {
-    this.thread = new Thread(new Dispatcher(selector), "Tunnel Listener");
-    this.thread.setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+  private void startTunnelThread(Dispatcher dispatcher, String name) {
+    Thread thread = new Thread(dispatcher, name);
+    thread.setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
       @Override
       public void uncaughtException(Thread t, Throwable e) {
         LOG.error("Uncaught exception in thread " + t.getName(), e);
       }
     });
     //so we don't prevent the JVM from shutting down, just in case
-    this.thread.setDaemon(true);
-    this.thread.start();
+    thread.setDaemon(true);
+    thread.start();
+    this.threads.add(thread);
   }
 
   public boolean isTunnelThreadAlive() {
-    return (this.thread != null && this.thread.isAlive());
-  }
-
-  private class Dispatcher implements Runnable {
-
-    private final Selector selector;
-
-    public Dispatcher(Selector selector) {
-      this.selector = selector;
+    if (this.threads.isEmpty()) {
+      return false;
     }
-
-    @Override
-    public void run() {
-      try {
-        Tunnel.this.server.register(this.selector, SelectionKey.OP_ACCEPT,
-            new AcceptHandler(Tunnel.this.server, this.selector, Tunnel.this.config));
-
-        while (!Thread.interrupted()) {
-
-          this.selector.select();
-          Set<SelectionKey> selectionKeys = this.selector.selectedKeys();
-
-          for (SelectionKey selectionKey : selectionKeys) {
-            dispatch(selectionKey);
-          }
-          selectionKeys.clear();
-        }
-      } catch (IOException ioe) {
-        LOG.error("Unhandled IOException. Tunnel will close", ioe);
+    for (Thread thread : this.threads) {
+      if (!thread.isAlive()) {
+        return false;
       }
-
-      LOG.info("Closing tunnel");
     }
+    return true;
+  }
 
-    private void dispatch(SelectionKey selectionKey) {
-      Callable<?> attachment = (Callable<?>) selectionKey.attachment();
-
-      try {
-        attachment.call();
-      } catch (Exception e) {
-        LOG.error("exception handling event on {}", selectionKey.channel(), e);
-      }
-    }
+  /**
+   * Get the metrics of the tunnel: the {@link #CONNECTIONS_ACCEPTED} and {@link #ACTIVE_CONNECTIONS} counters, and
+   * the {@link #BYTES_TO_REMOTE} and {@link #BYTES_FROM_REMOTE} meters.
+   */
+  @Override
+  public Map<String, Metric> getMetrics() {
+    return this.metrics.getMetrics();
   }
 
   public void close() {
@@ -169,8 +185,12 @@ public class Tunnel {
       LOG.warn("Exception during shutdown of tunnel", ioe);
     } finally {
       try {
-        this.thread.interrupt();
-        this.thread.join();
+        for (Thread thread : this.threads) {
+          thread.interrupt();
+        }
+        for (Thread thread : this.threads) {
+          thread.join();
+        }
       } catch (InterruptedException e) {
         throw new RuntimeException(e);
       }
@@ -178,6 +198,21 @@ public class Tunnel {
   }
 
   public static Tunnel build(String remoteHost, int remotePort, String proxyHost, int proxyPort) throws IOException {
-    return new Tunnel(remoteHost, remotePort, proxyHost, proxyPort).open();
+    return new Tunnel(new Config(remoteHost, remotePort, proxyHost, proxyPort)).open();
+  }
+
+  /**
+   * Build a tunnel whose connections are handled by the given number of selector threads.
+   *
+   * @param selectorThreads the number of threads the connections are spread over
+   * @param bufferSize the size of the buffer of each connection
+   * @param maxPooledBuffers the maximum number of buffers of closed connections kept for reuse by new connections.
+   *                         If positive, the buffers are direct buffers, otherwise each connection allocates a heap
+   *                         buffer.
+   */
+  public static Tunnel build(String remoteHost, int remotePort, String proxyHost, int proxyPort, int selectorThreads,
+      int bufferSize, int maxPooledBuffers) throws IOException {
+    return new Tunnel(new Config(remoteHost, remotePort, proxyHost, proxyPort, selectorThreads, bufferSize,
+        maxPooledBuffers)).open();
   }
 }
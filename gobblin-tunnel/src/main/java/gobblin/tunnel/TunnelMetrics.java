@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.tunnel;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+
+
+/**
+ * The connection and transfer metrics of a {@link Tunnel}, which are updated by the handlers of its connections.
+ */
+class TunnelMetrics implements MetricSet {
+
+  private final Counter connectionsAccepted = new Counter();
+  private final Counter activeConnections = new Counter();
+  private final Meter bytesToRemote = new Meter();
+  private final Meter bytesFromRemote = new Meter();
+
+  void connectionAccepted() {
+    this.connectionsAccepted.inc();
+    this.activeConnections.inc();
+  }
+
+  void connectionClosed() {
+    this.activeConnections.dec();
+  }
+
+  void bytesToRemote(long bytes) {
+    this.bytesToRemote.mark(bytes);
+  }
+
+  void bytesFromRemote(long bytes) {
+    this.bytesFromRemote.mark(bytes);
+  }
+
+  @Override
+  public Map<String, Metric> getMetrics() {
+    Map<String, Metric> metrics = new LinkedHashMap<>();
+    metrics.put(Tunnel.CONNECTIONS_ACCEPTED, this.connectionsAccepted);
+    metrics.put(Tunnel.ACTIVE_CONNECTIONS, this.activeConnections);
+    metrics.put(Tunnel.BYTES_TO_REMOTE, this.bytesToRemote);
+    metrics.put(Tunnel.BYTES_FROM_REMOTE, this.bytesFromRemote);
+    return Collections.unmodifiableMap(metrics);
+  }
+}
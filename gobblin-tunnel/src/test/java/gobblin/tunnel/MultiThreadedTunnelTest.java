@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.tunnel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+
+
+/**
+ * Tests for a {@link Tunnel} with multiple selector threads and pooled buffers, through a proxy that accepts
+ * every HTTP CONNECT request and echoes the data it receives.
+ */
+@Test(groups = { "gobblin.tunnel" })
+public class MultiThreadedTunnelTest {
+
+  private static final int CLIENTS = 10;
+  private static final int BYTES_PER_CLIENT = 100000;
+  private static final int CHUNK_SIZE = 4096;
+
+  private ServerSocket proxy;
+  private ExecutorService proxyExecutor;
+
+  @BeforeClass
+  public void startProxy() throws IOException {
+    this.proxy = new ServerSocket(0);
+    this.proxyExecutor = Executors.newCachedThreadPool();
+    this.proxyExecutor.submit(new Callable<Void>() {
+      @Override
+      public Void call() throws Exception {
+        while (true) {
+          final Socket socket = proxy.accept();
+          proxyExecutor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+              echo(socket);
+              return null;
+            }
+          });
+        }
+      }
+    });
+  }
+
+  @AfterClass
+  public void stopProxy() throws IOException {
+    this.proxy.close();
+    this.proxyExecutor.shutdownNow();
+  }
+
+  @Test
+  public void testConcurrentConnections() throws Exception {
+    final Tunnel tunnel = Tunnel.build("example.org", 80, "localhost", this.proxy.getLocalPort(), 4, 8192, 4);
+    ExecutorService clientExecutor = Executors.newFixedThreadPool(CLIENTS);
+
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int i = 0; i < CLIENTS; i++) {
+        final int seed = i;
+        results.add(clientExecutor.submit(new Callable<Boolean>() {
+          @Override
+          public Boolean call() throws Exception {
+            return sendAndReceive(tunnel.getPort(), seed);
+          }
+        }));
+      }
+      for (Future<Boolean> result : results) {
+        Assert.assertTrue(result.get());
+      }
+
+      // The connections are closed asynchronously after the clients close their sockets
+      long deadline = System.currentTimeMillis() + 10000;
+      while (getCount(tunnel, Tunnel.ACTIVE_CONNECTIONS) > 0 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+
+      Assert.assertTrue(tunnel.isTunnelThreadAlive());
+      Assert.assertEquals(getCount(tunnel, Tunnel.CONNECTIONS_ACCEPTED), CLIENTS);
+      Assert.assertEquals(getCount(tunnel, Tunnel.ACTIVE_CONNECTIONS), 0);
+      Assert.assertEquals(((Meter) tunnel.getMetrics().get(Tunnel.BYTES_TO_REMOTE)).getCount(),
+          CLIENTS * BYTES_PER_CLIENT);
+      Assert.assertEquals(((Meter) tunnel.getMetrics().get(Tunnel.BYTES_FROM_REMOTE)).getCount(),
+          CLIENTS * BYTES_PER_CLIENT);
+    } finally {
+      clientExecutor.shutdownNow();
+      tunnel.close();
+    }
+    Assert.assertFalse(tunnel.isTunnelThreadAlive());
+  }
+
+  @Test
+  public void testByteBufferPool() {
+    ByteBufferPool pool = new ByteBufferPool(16, 1);
+    ByteBuffer buffer1 = pool.acquire();
+    ByteBuffer buffer2 = pool.acquire();
+    Assert.assertTrue(buffer1.isDirect());
+    Assert.assertEquals(buffer1.capacity(), 16);
+
+    buffer1.put((byte) 1);
+    pool.release(buffer1);
+    pool.release(buffer2);
+    // Only one released buffer is kept
+    Assert.assertEquals(pool.getNumPooledBuffers(), 1);
+    ByteBuffer buffer3 = pool.acquire();
+    Assert.assertSame(buffer3, buffer1);
+    Assert.assertEquals(buffer3.position(), 0);
+    Assert.assertEquals(pool.getNumPooledBuffers(), 0);
+
+    Assert.assertFalse(new ByteBufferPool(16, 0).acquire().isDirect());
+  }
+
+  private static long getCount(Tunnel tunnel, String counter) {
+    return ((Counter) tunnel.getMetrics().get(counter)).getCount();
+  }
+
+  private static boolean sendAndReceive(int port, int seed) throws IOException {
+    byte[] data = new byte[BYTES_PER_CLIENT];
+    new Random(seed).nextBytes(data);
+    byte[] received = new byte[BYTES_PER_CLIENT];
+
+    try (Socket socket = new Socket("localhost", port)) {
+      OutputStream out = socket.getOutputStream();
+      InputStream in = socket.getInputStream();
+      for (int offset = 0; offset < BYTES_PER_CLIENT; offset += CHUNK_SIZE) {
+        int length = Math.min(CHUNK_SIZE, BYTES_PER_CLIENT - offset);
+        out.write(data, offset, length);
+        out.flush();
+        readFully(in, received, offset, length);
+      }
+    }
+    return Arrays.equals(data, received);
+  }
+
+  private static void readFully(InputStream in, byte[] bytes, int offset, int length) throws IOException {
+    int read = 0;
+    while (read < length) {
+      int lastRead = in.read(bytes, offset + read, length - read);
+      if (lastRead < 0) {
+        throw new IOException("Unexpected end of stream");
+      }
+      read += lastRead;
+    }
+  }
+
+  /**
+   * Accept the HTTP CONNECT request and echo everything received afterwards until the tunnel closes the connection.
+   */
+  private static void echo(Socket socket) throws IOException {
+    try (Socket s = socket) {
+      InputStream in = s.getInputStream();
+      OutputStream out = s.getOutputStream();
+
+      // Read the request up to the empty line ending it
+      int matched = 0;
+      byte[] end = { '\r', '\n', '\r', '\n' };
+      while (matched < end.length) {
+        int b = in.read();
+        if (b < 0) {
+          return;
+        }
+        matched = b == end[matched] ? matched + 1 : (b == end[0] ? 1 : 0);
+      }
+      out.write("HTTP/1.1 200 OK\r\n\r\n".getBytes("UTF-8"));
+      out.flush();
+
+      byte[] buffer = new byte[CHUNK_SIZE];
+      int read;
+      while ((read = in.read(buffer)) >= 0) {
+        out.write(buffer, 0, read);
+        out.flush();
+      }
+    }
+  }
+}
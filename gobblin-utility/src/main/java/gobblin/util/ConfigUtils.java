@@ -135,6 +135,34 @@ public class ConfigUtils {
     return def;
   }
 
+  /**
+   * Return int value at <code>path</code> if <code>config</code> has path. If not return <code>def</code>
+   *
+   * @param config in which the path may be present
+   * @param path key to look for in the config object
+   * @return int value at <code>path</code> if <code>config</code> has path. If not return <code>def</code>
+   */
+  public static int getInt(Config config, String path, int def) {
+    if (config.hasPath(path)) {
+      return config.getInt(path);
+    }
+    return def;
+  }
+
+  /**
+   * Return long value at <code>path</code> if <code>config</code> has path. If not return <code>def</code>
+   *
+   * @param config in which the path may be present
+   * @param path key to look for in the config object
+   * @return long value at <code>path</code> if <code>config</code> has path. If not return <code>def</code>
+   */
+  public static long getLong(Config config, String path, long def) {
+    if (config.hasPath(path)) {
+      return config.getLong(path);
+    }
+    return def;
+  }
+
   /**
    * Return {@link Config} value at <code>path</code> if <code>config</code> has path. If not return <code>def</code>
    *
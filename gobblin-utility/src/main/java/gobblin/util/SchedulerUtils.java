@@ -18,8 +18,10 @@ import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 
 import org.apache.commons.configuration.ConfigurationConverter;
 import org.apache.commons.configuration.ConfigurationException;
@@ -35,10 +37,18 @@ import org.apache.hadoop.fs.PathFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.Timer;
 import com.google.common.base.Charsets;
 import com.google.common.base.Function;
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
@@ -50,6 +60,15 @@ import gobblin.configuration.ConfigurationKeys;
 /**
  * A utility class used by the scheduler.
  *
+ * <p>
+ *   Parsed job configuration and common properties files are cached by path, and a cached file is parsed again only
+ *   if its modification time or length changed. Reloading the job configurations after a change therefore only parses
+ *   the changed files. A file read within {@link #MODIFICATION_TIME_GRANULARITY_MILLIS} of its modification time is
+ *   not cached, since it may be modified again without changing its modification time or length. Job configuration
+ *   files are parsed by {@link ConfigurationKeys#JOB_CONFIG_LOAD_THREADS_KEY} threads, and the load times and numbers
+ *   of parsed and cached files are available from {@link #getMetrics()}.
+ * </p>
+ *
  * @author Yinan Li
  */
 public class SchedulerUtils {
@@ -59,6 +78,30 @@ public class SchedulerUtils {
   // Extension of properties files
   public static final String JOB_PROPS_FILE_EXTENSION = "properties";
 
+  /** {@link Timer} of the loads of job configurations. */
+  public static final String JOB_CONFIGS_LOAD_TIMER = "jobConfigs.load";
+  /** Number of files parsed because they were not cached or changed since they were cached. */
+  public static final String FILES_PARSED = "jobConfigs.filesParsed";
+  /** Number of files whose cached parsed properties were used. */
+  public static final String FILES_CACHED = "jobConfigs.filesCached";
+
+  private static final int MAX_CACHED_FILES = 100000;
+  private static final int PARALLEL_LOAD_TIMEOUT_SECONDS = 3600;
+
+  /**
+   * The coarsest granularity of file modification times, e.g., of FAT file systems. This assumes that the clock of
+   * a remote {@link FileSystem} setting the modification times is in sync with the local clock to within this window.
+   */
+  static final long MODIFICATION_TIME_GRANULARITY_MILLIS = 2000;
+
+  // Parsed properties of files by path, which must not be modified
+  private static final Cache<String, ParsedFile> PARSED_FILES =
+      CacheBuilder.newBuilder().maximumSize(MAX_CACHED_FILES).build();
+
+  private static final Timer LOAD_TIMER = new Timer();
+  private static final Counter FILES_PARSED_COUNTER = new Counter();
+  private static final Counter FILES_CACHED_COUNTER = new Counter();
+
   // A filter for properties files
   private static final FilenameFilter PROPERTIES_FILE_FILTER = new FilenameFilter() {
     @Override
@@ -96,10 +139,18 @@ public class SchedulerUtils {
     Preconditions.checkArgument(properties.containsKey(ConfigurationKeys.JOB_CONFIG_FILE_DIR_KEY),
         "Missing configuration property: " + ConfigurationKeys.JOB_CONFIG_FILE_DIR_KEY);
 
-    List<Properties> jobConfigs = Lists.newArrayList();
-    loadJobConfigsRecursive(jobConfigs, properties, getJobConfigurationFileExtensions(properties),
-        new File(properties.getProperty(ConfigurationKeys.JOB_CONFIG_FILE_DIR_KEY)));
-    return jobConfigs;
+    Timer.Context loadTimerContext = LOAD_TIMER.time();
+    File jobConfigFileDir = new File(properties.getProperty(ConfigurationKeys.JOB_CONFIG_FILE_DIR_KEY));
+    List<JobConfigFile> jobConfigFiles = Lists.newArrayList();
+    listJobConfigsRecursive(jobConfigFiles, properties, getJobConfigurationFileExtensions(properties),
+        jobConfigFileDir);
+    try {
+      List<Properties> jobConfigs = loadJobConfigFiles(jobConfigFiles, properties);
+      logLoadTime(loadTimerContext, jobConfigs.size(), jobConfigFileDir);
+      return jobConfigs;
+    } catch (IOException ioe) {
+      throw new ConfigurationException(ioe);
+    }
   }
 
   /**
@@ -110,10 +161,16 @@ public class SchedulerUtils {
    */
   public static List<Properties> loadGenericJobConfigs(Properties properties)
       throws ConfigurationException, IOException {
-    List<Properties> jobConfigs = Lists.newArrayList();
-    loadGenericJobConfigsRecursive(jobConfigs, properties, getJobConfigurationFileExtensions(properties),
-        new Path(properties.getProperty(ConfigurationKeys.JOB_CONFIG_FILE_GENERAL_PATH_KEY)));
-    return jobConfigs;
+    Timer.Context loadTimerContext = LOAD_TIMER.time();
+    Path configDirPath = new Path(properties.getProperty(ConfigurationKeys.JOB_CONFIG_FILE_GENERAL_PATH_KEY));
+    try (FileSystem filesystem = configDirPath.getFileSystem(new Configuration())) {
+      List<JobConfigFile> jobConfigFiles = Lists.newArrayList();
+      listGenericJobConfigsRecursive(jobConfigFiles, filesystem, properties,
+          getJobConfigurationFileExtensions(properties), configDirPath);
+      List<Properties> jobConfigs = loadJobConfigFiles(jobConfigFiles, properties);
+      logLoadTime(loadTimerContext, jobConfigs.size(), configDirPath);
+      return jobConfigs;
+    }
   }
 
   /**
@@ -126,6 +183,7 @@ public class SchedulerUtils {
    */
   public static List<Properties> loadJobConfigs(Properties properties, File commonPropsFile, File jobConfigFileDir)
       throws ConfigurationException, IOException {
+    Timer.Context loadTimerContext = LOAD_TIMER.time();
     List<Properties> commonPropsList = Lists.newArrayList();
     // Start from the parent of parent of the changed common properties file to avoid
     // loading the common properties file here since it will be loaded below anyway
@@ -139,10 +197,12 @@ public class SchedulerUtils {
       commonProps.putAll(pros);
     }
 
-    List<Properties> jobConfigs = Lists.newArrayList();
+    List<JobConfigFile> jobConfigFiles = Lists.newArrayList();
     // The common properties file will be loaded here
-    loadJobConfigsRecursive(jobConfigs, commonProps, getJobConfigurationFileExtensions(properties),
+    listJobConfigsRecursive(jobConfigFiles, commonProps, getJobConfigurationFileExtensions(properties),
         commonPropsFile.getParentFile());
+    List<Properties> jobConfigs = loadJobConfigFiles(jobConfigFiles, properties);
+    logLoadTime(loadTimerContext, jobConfigs.size(), commonPropsFile.getParentFile());
     return jobConfigs;
   }
 
@@ -156,6 +216,7 @@ public class SchedulerUtils {
    */
   public static Properties loadJobConfig(Properties properties, File jobConfigFile, File jobConfigFileDir)
       throws ConfigurationException, IOException {
+    Timer.Context loadTimerContext = LOAD_TIMER.time();
     List<Properties> commonPropsList = Lists.newArrayList();
     getCommonProperties(commonPropsList, jobConfigFileDir, jobConfigFile.getParentFile());
     // Add the framework configuration properties to the end
@@ -168,11 +229,22 @@ public class SchedulerUtils {
     }
 
     // Then load the job configuration properties defined in the job configuration file
-    jobProps.putAll(ConfigurationConverter.getProperties(new PropertiesConfiguration(jobConfigFile)));
+    jobProps.putAll(loadPropertiesFile(jobConfigFile));
     jobProps.setProperty(ConfigurationKeys.JOB_CONFIG_FILE_PATH_KEY, jobConfigFile.getAbsolutePath());
+    logLoadTime(loadTimerContext, 1, jobConfigFile);
     return jobProps;
   }
 
+  /**
+   * Get the metrics of job configuration loading: a {@link Timer} of the loads of job configurations by the
+   * {@code load*} methods, and {@link Counter}s of the files parsed and of the files whose cached parsed properties
+   * were used.
+   */
+  public static Map<String, Metric> getMetrics() {
+    return ImmutableMap.<String, Metric>of(JOB_CONFIGS_LOAD_TIMER, LOAD_TIMER, FILES_PARSED, FILES_PARSED_COUNTER,
+        FILES_CACHED, FILES_CACHED_COUNTER);
+  }
+
   /**
    * Add {@link org.apache.commons.io.monitor.FileAlterationMonitor}s for the given
    * root directory and any nested subdirectories under the root directory to the given
@@ -208,83 +280,61 @@ public class SchedulerUtils {
   }
 
   /**
-   * Recursively load job configuration files under given URI of directory of config files folder
+   * Recursively list job configuration files under given URI of directory of config files folder
    */
-  private static void loadGenericJobConfigsRecursive(List<Properties> jobConfigs, Properties rootProps,
-      Set<String> jobConfigFileExtensions, Path configDirPath)
+  private static void listGenericJobConfigsRecursive(List<JobConfigFile> jobConfigFiles, FileSystem filesystem,
+      Properties rootProps, Set<String> jobConfigFileExtensions, Path configDirPath)
       throws ConfigurationException, IOException {
+    if (!filesystem.exists(configDirPath)) {
+      throw new RuntimeException("The specified job configurations directory was not found: " + configDirPath);
+    }
 
-    Configuration conf = new Configuration();
-    try (FileSystem filesystem = configDirPath.getFileSystem(conf)) {
-      if (!filesystem.exists(configDirPath)) {
-        throw new RuntimeException(
-            "The specified job configurations directory was not found: " + configDirPath.toString());
-      }
-
-      FileStatus[] propertiesFilesStatus = filesystem.listStatus(configDirPath, PROPERTIES_PATH_FILTER);
-      if ( propertiesFilesStatus != null && propertiesFilesStatus.length > 0) {
-        // There should be a single properties file in each directory (or sub directory)
-        if (propertiesFilesStatus.length != 1) {
-          throw new RuntimeException("Found more than one .properties file in directory: " + configDirPath);
-        }
-
-        // Load the properties, which may overwrite the same properties defined in the parent or ancestor directories.
-        // Open the inputStream, construct a reader and send to the loader for constructing propertiesConfiguration.
-        PropertiesConfiguration propertiesConfiguration = new PropertiesConfiguration();
-        Path uniqueConfigFilePath = propertiesFilesStatus[0].getPath();
-        try (InputStreamReader inputStreamReader = new InputStreamReader(filesystem.open(uniqueConfigFilePath),
-            Charsets.UTF_8)) {
-          propertiesConfiguration.load(inputStreamReader);
-          rootProps.putAll(ConfigurationConverter.getProperties(propertiesConfiguration));
-        }
+    FileStatus[] propertiesFilesStatus = filesystem.listStatus(configDirPath, PROPERTIES_PATH_FILTER);
+    if (propertiesFilesStatus != null && propertiesFilesStatus.length > 0) {
+      // There should be a single properties file in each directory (or sub directory)
+      if (propertiesFilesStatus.length != 1) {
+        throw new RuntimeException("Found more than one .properties file in directory: " + configDirPath);
       }
 
-      // Get all non-properties files
-      FileStatus[] nonPropFiles = filesystem.listStatus(configDirPath, NON_PROPERTIES_PATH_FILTER);
-      if ( nonPropFiles == null || nonPropFiles.length == 0 ) {
-        return;
-      }
+      // Load the properties, which may overwrite the same properties defined in the parent or ancestor directories.
+      rootProps.putAll(loadPropertiesFile(filesystem, propertiesFilesStatus[0]));
+    }
 
-      for (FileStatus nonPropFile : nonPropFiles) {
-        Path configFilePath = nonPropFile.getPath();
-        if (nonPropFile.isDirectory()) {
-          Properties rootPropsCopy = new Properties();
-          rootPropsCopy.putAll(rootProps);
-          loadGenericJobConfigsRecursive(jobConfigs, rootPropsCopy, jobConfigFileExtensions, configFilePath);
-        } else {
-          if (!jobConfigFileExtensions.contains(
-              configFilePath.getName().substring(configFilePath.getName().lastIndexOf('.') + 1).toLowerCase())) {
-            LOGGER.warn("Skipped file " + configFilePath + " that has an unsupported extension");
-            continue;
-          }
+    // Get all non-properties files
+    FileStatus[] nonPropFiles = filesystem.listStatus(configDirPath, NON_PROPERTIES_PATH_FILTER);
+    if (nonPropFiles == null || nonPropFiles.length == 0) {
+      return;
+    }
 
-          Path doneFilePath = configFilePath.suffix(".done");
-          if (filesystem.exists(doneFilePath)) {
-            LOGGER.info("Skipped job configuration file " + doneFilePath + " for which a .done file exists");
-            continue;
-          }
+    for (FileStatus nonPropFile : nonPropFiles) {
+      Path configFilePath = nonPropFile.getPath();
+      if (nonPropFile.isDirectory()) {
+        Properties rootPropsCopy = new Properties();
+        rootPropsCopy.putAll(rootProps);
+        listGenericJobConfigsRecursive(jobConfigFiles, filesystem, rootPropsCopy, jobConfigFileExtensions,
+            configFilePath);
+      } else {
+        if (!jobConfigFileExtensions.contains(
+            configFilePath.getName().substring(configFilePath.getName().lastIndexOf('.') + 1).toLowerCase())) {
+          LOGGER.warn("Skipped file " + configFilePath + " that has an unsupported extension");
+          continue;
+        }
 
-          Properties jobProps = new Properties();
-          // Put all parent/ancestor properties first
-          jobProps.putAll(rootProps);
-          // Then load the job configuration properties defined in the job configuration file
-          PropertiesConfiguration propertiesConfiguration = new PropertiesConfiguration();
-          try (InputStreamReader inputStreamReader = new InputStreamReader(filesystem.open(configFilePath),
-              Charsets.UTF_8)) {
-            propertiesConfiguration.load(inputStreamReader);
-            jobProps.putAll(ConfigurationConverter.getProperties(propertiesConfiguration));
-            jobProps.setProperty(ConfigurationKeys.JOB_CONFIG_FILE_PATH_KEY, configFilePath.toString());
-            jobConfigs.add(jobProps);
-          }
+        Path doneFilePath = configFilePath.suffix(".done");
+        if (filesystem.exists(doneFilePath)) {
+          LOGGER.info("Skipped job configuration file " + doneFilePath + " for which a .done file exists");
+          continue;
         }
+
+        jobConfigFiles.add(new GenericJobConfigFile(rootProps, filesystem, nonPropFile));
       }
     }
   }
 
   /**
-   * Recursively load job configuration files under the given directory.
+   * Recursively list job configuration files under the given directory.
    */
-  private static void loadJobConfigsRecursive(List<Properties> jobConfigs, Properties rootProps,
+  private static void listJobConfigsRecursive(List<JobConfigFile> jobConfigFiles, Properties rootProps,
       Set<String> jobConfigFileExtensions, File jobConfigDir)
       throws ConfigurationException {
 
@@ -297,8 +347,7 @@ public class SchedulerUtils {
       }
 
       // Load the properties, which may overwrite the same properties defined in the parent or ancestor directories.
-      rootProps.putAll(ConfigurationConverter.getProperties(
-          new PropertiesConfiguration(new File(jobConfigDir, propertiesFiles[0]))));
+      rootProps.putAll(loadPropertiesFile(new File(jobConfigDir, propertiesFiles[0])));
     }
 
     // Get all non-properties files
@@ -312,7 +361,7 @@ public class SchedulerUtils {
       if (file.isDirectory()) {
         Properties rootPropsCopy = new Properties();
         rootPropsCopy.putAll(rootProps);
-        loadJobConfigsRecursive(jobConfigs, rootPropsCopy, jobConfigFileExtensions, file);
+        listJobConfigsRecursive(jobConfigFiles, rootPropsCopy, jobConfigFileExtensions, file);
       } else {
         if (!jobConfigFileExtensions.contains(Files.getFileExtension(file.getName()).toLowerCase())) {
           LOGGER.warn("Skipped file " + file + " that has an unsupported extension");
@@ -328,17 +377,118 @@ public class SchedulerUtils {
           continue;
         }
 
-        Properties jobProps = new Properties();
-        // Put all parent/ancestor properties first
-        jobProps.putAll(rootProps);
-        // Then load the job configuration properties defined in the job configuration file
-        jobProps.putAll(ConfigurationConverter.getProperties(new PropertiesConfiguration(file)));
-        jobProps.setProperty(ConfigurationKeys.JOB_CONFIG_FILE_PATH_KEY, file.getAbsolutePath());
-        jobConfigs.add(jobProps);
+        jobConfigFiles.add(new LocalJobConfigFile(rootProps, file));
       }
     }
   }
 
+  /**
+   * Load the listed job configuration files, in parallel if more than one thread is configured.
+   *
+   * @return the job configurations in the order of the files
+   */
+  private static List<Properties> loadJobConfigFiles(List<JobConfigFile> jobConfigFiles, Properties properties)
+      throws ConfigurationException, IOException {
+    int threads = Integer.parseInt(properties.getProperty(ConfigurationKeys.JOB_CONFIG_LOAD_THREADS_KEY,
+        Integer.toString(ConfigurationKeys.DEFAULT_JOB_CONFIG_LOAD_THREADS)));
+
+    if (threads <= 1 || jobConfigFiles.size() <= 1) {
+      List<Properties> jobConfigs = Lists.newArrayListWithCapacity(jobConfigFiles.size());
+      for (JobConfigFile jobConfigFile : jobConfigFiles) {
+        jobConfigs.add(jobConfigFile.load());
+      }
+      return jobConfigs;
+    }
+
+    try {
+      return ExecutorsUtils.parallelize(jobConfigFiles, new Function<JobConfigFile, Properties>() {
+        @Override
+        public Properties apply(JobConfigFile jobConfigFile) {
+          try {
+            return jobConfigFile.load();
+          } catch (ConfigurationException | IOException e) {
+            throw Throwables.propagate(e);
+          }
+        }
+      }, Math.min(threads, jobConfigFiles.size()), PARALLEL_LOAD_TIMEOUT_SECONDS, Optional.of(LOGGER));
+    } catch (ExecutionException ee) {
+      // Unwrap the exception thrown while loading a file
+      Throwable cause = ee.getCause() instanceof RuntimeException && ee.getCause().getCause() != null
+          ? ee.getCause().getCause() : ee.getCause();
+      Throwables.propagateIfInstanceOf(cause, ConfigurationException.class);
+      Throwables.propagateIfInstanceOf(cause, IOException.class);
+      throw Throwables.propagate(cause);
+    }
+  }
+
+  private static void logLoadTime(Timer.Context loadTimerContext, int numJobConfigs, Object source) {
+    LOGGER.info(String.format("Loaded %d job configurations from %s in %d ms", numJobConfigs, source,
+        loadTimerContext.stop() / 1000000));
+  }
+
+  /**
+   * Get the parsed properties of a local properties file, which must not be modified.
+   */
+  private static Properties loadPropertiesFile(File file) throws ConfigurationException {
+    String path = file.getAbsolutePath();
+    // The modification time and length are taken before the file is read, so a change while it is read is seen
+    long readTime = System.currentTimeMillis();
+    long modificationTime = file.lastModified();
+    long length = file.length();
+    Optional<Properties> cachedProperties = getCachedProperties(path, modificationTime, length);
+    if (cachedProperties.isPresent()) {
+      return cachedProperties.get();
+    }
+
+    Properties properties = ConfigurationConverter.getProperties(new PropertiesConfiguration(file));
+    cacheProperties(path, modificationTime, length, readTime, properties);
+    return properties;
+  }
+
+  /**
+   * Get the parsed properties of a properties file on a {@link FileSystem}, which must not be modified.
+   */
+  private static Properties loadPropertiesFile(FileSystem filesystem, FileStatus fileStatus)
+      throws ConfigurationException, IOException {
+    String path = fileStatus.getPath().toString();
+    long readTime = System.currentTimeMillis();
+    Optional<Properties> cachedProperties =
+        getCachedProperties(path, fileStatus.getModificationTime(), fileStatus.getLen());
+    if (cachedProperties.isPresent()) {
+      return cachedProperties.get();
+    }
+
+    // Open the inputStream, construct a reader and send to the loader for constructing propertiesConfiguration.
+    PropertiesConfiguration propertiesConfiguration = new PropertiesConfiguration();
+    try (InputStreamReader inputStreamReader =
+        new InputStreamReader(filesystem.open(fileStatus.getPath()), Charsets.UTF_8)) {
+      propertiesConfiguration.load(inputStreamReader);
+    }
+    Properties properties = ConfigurationConverter.getProperties(propertiesConfiguration);
+    cacheProperties(path, fileStatus.getModificationTime(), fileStatus.getLen(), readTime, properties);
+    return properties;
+  }
+
+  private static Optional<Properties> getCachedProperties(String path, long modificationTime, long length) {
+    ParsedFile parsedFile = PARSED_FILES.getIfPresent(path);
+    if (parsedFile != null && parsedFile.modificationTime == modificationTime && parsedFile.length == length) {
+      FILES_CACHED_COUNTER.inc();
+      return Optional.of(parsedFile.properties);
+    }
+    return Optional.absent();
+  }
+
+  private static void cacheProperties(String path, long modificationTime, long length, long readTime,
+      Properties properties) {
+    FILES_PARSED_COUNTER.inc();
+    // A file without a modification time cannot be told apart from a later version of it, and neither can a file
+    // read within the granularity of modification times, which may be modified again in the same clock tick
+    // without changing its length. Such files are parsed again on every load.
+    if (modificationTime > 0 && readTime - modificationTime >= MODIFICATION_TIME_GRANULARITY_MILLIS) {
+      PARSED_FILES.put(path, new ParsedFile(modificationTime, length, properties));
+    }
+  }
+
   private static Set<String> getJobConfigurationFileExtensions(Properties properties) {
     Iterable<String> jobConfigFileExtensionsIterable = Splitter.on(",")
         .omitEmptyStrings()
@@ -368,11 +518,80 @@ public class SchedulerUtils {
         if (propertiesFiles.length != 1) {
           throw new RuntimeException("Found more than one .properties file in directory: " + dir);
         }
-        commonPropsList.add(
-            ConfigurationConverter.getProperties(new PropertiesConfiguration(new File(dir, propertiesFiles[0]))));
+        commonPropsList.add(loadPropertiesFile(new File(dir, propertiesFiles[0])));
       }
 
       dir = dir.getParentFile();
     }
   }
+
+  /**
+   * The parsed properties of a file, and the modification time and length of the file when it was parsed.
+   */
+  private static class ParsedFile {
+    private final long modificationTime;
+    private final long length;
+    private final Properties properties;
+
+    private ParsedFile(long modificationTime, long length, Properties properties) {
+      this.modificationTime = modificationTime;
+      this.length = length;
+      this.properties = properties;
+    }
+  }
+
+  /**
+   * A job configuration file to load, with the common properties of its directory.
+   */
+  private abstract static class JobConfigFile {
+    protected final Properties commonProps;
+
+    private JobConfigFile(Properties commonProps) {
+      this.commonProps = commonProps;
+    }
+
+    protected abstract Properties load() throws ConfigurationException, IOException;
+  }
+
+  private static class LocalJobConfigFile extends JobConfigFile {
+    private final File file;
+
+    private LocalJobConfigFile(Properties commonProps, File file) {
+      super(commonProps);
+      this.file = file;
+    }
+
+    @Override
+    protected Properties load() throws ConfigurationException {
+      Properties jobProps = new Properties();
+      // Put all parent/ancestor properties first
+      jobProps.putAll(this.commonProps);
+      // Then load the job configuration properties defined in the job configuration file
+      jobProps.putAll(loadPropertiesFile(this.file));
+      jobProps.setProperty(ConfigurationKeys.JOB_CONFIG_FILE_PATH_KEY, this.file.getAbsolutePath());
+      return jobProps;
+    }
+  }
+
+  private static class GenericJobConfigFile extends JobConfigFile {
+    private final FileSystem filesystem;
+    private final FileStatus fileStatus;
+
+    private GenericJobConfigFile(Properties commonProps, FileSystem filesystem, FileStatus fileStatus) {
+      super(commonProps);
+      this.filesystem = filesystem;
+      this.fileStatus = fileStatus;
+    }
+
+    @Override
+    protected Properties load() throws ConfigurationException, IOException {
+      Properties jobProps = new Properties();
+      // Put all parent/ancestor properties first
+      jobProps.putAll(this.commonProps);
+      // Then load the job configuration properties defined in the job configuration file
+      jobProps.putAll(loadPropertiesFile(this.filesystem, this.fileStatus));
+      jobProps.setProperty(ConfigurationKeys.JOB_CONFIG_FILE_PATH_KEY, this.fileStatus.getPath().toString());
+      return jobProps;
+    }
+  }
 }
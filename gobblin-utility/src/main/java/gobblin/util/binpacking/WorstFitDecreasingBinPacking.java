@@ -33,7 +33,6 @@ import gobblin.source.workunit.WorkUnitWeighter;
 
 import javax.annotation.Nullable;
 import javax.annotation.OverridingMethodsMustInvokeSuper;
-import lombok.AllArgsConstructor;
 
 
 /**
@@ -47,14 +46,26 @@ import lombok.AllArgsConstructor;
  *   * Compute the minimum number of {@link MultiWorkUnit}s needed, and create them.
  *   * For each work unit, find the {@link MultiWorkUnit} with the largest space available, if it fits, add it there,
  *     otherwise, create a new {@link MultiWorkUnit} and add the work unit there.
+ *   * If a maximum number of {@link MultiWorkUnit}s is given and reached, a work unit that does not fit is added to
+ *     the {@link MultiWorkUnit} with the largest space available anyway, which then exceeds the maximum weight.
  * </p>
  */
-@AllArgsConstructor
 public class WorstFitDecreasingBinPacking implements WorkUnitBinPacker {
 
   public static final String TOTAL_MULTI_WORK_UNIT_WEIGHT = "binpacking.multiWorkUnit.totalWeight";
 
   private final long maxWeightPerUnit;
+  // Maximum number of multi work units, or 0 if there is no maximum
+  private final int maxMultiWorkUnits;
+
+  public WorstFitDecreasingBinPacking(long maxWeightPerUnit) {
+    this(maxWeightPerUnit, 0);
+  }
+
+  public WorstFitDecreasingBinPacking(long maxWeightPerUnit, int maxMultiWorkUnits) {
+    this.maxWeightPerUnit = maxWeightPerUnit;
+    this.maxMultiWorkUnits = maxMultiWorkUnits;
+  }
 
   @Override
   @OverridingMethodsMustInvokeSuper
@@ -78,6 +89,9 @@ public class WorstFitDecreasingBinPacking implements WorkUnitBinPacker {
     }
     int estimateByWeight = largeUnits + (int) ((smallUnitSize - 1) / this.maxWeightPerUnit) + 1;
     int estimatedMultiWorkUnits = Math.min(estimateByWeight, workUnits.size());
+    if (this.maxMultiWorkUnits > 0) {
+      estimatedMultiWorkUnits = Math.min(estimatedMultiWorkUnits, this.maxMultiWorkUnits);
+    }
 
     MinMaxPriorityQueue<MultiWorkUnit> pQueue = MinMaxPriorityQueue.orderedBy(new MultiWorkUnitComparator()).create();
     for (int i = 0; i < estimatedMultiWorkUnits; i++) {
@@ -91,8 +105,9 @@ public class WorstFitDecreasingBinPacking implements WorkUnitBinPacker {
       long weight = Math.max(1, weighter.weight(workUnit));
       long multiWorkUnitWeight = getMultiWorkUnitWeight(lightestMultiWorkUnit);
       if (multiWorkUnitWeight == 0 || (weight + multiWorkUnitWeight <= this.maxWeightPerUnit
-          && weight + multiWorkUnitWeight > multiWorkUnitWeight)) { // check for overflow
-        // if it fits, add it to lightest work unit
+          && weight + multiWorkUnitWeight > multiWorkUnitWeight) // check for overflow
+          || (this.maxMultiWorkUnits > 0 && pQueue.size() >= this.maxMultiWorkUnits)) {
+        // if it fits, or no more multi work units can be created, add it to lightest work unit
         addToMultiWorkUnit(lightestMultiWorkUnit, workUnit, weight);
         pQueue.poll();
         pQueue.add(lightestMultiWorkUnit);
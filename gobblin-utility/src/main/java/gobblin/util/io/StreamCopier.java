@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.util.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.hadoop.fs.ByteBufferReadable;
+import org.apache.hadoop.fs.FSDataInputStream;
+
+import com.codahale.metrics.Meter;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+
+import lombok.extern.slf4j.Slf4j;
+
+import gobblin.util.ExecutorsUtils;
+
+
+/**
+ * Copies an {@link InputStream} to an {@link OutputStream}.
+ *
+ * <p>
+ *   Bytes are read directly into the backing array of a heap {@link ByteBuffer}, using
+ *   {@link ByteBufferReadable#read(ByteBuffer)} if the input is an {@link FSDataInputStream} whose wrapped stream
+ *   supports it, and written from that array to the {@link OutputStream}, so no intermediate copies are made.
+ *   The buffer size is rounded up to a multiple of {@link #BUFFER_ALIGNMENT}.
+ * </p>
+ *
+ * <p>
+ *   If double buffering is enabled, a separate thread reads into one buffer while the calling thread writes the
+ *   other one, so that reads and writes to remote file systems overlap.
+ * </p>
+ *
+ * <p>
+ *   <b>Note:</b> The {@link InputStream} and {@link OutputStream} are NOT closed.
+ * </p>
+ */
+@Slf4j
+public class StreamCopier {
+
+  private static final int KB = 1024;
+  public static final int DEFAULT_BUFFER_SIZE = 32 * KB;
+  /** Buffer sizes are rounded up to a multiple of the HDFS checksum chunk size. */
+  public static final int BUFFER_ALIGNMENT = 512;
+
+  private static final ExecutorService READER_THREADS = Executors.newCachedThreadPool(
+      ExecutorsUtils.newDaemonThreadFactory(Optional.of(log), Optional.of("StreamCopier-reader-%d")));
+
+  private final InputStream inputStream;
+  private final OutputStream outputStream;
+  private int bufferSize = DEFAULT_BUFFER_SIZE;
+  private boolean doubleBuffering = false;
+  private Optional<Meter> copySpeedMeter = Optional.absent();
+  private boolean byteBufferReadable;
+
+  public StreamCopier(InputStream inputStream, OutputStream outputStream) {
+    this.inputStream = inputStream;
+    this.outputStream = outputStream;
+    this.byteBufferReadable = inputStream instanceof FSDataInputStream
+        && ((FSDataInputStream) inputStream).getWrappedStream() instanceof ByteBufferReadable;
+  }
+
+  /**
+   * Set the size of the buffer(s) used for copying.
+   */
+  public StreamCopier withBufferSize(int bufferSize) {
+    Preconditions.checkArgument(bufferSize > 0, "Buffer size must be positive.");
+    this.bufferSize = (int) Math.min(Integer.MAX_VALUE - BUFFER_ALIGNMENT,
+        ((long) bufferSize + BUFFER_ALIGNMENT - 1) / BUFFER_ALIGNMENT * BUFFER_ALIGNMENT);
+    return this;
+  }
+
+  /**
+   * Read and write in different threads using two buffers.
+   */
+  public StreamCopier withDoubleBuffering(boolean doubleBuffering) {
+    this.doubleBuffering = doubleBuffering;
+    return this;
+  }
+
+  /**
+   * Mark the given {@link Meter} with the number of bytes copied.
+   */
+  public StreamCopier withCopySpeedMeter(Meter meter) {
+    this.copySpeedMeter = Optional.of(meter);
+    return this;
+  }
+
+  /**
+   * Execute the copy.
+   * @return Total bytes copied.
+   */
+  public long copy() throws IOException {
+    return this.doubleBuffering ? copyDoubleBuffered() : copySingleBuffered();
+  }
+
+  private long copySingleBuffered() throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(this.bufferSize);
+    long totalBytesCopied = 0;
+    while (read(buffer) != -1) {
+      totalBytesCopied += write(buffer);
+    }
+    return totalBytesCopied;
+  }
+
+  private long copyDoubleBuffered() throws IOException {
+    // Both queues can hold the two buffers and a marker, so that offering a marker never blocks nor fails.
+    final BlockingQueue<ByteBuffer> emptyBuffers = new ArrayBlockingQueue<>(3);
+    final BlockingQueue<ByteBuffer> fullBuffers = new ArrayBlockingQueue<>(3);
+    emptyBuffers.add(ByteBuffer.allocate(this.bufferSize));
+    emptyBuffers.add(ByteBuffer.allocate(this.bufferSize));
+    // An empty buffer in the queue of full buffers signals the end of the input, or a read failure.
+    final ByteBuffer endOfInput = ByteBuffer.allocate(0);
+    // An empty buffer in the queue of empty buffers signals that the copy stopped, e.g., after a write failure.
+    final ByteBuffer endOfOutput = ByteBuffer.allocate(0);
+
+    Future<Void> reader = READER_THREADS.submit(new Callable<Void>() {
+      @Override
+      public Void call() throws Exception {
+        try {
+          ByteBuffer buffer;
+          while ((buffer = emptyBuffers.take()) != endOfOutput) {
+            if (read(buffer) == -1) {
+              return null;
+            }
+            fullBuffers.add(buffer);
+          }
+          return null;
+        } finally {
+          fullBuffers.offer(endOfInput);
+        }
+      }
+    });
+
+    long totalBytesCopied = 0;
+    try {
+      ByteBuffer buffer;
+      while ((buffer = fullBuffers.take()) != endOfInput) {
+        totalBytesCopied += write(buffer);
+        emptyBuffers.add(buffer);
+      }
+      reader.get();
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while copying.");
+    } catch (ExecutionException ee) {
+      Throwable cause = ee.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      throw new IOException("Failed to read input stream.", cause);
+    } finally {
+      // The reader may not notice the interruption, e.g., if the input stream swallows it
+      emptyBuffers.offer(endOfOutput);
+      reader.cancel(true);
+    }
+    return totalBytesCopied;
+  }
+
+  /**
+   * Fill the buffer as far as a single read allows, leaving it ready to be written.
+   * @return the number of bytes read, or -1 if the end of the input has been reached.
+   */
+  private int read(ByteBuffer buffer) throws IOException {
+    buffer.clear();
+    int bytesRead;
+    if (this.byteBufferReadable) {
+      try {
+        bytesRead = ((ByteBufferReadable) this.inputStream).read(buffer);
+        buffer.flip();
+        return bytesRead;
+      } catch (UnsupportedOperationException uoe) {
+        this.byteBufferReadable = false;
+      }
+    }
+    bytesRead = this.inputStream.read(buffer.array(), buffer.arrayOffset(), buffer.capacity());
+    if (bytesRead > 0) {
+      buffer.limit(bytesRead);
+    } else {
+      buffer.limit(0);
+    }
+    return bytesRead;
+  }
+
+  private int write(ByteBuffer buffer) throws IOException {
+    int bytes = buffer.remaining();
+    this.outputStream.write(buffer.array(), buffer.arrayOffset() + buffer.position(), bytes);
+    if (this.copySpeedMeter.isPresent()) {
+      this.copySpeedMeter.get().mark(bytes);
+    }
+    return bytes;
+  }
+}
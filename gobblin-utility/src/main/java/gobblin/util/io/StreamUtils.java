@@ -15,7 +15,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
-import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 
@@ -60,23 +59,16 @@ public class StreamUtils {
   }
 
   /**
-   * Copies an {@link InputStream} to and {@link OutputStream} using {@link Channels}.
+   * Copies an {@link InputStream} to and {@link OutputStream} using a {@link StreamCopier}.
    *
    * <p>
-   * <b>Note:</b> The method does not close the {@link InputStream} and {@link OutputStream}. However, the
-   * {@link ReadableByteChannel} and {@link WritableByteChannel}s are closed
+   * <b>Note:</b> The method does not close the {@link InputStream} and {@link OutputStream}.
    * </p>
    *
    * @return Total bytes copied
    */
   public static long copy(InputStream is, OutputStream os) throws IOException {
-
-    try (final ReadableByteChannel inputChannel = Channels.newChannel(is);
-        final WritableByteChannel outputChannel = Channels.newChannel(os)) {
-      long totalBytesCopied = copy(inputChannel, outputChannel);
-      return totalBytesCopied;
-    }
-
+    return new StreamCopier(is, os).copy();
   }
 
   /**
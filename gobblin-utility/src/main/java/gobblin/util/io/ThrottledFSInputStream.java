@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.util.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSInputStream;
+
+import gobblin.util.limiter.Limiter;
+
+
+/**
+ * An {@link FSInputStream} that wraps an {@link FSDataInputStream} and acquires one permit from a {@link Limiter}
+ * for every byte read, e.g. to limit the bandwidth used to read from a file system.
+ *
+ * <p>
+ *   Permits are acquired after the bytes are read, so a single read may exceed the allowed rate by up to the size
+ *   of the read buffer. The same {@link Limiter} can be shared by multiple streams to limit their aggregate rate.
+ * </p>
+ */
+public class ThrottledFSInputStream extends FSInputStream {
+
+  private final FSDataInputStream in;
+  private final Limiter limiter;
+
+  public ThrottledFSInputStream(FSDataInputStream in, Limiter limiter) {
+    this.in = in;
+    this.limiter = limiter;
+  }
+
+  @Override
+  public int read() throws IOException {
+    int val = this.in.read();
+    if (val >= 0) {
+      acquirePermits(1);
+    }
+    return val;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    int bytesRead = this.in.read(b, off, len);
+    if (bytesRead > 0) {
+      acquirePermits(bytesRead);
+    }
+    return bytesRead;
+  }
+
+  @Override
+  public void seek(long pos) throws IOException {
+    this.in.seek(pos);
+  }
+
+  @Override
+  public long getPos() throws IOException {
+    return this.in.getPos();
+  }
+
+  @Override
+  public boolean seekToNewSource(long targetPos) throws IOException {
+    return this.in.seekToNewSource(targetPos);
+  }
+
+  @Override
+  public int available() throws IOException {
+    return this.in.available();
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.in.close();
+  }
+
+  private void acquirePermits(int permits) throws IOException {
+    try {
+      if (this.limiter.acquirePermits(permits) == null) {
+        throw new IOException("Failed to acquire permits to read.");
+      }
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while acquiring permits to read.");
+    }
+  }
+}
@@ -12,10 +12,12 @@
 
 package gobblin.util.limiter;
 
+import java.net.URI;
 import java.util.concurrent.TimeUnit;
 
 import com.google.common.base.Preconditions;
 
+import gobblin.configuration.ConfigurationKeys;
 import gobblin.configuration.State;
 
 
@@ -33,6 +35,12 @@ public class DefaultLimiterFactory {
   public static final String EXTRACT_LIMIT_TIME_LIMIT_TIMEUNIT_KEY = "extract.limit.time.limit.timeunit";
   public static final String EXTRACT_LIMIT_COUNT_LIMIT_KEY = "extract.limit.count.limit";
   public static final String EXTRACT_LIMIT_POOL_SIZE_KEY = "extract.limit.pool.size";
+  /** URI of the {@link PermitServer} used by a {@link DistributedLimiter}, e.g., the one of the cluster manager. */
+  public static final String EXTRACT_LIMIT_DISTRIBUTED_SERVER_URI_KEY = "extract.limit.distributed.server.uri";
+  /** Name of the resource limited by a {@link DistributedLimiter}. Defaults to the job name. */
+  public static final String EXTRACT_LIMIT_DISTRIBUTED_RESOURCE_KEY = "extract.limit.distributed.resource";
+  /** Number of permits a {@link DistributedLimiter} requests at a time. Defaults to a tenth of a second of permits. */
+  public static final String EXTRACT_LIMIT_DISTRIBUTED_BATCH_SIZE_KEY = "extract.limit.distributed.batch.size";
 
   /**
    * Create a new {@link Limiter} instance of one of the types in {@link BaseLimiterType}.
@@ -86,6 +94,23 @@ public class DefaultLimiterFactory {
         Preconditions.checkArgument(state.contains(EXTRACT_LIMIT_POOL_SIZE_KEY));
         int poolSize = Integer.parseInt(state.getProp(EXTRACT_LIMIT_POOL_SIZE_KEY));
         return new PoolBasedLimiter(poolSize);
+      case DISTRIBUTED:
+        Preconditions.checkArgument(state.contains(EXTRACT_LIMIT_RATE_LIMIT_KEY));
+        Preconditions.checkArgument(state.contains(EXTRACT_LIMIT_DISTRIBUTED_SERVER_URI_KEY));
+        TimeUnit distributedRateTimeUnit = TimeUnit.valueOf(
+            state.getProp(EXTRACT_LIMIT_RATE_LIMIT_TIMEUNIT_KEY, TimeUnit.SECONDS.name()).toUpperCase());
+        double permitsPerSecond = Double.parseDouble(state.getProp(EXTRACT_LIMIT_RATE_LIMIT_KEY))
+            * TimeUnit.SECONDS.toNanos(1) / distributedRateTimeUnit.toNanos(1);
+        String resource =
+            state.getProp(EXTRACT_LIMIT_DISTRIBUTED_RESOURCE_KEY, state.getProp(ConfigurationKeys.JOB_NAME_KEY));
+        Preconditions.checkArgument(resource != null,
+            String.format("Missing configuration property %s for the distributed Limiter resource",
+                EXTRACT_LIMIT_DISTRIBUTED_RESOURCE_KEY));
+        long batchSize = state.getPropAsLong(EXTRACT_LIMIT_DISTRIBUTED_BATCH_SIZE_KEY,
+            Math.max(1, (long) Math.ceil(permitsPerSecond / 10)));
+        return new DistributedLimiter(
+            new HttpPermitServerClient(URI.create(state.getProp(EXTRACT_LIMIT_DISTRIBUTED_SERVER_URI_KEY))), resource,
+            permitsPerSecond, batchSize);
       default:
         throw new IllegalArgumentException("Unrecognized Limiter type: " + type.toString());
     }
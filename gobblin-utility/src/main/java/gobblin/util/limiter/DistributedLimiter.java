@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+package gobblin.util.limiter;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import com.google.common.base.Preconditions;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+
+/**
+ * An implementation of {@link Limiter} that limits the rate of some events across processes, by acquiring
+ * permits of a named resource from a {@link PermitServer}.
+ *
+ * <p>
+ *   Permits are requested from the {@link PermitServer} in batches of {@link #batchSize} and handed out locally
+ *   until they run out or their lease expires, so that the {@link PermitServer} is only contacted once per batch.
+ *   The permits left unused when the {@link Limiter} is stopped are returned to the {@link PermitServer}. All the
+ *   {@link DistributedLimiter}s of the same resource together respect the rate limit of the resource.
+ * </p>
+ *
+ * <p>
+ *   A {@link PermitServer} may grant fewer permits than requested, e.g., at most the burst of the resource, which
+ *   may expire before enough of them are gathered for a large request. Permits granted to a request that cannot be
+ *   fulfilled from the local permits are therefore used for it as soon as they are granted, and only the ones left
+ *   over are kept locally, so that a request for any number of permits completes at the rate of the resource.
+ * </p>
+ *
+ * <p>
+ *   {@link #acquirePermits(long)} is blocking. If the {@link PermitServer} cannot be reached, the request is retried
+ *   with a backoff for at most {@link #DEFAULT_MAX_RETRY_MILLIS}, or the given maximum retry time, after which
+ *   {@code null} is returned. Permit refills are not supported in this implementation.
+ * </p>
+ */
+@Slf4j
+public class DistributedLimiter extends NonRefillableLimiter {
+
+  public static final long DEFAULT_MAX_RETRY_MILLIS = 300000;
+
+  private static final long INITIAL_RETRY_MILLIS = 100;
+  private static final long MAX_RETRY_INTERVAL_MILLIS = 10000;
+
+  private final PermitServer permitServer;
+  @Getter
+  private final String resource;
+  @Getter
+  private final double permitsPerSecond;
+  @Getter
+  private final long batchSize;
+  // How long requests to an unreachable PermitServer are retried before giving up
+  private final long maxRetryMillis;
+
+  // Permits acquired from the PermitServer and not handed out yet, and when their lease expires. Guarded by this.
+  private long permits = 0;
+  private long leaseExpirationMillis = 0;
+
+  /**
+   * @param permitServer the {@link PermitServer} to acquire permits from
+   * @param resource the name of the resource whose rate is limited
+   * @param permitsPerSecond the rate limit of the resource
+   * @param batchSize the number of permits requested from the {@link PermitServer} at a time
+   */
+  public DistributedLimiter(PermitServer permitServer, String resource, double permitsPerSecond, long batchSize) {
+    this(permitServer, resource, permitsPerSecond, batchSize, DEFAULT_MAX_RETRY_MILLIS);
+  }
+
+  /**
+   * @param permitServer the {@link PermitServer} to acquire permits from
+   * @param resource the name of the resource whose rate is limited
+   * @param permitsPerSecond the rate limit of the resource
+   * @param batchSize the number of permits requested from the {@link PermitServer} at a time
+   * @param maxRetryMillis how long requests to an unreachable {@link PermitServer} are retried
+   */
+  public DistributedLimiter(PermitServer permitServer, String resource, double permitsPerSecond, long batchSize,
+      long maxRetryMillis) {
+    Preconditions.checkArgument(permitsPerSecond > 0, "Rate limit must be positive");
+    Preconditions.checkArgument(batchSize > 0, "Batch size must be positive");
+    Preconditions.checkArgument(maxRetryMillis >= 0, "Maximum retry time must not be negative");
+    this.permitServer = permitServer;
+    this.resource = resource;
+    this.permitsPerSecond = permitsPerSecond;
+    this.batchSize = batchSize;
+    this.maxRetryMillis = maxRetryMillis;
+  }
+
+  @Override
+  public void start() {
+    // Nothing to do
+  }
+
+  /**
+   * Acquire permits, requesting them from the {@link PermitServer} if needed. The lock is only held to take or add
+   * local permits, so neither requests to the {@link PermitServer} nor waits block other callers or {@link #stop()}.
+   *
+   * @return a {@link Closeable} once the permits are acquired, or {@code null} if the {@link PermitServer} could not
+   *         be reached within the maximum retry time
+   */
+  @Override
+  public Closeable acquirePermits(long permits) throws InterruptedException {
+    long retryMillis = INITIAL_RETRY_MILLIS;
+    long failingSinceMillis = 0;
+    // Permits of this request that were not granted to it yet
+    long permitsNeeded = permits;
+    while (true) {
+      long permitsToRequest;
+      synchronized (this) {
+        expirePermits();
+        if (this.permits >= permitsNeeded) {
+          this.permits -= permitsNeeded;
+          return NO_OP_CLOSEABLE;
+        }
+        permitsToRequest = Math.max(this.batchSize, permitsNeeded - this.permits);
+      }
+
+      long now = System.currentTimeMillis();
+      PermitAllocation allocation;
+      try {
+        allocation =
+            this.permitServer.requestPermits(new PermitRequest(this.resource, permitsToRequest, this.permitsPerSecond));
+        failingSinceMillis = 0;
+        retryMillis = INITIAL_RETRY_MILLIS;
+      } catch (IOException ioe) {
+        if (failingSinceMillis == 0) {
+          failingSinceMillis = now;
+        }
+        if (now - failingSinceMillis >= this.maxRetryMillis) {
+          log.error(String.format("Failed to request permits of %s for %d ms, giving up", this.resource,
+              now - failingSinceMillis), ioe);
+          return null;
+        }
+        log.warn(String.format("Failed to request permits of %s, will retry in %d ms", this.resource, retryMillis),
+            ioe);
+        Thread.sleep(retryMillis);
+        retryMillis = Math.min(2 * retryMillis, MAX_RETRY_INTERVAL_MILLIS);
+        continue;
+      }
+
+      if (allocation.getPermits() > 0) {
+        // Granted permits are used right away, so they cannot expire before the request is fulfilled
+        long permitsUsed = Math.min(allocation.getPermits(), permitsNeeded);
+        permitsNeeded -= permitsUsed;
+        if (allocation.getPermits() > permitsUsed) {
+          addPermits(allocation.getPermits() - permitsUsed, now + allocation.getLeaseMillis());
+        }
+        if (permitsNeeded == 0) {
+          return NO_OP_CLOSEABLE;
+        }
+      } else {
+        Thread.sleep(Math.max(1, allocation.getWaitMillis()));
+      }
+    }
+  }
+
+  @Override
+  public void stop() {
+    long unusedPermits;
+    synchronized (this) {
+      expirePermits();
+      unusedPermits = this.permits;
+      this.permits = 0;
+    }
+    if (unusedPermits > 0) {
+      try {
+        this.permitServer.returnPermits(this.resource, unusedPermits);
+      } catch (IOException ioe) {
+        log.warn("Failed to return unused permits of " + this.resource, ioe);
+      }
+    }
+  }
+
+  private synchronized void expirePermits() {
+    if (System.currentTimeMillis() >= this.leaseExpirationMillis) {
+      this.permits = 0;
+    }
+  }
+
+  /**
+   * Add permits acquired concurrently with other callers. All the local permits expire with the earliest lease, so
+   * that no permit is used after its lease expires.
+   */
+  private synchronized void addPermits(long permits, long leaseExpirationMillis) {
+    expirePermits();
+    this.leaseExpirationMillis =
+        this.permits > 0 ? Math.min(this.leaseExpirationMillis, leaseExpirationMillis) : leaseExpirationMillis;
+    this.permits += permits;
+  }
+}
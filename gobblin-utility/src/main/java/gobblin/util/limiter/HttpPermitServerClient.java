@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+package gobblin.util.limiter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+
+import org.apache.commons.io.IOUtils;
+
+import com.google.common.base.Charsets;
+import com.google.gson.Gson;
+
+
+/**
+ * A {@link PermitServer} forwarding requests to a remote {@link PermitServer} over HTTP, with the
+ * {@link PermitRequest}s and {@link PermitAllocation}s serialized as JSON.
+ *
+ * <p>
+ *   Permits are requested with a POST to {@link #REQUEST_PERMITS_PATH} and returned with a POST to
+ *   {@link #RETURN_PERMITS_PATH}, both with a {@link PermitRequest} as body.
+ * </p>
+ */
+public class HttpPermitServerClient implements PermitServer {
+
+  public static final String REQUEST_PERMITS_PATH = "/permits/request";
+  public static final String RETURN_PERMITS_PATH = "/permits/return";
+
+  private static final int TIMEOUT_MILLIS = 10000;
+  private static final Gson GSON = new Gson();
+
+  private final URI serverUri;
+
+  public HttpPermitServerClient(URI serverUri) {
+    this.serverUri = serverUri;
+  }
+
+  @Override
+  public PermitAllocation requestPermits(PermitRequest request) throws IOException {
+    return GSON.fromJson(post(REQUEST_PERMITS_PATH, request), PermitAllocation.class);
+  }
+
+  @Override
+  public void returnPermits(String resource, long permits) throws IOException {
+    post(RETURN_PERMITS_PATH, new PermitRequest(resource, permits, 0));
+  }
+
+  private String post(String path, PermitRequest request) throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) this.serverUri.resolve(path).toURL().openConnection();
+    connection.setRequestMethod("POST");
+    connection.setRequestProperty("Content-Type", "application/json");
+    connection.setConnectTimeout(TIMEOUT_MILLIS);
+    connection.setReadTimeout(TIMEOUT_MILLIS);
+    connection.setDoOutput(true);
+
+    try (OutputStream outputStream = connection.getOutputStream()) {
+      outputStream.write(GSON.toJson(request).getBytes(Charsets.UTF_8));
+    }
+    int responseCode = connection.getResponseCode();
+    if (responseCode != HttpURLConnection.HTTP_OK) {
+      throw new IOException(String.format("Permit server %s responded to %s with status %d", this.serverUri, path,
+          responseCode));
+    }
+    try (InputStream inputStream = connection.getInputStream()) {
+      return IOUtils.toString(inputStream, Charsets.UTF_8);
+    }
+  }
+}
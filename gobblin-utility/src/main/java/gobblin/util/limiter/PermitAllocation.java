@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+package gobblin.util.limiter;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+
+/**
+ * The response of a {@link PermitServer} to a {@link PermitRequest}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PermitAllocation {
+
+  /** The number of permits granted, which may be fewer than requested. */
+  private long permits;
+  /** How long the granted permits can be used for. */
+  private long leaseMillis;
+  /** If no permits were granted, how long to wait before requesting permits again. */
+  private long waitMillis;
+}
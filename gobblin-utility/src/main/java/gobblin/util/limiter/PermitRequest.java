@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+package gobblin.util.limiter;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+
+/**
+ * A request for permits of a resource sent to a {@link PermitServer}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PermitRequest {
+
+  /** The name of the resource, shared by all the {@link DistributedLimiter}s limited together. */
+  private String resource;
+  /** The number of permits requested, or returned. */
+  private long permits;
+  /** The rate limit of the resource in permits per second, which is ignored when returning permits. */
+  private double permitsPerSecond;
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+package gobblin.util.limiter;
+
+import java.io.IOException;
+
+
+/**
+ * A server handing out leases of permits of named resources to {@link DistributedLimiter}s, so that all the
+ * {@link DistributedLimiter}s of a resource share the same rate limit, whichever process they run in.
+ *
+ * <p>
+ *   Permits are granted in batches. Granted permits can be used until the lease returned with them expires, and
+ *   the permits left unused before then can be given back with {@link #returnPermits(String, long)}.
+ * </p>
+ */
+public interface PermitServer {
+
+  /**
+   * Request permits of a resource.
+   *
+   * @param request the resource, the number of permits requested and the rate limit of the resource
+   * @return a {@link PermitAllocation} with the permits granted, which may be fewer than requested, or with how long
+   *         to wait before requesting permits again if none were granted
+   * @throws IOException if the server could not be reached
+   */
+  public PermitAllocation requestPermits(PermitRequest request) throws IOException;
+
+  /**
+   * Give back unused permits of a resource whose lease has not expired.
+   *
+   * @param resource the name of the resource
+   * @param permits the number of unused permits
+   * @throws IOException if the server could not be reached
+   */
+  public void returnPermits(String resource, long permits) throws IOException;
+}
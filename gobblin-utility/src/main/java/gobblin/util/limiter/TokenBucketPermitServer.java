@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+package gobblin.util.limiter;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.common.collect.Maps;
+
+
+/**
+ * An in-process {@link PermitServer} keeping a token bucket for each resource.
+ *
+ * <p>
+ *   The bucket of a resource is refilled at the lowest rate of the {@link PermitRequest}s for it, so that a client
+ *   requesting a higher rate cannot raise the limit of the other clients of the resource, and holds at
+ *   most the permits of {@link #maxBurstMillis} at that rate. A request is granted once the bucket holds as many
+ *   permits as requested, or a full bucket if more permits are requested, so that batches are not split into many
+ *   small grants when the resource is contended. Returned permits are put back into the bucket.
+ * </p>
+ *
+ * <p>
+ *   This class is used directly by {@link DistributedLimiter}s of the same process, e.g., in tests, and is served
+ *   to other processes by the Gobblin cluster manager.
+ * </p>
+ */
+public class TokenBucketPermitServer implements PermitServer {
+
+  public static final long DEFAULT_LEASE_MILLIS = 5000;
+  public static final long DEFAULT_MAX_BURST_MILLIS = 1000;
+
+  private final long leaseMillis;
+  private final long maxBurstMillis;
+  private final Ticker ticker;
+  private final ConcurrentMap<String, TokenBucket> buckets = Maps.newConcurrentMap();
+
+  public TokenBucketPermitServer() {
+    this(DEFAULT_LEASE_MILLIS, DEFAULT_MAX_BURST_MILLIS);
+  }
+
+  /**
+   * @param leaseMillis how long granted permits can be used for
+   * @param maxBurstMillis the capacity of the token bucket of a resource, as a duration at the rate of the resource
+   */
+  public TokenBucketPermitServer(long leaseMillis, long maxBurstMillis) {
+    this(leaseMillis, maxBurstMillis, Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  TokenBucketPermitServer(long leaseMillis, long maxBurstMillis, Ticker ticker) {
+    Preconditions.checkArgument(leaseMillis > 0, "Lease must be positive");
+    Preconditions.checkArgument(maxBurstMillis > 0, "Maximum burst must be positive");
+    this.leaseMillis = leaseMillis;
+    this.maxBurstMillis = maxBurstMillis;
+    this.ticker = ticker;
+  }
+
+  @Override
+  public PermitAllocation requestPermits(PermitRequest request) {
+    Preconditions.checkArgument(request.getPermits() > 0, "Number of permits requested must be positive");
+    Preconditions.checkArgument(request.getPermitsPerSecond() > 0, "Rate limit must be positive");
+
+    TokenBucket bucket = getBucket(request.getResource());
+    synchronized (bucket) {
+      long nowNanos = this.ticker.read();
+      if (bucket.permitsPerSecond > 0) {
+        // Refill at the current rate before lowering it
+        bucket.refill(nowNanos);
+        bucket.permitsPerSecond = Math.min(bucket.permitsPerSecond, request.getPermitsPerSecond());
+      } else {
+        bucket.permitsPerSecond = request.getPermitsPerSecond();
+      }
+      bucket.refill(nowNanos);
+
+      double threshold = Math.min(request.getPermits(), bucket.getCapacity());
+      if (bucket.permits >= threshold) {
+        long granted = Math.min((long) bucket.permits, request.getPermits());
+        bucket.permits -= granted;
+        return new PermitAllocation(granted, this.leaseMillis, 0);
+      }
+      long waitMillis = (long) Math.ceil((threshold - bucket.permits) * 1000 / bucket.permitsPerSecond);
+      return new PermitAllocation(0, this.leaseMillis, Math.max(1, waitMillis));
+    }
+  }
+
+  @Override
+  public void returnPermits(String resource, long permits) {
+    Preconditions.checkArgument(permits >= 0, "Number of permits returned must not be negative");
+
+    TokenBucket bucket = this.buckets.get(resource);
+    if (bucket == null) {
+      return;
+    }
+    synchronized (bucket) {
+      bucket.refill(this.ticker.read());
+      bucket.permits = Math.min(bucket.permits + permits, bucket.getCapacity());
+    }
+  }
+
+  private TokenBucket getBucket(String resource) {
+    Preconditions.checkArgument(resource != null, "Missing resource name");
+
+    TokenBucket bucket = this.buckets.get(resource);
+    if (bucket == null) {
+      TokenBucket newBucket = new TokenBucket(this.ticker.read());
+      bucket = this.buckets.putIfAbsent(resource, newBucket);
+      if (bucket == null) {
+        bucket = newBucket;
+      }
+    }
+    return bucket;
+  }
+
+  /**
+   * The permits available for a resource. A new bucket starts full.
+   */
+  private class TokenBucket {
+
+    private double permitsPerSecond = 0;
+    private double permits = Double.MAX_VALUE;
+    private long lastRefillNanos;
+
+    private TokenBucket(long nowNanos) {
+      this.lastRefillNanos = nowNanos;
+    }
+
+    private double getCapacity() {
+      return Math.max(1, this.permitsPerSecond * TokenBucketPermitServer.this.maxBurstMillis / 1000);
+    }
+
+    private void refill(long nowNanos) {
+      double elapsedSeconds = (double) (nowNanos - this.lastRefillNanos) / TimeUnit.SECONDS.toNanos(1);
+      this.permits = Math.min(this.permits + elapsedSeconds * this.permitsPerSecond, getCapacity());
+      this.lastRefillNanos = nowNanos;
+    }
+  }
+}
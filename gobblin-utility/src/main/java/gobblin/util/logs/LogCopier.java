@@ -12,15 +12,18 @@
 
 package gobblin.util.logs;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import java.io.BufferedOutputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.hadoop.fs.FSDataInputStream;
@@ -32,15 +35,21 @@ import org.apache.hadoop.fs.PathFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
 import com.google.common.base.Function;
+import com.google.common.base.Joiner;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
 import com.google.common.base.Stopwatch;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.common.io.Closer;
 import com.google.common.io.Files;
@@ -96,9 +105,28 @@ import gobblin.util.HadoopUtils;
  *   Checkout the Javadoc of {@link LogCopier.Builder} to see the available options for customization.
  * </p>
  *
+ * <p>
+ *   Log files are copied in blocks of bytes and only up to the end of the last complete line, so that a line is
+ *   never split between two copies. The incomplete last line of a log file is copied by the last copy of the file,
+ *   when the file is deleted or the {@link LogCopier} is shut down. Without including or excluding regex patterns,
+ *   the blocks are copied as they are. With them, the lines of a block are matched against a single pattern
+ *   combining all the including patterns and one combining all the excluding patterns, and the bytes of the lines
+ *   to copy are written as they are. The copy lag and throughput of the log files are available from
+ *   {@link #getMetrics()}.
+ * </p>
+ *
  * @author Yinan Li
  */
-public class LogCopier extends AbstractScheduledService {
+public class LogCopier extends AbstractScheduledService implements MetricSet {
+
+  /** Number of bytes of the source log files that are not copied yet, as of the last copy of each file. */
+  public static final String COPY_LAG_BYTES = "copyLagBytes";
+  /** Number of bytes per second of the last copies of the source log files, summed over the files. */
+  public static final String BYTES_PER_SECOND = "bytesPerSecond";
+  /** Total number of bytes of source log files read, whether the lines were copied or filtered out. */
+  public static final String BYTES_READ = "bytesRead";
+  /** Total number of bytes written to destination log files. */
+  public static final String BYTES_COPIED = "bytesCopied";
 
   private static final Logger LOGGER = LoggerFactory.getLogger(LogCopier.class);
 
@@ -107,7 +135,9 @@ public class LogCopier extends AbstractScheduledService {
   private static final long DEFAULT_MAX_MINUTES_PER_LOG_FILE = Long.MAX_VALUE;
   private static final long DEFAULT_MAX_BYTES_PER_LOG_FILE = Long.MAX_VALUE;
   private static final TimeUnit DEFAULT_TIME_UNIT = TimeUnit.SECONDS;
-  private static final int DEFAULT_LINES_WRITTEN_BEFORE_FLUSH = 100;
+  private static final int DEFAULT_COPY_BUFFER_SIZE = 64 * 1024;
+  // A pattern that matches no line, like an empty list of patterns
+  private static final Pattern NO_LINE_PATTERN = Pattern.compile("(?!)");
 
   private final FileSystem srcFs;
   private final FileSystem destFs;
@@ -122,15 +152,18 @@ public class LogCopier extends AbstractScheduledService {
 
   private final Set<String> logFileExtensions;
 
-  private final Optional<List<Pattern>> includingRegexPatterns;
-  private final Optional<List<Pattern>> excludingRegexPatterns;
+  private final Optional<Pattern> includingRegexPattern;
+  private final Optional<Pattern> excludingRegexPattern;
 
   private final Optional<String> logFileNamePrefix;
 
-  private final int linesWrittenBeforeFlush;
+  private final int copyBufferSize;
 
   private final TaskScheduler<Path, LogCopyTask> scheduler;
 
+  private final AtomicLong bytesRead = new AtomicLong();
+  private final AtomicLong bytesCopied = new AtomicLong();
+
   private LogCopier(Builder builder) {
     this.srcFs = builder.srcFs;
     this.destFs = builder.destFs;
@@ -146,19 +179,24 @@ public class LogCopier extends AbstractScheduledService {
 
     this.logFileExtensions = builder.logFileExtensions;
 
-    this.includingRegexPatterns = Optional.fromNullable(builder.includingRegexPatterns);
-    this.excludingRegexPatterns = Optional.fromNullable(builder.excludingRegexPatterns);
+    this.includingRegexPattern = combinePatterns(builder.includingRegexPatterns);
+    this.excludingRegexPattern = combinePatterns(builder.excludingRegexPatterns);
 
     this.logFileNamePrefix = Optional.fromNullable(builder.logFileNamePrefix);
 
-    this.linesWrittenBeforeFlush = builder.linesWrittenBeforeFlush;
+    this.copyBufferSize = builder.copyBufferSize;
 
     this.scheduler = TaskSchedulerFactory.get(builder.schedulerName, Optional.<String> absent());
   }
 
   @Override
   protected void shutDown() throws Exception {
+    List<LogCopyTask> logCopyTasks = ImmutableList.copyOf(this.scheduler.getScheduledTasks());
     this.scheduler.close();
+    // No later copy completes the last lines of the log files
+    for (LogCopyTask logCopyTask : logCopyTasks) {
+      logCopyTask.copyRemainingChanges();
+    }
   }
 
   @Override
@@ -183,8 +221,8 @@ public class LogCopier extends AbstractScheduledService {
     });
 
     if (srcLogFiles.isEmpty()) {
+      // The copy tasks of the log files deleted since the last check are still cancelled
       LOGGER.warn("No log file found under directory " + this.srcLogDir);
-      return;
     }
 
     Set<Path> newLogFiles = Sets.newHashSet();
@@ -212,10 +250,78 @@ public class LogCopier extends AbstractScheduledService {
       Optional<LogCopyTask> logCopyTask = this.scheduler.getScheduledTask(deletedLogFile);
       if (logCopyTask.isPresent()) {
         this.scheduler.cancel(logCopyTask.get());
+        logCopyTask.get().copyRemainingChanges();
       }
     }
   }
 
+  /**
+   * Get the metrics of this {@link LogCopier} as {@link Gauge}s keyed by metric name.
+   *
+   * <p>
+   *   The metrics are totals over the source log files being copied, so that the {@link Gauge}s can be registered
+   *   once, e.g., with a {@link com.codahale.metrics.MetricRegistry}, while log files come and go.
+   * </p>
+   */
+  @Override
+  public Map<String, Metric> getMetrics() {
+    return ImmutableMap.<String, Metric>builder()
+        .put(BYTES_READ, asGauge(this.bytesRead))
+        .put(BYTES_COPIED, asGauge(this.bytesCopied))
+        .put(COPY_LAG_BYTES, new Gauge<Long>() {
+          @Override
+          public Long getValue() {
+            long copyLagBytes = 0;
+            for (LogCopyTask logCopyTask : LogCopier.this.scheduler.getScheduledTasks()) {
+              copyLagBytes += logCopyTask.copyLagBytes;
+            }
+            return copyLagBytes;
+          }
+        })
+        .put(BYTES_PER_SECOND, new Gauge<Double>() {
+          @Override
+          public Double getValue() {
+            double bytesPerSecond = 0;
+            for (LogCopyTask logCopyTask : LogCopier.this.scheduler.getScheduledTasks()) {
+              bytesPerSecond += logCopyTask.bytesPerSecond;
+            }
+            return bytesPerSecond;
+          }
+        })
+        .build();
+  }
+
+  private static Gauge<Long> asGauge(final AtomicLong value) {
+    return new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return value.get();
+      }
+    };
+  }
+
+  /**
+   * Combine a list of patterns into a single pattern that matches a string if and only if one of them does, so
+   * that a line is matched once rather than once per pattern.
+   */
+  private static Optional<Pattern> combinePatterns(List<Pattern> patterns) {
+    if (patterns == null) {
+      return Optional.absent();
+    }
+    if (patterns.isEmpty()) {
+      return Optional.of(NO_LINE_PATTERN);
+    }
+    if (patterns.size() == 1) {
+      return Optional.of(patterns.get(0));
+    }
+
+    List<String> alternatives = Lists.newArrayListWithCapacity(patterns.size());
+    for (Pattern pattern : patterns) {
+      alternatives.add("(?:" + pattern.pattern() + ")");
+    }
+    return Optional.of(Pattern.compile(Joiner.on('|').join(alternatives)));
+  }
+
   /**
    * Get a new {@link LogCopier.Builder} instance for building a {@link LogCopier}.
    *
@@ -250,7 +356,7 @@ public class LogCopier extends AbstractScheduledService {
 
     private String logFileNamePrefix;
 
-    private int linesWrittenBeforeFlush = DEFAULT_LINES_WRITTEN_BEFORE_FLUSH;
+    private int copyBufferSize = DEFAULT_COPY_BUFFER_SIZE;
 
     private String schedulerName = null;
 
@@ -417,11 +523,24 @@ public class LogCopier extends AbstractScheduledService {
      *
      * @param linesWrittenBeforeFlush the number of lines written before they are flushed to disk
      * @return this {@link LogCopier.Builder} instance
+     * @deprecated log files are copied in blocks of bytes, use {@link #useCopyBufferSize(int)} instead
      */
+    @Deprecated
     public Builder useLinesWrittenBeforeFlush(int linesWrittenBeforeFlush) {
       Preconditions.checkArgument(linesWrittenBeforeFlush > 0,
           "The value specifying the lines to write before flush must be positive");
-      this.linesWrittenBeforeFlush = linesWrittenBeforeFlush;
+      return this;
+    }
+
+    /**
+     * Set the size of the blocks log files are read and written in.
+     *
+     * @param copyBufferSize the size in bytes of the blocks log files are read and written in
+     * @return this {@link LogCopier.Builder} instance
+     */
+    public Builder useCopyBufferSize(int copyBufferSize) {
+      Preconditions.checkArgument(copyBufferSize > 0, "Copy buffer size must be positive");
+      this.copyBufferSize = copyBufferSize;
       return this;
     }
 
@@ -461,14 +580,26 @@ public class LogCopier extends AbstractScheduledService {
     private final Path srcLogFile;
     private final Path destLogFile;
     private final Stopwatch watch;
+    private final Optional<Matcher> includingMatcher;
+    private final Optional<Matcher> excludingMatcher;
 
     // The task maintains the current source log file position itself
     private long currentPos = 0;
+    private byte[] buffer;
+    // The buffer starts with the incomplete last line read so far, which is pendingLength bytes long
+    private int pendingLength = 0;
+
+    private volatile long copyLagBytes = 0;
+    private volatile double bytesPerSecond = 0;
 
     public LogCopyTask(Path srcLogFile, Path destLogFile) {
       this.srcLogFile = srcLogFile;
       this.destLogFile = destLogFile;
       this.watch = Stopwatch.createStarted();
+      this.includingMatcher = LogCopier.this.includingRegexPattern.isPresent()
+          ? Optional.of(LogCopier.this.includingRegexPattern.get().matcher("")) : Optional.<Matcher>absent();
+      this.excludingMatcher = LogCopier.this.excludingRegexPattern.isPresent()
+          ? Optional.of(LogCopier.this.excludingRegexPattern.get().matcher("")) : Optional.<Matcher>absent();
     }
 
     @Override
@@ -477,12 +608,24 @@ public class LogCopier extends AbstractScheduledService {
     }
 
     @Override
-    public void runOneIteration() {
+    public synchronized void runOneIteration() {
+      copyChanges(false);
+    }
+
+    /**
+     * Copy the remaining changes of the log file, including its incomplete last line, once no more copy of the file
+     * is scheduled.
+     */
+    public synchronized void copyRemainingChanges() {
+      copyChanges(true);
+    }
+
+    private void copyChanges(boolean lastCopy) {
       try {
         createNewLogFileIfNeeded();
         LOGGER.debug(String.format("Copying changes from %s to %s", this.srcLogFile, this.destLogFile));
         copyChangesOfLogFile(LogCopier.this.srcFs.makeQualified(this.srcLogFile),
-            LogCopier.this.destFs.makeQualified(this.destLogFile));
+            LogCopier.this.destFs.makeQualified(this.destLogFile), lastCopy);
       } catch (IOException ioe) {
         LOGGER.error(String.format("Failed while copying logs from %s to %s", this.srcLogFile, this.destLogFile), ioe);
       }
@@ -501,48 +644,125 @@ public class LogCopier extends AbstractScheduledService {
 
     /**
      * Copy changes for a single log file.
+     *
+     * <p>
+     *   The changes are copied up to the end of the last complete line as of the start of the copy. The remaining
+     *   bytes are kept and copied by a later copy, once the line is complete, or by the last copy of the file, which
+     *   copies them even if the source log file has been deleted since they were read.
+     * </p>
      */
-    private void copyChangesOfLogFile(Path srcFile, Path destFile) throws IOException {
-      if (!LogCopier.this.srcFs.exists(srcFile)) {
-        LOGGER.warn("Source log file not found: " + srcFile);
+    private void copyChangesOfLogFile(Path srcFile, Path destFile, boolean lastCopy) throws IOException {
+      long srcFileLength;
+      try {
+        srcFileLength = LogCopier.this.srcFs.getFileStatus(srcFile).getLen();
+      } catch (FileNotFoundException fnfe) {
+        if (!lastCopy) {
+          LOGGER.warn("Source log file not found: " + srcFile);
+          return;
+        }
+        srcFileLength = this.currentPos;
+      }
+      if (srcFileLength <= this.currentPos && (!lastCopy || this.pendingLength == 0)) {
+        this.copyLagBytes = this.pendingLength;
         return;
       }
 
-      // We need to use fsDataInputStream in the finally clause so it has to be defined outside try-catch-finally
-      FSDataInputStream fsDataInputStream = null;
+      if (this.buffer == null) {
+        this.buffer = new byte[LogCopier.this.copyBufferSize];
+      }
+      Stopwatch copyWatch = Stopwatch.createStarted();
+      long bytesCopied = 0;
 
       try (Closer closer = Closer.create()) {
-        fsDataInputStream = closer.register(LogCopier.this.srcFs.open(srcFile));
-        // Seek to the the most recent position if it is available
-        LOGGER.debug(String.format("Reading log file %s from position %d", srcFile, this.currentPos));
-        fsDataInputStream.seek(this.currentPos);
-        BufferedReader srcLogFileReader = closer.register(
-            new BufferedReader(new InputStreamReader(fsDataInputStream, ConfigurationKeys.DEFAULT_CHARSET_ENCODING)));
-
         FSDataOutputStream outputStream = LogCopier.this.destFs.exists(destFile)
             ? LogCopier.this.destFs.append(destFile) : LogCopier.this.destFs.create(destFile);
-        BufferedWriter destLogFileWriter = closer.register(
-            new BufferedWriter(new OutputStreamWriter(outputStream, ConfigurationKeys.DEFAULT_CHARSET_ENCODING)));
-
-        String line;
-        int linesProcessed = 0;
-        while (!Thread.currentThread().isInterrupted() && (line = srcLogFileReader.readLine()) != null) {
-          if (!shouldCopyLine(line)) {
-            continue;
+        OutputStream destLogFileStream =
+            closer.register(new BufferedOutputStream(outputStream, LogCopier.this.copyBufferSize));
+
+        if (this.currentPos < srcFileLength) {
+          FSDataInputStream fsDataInputStream = closer.register(LogCopier.this.srcFs.open(srcFile));
+          // Seek to the the most recent position if it is available
+          LOGGER.debug(String.format("Reading log file %s from position %d", srcFile, this.currentPos));
+          fsDataInputStream.seek(this.currentPos);
+
+          while (!Thread.currentThread().isInterrupted() && this.currentPos < srcFileLength) {
+            if (this.pendingLength == this.buffer.length) {
+              // A line is longer than the buffer
+              this.buffer = Arrays.copyOf(this.buffer, this.buffer.length * 2);
+            }
+            int bytesRead = fsDataInputStream.read(this.buffer, this.pendingLength,
+                (int) Math.min(this.buffer.length - this.pendingLength, srcFileLength - this.currentPos));
+            if (bytesRead < 0) {
+              break;
+            }
+            this.currentPos += bytesRead;
+            this.pendingLength += bytesRead;
+            LogCopier.this.bytesRead.addAndGet(bytesRead);
+
+            int linesEnd = lastIndexOf(this.buffer, this.pendingLength, (byte) '\n') + 1;
+            if (linesEnd == 0) {
+              continue;
+            }
+            bytesCopied += copyLines(this.buffer, linesEnd, destLogFileStream);
+            System.arraycopy(this.buffer, linesEnd, this.buffer, 0, this.pendingLength - linesEnd);
+            this.pendingLength -= linesEnd;
           }
+        }
 
-          destLogFileWriter.write(line);
-          destLogFileWriter.newLine();
-          linesProcessed++;
-          if (linesProcessed % LogCopier.this.linesWrittenBeforeFlush == 0) {
-            destLogFileWriter.flush();
-          }
+        if (lastCopy && this.pendingLength > 0) {
+          // No later copy completes the last line
+          bytesCopied += copyLines(this.buffer, this.pendingLength, destLogFileStream);
+          this.pendingLength = 0;
         }
       } finally {
-        if (fsDataInputStream != null) {
-          this.currentPos = fsDataInputStream.getPos();
+        LogCopier.this.bytesCopied.addAndGet(bytesCopied);
+        this.copyLagBytes = Math.max(srcFileLength - this.currentPos, 0) + this.pendingLength;
+        long elapsedMillis = copyWatch.elapsed(TimeUnit.MILLISECONDS);
+        this.bytesPerSecond = bytesCopied * 1000.0 / Math.max(elapsedMillis, 1);
+      }
+    }
+
+    /**
+     * Write the lines in the first <code>length</code> bytes of <code>bytes</code> that should be copied. The last
+     * line may miss its line terminator.
+     *
+     * @return the number of bytes written
+     */
+    private long copyLines(byte[] bytes, int length, OutputStream outputStream) throws IOException {
+      if (!this.includingMatcher.isPresent() && !this.excludingMatcher.isPresent()) {
+        outputStream.write(bytes, 0, length);
+        return length;
+      }
+
+      long bytesWritten = 0;
+      // Consecutive lines to copy are written together
+      int copyStart = 0;
+      int lineStart = 0;
+      while (lineStart < length) {
+        int lineEnd = lineStart;
+        while (lineEnd < length && bytes[lineEnd] != '\n') {
+          lineEnd++;
+        }
+        int lineLength = lineEnd - lineStart;
+        if (lineLength > 0 && bytes[lineEnd - 1] == '\r') {
+          lineLength--;
         }
+        String line = new String(bytes, lineStart, lineLength, ConfigurationKeys.DEFAULT_CHARSET_ENCODING);
+
+        if (!shouldCopyLine(line)) {
+          if (lineStart > copyStart) {
+            outputStream.write(bytes, copyStart, lineStart - copyStart);
+            bytesWritten += lineStart - copyStart;
+          }
+          copyStart = lineEnd + 1;
+        }
+        lineStart = lineEnd + 1;
+      }
+      if (length > copyStart) {
+        outputStream.write(bytes, copyStart, length - copyStart);
+        bytesWritten += length - copyStart;
       }
+      return bytesWritten;
     }
 
     /**
@@ -564,12 +784,19 @@ public class LogCopier extends AbstractScheduledService {
      * </p>
      */
     private boolean shouldCopyLine(String line) {
-      boolean including = !LogCopier.this.includingRegexPatterns.isPresent()
-          || DatasetFilterUtils.stringInPatterns(line, LogCopier.this.includingRegexPatterns.get());
-      boolean excluding = LogCopier.this.excludingRegexPatterns.isPresent()
-          && DatasetFilterUtils.stringInPatterns(line, LogCopier.this.excludingRegexPatterns.get());
+      boolean including = !this.includingMatcher.isPresent() || this.includingMatcher.get().reset(line).matches();
+      boolean excluding = this.excludingMatcher.isPresent() && this.excludingMatcher.get().reset(line).matches();
 
       return !excluding && including;
     }
   }
+
+  private static int lastIndexOf(byte[] bytes, int length, byte b) {
+    for (int i = length - 1; i >= 0; i--) {
+      if (bytes[i] == b) {
+        return i;
+      }
+    }
+    return -1;
+  }
 }
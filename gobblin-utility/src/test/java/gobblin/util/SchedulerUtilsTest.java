@@ -25,6 +25,9 @@ import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
+
 import gobblin.configuration.ConfigurationKeys;
 
 
@@ -96,6 +99,12 @@ public class SchedulerUtilsTest {
     jobProps4.setProperty("k5", "b5");
     // test-job-conf-dir/test2/test21.PULL
     jobProps4.store(new FileWriter(new File(this.subDir2, "test21.PULL")), "");
+
+    // Files modified within the granularity of modification times are not cached
+    long modificationTime = System.currentTimeMillis() - 60000;
+    for (File file : FileUtils.listFiles(this.jobConfigDir, null, true)) {
+      Assert.assertTrue(file.setLastModified(modificationTime));
+    }
   }
 
   @Test
@@ -152,6 +161,69 @@ public class SchedulerUtilsTest {
     Assert.assertEquals(jobProps4.getProperty("k5"), "b5");
   }
 
+  @Test(dependsOnMethods = "testLoadJobConfigs")
+  public void testLoadJobConfigsFromCacheInParallel()
+      throws ConfigurationException, IOException {
+    Properties properties = new Properties();
+    properties.setProperty(ConfigurationKeys.JOB_CONFIG_FILE_GENERAL_PATH_KEY, this.jobConfigDir.getAbsolutePath());
+    properties.setProperty(ConfigurationKeys.JOB_CONFIG_LOAD_THREADS_KEY, "4");
+    List<Properties> jobConfigs = SchedulerUtils.loadGenericJobConfigs(properties);
+
+    // None of the 3 properties files and 4 job configuration files changed since they were last loaded
+    long filesParsed = getCount(SchedulerUtils.FILES_PARSED);
+    long filesCached = getCount(SchedulerUtils.FILES_CACHED);
+    Assert.assertEquals(SchedulerUtils.loadGenericJobConfigs(properties), jobConfigs);
+    Assert.assertEquals(getCount(SchedulerUtils.FILES_PARSED), filesParsed);
+    Assert.assertEquals(getCount(SchedulerUtils.FILES_CACHED), filesCached + 7);
+
+    // Only the changed properties file is parsed again
+    File commonPropsFile = new File(this.subDir2, "test.PROPERTIES");
+    writeCommonProps(commonPropsFile, "c2");
+    long lastModified = commonPropsFile.lastModified();
+
+    jobConfigs = SchedulerUtils.loadGenericJobConfigs(properties);
+    Assert.assertEquals(jobConfigs.size(), 4);
+    Assert.assertEquals(getJobConfigForFile(jobConfigs, "test21.PULL").getProperty("k2"), "c2");
+    Assert.assertEquals(getJobConfigForFile(jobConfigs, "test11.pull").getProperty("k2"), "a2");
+    Assert.assertEquals(getCount(SchedulerUtils.FILES_PARSED), filesParsed + 1);
+
+    // A change within the granularity of modification times that keeps the length of the file is not missed
+    writeCommonProps(commonPropsFile, "d2");
+    Assert.assertTrue(commonPropsFile.setLastModified(lastModified));
+
+    jobConfigs = SchedulerUtils.loadGenericJobConfigs(properties);
+    Assert.assertEquals(getJobConfigForFile(jobConfigs, "test21.PULL").getProperty("k2"), "d2");
+    Assert.assertEquals(getCount(SchedulerUtils.FILES_PARSED), filesParsed + 2);
+
+    // The file is cached again once it was read after the granularity of modification times
+    Assert.assertTrue(commonPropsFile.setLastModified(
+        System.currentTimeMillis() - SchedulerUtils.MODIFICATION_TIME_GRANULARITY_MILLIS * 2));
+    SchedulerUtils.loadGenericJobConfigs(properties);
+    Assert.assertEquals(getCount(SchedulerUtils.FILES_PARSED), filesParsed + 3);
+    jobConfigs = SchedulerUtils.loadGenericJobConfigs(properties);
+    Assert.assertEquals(getJobConfigForFile(jobConfigs, "test21.PULL").getProperty("k2"), "d2");
+    Assert.assertEquals(getCount(SchedulerUtils.FILES_PARSED), filesParsed + 3);
+  }
+
+  @Test(dependsOnMethods = "testLoadJobConfigsFromCacheInParallel")
+  public void testLoadJobConfig()
+      throws ConfigurationException, IOException {
+    long loads = ((Timer) SchedulerUtils.getMetrics().get(SchedulerUtils.JOB_CONFIGS_LOAD_TIMER)).getCount();
+
+    Properties jobProps = SchedulerUtils.loadJobConfig(new Properties(), new File(this.subDir11, "test111.pull"),
+        this.jobConfigDir);
+    Assert.assertEquals(jobProps.getProperty("k1"), "d1");
+    Assert.assertEquals(jobProps.getProperty("k3"), "a3");
+
+    List<Properties> jobConfigs = SchedulerUtils.loadJobConfigs(new Properties(),
+        new File(this.subDir2, "test.PROPERTIES"), this.jobConfigDir);
+    Assert.assertEquals(jobConfigs.size(), 1);
+    Assert.assertEquals(jobConfigs.get(0).getProperty("k5"), "b5");
+
+    Assert.assertEquals(((Timer) SchedulerUtils.getMetrics().get(SchedulerUtils.JOB_CONFIGS_LOAD_TIMER)).getCount(),
+        loads + 2);
+  }
+
   @AfterClass
   public void tearDown()
       throws IOException {
@@ -160,6 +232,16 @@ public class SchedulerUtilsTest {
     }
   }
 
+  private static void writeCommonProps(File commonPropsFile, String k2)
+      throws IOException {
+    Properties props2 = new Properties();
+    props2.setProperty("k2", k2);
+    props2.setProperty("k5", "a5");
+    try (FileWriter writer = new FileWriter(commonPropsFile)) {
+      props2.store(writer, "");
+    }
+  }
+
   private Properties getJobConfigForFile(List<Properties> jobConfigs, String fileName) {
     for (Properties jobConfig : jobConfigs) {
       if (jobConfig.getProperty(ConfigurationKeys.JOB_CONFIG_FILE_PATH_KEY).endsWith(fileName)) {
@@ -168,4 +250,8 @@ public class SchedulerUtilsTest {
     }
     return null;
   }
+
+  private static long getCount(String metricName) {
+    return ((Counter) SchedulerUtils.getMetrics().get(metricName)).getCount();
+  }
 }
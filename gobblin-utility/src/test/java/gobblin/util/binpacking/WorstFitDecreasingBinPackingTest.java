@@ -87,6 +87,23 @@ public class WorstFitDecreasingBinPackingTest {
     Assert.assertEquals(((MultiWorkUnit) multiWorkUnits.get(1)).getWorkUnits().size(), 1);
   }
 
+  @Test
+  public void testMaxMultiWorkUnits() throws Exception {
+    // The last work unit does not fit in any bin, but no more bins can be created, so it goes to the lightest one
+    List<WorkUnit> workUnitList = Lists.newArrayList();
+    for (int i = 0; i < 10; i++) {
+      workUnitList.add(getWorkUnitWithWeight(10));
+    }
+    List<WorkUnit> multiWorkUnits = new WorstFitDecreasingBinPacking(34, 3).pack(workUnitList, weighter);
+    Assert.assertEquals(multiWorkUnits.size(), 3);
+    int packedWorkUnits = 0;
+    for (WorkUnit multiWorkUnit : multiWorkUnits) {
+      Assert.assertTrue(((MultiWorkUnit) multiWorkUnit).getWorkUnits().size() <= 4);
+      packedWorkUnits += ((MultiWorkUnit) multiWorkUnit).getWorkUnits().size();
+    }
+    Assert.assertEquals(packedWorkUnits, 10);
+  }
+
   @Test
   public void testMaxSizeZero() throws Exception {
     // If maxSize is 0, one work unit per bin
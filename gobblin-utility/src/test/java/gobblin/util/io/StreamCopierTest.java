@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.util.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hadoop.fs.ByteBufferReadable;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.codahale.metrics.Meter;
+
+
+@Test(groups = { "gobblin.util.io" })
+public class StreamCopierTest {
+
+  private static final byte[] CONTENT = new byte[1000000];
+
+  static {
+    new Random(0).nextBytes(CONTENT);
+  }
+
+  @Test
+  public void testCopy() throws IOException {
+    for (boolean doubleBuffering : new boolean[] { false, true }) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      Meter meter = new Meter();
+      long bytesCopied = new StreamCopier(new ByteArrayInputStream(CONTENT), out).withBufferSize(1000)
+          .withDoubleBuffering(doubleBuffering).withCopySpeedMeter(meter).copy();
+
+      Assert.assertEquals(bytesCopied, CONTENT.length);
+      Assert.assertEquals(meter.getCount(), CONTENT.length);
+      Assert.assertEquals(out.toByteArray(), CONTENT);
+    }
+  }
+
+  @Test
+  public void testCopyByteBufferReadable() throws IOException {
+    ByteBufferReadableInputStream byteBufferReadable =
+        new ByteBufferReadableInputStream(new ByteArrayInputStream(CONTENT));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    long bytesCopied = new StreamCopier(new FSDataInputStream(byteBufferReadable), out).copy();
+
+    Assert.assertEquals(bytesCopied, CONTENT.length);
+    Assert.assertEquals(out.toByteArray(), CONTENT);
+    Assert.assertTrue(byteBufferReadable.byteBufferReads > 0);
+  }
+
+  @Test(expectedExceptions = IOException.class)
+  public void testDoubleBufferedReadFailure() throws IOException {
+    InputStream failingStream = new InputStream() {
+      @Override
+      public int read() throws IOException {
+        throw new IOException("Read failed.");
+      }
+    };
+    new StreamCopier(failingStream, new ByteArrayOutputStream()).withDoubleBuffering(true).copy();
+  }
+
+  @Test
+  public void testDoubleBufferedCancellation() throws Exception {
+    final CountDownLatch writeStarted = new CountDownLatch(1);
+    final CountDownLatch secondReadStarted = new CountDownLatch(1);
+    final Thread[] readerThread = new Thread[1];
+
+    // The second read ignores the interruption of the reader, like some file system clients do
+    final InputStream in = new InputStream() {
+      private final AtomicInteger reads = new AtomicInteger();
+
+      @Override
+      public int read() throws IOException {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+        if (this.reads.incrementAndGet() == 2) {
+          readerThread[0] = Thread.currentThread();
+          secondReadStarted.countDown();
+          try {
+            new CountDownLatch(1).await();
+          } catch (InterruptedException ie) {
+            // Swallowed
+          }
+        }
+        Arrays.fill(b, off, off + 10, (byte) 1);
+        return 10;
+      }
+    };
+    final OutputStream out = new OutputStream() {
+      @Override
+      public void write(int b) throws IOException {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException {
+        writeStarted.countDown();
+        try {
+          new CountDownLatch(1).await();
+        } catch (InterruptedException ie) {
+          throw new InterruptedIOException();
+        }
+      }
+    };
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Long> copy = executor.submit(new Callable<Long>() {
+        @Override
+        public Long call() throws Exception {
+          return new StreamCopier(in, out).withDoubleBuffering(true).copy();
+        }
+      });
+      // The writer holds one buffer while the reader fills the other one
+      Assert.assertTrue(writeStarted.await(10, TimeUnit.SECONDS));
+      Assert.assertTrue(secondReadStarted.await(10, TimeUnit.SECONDS));
+      copy.cancel(true);
+
+      // The reader stops even though it is never interrupted while waiting for a buffer
+      long deadline = System.currentTimeMillis() + 10000;
+      while (isCopying(readerThread[0]) && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      Assert.assertFalse(isCopying(readerThread[0]), "Reader thread is still copying");
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static boolean isCopying(Thread thread) {
+    for (StackTraceElement element : thread.getStackTrace()) {
+      if (element.getClassName().startsWith(StreamCopier.class.getName())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static class ByteBufferReadableInputStream extends SeekableFSInputStream implements ByteBufferReadable {
+
+    private int byteBufferReads = 0;
+
+    public ByteBufferReadableInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read(ByteBuffer buf) throws IOException {
+      this.byteBufferReads++;
+      int bytesRead = read(buf.array(), buf.arrayOffset() + buf.position(), buf.remaining());
+      if (bytesRead > 0) {
+        buf.position(buf.position() + bytesRead);
+      }
+      return bytesRead;
+    }
+  }
+}
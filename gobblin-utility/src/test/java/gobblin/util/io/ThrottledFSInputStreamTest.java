@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.util.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import gobblin.util.limiter.Limiter;
+
+
+@Test(groups = { "gobblin.util.io" })
+public class ThrottledFSInputStreamTest {
+
+  @Test
+  public void testPermitsAcquiredPerByte() throws IOException {
+    byte[] content = new byte[100000];
+    for (int i = 0; i < content.length; i++) {
+      content[i] = (byte) i;
+    }
+
+    CountingLimiter limiter = new CountingLimiter();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (FSDataInputStream in = new FSDataInputStream(new ThrottledFSInputStream(
+        StreamUtils.convertStream(new ByteArrayInputStream(content)), limiter))) {
+      Assert.assertEquals(in.read(), 0);
+      StreamUtils.copy(in, out);
+    }
+
+    Assert.assertEquals(out.size(), content.length - 1);
+    Assert.assertEquals(limiter.permits, content.length);
+  }
+
+  private static class CountingLimiter implements Limiter {
+
+    private long permits = 0;
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public Closeable acquirePermits(long permits) throws InterruptedException {
+      this.permits += permits;
+      return null;
+    }
+
+    @Override
+    public void stop() {
+    }
+  }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+package gobblin.util.limiter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.Lists;
+
+
+/**
+ * Unit tests for {@link DistributedLimiter} and {@link TokenBucketPermitServer}.
+ */
+@Test(groups = { "gobblin.util.limiter" })
+public class DistributedLimiterTest {
+
+  @Test
+  public void testTokenBucketPermitServer() {
+    ManualTicker ticker = new ManualTicker();
+    TokenBucketPermitServer server = new TokenBucketPermitServer(5000, 1000, ticker);
+
+    // A new bucket holds one second of permits
+    PermitAllocation allocation = server.requestPermits(new PermitRequest("resource", 10, 10));
+    Assert.assertEquals(allocation.getPermits(), 10);
+    Assert.assertEquals(allocation.getLeaseMillis(), 5000);
+
+    allocation = server.requestPermits(new PermitRequest("resource", 5, 10));
+    Assert.assertEquals(allocation.getPermits(), 0);
+    Assert.assertEquals(allocation.getWaitMillis(), 500);
+
+    ticker.advance(500, TimeUnit.MILLISECONDS);
+    Assert.assertEquals(server.requestPermits(new PermitRequest("resource", 5, 10)).getPermits(), 5);
+
+    // Returned permits are available again right away
+    server.returnPermits("resource", 3);
+    Assert.assertEquals(server.requestPermits(new PermitRequest("resource", 3, 10)).getPermits(), 3);
+
+    // Requests for more than a full bucket get a full bucket
+    ticker.advance(10, TimeUnit.SECONDS);
+    Assert.assertEquals(server.requestPermits(new PermitRequest("resource", 20, 10)).getPermits(), 10);
+
+    // A request for a higher rate does not raise the rate of the resource
+    ticker.advance(10, TimeUnit.SECONDS);
+    Assert.assertEquals(server.requestPermits(new PermitRequest("resource", 20, 20)).getPermits(), 10);
+
+    // Resources are limited independently
+    Assert.assertEquals(server.requestPermits(new PermitRequest("other", 10, 10)).getPermits(), 10);
+  }
+
+  @Test
+  public void testLimitersShareRate() throws Exception {
+    final TokenBucketPermitServer server = new TokenBucketPermitServer();
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      long startNanos = System.nanoTime();
+      List<Future<Void>> futures = Lists.newArrayList();
+      for (int i = 0; i < 2; i++) {
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            Limiter limiter = new DistributedLimiter(server, "resource", 100, 5);
+            limiter.start();
+            for (int j = 0; j < 150; j++) {
+              Assert.assertNotNull(limiter.acquirePermits(1));
+            }
+            limiter.stop();
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+
+      // 300 permits at 100 permits per second, starting with a full bucket of 100 permits
+      long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+      Assert.assertTrue(elapsedMillis >= 1800, "Permits were acquired in " + elapsedMillis + " ms");
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test(timeOut = 30000)
+  public void testRequestLargerThanLease() throws InterruptedException {
+    // Grants are at most 10 permits, which expire after 100 ms, so 50 permits are never available at once
+    TokenBucketPermitServer server = new TokenBucketPermitServer(100, 100);
+    Limiter limiter = new DistributedLimiter(server, "resource", 100, 5);
+    limiter.start();
+
+    long startNanos = System.nanoTime();
+    Assert.assertNotNull(limiter.acquirePermits(50));
+    // 50 permits at 100 permits per second, starting with a full bucket of 10 permits
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    Assert.assertTrue(elapsedMillis >= 350, "Permits were acquired in " + elapsedMillis + " ms");
+
+    // The permits used by the request are not granted again
+    Assert.assertEquals(server.requestPermits(new PermitRequest("resource", 10, 100)).getPermits(), 0);
+    limiter.stop();
+  }
+
+  @Test
+  public void testStopReturnsUnusedPermits() throws InterruptedException {
+    TokenBucketPermitServer server = new TokenBucketPermitServer();
+    Limiter limiter = new DistributedLimiter(server, "resource", 10, 10);
+    limiter.start();
+    Assert.assertNotNull(limiter.acquirePermits(1));
+    Assert.assertEquals(server.requestPermits(new PermitRequest("resource", 9, 10)).getPermits(), 0);
+
+    limiter.stop();
+    Assert.assertEquals(server.requestPermits(new PermitRequest("resource", 9, 10)).getPermits(), 9);
+  }
+
+  @Test
+  public void testRetryOnServerFailure() throws InterruptedException {
+    final TokenBucketPermitServer server = new TokenBucketPermitServer();
+    final AtomicInteger requests = new AtomicInteger();
+    PermitServer failingServer = new PermitServer() {
+      @Override
+      public PermitAllocation requestPermits(PermitRequest request) throws IOException {
+        if (requests.incrementAndGet() == 1) {
+          throw new IOException("Server unavailable");
+        }
+        return server.requestPermits(request);
+      }
+
+      @Override
+      public void returnPermits(String resource, long permits) throws IOException {
+        server.returnPermits(resource, permits);
+      }
+    };
+
+    Limiter limiter = new DistributedLimiter(failingServer, "resource", 10, 1);
+    Assert.assertNotNull(limiter.acquirePermits(1));
+    Assert.assertEquals(requests.get(), 2);
+  }
+
+  @Test
+  public void testGiveUpOnUnreachableServer() throws InterruptedException {
+    PermitServer unreachableServer = new PermitServer() {
+      @Override
+      public PermitAllocation requestPermits(PermitRequest request) throws IOException {
+        throw new IOException("Server unavailable");
+      }
+
+      @Override
+      public void returnPermits(String resource, long permits) throws IOException {
+        throw new IOException("Server unavailable");
+      }
+    };
+
+    Limiter limiter = new DistributedLimiter(unreachableServer, "resource", 10, 1, 300);
+    Assert.assertNull(limiter.acquirePermits(1));
+  }
+
+  private static class ManualTicker extends Ticker {
+
+    private long nanos = 0;
+
+    @Override
+    public long read() {
+      return this.nanos;
+    }
+
+    private void advance(long duration, TimeUnit timeUnit) {
+      this.nanos += timeUnit.toNanos(duration);
+    }
+  }
+}
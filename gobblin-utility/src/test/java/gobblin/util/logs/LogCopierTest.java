@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.util.logs;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableSet;
+
+
+/**
+ * Unit tests for {@link LogCopier}.
+ */
+@Test(groups = { "gobblin.util.logs" })
+public class LogCopierTest {
+
+  private static final Path TEST_DIR = new Path("gobblin-utility/src/test/resources/logCopierTestDir");
+  private static final long TIMEOUT_MILLIS = 10000;
+
+  private FileSystem fs;
+  private Path srcLogDir;
+  private Path destLogDir;
+  private Path srcLogFile;
+
+  @BeforeMethod
+  public void setUp() throws IOException {
+    // The raw local file system supports appends
+    this.fs = FileSystem.getLocal(new Configuration()).getRawFileSystem();
+    this.fs.delete(TEST_DIR, true);
+    this.srcLogDir = new Path(TEST_DIR, "src");
+    this.destLogDir = new Path(TEST_DIR, "dest");
+    this.fs.mkdirs(this.srcLogDir);
+    this.fs.mkdirs(this.destLogDir);
+    this.srcLogFile = new Path(this.srcLogDir, "test.log");
+  }
+
+  @Test
+  public void testCopyWithoutFilters() throws Exception {
+    append("line 1\nline 2\n");
+    LogCopier logCopier = newBuilder().build();
+    logCopier.startAsync().awaitRunning();
+    try {
+      waitForDestLog("line 1\nline 2\n");
+
+      // An incomplete line is only copied once it is complete
+      append("line 3\nline");
+      waitForDestLog("line 1\nline 2\nline 3\n");
+      append(" 4\n");
+      waitForDestLog("line 1\nline 2\nline 3\nline 4\n");
+
+      Map<String, Metric> metrics = logCopier.getMetrics();
+      Assert.assertEquals(getValue(metrics, LogCopier.BYTES_COPIED), 28L);
+      Assert.assertEquals(getValue(metrics, LogCopier.BYTES_READ), 28L);
+    } finally {
+      logCopier.stopAsync().awaitTerminated();
+    }
+  }
+
+  @Test
+  public void testCopyWithFilters() throws Exception {
+    append("INFO starting\nDEBUG details\nWARN the secret is 42\r\nWARN low disk space\r\n");
+    // A buffer smaller than a line
+    LogCopier logCopier = newBuilder().useIncludingRegexPatterns("INFO.*,WARN.*")
+        .useExcludingRegexPatterns(".*secret.*,.*password.*").useCopyBufferSize(4).build();
+    logCopier.startAsync().awaitRunning();
+    try {
+      waitForDestLog("INFO starting\nWARN low disk space\r\n");
+      append("ERROR failure\nINFO done\n");
+      waitForDestLog("INFO starting\nWARN low disk space\r\nINFO done\n");
+
+      Map<String, Metric> metrics = logCopier.getMetrics();
+      Assert.assertEquals(getValue(metrics, LogCopier.BYTES_COPIED), 45L);
+      Assert.assertEquals(getValue(metrics, LogCopier.BYTES_READ), 96L);
+      Assert.assertEquals(getValue(metrics, LogCopier.COPY_LAG_BYTES), 0L);
+    } finally {
+      logCopier.stopAsync().awaitTerminated();
+    }
+  }
+
+  @Test
+  public void testCopyIncompleteLastLineOnShutdown() throws Exception {
+    append("line 1\nDEBUG details\nline 2");
+    LogCopier logCopier = newBuilder().useIncludingRegexPatterns("line.*").build();
+    logCopier.startAsync().awaitRunning();
+    try {
+      waitForDestLog("line 1\n");
+      Assert.assertEquals(getValue(logCopier.getMetrics(), LogCopier.COPY_LAG_BYTES), 6L);
+    } finally {
+      logCopier.stopAsync().awaitTerminated();
+    }
+    waitForDestLog("line 1\nline 2");
+  }
+
+  @Test
+  public void testCopyIncompleteLastLineOfDeletedFile() throws Exception {
+    append("line 1\nline 2");
+    LogCopier logCopier = newBuilder().build();
+    logCopier.startAsync().awaitRunning();
+    try {
+      waitForDestLog("line 1\n");
+      this.fs.delete(this.srcLogFile, false);
+      waitForDestLog("line 1\nline 2");
+    } finally {
+      logCopier.stopAsync().awaitTerminated();
+    }
+  }
+
+  @AfterMethod
+  public void tearDown() throws IOException {
+    this.fs.delete(TEST_DIR, true);
+  }
+
+  private LogCopier.Builder newBuilder() {
+    return LogCopier.newBuilder().useSrcFileSystem(this.fs).useDestFileSystem(this.fs).readFrom(this.srcLogDir)
+        .writeTo(this.destLogDir).acceptsLogFileExtensions(ImmutableSet.of("log"))
+        .useSourceLogFileMonitorInterval(50).useCopyInterval(50).useTimeUnit(TimeUnit.MILLISECONDS);
+  }
+
+  private void append(String content) throws IOException {
+    try (OutputStream outputStream =
+        this.fs.exists(this.srcLogFile) ? this.fs.append(this.srcLogFile) : this.fs.create(this.srcLogFile)) {
+      outputStream.write(content.getBytes(Charsets.UTF_8));
+    }
+  }
+
+  private void waitForDestLog(String expectedContent) throws Exception {
+    Path destLogFile = new Path(this.destLogDir, this.srcLogFile.getName());
+    String content = null;
+    long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+    while (System.currentTimeMillis() < deadline) {
+      if (this.fs.exists(destLogFile)) {
+        content = IOUtils.toString(this.fs.open(destLogFile), Charsets.UTF_8);
+        if (content.equals(expectedContent)) {
+          return;
+        }
+      }
+      Thread.sleep(20);
+    }
+    Assert.assertEquals(content, expectedContent);
+  }
+
+  private static Object getValue(Map<String, Metric> metrics, String name) {
+    return ((Gauge<?>) metrics.get(name)).getValue();
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.yarn;
+
+import com.google.common.base.Preconditions;
+
+import gobblin.annotation.Alpha;
+
+
+/**
+ * A policy computing how many containers the Gobblin Yarn application needs given its Helix task backlog.
+ *
+ * <p>
+ *   Running tasks need one task slot each, and each container has
+ *   {@link GobblinYarnConfigurationKeys#AUTOSCALING_TASKS_PER_CONTAINER_KEY} slots. Pending tasks need enough
+ *   containers to get a slot each, unless the observed task throughput per container shows that fewer containers are
+ *   enough to drain the backlog within
+ *   {@link GobblinYarnConfigurationKeys#AUTOSCALING_BACKLOG_DRAIN_TARGET_SECONDS_KEY}. The result is bounded by the
+ *   minimum and maximum numbers of containers.
+ * </p>
+ */
+@Alpha
+public class ContainerScalingPolicy {
+
+  private final int minContainers;
+  private final int maxContainers;
+  private final int tasksPerContainer;
+  private final long backlogDrainTargetSeconds;
+
+  public ContainerScalingPolicy(int minContainers, int maxContainers, int tasksPerContainer,
+      long backlogDrainTargetSeconds) {
+    Preconditions.checkArgument(minContainers >= 0, "Minimum number of containers must not be negative.");
+    Preconditions.checkArgument(maxContainers >= minContainers,
+        "Maximum number of containers must not be less than the minimum.");
+    Preconditions.checkArgument(tasksPerContainer > 0, "Number of tasks per container must be positive.");
+    this.minContainers = minContainers;
+    this.maxContainers = maxContainers;
+    this.tasksPerContainer = tasksPerContainer;
+    this.backlogDrainTargetSeconds = backlogDrainTargetSeconds;
+  }
+
+  /**
+   * Get the number of containers needed.
+   *
+   * @param pendingTasks number of tasks that are not running yet
+   * @param runningTasks number of running tasks
+   * @param taskThroughputPerContainer number of tasks completed per second per container recently, or 0 if unknown
+   * @return the number of containers needed
+   */
+  public int getTargetContainers(int pendingTasks, int runningTasks, double taskThroughputPerContainer) {
+    long backlogContainers = divideRoundingUp(pendingTasks, this.tasksPerContainer);
+    if (pendingTasks > 0 && taskThroughputPerContainer > 0 && this.backlogDrainTargetSeconds > 0) {
+      backlogContainers = Math.min(backlogContainers,
+          (long) Math.ceil(pendingTasks / (taskThroughputPerContainer * this.backlogDrainTargetSeconds)));
+    }
+    long targetContainers = divideRoundingUp(runningTasks, this.tasksPerContainer) + backlogContainers;
+    return (int) Math.max(this.minContainers, Math.min(this.maxContainers, targetContainers));
+  }
+
+  public int getMinContainers() {
+    return this.minContainers;
+  }
+
+  public int getMaxContainers() {
+    return this.maxContainers;
+  }
+
+  private static long divideRoundingUp(long dividend, long divisor) {
+    return (dividend + divisor - 1) / divisor;
+  }
+}
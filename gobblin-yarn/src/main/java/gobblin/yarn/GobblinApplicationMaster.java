@@ -12,6 +12,8 @@
 
 package gobblin.yarn;
 
+import java.util.Map;
+
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.HelpFormatter;
@@ -34,13 +36,19 @@ import org.apache.helix.model.Message;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Optional;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
 
 import gobblin.annotation.Alpha;
 import gobblin.cluster.GobblinClusterConfigurationKeys;
 import gobblin.cluster.GobblinClusterManager;
+import gobblin.metrics.MetricContext;
+import gobblin.util.ConfigUtils;
 import gobblin.util.logs.Log4jConfigurationHelper;
+import gobblin.util.logs.LogCopier;
 import gobblin.yarn.event.DelegationTokenUpdatedEvent;
 
 
@@ -63,14 +71,31 @@ public class GobblinApplicationMaster extends GobblinClusterManager {
       YarnConfiguration yarnConfiguration) throws Exception {
     super(applicationName, containerId.getApplicationAttemptId().getApplicationId().toString(), config);
 
+    Optional<LogCopier> logCopier = Optional.absent();
     GobblinYarnLogSource gobblinYarnLogSource = new GobblinYarnLogSource();
     if (gobblinYarnLogSource.isLogSourcePresent()) {
-      this.applicationLauncher
-          .addService(gobblinYarnLogSource.buildLogCopier(config, containerId, this.fs, this.appWorkDir));
+      logCopier = Optional.of(gobblinYarnLogSource.buildLogCopier(config, containerId, this.fs, this.appWorkDir));
+      this.applicationLauncher.addService(logCopier.get());
+    }
+
+    YarnService yarnService = buildYarnService(config, applicationName, this.applicationId, yarnConfiguration, this.fs);
+    this.applicationLauncher.addService(yarnService);
+
+    if (logCopier.isPresent() && yarnService.getMetricContext().isPresent()) {
+      // The metrics of the log copier are reported along with those of the Yarn service
+      MetricContext metricContext = yarnService.getMetricContext().get();
+      for (Map.Entry<String, Metric> metric : logCopier.get().getMetrics().entrySet()) {
+        metricContext.register(MetricRegistry.name(LogCopier.class.getSimpleName(), metric.getKey()),
+            metric.getValue());
+      }
     }
 
-    this.applicationLauncher
-        .addService(buildYarnService(config, applicationName, this.applicationId, yarnConfiguration, this.fs));
+    if (ConfigUtils.getBoolean(config, GobblinYarnConfigurationKeys.AUTOSCALING_ENABLED_KEY,
+        GobblinYarnConfigurationKeys.DEFAULT_AUTOSCALING_ENABLED)) {
+      LOGGER.info("Adding YarnAutoScalingManager since container autoscaling is enabled");
+      this.applicationLauncher.addService(new YarnAutoScalingManager(config, yarnService, getHelixManager(),
+          this.eventBus));
+    }
 
     if (UserGroupInformation.isSecurityEnabled()) {
       LOGGER.info("Adding YarnContainerSecurityManager since security is enabled");
@@ -128,6 +153,7 @@ public class GobblinApplicationMaster extends GobblinClusterManager {
      *
      *   <ul>
      *     <li>{@link HelixMessageSubTypes#TOKEN_FILE_UPDATED}</li>
+     *     <li>{@link gobblin.cluster.HelixMessageSubTypes#TASK_STATE_REPORT}</li>
      *   </ul>
      * </p>
      */
@@ -150,6 +176,10 @@ public class GobblinApplicationMaster extends GobblinClusterManager {
           return helixTaskResult;
         }
 
+        if (messageSubType.equalsIgnoreCase(gobblin.cluster.HelixMessageSubTypes.TASK_STATE_REPORT.toString())) {
+          return handleTaskStateReport(this._message);
+        }
+
         throw new IllegalArgumentException(String.format("Unknown %s message subtype: %s",
             Message.MessageType.USER_DEFINE_MSG.toString(), messageSubType));
       }
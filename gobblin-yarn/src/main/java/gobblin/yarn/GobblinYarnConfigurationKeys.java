@@ -49,6 +49,25 @@ public class GobblinYarnConfigurationKeys {
   public static final String CONTAINER_JVM_ARGS_KEY = GOBBLIN_YARN_PREFIX + "container.jvm.args";
   public static final String CONTAINER_HOST_AFFINITY_ENABLED = GOBBLIN_YARN_PREFIX + "container.affinity.enabled";
 
+  // Container autoscaling configuration properties.
+  public static final String AUTOSCALING_ENABLED_KEY = GOBBLIN_YARN_PREFIX + "autoscaling.enabled";
+  public static final boolean DEFAULT_AUTOSCALING_ENABLED = false;
+  public static final String AUTOSCALING_INTERVAL_SECONDS_KEY = GOBBLIN_YARN_PREFIX + "autoscaling.interval.seconds";
+  public static final long DEFAULT_AUTOSCALING_INTERVAL_SECONDS = 60;
+  public static final String AUTOSCALING_MIN_CONTAINERS_KEY = GOBBLIN_YARN_PREFIX + "autoscaling.min.containers";
+  public static final int DEFAULT_AUTOSCALING_MIN_CONTAINERS = 1;
+  public static final String AUTOSCALING_MAX_CONTAINERS_KEY = GOBBLIN_YARN_PREFIX + "autoscaling.max.containers";
+  public static final int DEFAULT_AUTOSCALING_MAX_CONTAINERS = 10;
+  public static final String AUTOSCALING_TASKS_PER_CONTAINER_KEY =
+      GOBBLIN_YARN_PREFIX + "autoscaling.tasks.per.container";
+  public static final int DEFAULT_AUTOSCALING_TASKS_PER_CONTAINER = 1;
+  public static final String AUTOSCALING_BACKLOG_DRAIN_TARGET_SECONDS_KEY =
+      GOBBLIN_YARN_PREFIX + "autoscaling.backlog.drain.target.seconds";
+  public static final long DEFAULT_AUTOSCALING_BACKLOG_DRAIN_TARGET_SECONDS = 600;
+  public static final String AUTOSCALING_SCALE_DOWN_DELAY_SECONDS_KEY =
+      GOBBLIN_YARN_PREFIX + "autoscaling.scale.down.delay.seconds";
+  public static final long DEFAULT_AUTOSCALING_SCALE_DOWN_DELAY_SECONDS = 300;
+
   // Helix configuration properties.
   public static final String HELIX_INSTANCE_MAX_RETRIES = GOBBLIN_YARN_PREFIX + "helix.instance.max.retries";
 
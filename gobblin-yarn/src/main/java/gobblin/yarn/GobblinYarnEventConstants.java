@@ -27,6 +27,11 @@ public class GobblinYarnEventConstants {
     public static final String CONTAINER_STATUS_CONTAINER_STATE = "containerStatus.state";
     public static final String ERROR_EXCEPTION = "errorException";
     public static final String HELIX_INSTANCE_ID = "helixInstanceId";
+    public static final String AUTOSCALING_PENDING_TASKS = "autoscaling.pendingTasks";
+    public static final String AUTOSCALING_RUNNING_TASKS = "autoscaling.runningTasks";
+    public static final String AUTOSCALING_TASK_THROUGHPUT = "autoscaling.taskThroughputPerContainer";
+    public static final String AUTOSCALING_CURRENT_CONTAINERS = "autoscaling.currentContainers";
+    public static final String AUTOSCALING_TARGET_CONTAINERS = "autoscaling.targetContainers";
   }
 
   public static class EventNames {
@@ -40,5 +45,8 @@ public class GobblinYarnEventConstants {
     public static final String ERROR = "Error";
     public static final String HELIX_INSTANCE_COMPLETION = "HelixInstanceCompletion";
     public static final String SHUTDOWN_REQUEST = "ShutdownRequest";
+    public static final String CONTAINER_SCALE_UP = "ContainerScaleUp";
+    public static final String CONTAINER_SCALE_DOWN = "ContainerScaleDown";
+    public static final String CONTAINER_RELEASE = "ContainerRelease";
   }
 }
@@ -0,0 +1,455 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.yarn;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.yarn.api.records.Container;
+import org.apache.hadoop.yarn.api.records.ContainerId;
+import org.apache.helix.HelixManager;
+import org.apache.helix.task.JobConfig;
+import org.apache.helix.task.JobContext;
+import org.apache.helix.task.TaskPartitionState;
+import org.apache.helix.task.TaskState;
+import org.apache.helix.task.TaskUtil;
+import org.apache.helix.task.WorkflowConfig;
+import org.apache.helix.task.WorkflowContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.eventbus.EventBus;
+import com.google.common.util.concurrent.AbstractScheduledService;
+import com.typesafe.config.Config;
+
+import gobblin.annotation.Alpha;
+import gobblin.metrics.event.EventSubmitter;
+import gobblin.util.ConfigUtils;
+import gobblin.yarn.event.ContainerReleaseRequest;
+import gobblin.yarn.event.ContainerRequestCancellation;
+import gobblin.yarn.event.NewContainerRequest;
+
+
+/**
+ * An {@link AbstractScheduledService} that periodically resizes the set of containers of the Gobblin Yarn application
+ * according to the backlog of Helix tasks.
+ *
+ * <p>
+ *   Each run counts the pending and running tasks of the unfinished Helix jobs, measures the number of tasks
+ *   completed per second per container since the previous run, and asks a {@link ContainerScalingPolicy} for the
+ *   number of containers needed. New containers are requested from the {@link YarnService} through
+ *   {@link NewContainerRequest}s as soon as more containers are needed, and container requests that have not been
+ *   fulfilled yet are cancelled through {@link ContainerRequestCancellation}s as soon as fewer containers are needed.
+ * </p>
+ *
+ * <p>
+ *   Allocated containers are only given up once fewer containers have been needed for
+ *   {@link GobblinYarnConfigurationKeys#AUTOSCALING_SCALE_DOWN_DELAY_SECONDS_KEY}. The Helix instances of containers
+ *   that have had no running task in two consecutive runs are then disabled to drain them, and the containers are
+ *   released through {@link ContainerReleaseRequest}s once their instances have no running task left, so running
+ *   tasks are never interrupted by a scale down. Helix still assigns tasks to disabled instances, so it is the
+ *   {@link gobblin.cluster.GobblinHelixTask}s assigned to a disabled instance that fail without running, to be
+ *   retried by Helix on another instance. The instances are enabled again once their containers have completed, as
+ *   their names are reused by later containers.
+ * </p>
+ */
+@Alpha
+public class YarnAutoScalingManager extends AbstractScheduledService {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(YarnAutoScalingManager.class);
+
+  private final YarnService yarnService;
+  private final HelixManager helixManager;
+  private final EventBus eventBus;
+  private final ContainerScalingPolicy scalingPolicy;
+  private final long intervalSeconds;
+  private final long scaleDownDelayMillis;
+
+  // Number of completed tasks of each unfinished Helix job in the previous run
+  private Map<String, Integer> lastCompletedTasks = Collections.emptyMap();
+  private long lastRunTime = -1;
+  // Helix instances that had no running task in the previous run
+  private Set<String> lastIdleInstances = Collections.emptySet();
+  // Since when fewer containers than the current ones have been needed, or -1
+  private long scaleDownNeededSince = -1;
+  // Containers whose Helix instances are disabled to be released once they have no running task, by instance name
+  private final Map<String, Container> drainingContainers = Maps.newLinkedHashMap();
+  // Released containers that have not completed yet, by the names of their disabled Helix instances
+  private final Map<String, ContainerId> releasedContainers = Maps.newHashMap();
+
+  public YarnAutoScalingManager(Config config, YarnService yarnService, HelixManager helixManager,
+      EventBus eventBus) {
+    this.yarnService = yarnService;
+    this.helixManager = helixManager;
+    this.eventBus = eventBus;
+    this.scalingPolicy = new ContainerScalingPolicy(
+        ConfigUtils.getInt(config, GobblinYarnConfigurationKeys.AUTOSCALING_MIN_CONTAINERS_KEY,
+            GobblinYarnConfigurationKeys.DEFAULT_AUTOSCALING_MIN_CONTAINERS),
+        ConfigUtils.getInt(config, GobblinYarnConfigurationKeys.AUTOSCALING_MAX_CONTAINERS_KEY,
+            GobblinYarnConfigurationKeys.DEFAULT_AUTOSCALING_MAX_CONTAINERS),
+        ConfigUtils.getInt(config, GobblinYarnConfigurationKeys.AUTOSCALING_TASKS_PER_CONTAINER_KEY,
+            GobblinYarnConfigurationKeys.DEFAULT_AUTOSCALING_TASKS_PER_CONTAINER),
+        ConfigUtils.getLong(config, GobblinYarnConfigurationKeys.AUTOSCALING_BACKLOG_DRAIN_TARGET_SECONDS_KEY,
+            GobblinYarnConfigurationKeys.DEFAULT_AUTOSCALING_BACKLOG_DRAIN_TARGET_SECONDS));
+    this.intervalSeconds = ConfigUtils.getLong(config, GobblinYarnConfigurationKeys.AUTOSCALING_INTERVAL_SECONDS_KEY,
+        GobblinYarnConfigurationKeys.DEFAULT_AUTOSCALING_INTERVAL_SECONDS);
+    this.scaleDownDelayMillis = TimeUnit.SECONDS.toMillis(
+        ConfigUtils.getLong(config, GobblinYarnConfigurationKeys.AUTOSCALING_SCALE_DOWN_DELAY_SECONDS_KEY,
+            GobblinYarnConfigurationKeys.DEFAULT_AUTOSCALING_SCALE_DOWN_DELAY_SECONDS));
+  }
+
+  @Override
+  protected void runOneIteration() throws Exception {
+    try {
+      autoScale(System.currentTimeMillis());
+    } catch (RuntimeException re) {
+      // Do not let a failed run stop future runs
+      LOGGER.error("Failed to auto scale the containers", re);
+    }
+  }
+
+  @Override
+  protected Scheduler scheduler() {
+    return Scheduler.newFixedDelaySchedule(this.intervalSeconds, this.intervalSeconds, TimeUnit.SECONDS);
+  }
+
+  @Override
+  protected void startUp() throws Exception {
+    LOGGER.info("Starting the " + YarnAutoScalingManager.class.getSimpleName());
+    super.startUp();
+  }
+
+  @Override
+  protected void shutDown() throws Exception {
+    LOGGER.info("Stopping the " + YarnAutoScalingManager.class.getSimpleName());
+    super.shutDown();
+  }
+
+  /**
+   * Request or release containers so that the number of containers matches the current Helix task backlog.
+   *
+   * @param now the current time in milliseconds
+   */
+  @VisibleForTesting
+  void autoScale(long now) {
+    TaskCounts taskCounts = getTaskCounts();
+    Map<ContainerId, Map.Entry<Container, String>> containers = this.yarnService.getContainerMap();
+    enableInstancesOfCompletedContainers(containers);
+
+    double taskThroughput = getTaskThroughputPerContainer(taskCounts, containers.size(), now);
+    int pendingContainerRequests = this.yarnService.getNumPendingContainerRequests();
+    // Released containers are no longer counted even if they have not completed yet
+    int currentContainers = containers.size() - this.releasedContainers.size() + pendingContainerRequests;
+    int targetContainers = this.scalingPolicy.getTargetContainers(taskCounts.getPendingTasks(),
+        taskCounts.getRunningTasks(), taskThroughput);
+
+    Set<String> idleInstances = Sets.newHashSet();
+    for (Map.Entry<Container, String> entry : containers.values()) {
+      if (!taskCounts.getRunningTasksByInstance().containsKey(entry.getValue())) {
+        idleInstances.add(entry.getValue());
+      }
+    }
+
+    if (targetContainers > currentContainers) {
+      this.scaleDownNeededSince = -1;
+      enableDrainingInstances();
+      scaleUp(targetContainers - currentContainers, taskCounts, taskThroughput, currentContainers, targetContainers);
+    } else if (targetContainers < currentContainers) {
+      // Container requests are cancelled right away as no task runs on them
+      int cancelledRequests = Math.min(currentContainers - targetContainers, pendingContainerRequests);
+      if (cancelledRequests > 0) {
+        cancelContainerRequests(cancelledRequests, taskCounts);
+      }
+
+      int excessContainers = currentContainers - cancelledRequests - targetContainers;
+      if (excessContainers == 0) {
+        this.scaleDownNeededSince = -1;
+        enableDrainingInstances();
+      } else {
+        if (this.scaleDownNeededSince < 0) {
+          this.scaleDownNeededSince = now;
+        }
+        if (now - this.scaleDownNeededSince >= this.scaleDownDelayMillis) {
+          scaleDown(excessContainers, containers, idleInstances, taskCounts, taskThroughput, currentContainers,
+              targetContainers);
+        }
+      }
+    } else {
+      this.scaleDownNeededSince = -1;
+      enableDrainingInstances();
+    }
+
+    this.lastIdleInstances = idleInstances;
+  }
+
+  private void scaleUp(int numContainers, TaskCounts taskCounts, double taskThroughput, int currentContainers,
+      int targetContainers) {
+    LOGGER.info(String.format("Requesting %d new containers for %d pending and %d running tasks", numContainers,
+        taskCounts.getPendingTasks(), taskCounts.getRunningTasks()));
+    for (int i = 0; i < numContainers; i++) {
+      this.eventBus.post(new NewContainerRequest(Optional.<Container>absent()));
+    }
+    submitEvent(GobblinYarnEventConstants.EventNames.CONTAINER_SCALE_UP, taskCounts, taskThroughput,
+        currentContainers, targetContainers);
+  }
+
+  private void cancelContainerRequests(int numRequests, TaskCounts taskCounts) {
+    LOGGER.info(String.format("Cancelling %d pending container requests for %d pending and %d running tasks",
+        numRequests, taskCounts.getPendingTasks(), taskCounts.getRunningTasks()));
+    this.eventBus.post(new ContainerRequestCancellation(numRequests));
+  }
+
+  private void scaleDown(int numContainers, Map<ContainerId, Map.Entry<Container, String>> containers,
+      Set<String> idleInstances, TaskCounts taskCounts, double taskThroughput, int currentContainers,
+      int targetContainers) {
+    // Containers whose disabled instances have no running task left are drained, as tasks refuse to run on them
+    List<Container> containersToRelease = Lists.newArrayList();
+    Iterator<Map.Entry<String, Container>> drainingIterator = this.drainingContainers.entrySet().iterator();
+    while (drainingIterator.hasNext() && containersToRelease.size() < numContainers) {
+      Map.Entry<String, Container> entry = drainingIterator.next();
+      if (idleInstances.contains(entry.getKey())) {
+        containersToRelease.add(entry.getValue());
+        this.releasedContainers.put(entry.getKey(), entry.getValue().getId());
+        drainingIterator.remove();
+      }
+    }
+
+    // Draining containers that are no longer to be released are kept
+    int numContainersToDrain = numContainers - containersToRelease.size() - this.drainingContainers.size();
+    drainingIterator = this.drainingContainers.entrySet().iterator();
+    while (drainingIterator.hasNext() && numContainersToDrain < 0) {
+      enableInstance(drainingIterator.next().getKey(), true);
+      drainingIterator.remove();
+      numContainersToDrain++;
+    }
+
+    // Only drain containers that have stayed idle since the previous run
+    for (Map.Entry<Container, String> entry : containers.values()) {
+      if (numContainersToDrain <= 0) {
+        break;
+      }
+      String instanceName = entry.getValue();
+      if (idleInstances.contains(instanceName) && this.lastIdleInstances.contains(instanceName)
+          && !this.drainingContainers.containsKey(instanceName) && !this.releasedContainers.containsKey(instanceName)) {
+        enableInstance(instanceName, false);
+        this.drainingContainers.put(instanceName, entry.getKey());
+        numContainersToDrain--;
+      }
+    }
+
+    if (containersToRelease.isEmpty()) {
+      LOGGER.info(String.format("Waiting for %d draining containers to become idle before releasing %d containers",
+          this.drainingContainers.size(), numContainers));
+      return;
+    }
+
+    LOGGER.info(String.format("Releasing %d drained containers for %d pending and %d running tasks",
+        containersToRelease.size(), taskCounts.getPendingTasks(), taskCounts.getRunningTasks()));
+    this.eventBus.post(new ContainerReleaseRequest(containersToRelease));
+    for (Container container : containersToRelease) {
+      submitEvent(GobblinYarnEventConstants.EventNames.CONTAINER_RELEASE,
+          ImmutableMap.of(GobblinYarnMetricTagNames.CONTAINER_ID, container.getId().toString()));
+    }
+    submitEvent(GobblinYarnEventConstants.EventNames.CONTAINER_SCALE_DOWN, taskCounts, taskThroughput,
+        currentContainers, targetContainers);
+    if (this.drainingContainers.isEmpty()) {
+      this.scaleDownNeededSince = -1;
+    }
+  }
+
+  /**
+   * Enable the Helix instances of the draining containers again, as the containers are needed again.
+   */
+  private void enableDrainingInstances() {
+    for (String instanceName : this.drainingContainers.keySet()) {
+      enableInstance(instanceName, true);
+    }
+    this.drainingContainers.clear();
+  }
+
+  /**
+   * Enable the Helix instances of the released or draining containers that have completed, so that the containers
+   * reusing their instance names get tasks.
+   */
+  private void enableInstancesOfCompletedContainers(Map<ContainerId, Map.Entry<Container, String>> containers) {
+    Iterator<Map.Entry<String, ContainerId>> releasedIterator = this.releasedContainers.entrySet().iterator();
+    while (releasedIterator.hasNext()) {
+      Map.Entry<String, ContainerId> entry = releasedIterator.next();
+      if (!containers.containsKey(entry.getValue())) {
+        enableInstance(entry.getKey(), true);
+        releasedIterator.remove();
+      }
+    }
+    Iterator<Map.Entry<String, Container>> drainingIterator = this.drainingContainers.entrySet().iterator();
+    while (drainingIterator.hasNext()) {
+      Map.Entry<String, Container> entry = drainingIterator.next();
+      if (!containers.containsKey(entry.getValue().getId())) {
+        enableInstance(entry.getKey(), true);
+        drainingIterator.remove();
+      }
+    }
+  }
+
+  private void enableInstance(String instanceName, boolean enabled) {
+    LOGGER.info(String.format("%s Helix instance %s", enabled ? "Enabling" : "Disabling", instanceName));
+    this.helixManager.getClusterManagmentTool().enableInstance(this.helixManager.getClusterName(), instanceName,
+        enabled);
+  }
+
+  /**
+   * Get the number of tasks completed per second per container since the previous run, or 0 if unknown.
+   */
+  private double getTaskThroughputPerContainer(TaskCounts taskCounts, int numContainers, long now) {
+    int newlyCompletedTasks = 0;
+    for (Map.Entry<String, Integer> entry : taskCounts.getCompletedTasksByJob().entrySet()) {
+      Integer lastCompleted = this.lastCompletedTasks.get(entry.getKey());
+      newlyCompletedTasks += entry.getValue() - (lastCompleted == null ? 0 : lastCompleted);
+    }
+
+    double taskThroughput = 0;
+    if (this.lastRunTime > 0 && now > this.lastRunTime && numContainers > 0 && newlyCompletedTasks > 0) {
+      taskThroughput = newlyCompletedTasks * 1000.0 / (now - this.lastRunTime) / numContainers;
+    }
+
+    this.lastCompletedTasks = taskCounts.getCompletedTasksByJob();
+    this.lastRunTime = now;
+    return taskThroughput;
+  }
+
+  /**
+   * Count the tasks of the unfinished Helix jobs of the cluster.
+   */
+  @VisibleForTesting
+  protected TaskCounts getTaskCounts() {
+    TaskCounts taskCounts = new TaskCounts();
+    List<String> resources =
+        this.helixManager.getClusterManagmentTool().getResourcesInCluster(this.helixManager.getClusterName());
+    for (String resource : resources) {
+      WorkflowConfig workflowConfig = TaskUtil.getWorkflowCfg(this.helixManager, resource);
+      if (workflowConfig == null) {
+        // Not a workflow or job queue
+        continue;
+      }
+
+      WorkflowContext workflowContext = TaskUtil.getWorkflowContext(this.helixManager, resource);
+      for (String job : workflowConfig.getJobDag().getAllNodes()) {
+        TaskState jobState = workflowContext == null ? null : workflowContext.getJobState(job);
+        if (jobState == TaskState.COMPLETED || jobState == TaskState.FAILED || jobState == TaskState.STOPPED) {
+          continue;
+        }
+
+        JobConfig jobConfig = TaskUtil.getJobCfg(this.helixManager, job);
+        if (jobConfig == null) {
+          continue;
+        }
+        JobContext jobContext = TaskUtil.getJobContext(this.helixManager, job);
+        int numTasks = jobConfig.getTaskConfigMap().size();
+        int startedTasks = 0;
+        int completedTasks = 0;
+        if (jobContext != null) {
+          for (int partition : jobContext.getPartitionSet()) {
+            TaskPartitionState partitionState = jobContext.getPartitionState(partition);
+            if (partitionState == null || partitionState == TaskPartitionState.INIT) {
+              continue;
+            }
+            startedTasks++;
+            if (partitionState == TaskPartitionState.RUNNING) {
+              taskCounts.addRunningTask(jobContext.getAssignedParticipant(partition));
+            } else if (partitionState == TaskPartitionState.COMPLETED) {
+              completedTasks++;
+            }
+          }
+        }
+        taskCounts.addPendingTasks(Math.max(0, numTasks - startedTasks));
+        taskCounts.setCompletedTasks(job, completedTasks);
+      }
+    }
+    return taskCounts;
+  }
+
+  private void submitEvent(String eventName, TaskCounts taskCounts, double taskThroughput, int currentContainers,
+      int targetContainers) {
+    submitEvent(eventName, ImmutableMap.<String, String>builder()
+        .put(GobblinYarnEventConstants.EventMetadata.AUTOSCALING_PENDING_TASKS,
+            Integer.toString(taskCounts.getPendingTasks()))
+        .put(GobblinYarnEventConstants.EventMetadata.AUTOSCALING_RUNNING_TASKS,
+            Integer.toString(taskCounts.getRunningTasks()))
+        .put(GobblinYarnEventConstants.EventMetadata.AUTOSCALING_TASK_THROUGHPUT, Double.toString(taskThroughput))
+        .put(GobblinYarnEventConstants.EventMetadata.AUTOSCALING_CURRENT_CONTAINERS,
+            Integer.toString(currentContainers))
+        .put(GobblinYarnEventConstants.EventMetadata.AUTOSCALING_TARGET_CONTAINERS, Integer.toString(targetContainers))
+        .build());
+  }
+
+  private void submitEvent(String eventName, Map<String, String> metadata) {
+    Optional<EventSubmitter> eventSubmitter = this.yarnService.getEventSubmitter();
+    if (eventSubmitter.isPresent()) {
+      eventSubmitter.get().submit(eventName, metadata);
+    }
+  }
+
+  /**
+   * Numbers of pending, running and completed tasks of the unfinished Helix jobs.
+   */
+  @VisibleForTesting
+  static class TaskCounts {
+
+    private int pendingTasks = 0;
+    private int runningTasks = 0;
+    private final Map<String, Integer> runningTasksByInstance = Maps.newHashMap();
+    private final Map<String, Integer> completedTasksByJob = Maps.newHashMap();
+
+    void addPendingTasks(int numTasks) {
+      this.pendingTasks += numTasks;
+    }
+
+    void addRunningTask(String instanceName) {
+      this.runningTasks++;
+      if (instanceName != null) {
+        Integer numTasks = this.runningTasksByInstance.get(instanceName);
+        this.runningTasksByInstance.put(instanceName, numTasks == null ? 1 : numTasks + 1);
+      }
+    }
+
+    void setCompletedTasks(String job, int numTasks) {
+      this.completedTasksByJob.put(job, numTasks);
+    }
+
+    int getPendingTasks() {
+      return this.pendingTasks;
+    }
+
+    int getRunningTasks() {
+      return this.runningTasks;
+    }
+
+    Map<String, Integer> getRunningTasksByInstance() {
+      return this.runningTasksByInstance;
+    }
+
+    Map<String, Integer> getCompletedTasksByJob() {
+      return this.completedTasksByJob;
+    }
+  }
+}
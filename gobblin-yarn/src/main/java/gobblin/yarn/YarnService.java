@@ -19,6 +19,8 @@ import java.util.AbstractMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
@@ -67,6 +69,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Queues;
+import com.google.common.collect.Sets;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 import com.google.common.io.Closer;
@@ -81,11 +84,14 @@ import gobblin.cluster.GobblinClusterMetricTagNames;
 import gobblin.cluster.GobblinClusterUtils;
 import gobblin.cluster.HelixUtils;
 import gobblin.metrics.GobblinMetrics;
+import gobblin.metrics.MetricContext;
 import gobblin.metrics.Tag;
 import gobblin.metrics.event.EventSubmitter;
 import gobblin.util.ConfigUtils;
 import gobblin.util.ExecutorsUtils;
 import gobblin.cluster.event.ClusterManagerShutdownRequest;
+import gobblin.yarn.event.ContainerReleaseRequest;
+import gobblin.yarn.event.ContainerRequestCancellation;
 import gobblin.yarn.event.ContainerShutdownRequest;
 import gobblin.yarn.event.NewContainerRequest;
 
@@ -151,6 +157,13 @@ public class YarnService extends AbstractIdleService {
   // instance names get picked up when replacement containers get allocated.
   private final ConcurrentLinkedQueue<String> unusedHelixInstanceNames = Queues.newConcurrentLinkedQueue();
 
+  // Container requests sent to the ResourceManager that have not been fulfilled yet, oldest first
+  private final ConcurrentLinkedDeque<AMRMClient.ContainerRequest> pendingContainerRequests =
+      new ConcurrentLinkedDeque<>();
+
+  // Containers released on purpose, which are not replaced when they complete
+  private final Set<ContainerId> releasedContainers = Sets.newConcurrentHashSet();
+
   private volatile boolean shutdownInProgress = false;
 
   public YarnService(Config config, String applicationName, String applicationId, YarnConfiguration yarnConfiguration,
@@ -223,6 +236,32 @@ public class YarnService extends AbstractIdleService {
     }
   }
 
+  @SuppressWarnings("unused")
+  @Subscribe
+  public void handleContainerReleaseRequest(ContainerReleaseRequest containerReleaseRequest) {
+    for (Container container : containerReleaseRequest.getContainers()) {
+      LOGGER.info(String.format("Releasing container %s running on %s", container.getId(), container.getNodeId()));
+      this.releasedContainers.add(container.getId());
+      this.amrmClientAsync.releaseAssignedContainer(container.getId());
+    }
+  }
+
+  @SuppressWarnings("unused")
+  @Subscribe
+  public void handleContainerRequestCancellation(ContainerRequestCancellation containerRequestCancellation) {
+    int cancelledRequests = 0;
+    while (cancelledRequests < containerRequestCancellation.getNumRequests()) {
+      // The most recent requests are the least likely to be fulfilled already
+      AMRMClient.ContainerRequest containerRequest = this.pendingContainerRequests.pollLast();
+      if (containerRequest == null) {
+        break;
+      }
+      this.amrmClientAsync.removeContainerRequest(containerRequest);
+      cancelledRequests++;
+    }
+    LOGGER.info(String.format("Cancelled %d pending container requests", cancelledRequests));
+  }
+
   @Override
   protected void startUp() throws Exception {
     LOGGER.info("Starting the YarnService");
@@ -285,6 +324,36 @@ public class YarnService extends AbstractIdleService {
     }
   }
 
+  /**
+   * Get the containers currently allocated to the application, keyed by their {@link ContainerId}s, each with the
+   * name of the Helix instance it runs.
+   */
+  Map<ContainerId, Map.Entry<Container, String>> getContainerMap() {
+    return ImmutableMap.copyOf(this.containerMap);
+  }
+
+  /**
+   * Get the number of container requests that have not been fulfilled by the ResourceManager yet.
+   */
+  int getNumPendingContainerRequests() {
+    return this.pendingContainerRequests.size();
+  }
+
+  /**
+   * Get the {@link EventSubmitter} for Yarn events if metrics are enabled.
+   */
+  Optional<EventSubmitter> getEventSubmitter() {
+    return this.eventSubmitter;
+  }
+
+  /**
+   * Get the {@link MetricContext} of the Yarn service if metrics are enabled.
+   */
+  Optional<MetricContext> getMetricContext() {
+    return this.gobblinMetrics.isPresent()
+        ? Optional.of(this.gobblinMetrics.get().getMetricContext()) : Optional.<MetricContext>absent();
+  }
+
   private GobblinMetrics buildGobblinMetrics() {
     // Create tags list
     ImmutableList.Builder<Tag<?>> tags = new ImmutableList.Builder<>();
@@ -323,8 +392,10 @@ public class YarnService extends AbstractIdleService {
         this.requestedContainerCores : maxCoreCapacity);
 
     String[] preferredNodes = preferredNode.isPresent() ? new String[] {preferredNode.get()} : null;
-    this.amrmClientAsync.addContainerRequest(
-        new AMRMClient.ContainerRequest(capability, preferredNodes, null, priority));
+    AMRMClient.ContainerRequest containerRequest =
+        new AMRMClient.ContainerRequest(capability, preferredNodes, null, priority);
+    this.amrmClientAsync.addContainerRequest(containerRequest);
+    this.pendingContainerRequests.add(containerRequest);
   }
 
   private ContainerLaunchContext newContainerLaunchContext(Container container, String helixInstanceName)
@@ -448,10 +519,15 @@ public class YarnService extends AbstractIdleService {
    * container and caused the container to exit, 2) the container gets killed due to some reason,
    * for example, if it runs over the allowed amount of virtual or physical memory, 3) the gets
    * preempted by the ResourceManager, or 4) the container gets stopped by the ApplicationMaster.
-   * A replacement container is needed in all but the last case.
+   * A replacement container is needed in all but the last case. A container released through a
+   * {@link ContainerReleaseRequest} is not replaced either.
    */
   private void handleContainerCompletion(ContainerStatus containerStatus) {
     Map.Entry<Container, String> completedContainerEntry = this.containerMap.remove(containerStatus.getContainerId());
+    if (completedContainerEntry == null) {
+      LOGGER.warn("Received completion of unknown container " + containerStatus.getContainerId());
+      return;
+    }
     String completedInstanceName = completedContainerEntry.getValue();
 
     LOGGER.info(String.format("Container %s running Helix instance %s has completed with exit status %d",
@@ -466,6 +542,12 @@ public class YarnService extends AbstractIdleService {
       return;
     }
 
+    if (this.releasedContainers.remove(containerStatus.getContainerId())) {
+      // The Helix instance name can be reused by a container allocated later
+      this.unusedHelixInstanceNames.offer(completedInstanceName);
+      return;
+    }
+
     int retryCount =
         this.helixInstanceRetryCount.putIfAbsent(completedInstanceName, new AtomicInteger(0)).incrementAndGet();
 
@@ -543,6 +625,11 @@ public class YarnService extends AbstractIdleService {
         }
 
         LOGGER.info(String.format("Container %s has been allocated", container.getId()));
+        // The fulfilled request is removed so that it is neither asked for again nor cancelled later
+        AMRMClient.ContainerRequest containerRequest = pendingContainerRequests.poll();
+        if (containerRequest != null) {
+          amrmClientAsync.removeContainerRequest(containerRequest);
+        }
 
         String instanceName = unusedHelixInstanceNames.poll();
         if (Strings.isNullOrEmpty(instanceName)) {
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.yarn.event;
+
+
+/**
+ * A type of events for requests to cancel container requests that have not been fulfilled by the ResourceManager
+ * yet, to be used with a {@link com.google.common.eventbus.EventBus}.
+ */
+public class ContainerRequestCancellation {
+
+  private final int numRequests;
+
+  public ContainerRequestCancellation(int numRequests) {
+    this.numRequests = numRequests;
+  }
+
+  /**
+   * Get the number of pending container requests to be cancelled.
+   *
+   * @return the number of pending container requests to be cancelled
+   */
+  public int getNumRequests() {
+    return this.numRequests;
+  }
+}
@@ -0,0 +1,388 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.yarn;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.yarn.api.records.Container;
+import org.apache.hadoop.yarn.api.records.ContainerId;
+import org.apache.helix.ConfigAccessor;
+import org.apache.helix.HelixAdmin;
+import org.apache.helix.HelixDataAccessor;
+import org.apache.helix.HelixManager;
+import org.apache.helix.HelixProperty;
+import org.apache.helix.PropertyKey;
+import org.apache.helix.ZNRecord;
+import org.apache.helix.model.HelixConfigScope;
+import org.apache.helix.store.zk.ZkHelixPropertyStore;
+import org.apache.helix.task.JobConfig;
+import org.apache.helix.task.JobContext;
+import org.apache.helix.task.JobDag;
+import org.apache.helix.task.TaskConfig;
+import org.apache.helix.task.TaskPartitionState;
+import org.apache.helix.task.TaskState;
+import org.apache.helix.task.WorkflowConfig;
+import org.apache.helix.task.WorkflowContext;
+import org.apache.zookeeper.data.Stat;
+
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import gobblin.metrics.event.EventSubmitter;
+import gobblin.yarn.event.ContainerReleaseRequest;
+import gobblin.yarn.event.ContainerRequestCancellation;
+import gobblin.yarn.event.NewContainerRequest;
+
+
+/**
+ * Unit tests for {@link YarnAutoScalingManager} and {@link ContainerScalingPolicy}.
+ */
+@Test(groups = { "gobblin.yarn" })
+public class YarnAutoScalingManagerTest {
+
+  private static final long SCALE_DOWN_DELAY_MILLIS = 60000;
+  private static final String CLUSTER_NAME = "cluster";
+
+  private YarnService yarnService;
+  private HelixManager helixManager;
+  private HelixAdmin helixAdmin;
+  private Map<ContainerId, Map.Entry<Container, String>> containerMap;
+  private EventBus eventBus;
+  private List<NewContainerRequest> newContainerRequests;
+  private List<ContainerReleaseRequest> containerReleaseRequests;
+  private List<ContainerRequestCancellation> containerRequestCancellations;
+  private YarnAutoScalingManager.TaskCounts taskCounts;
+  private YarnAutoScalingManager autoScalingManager;
+
+  @BeforeMethod
+  public void setUp() {
+    this.containerMap = Maps.newHashMap();
+    this.yarnService = Mockito.mock(YarnService.class);
+    Mockito.when(this.yarnService.getContainerMap()).thenReturn(this.containerMap);
+    Mockito.when(this.yarnService.getEventSubmitter()).thenReturn(Optional.<EventSubmitter>absent());
+
+    this.newContainerRequests = Lists.newArrayList();
+    this.containerReleaseRequests = Lists.newArrayList();
+    this.containerRequestCancellations = Lists.newArrayList();
+    this.eventBus = new EventBus();
+    this.eventBus.register(new Object() {
+      @Subscribe
+      public void handleNewContainerRequest(NewContainerRequest newContainerRequest) {
+        newContainerRequests.add(newContainerRequest);
+      }
+
+      @Subscribe
+      public void handleContainerReleaseRequest(ContainerReleaseRequest containerReleaseRequest) {
+        containerReleaseRequests.add(containerReleaseRequest);
+      }
+
+      @Subscribe
+      public void handleContainerRequestCancellation(ContainerRequestCancellation containerRequestCancellation) {
+        containerRequestCancellations.add(containerRequestCancellation);
+      }
+    });
+
+    this.helixAdmin = Mockito.mock(HelixAdmin.class);
+    this.helixManager = Mockito.mock(HelixManager.class);
+    Mockito.when(this.helixManager.getClusterName()).thenReturn(CLUSTER_NAME);
+    Mockito.when(this.helixManager.getClusterManagmentTool()).thenReturn(this.helixAdmin);
+
+    Config config = ConfigFactory.parseMap(ImmutableMap.of(
+        GobblinYarnConfigurationKeys.AUTOSCALING_MIN_CONTAINERS_KEY, 1,
+        GobblinYarnConfigurationKeys.AUTOSCALING_MAX_CONTAINERS_KEY, 4,
+        GobblinYarnConfigurationKeys.AUTOSCALING_TASKS_PER_CONTAINER_KEY, 2,
+        GobblinYarnConfigurationKeys.AUTOSCALING_SCALE_DOWN_DELAY_SECONDS_KEY, SCALE_DOWN_DELAY_MILLIS / 1000));
+    this.taskCounts = new YarnAutoScalingManager.TaskCounts();
+    this.autoScalingManager =
+        new YarnAutoScalingManager(config, this.yarnService, this.helixManager, this.eventBus) {
+          @Override
+          protected TaskCounts getTaskCounts() {
+            return YarnAutoScalingManagerTest.this.taskCounts;
+          }
+        };
+  }
+
+  @Test
+  public void testScalingPolicy() {
+    ContainerScalingPolicy scalingPolicy = new ContainerScalingPolicy(1, 10, 2, 600);
+    // Never less than the minimum
+    Assert.assertEquals(scalingPolicy.getTargetContainers(0, 0, 0), 1);
+    // One slot per running or pending task
+    Assert.assertEquals(scalingPolicy.getTargetContainers(3, 4, 0), 4);
+    // Never more than the maximum
+    Assert.assertEquals(scalingPolicy.getTargetContainers(100, 4, 0), 10);
+    // 0.01 tasks per second per container drain 6 tasks in 600 seconds
+    Assert.assertEquals(scalingPolicy.getTargetContainers(30, 4, 0.01), 7);
+    // Throughput never asks for more containers than there are pending tasks
+    Assert.assertEquals(scalingPolicy.getTargetContainers(3, 4, 0.0001), 4);
+  }
+
+  @Test
+  public void testScaleUp() {
+    addContainer(1, "instance_1");
+    for (int i = 0; i < 4; i++) {
+      this.taskCounts.addRunningTask("instance_1");
+    }
+    this.taskCounts.addPendingTasks(3);
+
+    this.autoScalingManager.autoScale(0);
+    // 2 containers for the running tasks and 2 for the pending tasks
+    Assert.assertEquals(this.newContainerRequests.size(), 3);
+
+    // Outstanding container requests are not requested again
+    Mockito.when(this.yarnService.getNumPendingContainerRequests()).thenReturn(3);
+    this.autoScalingManager.autoScale(1000);
+    Assert.assertEquals(this.newContainerRequests.size(), 3);
+    Assert.assertTrue(this.containerReleaseRequests.isEmpty());
+  }
+
+  @Test
+  public void testScaleDownReleasesIdleContainersAfterDelay() {
+    Container busyContainer = addContainer(1, "instance_1");
+    Container idleContainer1 = addContainer(2, "instance_2");
+    Container idleContainer2 = addContainer(3, "instance_3");
+    this.taskCounts.addRunningTask("instance_1");
+
+    this.autoScalingManager.autoScale(0);
+    this.autoScalingManager.autoScale(SCALE_DOWN_DELAY_MILLIS / 2);
+    // Fewer containers are needed, but not for long enough yet
+    Assert.assertTrue(this.containerReleaseRequests.isEmpty());
+
+    // The idle containers are drained before they are released
+    this.autoScalingManager.autoScale(SCALE_DOWN_DELAY_MILLIS);
+    Assert.assertTrue(this.containerReleaseRequests.isEmpty());
+    Mockito.verify(this.helixAdmin).enableInstance(CLUSTER_NAME, "instance_2", false);
+    Mockito.verify(this.helixAdmin).enableInstance(CLUSTER_NAME, "instance_3", false);
+    Mockito.verify(this.helixAdmin, Mockito.never()).enableInstance(CLUSTER_NAME, "instance_1", false);
+
+    this.autoScalingManager.autoScale(SCALE_DOWN_DELAY_MILLIS + 1000);
+    Assert.assertEquals(this.containerReleaseRequests.size(), 1);
+    Assert.assertEquals(this.containerReleaseRequests.get(0).getContainers().size(), 2);
+    Assert.assertTrue(this.containerReleaseRequests.get(0).getContainers().contains(idleContainer1));
+    Assert.assertTrue(this.containerReleaseRequests.get(0).getContainers().contains(idleContainer2));
+    Assert.assertFalse(this.containerReleaseRequests.get(0).getContainers().contains(busyContainer));
+    Assert.assertTrue(this.newContainerRequests.isEmpty());
+
+    // Released containers are not released again until they complete
+    this.autoScalingManager.autoScale(SCALE_DOWN_DELAY_MILLIS + 2000);
+    Assert.assertEquals(this.containerReleaseRequests.size(), 1);
+    Mockito.verify(this.helixAdmin, Mockito.never()).enableInstance(CLUSTER_NAME, "instance_2", true);
+
+    // The instance names are enabled again for later containers once the released containers have completed
+    this.containerMap.remove(idleContainer1.getId());
+    this.containerMap.remove(idleContainer2.getId());
+    this.autoScalingManager.autoScale(SCALE_DOWN_DELAY_MILLIS + 3000);
+    Mockito.verify(this.helixAdmin).enableInstance(CLUSTER_NAME, "instance_2", true);
+    Mockito.verify(this.helixAdmin).enableInstance(CLUSTER_NAME, "instance_3", true);
+    Assert.assertEquals(this.containerReleaseRequests.size(), 1);
+  }
+
+  @Test
+  public void testScaleDownWaitsForDrainingContainers() {
+    addContainer(1, "instance_1");
+    Container drainingContainer = addContainer(2, "instance_2");
+    this.taskCounts.addRunningTask("instance_1");
+    this.autoScalingManager.autoScale(0);
+    this.autoScalingManager.autoScale(SCALE_DOWN_DELAY_MILLIS);
+    Mockito.verify(this.helixAdmin).enableInstance(CLUSTER_NAME, "instance_2", false);
+
+    // A task was still running on the instance when it was disabled
+    this.taskCounts = new YarnAutoScalingManager.TaskCounts();
+    this.taskCounts.addRunningTask("instance_1");
+    this.taskCounts.addRunningTask("instance_2");
+    this.autoScalingManager.autoScale(SCALE_DOWN_DELAY_MILLIS + 1000);
+    Assert.assertTrue(this.containerReleaseRequests.isEmpty());
+
+    this.taskCounts = new YarnAutoScalingManager.TaskCounts();
+    this.taskCounts.addRunningTask("instance_1");
+    this.autoScalingManager.autoScale(SCALE_DOWN_DELAY_MILLIS + 2000);
+    Assert.assertEquals(this.containerReleaseRequests.size(), 1);
+    Assert.assertSame(this.containerReleaseRequests.get(0).getContainers().iterator().next(), drainingContainer);
+  }
+
+  @Test
+  public void testScaleUpEnablesDrainingInstances() {
+    addContainer(1, "instance_1");
+    addContainer(2, "instance_2");
+    this.taskCounts.addRunningTask("instance_1");
+    this.autoScalingManager.autoScale(0);
+    this.autoScalingManager.autoScale(SCALE_DOWN_DELAY_MILLIS);
+    Mockito.verify(this.helixAdmin).enableInstance(CLUSTER_NAME, "instance_2", false);
+
+    // Both containers are needed again before the draining container is released
+    this.taskCounts.addPendingTasks(2);
+    this.autoScalingManager.autoScale(SCALE_DOWN_DELAY_MILLIS + 1000);
+    Mockito.verify(this.helixAdmin).enableInstance(CLUSTER_NAME, "instance_2", true);
+    Assert.assertTrue(this.containerReleaseRequests.isEmpty());
+    Assert.assertTrue(this.newContainerRequests.isEmpty());
+  }
+
+  @Test
+  public void testScaleDownCancelsPendingContainerRequests() {
+    addContainer(1, "instance_1");
+    this.taskCounts.addRunningTask("instance_1");
+    Mockito.when(this.yarnService.getNumPendingContainerRequests()).thenReturn(2);
+
+    // Pending container requests are cancelled without waiting for the scale down delay
+    this.autoScalingManager.autoScale(0);
+    Assert.assertEquals(this.containerRequestCancellations.size(), 1);
+    Assert.assertEquals(this.containerRequestCancellations.get(0).getNumRequests(), 2);
+    Assert.assertTrue(this.containerReleaseRequests.isEmpty());
+    Mockito.verify(this.helixAdmin, Mockito.never())
+        .enableInstance(Mockito.anyString(), Mockito.anyString(), Mockito.anyBoolean());
+  }
+
+  @Test
+  public void testScaleDownWaitsForIdleContainers() {
+    Container container1 = addContainer(1, "instance_1");
+    addContainer(2, "instance_2");
+    this.taskCounts.addRunningTask("instance_1");
+    this.autoScalingManager.autoScale(0);
+
+    // The busy container became idle and the idle container became busy since the previous run
+    this.taskCounts = new YarnAutoScalingManager.TaskCounts();
+    this.taskCounts.addRunningTask("instance_2");
+    this.autoScalingManager.autoScale(SCALE_DOWN_DELAY_MILLIS);
+    Assert.assertTrue(this.containerReleaseRequests.isEmpty());
+
+    Mockito.verify(this.helixAdmin, Mockito.never())
+        .enableInstance(Mockito.anyString(), Mockito.anyString(), Mockito.anyBoolean());
+
+    this.taskCounts = new YarnAutoScalingManager.TaskCounts();
+    this.autoScalingManager.autoScale(SCALE_DOWN_DELAY_MILLIS + 1000);
+    Mockito.verify(this.helixAdmin).enableInstance(CLUSTER_NAME, "instance_1", false);
+    this.autoScalingManager.autoScale(SCALE_DOWN_DELAY_MILLIS + 2000);
+    Assert.assertEquals(this.containerReleaseRequests.size(), 1);
+    Assert.assertEquals(this.containerReleaseRequests.get(0).getContainers().size(), 1);
+    Assert.assertSame(this.containerReleaseRequests.get(0).getContainers().iterator().next(), container1);
+  }
+
+  @Test
+  public void testGetTaskCounts() throws Exception {
+    final Map<String, ZNRecord> resourceConfigs = Maps.newHashMap();
+    final Map<String, ZNRecord> contexts = Maps.newHashMap();
+    HelixDataAccessor dataAccessor = Mockito.mock(HelixDataAccessor.class);
+    Mockito.when(dataAccessor.keyBuilder()).thenReturn(new PropertyKey.Builder(CLUSTER_NAME));
+    Mockito.when(dataAccessor.getProperty(Mockito.any(PropertyKey.class))).thenAnswer(new Answer<HelixProperty>() {
+      @Override
+      public HelixProperty answer(InvocationOnMock invocation) throws Throwable {
+        String path = ((PropertyKey) invocation.getArguments()[0]).getPath();
+        ZNRecord record = resourceConfigs.get(path.substring(path.lastIndexOf('/') + 1));
+        return record == null ? null : new HelixProperty(record);
+      }
+    });
+    ConfigAccessor configAccessor = Mockito.mock(ConfigAccessor.class);
+    Mockito.when(configAccessor.getKeys(Mockito.any(HelixConfigScope.class))).thenAnswer(new Answer<List<String>>() {
+      @Override
+      public List<String> answer(InvocationOnMock invocation) throws Throwable {
+        String path = ((HelixConfigScope) invocation.getArguments()[0]).getZkPath();
+        String resource = path.substring(path.lastIndexOf('/') + 1);
+        return resourceConfigs.containsKey(resource) ? Lists.newArrayList(resourceConfigs.get(resource)
+            .getSimpleFields().keySet()) : Lists.<String>newArrayList();
+      }
+    });
+    @SuppressWarnings("unchecked")
+    ZkHelixPropertyStore<ZNRecord> propertyStore = Mockito.mock(ZkHelixPropertyStore.class);
+    Mockito.when(propertyStore.get(Mockito.anyString(), Mockito.any(Stat.class), Mockito.anyInt()))
+        .thenAnswer(new Answer<ZNRecord>() {
+          @Override
+          public ZNRecord answer(InvocationOnMock invocation) throws Throwable {
+            // Contexts are stored at /TaskRebalancer/<resource>/Context
+            String[] pathElements = ((String) invocation.getArguments()[0]).split("/");
+            return contexts.get(pathElements[2]);
+          }
+        });
+    Mockito.when(this.helixManager.getHelixDataAccessor()).thenReturn(dataAccessor);
+    Mockito.when(this.helixManager.getConfigAccessor()).thenReturn(configAccessor);
+    Mockito.when(this.helixManager.getHelixPropertyStore()).thenReturn(propertyStore);
+    Mockito.when(this.helixAdmin.getResourcesInCluster(CLUSTER_NAME))
+        .thenReturn(Arrays.asList("workflow", "workflow_job1", "workflow_job2", "workflow_job3", "otherResource"));
+
+    JobDag jobDag = new JobDag();
+    jobDag.addNode("workflow_job1");
+    jobDag.addNode("workflow_job2");
+    jobDag.addNode("workflow_job3");
+    resourceConfigs.put("workflow", newRecord("workflow",
+        new WorkflowConfig.Builder().setJobDag(jobDag).build().getResourceConfigMap()));
+    resourceConfigs.put("workflow_job1", newJobConfigRecord("workflow_job1", 4));
+    resourceConfigs.put("workflow_job2", newJobConfigRecord("workflow_job2", 2));
+    resourceConfigs.put("workflow_job3", newJobConfigRecord("workflow_job3", 2));
+
+    WorkflowContext workflowContext = new WorkflowContext(new ZNRecord("workflow"));
+    workflowContext.setJobState("workflow_job1", TaskState.IN_PROGRESS);
+    workflowContext.setJobState("workflow_job2", TaskState.COMPLETED);
+    contexts.put("workflow", workflowContext.getRecord());
+
+    JobContext jobContext = new JobContext(new ZNRecord("workflow_job1"));
+    jobContext.setPartitionState(0, TaskPartitionState.RUNNING);
+    jobContext.setAssignedParticipant(0, "instance_1");
+    jobContext.setPartitionState(1, TaskPartitionState.COMPLETED);
+    jobContext.setAssignedParticipant(1, "instance_2");
+    jobContext.setPartitionState(2, TaskPartitionState.INIT);
+    contexts.put("workflow_job1", jobContext.getRecord());
+
+    YarnAutoScalingManager.TaskCounts taskCounts = new YarnAutoScalingManager(ConfigFactory.empty(), this.yarnService,
+        this.helixManager, this.eventBus).getTaskCounts();
+    // 2 tasks of job1 have not started, and job3 has not started at all, while job2 has completed
+    Assert.assertEquals(taskCounts.getPendingTasks(), 4);
+    Assert.assertEquals(taskCounts.getRunningTasks(), 1);
+    Assert.assertEquals(taskCounts.getRunningTasksByInstance(), ImmutableMap.of("instance_1", 1));
+    Assert.assertEquals(taskCounts.getCompletedTasksByJob(), ImmutableMap.of("workflow_job1", 1, "workflow_job3", 0));
+  }
+
+  private static ZNRecord newJobConfigRecord(String job, int numTasks) {
+    List<TaskConfig> taskConfigs = Lists.newArrayList();
+    for (int i = 0; i < numTasks; i++) {
+      taskConfigs.add(new TaskConfig("command", Maps.<String, String>newHashMap(), false));
+    }
+    JobConfig jobConfig =
+        new JobConfig.Builder().setWorkflow("workflow").setCommand("command").addTaskConfigs(taskConfigs).build();
+    ZNRecord record = newRecord(job, jobConfig.getResourceConfigMap());
+    for (Map.Entry<String, TaskConfig> entry : jobConfig.getTaskConfigMap().entrySet()) {
+      record.setMapField(entry.getKey(), entry.getValue().getConfigMap());
+    }
+    return record;
+  }
+
+  private static ZNRecord newRecord(String id, Map<String, String> simpleFields) {
+    ZNRecord record = new ZNRecord(id);
+    record.setSimpleFields(simpleFields);
+    return record;
+  }
+
+  private Container addContainer(int id, String instanceName) {
+    ContainerId containerId = Mockito.mock(ContainerId.class);
+    Mockito.when(containerId.toString()).thenReturn("container_" + id);
+    Container container = Mockito.mock(Container.class);
+    Mockito.when(container.getId()).thenReturn(containerId);
+    this.containerMap.put(containerId, new AbstractMap.SimpleImmutableEntry<>(container, instanceName));
+    return container;
+  }
+}